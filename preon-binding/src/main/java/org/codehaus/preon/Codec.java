@@ -37,6 +37,7 @@ import org.codehaus.preon.buffer.BitBuffer;
 import org.codehaus.preon.channel.BitChannel;
 
 import java.io.IOException;
+import java.util.function.Predicate;
 
 /**
  * The interface to be implemented by objects that are able to decode/encode objects.
@@ -61,6 +62,28 @@ public interface Codec<T> {
     T decode(BitBuffer buffer, Resolver resolver, Builder builder)
             throws DecodingException;
 
+    /**
+     * Decodes a value from the {@link BitBuffer}, reusing the <code>target</code> passed in where possible. {@link
+     * Codec Codecs} supporting this will overwrite the state of the target (and of the objects it refers to) instead of
+     * constructing new instances, which allows callers decoding a stream of fixed-shape records to decode all of them
+     * into the same object. Callers should always continue with the value returned, which is either the target passed
+     * in, or a new object if the target could not be reused.
+     * <p/>
+     * <p> The default implementation ignores the target and simply calls {@link #decode(BitBuffer, Resolver,
+     * Builder)}. </p>
+     *
+     * @param target   The value to reuse, or <code>null</code> if there is nothing to reuse.
+     * @param buffer   The {@link BitBuffer} containing the data from which a value will be decoded.
+     * @param resolver The object capable of resolving variable references, when required.
+     * @param builder  The object responsible for creating default instances of objects, when needed.
+     * @return The decoded value; either <code>target</code>, or a new object.
+     * @throws DecodingException If the {@link Codec} fails to decode the value.
+     */
+    default T decodeInto(T target, BitBuffer buffer, Resolver resolver, Builder builder)
+            throws DecodingException {
+        return decode(buffer, resolver, builder);
+    }
+
     /**
      * Encodes the object to the {@link org.codehaus.preon.channel.BitChannel}.
      *
@@ -84,6 +107,93 @@ public interface Codec<T> {
      */
     Expression<Integer, Resolver> getSize();
 
+    /**
+     * Determines the number of bits occupied by the value starting at the current position of the {@link BitBuffer},
+     * without fully decoding it. {@link Codec Codecs} for which the size depends on the data itself may decode as much
+     * as they need to determine the size, but the position of the buffer will be restored before this method returns.
+     * <p/>
+     * <p> The default implementation only knows the answer if {@link #getSize()} is not parameterized. </p>
+     *
+     * @param buffer   The {@link BitBuffer} containing the data.
+     * @param resolver The object capable of resolving variable references, when required.
+     * @param builder  The object responsible for creating default instances of objects, when needed.
+     * @return The number of bits occupied by the value, or <code>-1</code> if it cannot be determined any cheaper than
+     *         by decoding the value.
+     * @throws DecodingException If the {@link Codec} fails to decode the data required to determine the size.
+     */
+    default long probeSize(BitBuffer buffer, Resolver resolver, Builder builder)
+            throws DecodingException {
+        Expression<Integer, Resolver> size = getSize();
+        if (size != null && !size.isParameterized()) {
+            return size.eval(resolver);
+        } else {
+            return -1;
+        }
+    }
+
+    /**
+     * Returns a {@link Codec} decoding only the parts of the value selected by the paths passed in, such as
+     * <code>"header.timestamp"</code>, and skipping over the data of all other parts where possible. (See {@link
+     * org.codehaus.preon.codec.ObjectCodec#project(String...)}.) Encoding is not affected.
+     * <p/>
+     * <p> The default implementation returns this {@link Codec}, decoding values entirely. </p>
+     *
+     * @param paths The paths of the fields to decode.
+     * @return A {@link Codec} decoding at least the fields selected.
+     */
+    default Codec<T> project(String... paths) {
+        return this;
+    }
+
+    /**
+     * Returns a {@link Codec} decoding only the values meeting the condition passed in, and returning
+     * <code>null</code> for all other values, skipping over their data where possible. (See {@link
+     * org.codehaus.preon.codec.ObjectCodec#filter(String)}.) Encoding is not affected.
+     * <p/>
+     * <p> The default implementation throws a {@link CodecConstructionException}, since conditions can only refer to
+     * the fields of objects. </p>
+     *
+     * @param condition The condition, as a boolean expression on the fields of the value.
+     * @return A {@link Codec} decoding only the values meeting the condition.
+     */
+    default Codec<T> filter(String condition) {
+        throw new CodecConstructionException("Cannot filter values of type " + getType().getSimpleName()
+                + " on " + condition);
+    }
+
+    /**
+     * Returns a {@link Codec} decoding only the values for which the predicate holds, and returning <code>null</code>
+     * for all other values. The predicate is tested as soon as the fields passed in have been decoded. (See {@link
+     * org.codehaus.preon.codec.ObjectCodec#filter(Predicate, String...)}.) Encoding is not affected.
+     * <p/>
+     * <p> The default implementation throws a {@link CodecConstructionException}, since fields can only be decoded
+     * separately for objects. Use {@link Codecs#filter(Codec, Predicate)} to test a predicate on values decoded
+     * entirely. </p>
+     *
+     * @param predicate The predicate, to be tested on (partially) decoded values.
+     * @param fields    The names of the fields that need to be decoded before testing the predicate.
+     * @return A {@link Codec} decoding only the values for which the predicate holds.
+     */
+    default Codec<T> filter(Predicate<? super T> predicate, String... fields) {
+        throw new CodecConstructionException("Cannot filter values of type " + getType().getSimpleName()
+                + " on a predicate");
+    }
+
+    /**
+     * Returns a view on the data of a value, decoding its fields on demand, every time they are read. The view
+     * implements the type passed in, and {@link Flyweight}, which is used to point the view to the data of a value.
+     * (See {@link org.codehaus.preon.codec.ObjectCodec#view(Class)}.)
+     * <p/>
+     * <p> The default implementation throws a {@link CodecConstructionException}, since views can only be created on
+     * the fields of objects. </p>
+     *
+     * @param type The type of view.
+     * @return A new view, not pointing to any data yet.
+     */
+    default <V> V view(Class<V> type) {
+        throw new CodecConstructionException("Cannot create views of " + getType().getSimpleName());
+    }
+
     /**
      * Returns an object that is capable of rendering a description of the data structure encoded/decoded by this
      * Codec.
@@ -0,0 +1,302 @@
+/**
+ * Copyright (C) 2009-2010 Wilfred Springer
+ *
+ * This file is part of Preon.
+ *
+ * Preon is free software; you can redistribute it and/or modify it under the
+ * terms of the GNU General Public License as published by the Free Software
+ * Foundation; either version 2, or (at your option) any later version.
+ *
+ * Preon is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR
+ * A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * Preon; see the file COPYING. If not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Linking this library statically or dynamically with other modules is making a
+ * combined work based on this library. Thus, the terms and conditions of the
+ * GNU General Public License cover the whole combination.
+ *
+ * As a special exception, the copyright holders of this library give you
+ * permission to link this library with independent modules to produce an
+ * executable, regardless of the license terms of these independent modules, and
+ * to copy and distribute the resulting executable under terms of your choice,
+ * provided that you also meet, for each linked independent module, the terms
+ * and conditions of the license of that module. An independent module is a
+ * module which is not derived from or based on this library. If you modify this
+ * library, you may extend this exception to your version of the library, but
+ * you are not obligated to do so. If you do not wish to do so, delete this
+ * exception statement from your version.
+ */
+package org.codehaus.preon;
+
+import org.codehaus.preon.codec.GeneratedCodec;
+import org.codehaus.preon.util.AnnotationUtils;
+
+import java.lang.reflect.AnnotatedElement;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A process-wide registry of {@link Codec Codecs}, constructed by a {@link DefaultCodecFactory}, and indexed by type
+ * and metadata. Every {@link Codec} is constructed only once, even if multiple threads ask for the same {@link Codec}
+ * at the same time: the first thread constructs it, all other threads block until it is available.
+ * <p/>
+ * <p> Note that every top-level {@link Codec} is still constructed with a dedicated {@link
+ * org.codehaus.preon.codec.CachingCodecFactory}, so types referring to themselves (directly or indirectly) are resolved
+ * in exactly the same way as before. </p>
+ * <p/>
+ * <p> If the Preon annotation processor generated a {@link Codec} for a type at build time, then that {@link Codec}
+ * will be used instead of constructing one by reflection. (See {@link GeneratedCodec}.) </p>
+ * <p/>
+ * <p> The {@link Codec Codecs} held by the registry are shared, so they should only be obtained from here if they are
+ * created without additional {@link CodecFactory CodecFactories} or {@link CodecDecorator CodecDecorators}. </p>
+ *
+ * @author Wilfred Springer
+ */
+public class CodecRegistry {
+
+    /** The registry used by {@link Codecs#create(Class)}. */
+    private static final CodecRegistry DEFAULT = new CodecRegistry(new DefaultCodecFactory());
+
+    /** The factory creating the {@link Codec Codecs} not registered before. */
+    private final DefaultCodecFactory factory;
+
+    /**
+     * The {@link Codec Codecs}, or rather the tasks constructing them. The {@link FutureTask} makes sure that all
+     * threads asking for a {@link Codec} under construction will wait for it to arrive.
+     */
+    private final ConcurrentMap<Key, FutureTask<Codec<?>>> codecs = new ConcurrentHashMap<Key, FutureTask<Codec<?>>>();
+
+    private final AtomicLong hits = new AtomicLong();
+
+    private final AtomicLong misses = new AtomicLong();
+
+    private final AtomicLong constructionTime = new AtomicLong();
+
+    /**
+     * Constructs a new registry, accepting the factory that will construct the {@link Codec Codecs}.
+     *
+     * @param factory The factory constructing the {@link Codec Codecs}.
+     */
+    public CodecRegistry(DefaultCodecFactory factory) {
+        if (factory == null) {
+            throw new IllegalArgumentException("Null not allowed for factory.");
+        }
+        this.factory = factory;
+    }
+
+    /**
+     * Returns the process-wide registry.
+     */
+    public static CodecRegistry getDefault() {
+        return DEFAULT;
+    }
+
+    /**
+     * Returns the {@link Codec} for the given type, constructing it if it has not been constructed before.
+     *
+     * @param type The type of object decoded/encoded by the {@link Codec}.
+     * @return The {@link Codec} for the type passed in.
+     * @throws CodecConstructionException If the {@link Codec} cannot be constructed.
+     */
+    public <T> Codec<T> get(Class<T> type) {
+        return get(null, type);
+    }
+
+    /**
+     * Returns the {@link Codec} for the given type and metadata, constructing it if it has not been constructed
+     * before. If construction fails, nothing will be registered, and the next call will try again.
+     *
+     * @param metadata The annotations determining how the type is encoded, or <code>null</code>.
+     * @param type     The type of object decoded/encoded by the {@link Codec}.
+     * @return The {@link Codec} for the type passed in.
+     * @throws CodecConstructionException If the {@link Codec} cannot be constructed.
+     */
+    @SuppressWarnings("unchecked")
+    public <T> Codec<T> get(final AnnotatedElement metadata, final Class<T> type) {
+        Key key = new Key(metadata, type);
+        FutureTask<Codec<?>> task = codecs.get(key);
+        if (task == null) {
+            FutureTask<Codec<?>> created = new FutureTask<Codec<?>>(new Callable<Codec<?>>() {
+
+                public Codec<?> call() throws Exception {
+                    return construct(metadata, type);
+                }
+
+            });
+            task = codecs.putIfAbsent(key, created);
+            if (task == null) {
+                task = created;
+                misses.incrementAndGet();
+                task.run();
+            } else {
+                hits.incrementAndGet();
+            }
+        } else {
+            hits.incrementAndGet();
+        }
+        try {
+            return (Codec<T>) task.get();
+        } catch (ExecutionException ee) {
+            codecs.remove(key, task);
+            Throwable cause = ee.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            } else if (cause instanceof Error) {
+                throw (Error) cause;
+            } else {
+                throw new IllegalStateException("Failed to construct Codec for " + type.getName(), cause);
+            }
+        } catch (InterruptedException ie) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for Codec for " + type.getName(), ie);
+        }
+    }
+
+    private <T> Codec<T> construct(AnnotatedElement metadata, Class<T> type) {
+        long start = System.nanoTime();
+        try {
+            if (metadata == null) {
+                Codec<T> generated = GeneratedCodec.find(type);
+                if (generated != null) {
+                    return generated;
+                }
+            }
+            return factory.create(metadata, type, null);
+        } finally {
+            constructionTime.addAndGet(System.nanoTime() - start);
+        }
+    }
+
+    /**
+     * Constructs the {@link Codec Codecs} for all types passed in, and calculates their size, so that the first
+     * message decoded does not pay for it. The size of a {@link GeneratedCodec} is not calculated, since that would
+     * construct the {@link Codec} it tries to avoid.
+     *
+     * @param types The types for which {@link Codec Codecs} need to be available.
+     * @throws CodecConstructionException If any of the {@link Codec Codecs} cannot be constructed.
+     */
+    public void warmUp(Class<?>... types) {
+        for (Class<?> type : types) {
+            Codec<?> codec = get(type);
+            if (!(codec instanceof GeneratedCodec)) {
+                codec.getSize();
+            }
+        }
+    }
+
+    /**
+     * Returns a snapshot of the statistics of this registry.
+     */
+    public Statistics getStatistics() {
+        return new Statistics(codecs.size(), hits.get(), misses.get(), constructionTime.get());
+    }
+
+    /**
+     * Removes all {@link Codec Codecs} from the registry, and resets the statistics.
+     */
+    public void clear() {
+        codecs.clear();
+        hits.set(0);
+        misses.set(0);
+        constructionTime.set(0);
+    }
+
+    /**
+     * The statistics of a {@link CodecRegistry}, at the time {@link CodecRegistry#getStatistics()} was called.
+     */
+    public static class Statistics {
+
+        private final int size;
+
+        private final long hits;
+
+        private final long misses;
+
+        private final long constructionTime;
+
+        private Statistics(int size, long hits, long misses, long constructionTime) {
+            this.size = size;
+            this.hits = hits;
+            this.misses = misses;
+            this.constructionTime = constructionTime;
+        }
+
+        /**
+         * Returns the number of {@link Codec Codecs} registered.
+         */
+        public int getSize() {
+            return size;
+        }
+
+        /**
+         * Returns the number of requests served by a {@link Codec} constructed before (or under construction).
+         */
+        public long getHits() {
+            return hits;
+        }
+
+        /**
+         * Returns the number of requests that required a {@link Codec} to be constructed.
+         */
+        public long getMisses() {
+            return misses;
+        }
+
+        /**
+         * Returns the total time spent constructing {@link Codec Codecs}, in nanoseconds.
+         */
+        public long getConstructionTime() {
+            return constructionTime;
+        }
+
+        public String toString() {
+            return "Codecs: " + size + ", hits: " + hits + ", misses: " + misses
+                    + ", construction time: " + (constructionTime / 1000000) + " ms";
+        }
+
+    }
+
+    private static class Key {
+
+        private final AnnotatedElement metadata;
+
+        private final Class<?> type;
+
+        private final int hashCode;
+
+        public Key(AnnotatedElement metadata, Class<?> type) {
+            this.metadata = metadata;
+            this.type = type;
+            this.hashCode = 31 * (metadata == null ? 0 : AnnotationUtils.calculateHashCode(metadata))
+                    + type.hashCode();
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (!(obj instanceof Key)) {
+                return false;
+            } else {
+                Key key = (Key) obj;
+                return type.equals(key.type)
+                        && ((metadata == null && key.metadata == null)
+                        || (metadata != null && key.metadata != null
+                        && AnnotationUtils.equivalent(metadata, key.metadata)));
+            }
+        }
+
+        @Override
+        public int hashCode() {
+            return hashCode;
+        }
+
+    }
+
+}
@@ -60,8 +60,32 @@ public interface CodecSelector {
     Codec<?> select(BitBuffer buffer, Resolver resolver)
             throws DecodingException;
 
+    /**
+     * Selects the {@link Codec} to be used for encoding an instance of the given type, and writes the bits that will
+     * make the same {@link Codec} get selected again while decoding.
+     *
+     * @param type     The type of object to encode.
+     * @param channel  The channel to receive the bits.
+     * @param resolver The resolver for resolving references.
+     * @return The {@link Codec} that needs to be used.
+     */
     <T> Codec<?> select(Class<T> type, BitChannel channel, Resolver resolver) throws IOException;
 
+    /**
+     * Returns the choice made for encoding instances of the given type, if that choice depends on nothing but the
+     * type. Callers may hold on to the {@link Selection} returned, and use it for all instances of the same type,
+     * instead of calling {@link #select(Class, BitChannel, Resolver)} for every instance.
+     * <p/>
+     * <p> The default implementation returns <code>null</code>, indicating that {@link #select(Class, BitChannel,
+     * Resolver)} needs to be consulted for every instance. </p>
+     *
+     * @param type The type of object to encode.
+     * @return The choice made for the type, or <code>null</code> if the choice cannot be reused.
+     */
+    default Selection select(Class<?> type) {
+        return null;
+    }
+
     /**
      * Returns the collection of all choices this selector will have to choose from.
      *
@@ -79,4 +103,24 @@ public interface CodecSelector {
     /** Returns an expression representing the number of bits inhabited by the actual selecting bit. */
     Expression<Integer, Resolver> getSize();
 
+    /**
+     * The choice made by a {@link CodecSelector} for encoding instances of a certain type.
+     */
+    interface Selection {
+
+        /**
+         * Returns the {@link Codec} to be used.
+         */
+        Codec<?> getCodec();
+
+        /**
+         * Writes the bits that will make the same {@link Codec} get selected again while decoding.
+         *
+         * @param channel  The channel to receive the bits.
+         * @param resolver The resolver for resolving references.
+         */
+        void write(BitChannel channel, Resolver resolver) throws IOException;
+
+    }
+
 }
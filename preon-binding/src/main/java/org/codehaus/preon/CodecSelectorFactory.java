@@ -35,7 +35,10 @@ package org.codehaus.preon;
 import java.util.List;
 
 /**
- * A factory for creating {@link CodecSelector CodecSelectors}.
+ * A factory for creating {@link CodecSelector CodecSelectors}. Note that {@link CodecSelector CodecSelectors} are
+ * expected to be created once per {@link Codec}, and to be used for all values it encodes; selectors whose choice for
+ * encoding depends on the type of value only should implement {@link CodecSelector#select(Class)}, allowing that
+ * choice to be cached per type.
  *
  * @author Wilfred Springer
  */
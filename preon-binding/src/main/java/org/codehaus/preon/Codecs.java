@@ -39,8 +39,16 @@ import java.io.FileNotFoundException;
 import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.OutputStream;
+import java.io.UncheckedIOException;
 import java.nio.ByteBuffer;
 import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.util.Iterator;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.Predicate;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 import javax.xml.stream.XMLStreamException;
 
@@ -55,6 +63,7 @@ import org.codehaus.preon.buffer.BitBuffer;
 import org.codehaus.preon.buffer.DefaultBitBuffer;
 import org.codehaus.preon.channel.BitChannel;
 import org.codehaus.preon.channel.OutputStreamBitChannel;
+import org.codehaus.preon.codec.FilteringCodec;
 
 import org.apache.commons.io.IOUtils;
 
@@ -208,6 +217,107 @@ public class Codecs {
         return codec.decode(buffer, resolver, builder);
     }
 
+    /**
+     * Decodes an object from the buffer passed in, reusing the target passed in where possible. (See {@link
+     * Codec#decodeInto(Object, BitBuffer, Resolver, Builder)}.)
+     *
+     * @param <T>    The of object to be decoded.
+     * @param codec  The {@link Codec} that will take care of the actual work.
+     * @param target The object to decode into, or <code>null</code>.
+     * @param buffer An array of bytes holding the encoded data.
+     * @return The decoded object; either the target passed in, or a new object if the target could not be reused.
+     * @throws DecodingException If the {@link Codec} fails to decode a value from the buffer passed in.
+     */
+    public static <T> T decodeInto(Codec<T> codec, T target, byte... buffer)
+            throws DecodingException {
+        return decodeInto(codec, target, ByteBuffer.wrap(buffer));
+    }
+
+    public static <T> T decodeInto(Codec<T> codec, T target, ByteBuffer buffer)
+            throws DecodingException {
+        return decodeInto(codec, target, new DefaultBitBuffer(buffer), null, null);
+    }
+
+    public static <T> T decodeInto(Codec<T> codec, T target, BitBuffer buffer, Builder builder, Resolver resolver)
+            throws DecodingException {
+        if (builder == null) {
+            builder = DEFAULT_BUILDER;
+        }
+        return codec.decodeInto(target, buffer, resolver, builder);
+    }
+
+    /**
+     * Returns a {@link Codec} decoding values entirely using the {@link Codec} passed in, and returning
+     * <code>null</code> for all values for which the predicate does not hold. (See {@link FilteringCodec}.) Unlike
+     * {@link Codec#filter(Predicate, String...)}, this works for any {@link Codec}, but never skips any data.
+     *
+     * @param <T>       The type of object to be decoded.
+     * @param codec     The {@link Codec} that will take care of the actual work.
+     * @param predicate The predicate, to be tested on decoded values.
+     * @return A {@link Codec} decoding only the values for which the predicate holds.
+     */
+    public static <T> Codec<T> filter(Codec<T> codec, Predicate<? super T> predicate) {
+        return new FilteringCodec<T>(codec, predicate);
+    }
+
+    /**
+     * Returns an {@link Iterator} decoding records from the buffer passed in, one at a time, until reaching the end of
+     * the buffer.
+     *
+     * @param <T>    The type of records to be decoded.
+     * @param codec  The {@link Codec} decoding a single record.
+     * @param buffer The {@link BitBuffer} holding the records, starting at its current position.
+     * @return An {@link Iterator} decoding records while iterating.
+     * @see RecordIterator
+     */
+    public static <T> RecordIterator<T> iterate(Codec<T> codec, BitBuffer buffer) {
+        return new RecordIterator<T>(codec, buffer, DEFAULT_BUILDER, null);
+    }
+
+    /**
+     * Returns an {@link Iterator} decoding records from the channel passed in, one at a time, until reaching the end
+     * of the channel. Only the data required for decoding the next record is kept in memory, so this allows you to
+     * process inputs of arbitrary size. Closing the {@link RecordIterator} closes the channel.
+     *
+     * @param <T>     The type of records to be decoded.
+     * @param codec   The {@link Codec} decoding a single record.
+     * @param channel The channel providing the records.
+     * @return An {@link Iterator} decoding records while iterating.
+     * @see RecordIterator
+     */
+    public static <T> RecordIterator<T> iterate(Codec<T> codec, ReadableByteChannel channel) {
+        return new RecordIterator<T>(codec, channel, RecordIterator.DEFAULT_WINDOW_SIZE, DEFAULT_BUILDER, null);
+    }
+
+    /**
+     * Returns a sequential {@link Stream} of the records decoded from the buffer passed in. (See {@link
+     * #iterate(Codec, BitBuffer)}.)
+     */
+    public static <T> Stream<T> stream(Codec<T> codec, BitBuffer buffer) {
+        return stream(iterate(codec, buffer));
+    }
+
+    /**
+     * Returns a sequential {@link Stream} of the records decoded from the channel passed in. Closing the stream closes
+     * the channel. (See {@link #iterate(Codec, ReadableByteChannel)}.)
+     */
+    public static <T> Stream<T> stream(Codec<T> codec, ReadableByteChannel channel) {
+        return stream(iterate(codec, channel));
+    }
+
+    private static <T> Stream<T> stream(final RecordIterator<T> iterator) {
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(iterator, Spliterator.ORDERED), false)
+                .onClose(new Runnable() {
+                    public void run() {
+                        try {
+                            iterator.close();
+                        } catch (IOException ioe) {
+                            throw new UncheckedIOException(ioe);
+                        }
+                    }
+                });
+    }
+
     /**
      * Decodes an object from the buffer passed in.
      *
@@ -269,14 +379,15 @@ public class Codecs {
     }
 
     /**
-     * Creates a {@link Codec} for the given type.
+     * Creates a {@link Codec} for the given type. The {@link Codec} is obtained from the {@link
+     * CodecRegistry#getDefault() default CodecRegistry}, so it is constructed only once, and shared by all callers.
      *
      * @param <T>  The of object constructed using the {@link Codec}.
      * @param type The type of object constructed using the {@link Codec}.
      * @return A {@link Codec} capable of decoding/encoding instances of the type passed in.
      */
     public static <T> Codec<T> create(Class<T> type) {
-        return new DefaultCodecFactory().create(type);
+        return CodecRegistry.getDefault().get(type);
     }
 
     /**
@@ -75,6 +75,10 @@ public class DecodingException extends CodecException {
         super(message);
     }
 
+    public DecodingException(String message, Throwable cause) {
+        super(message, cause);
+    }
+
     public DecodingException(Class<?> type, InstantiationException ie) {
         super("Failed to create instance of " + type.getSimpleName(), ie);
     }
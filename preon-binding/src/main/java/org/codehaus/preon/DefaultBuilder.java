@@ -32,9 +32,11 @@
  */
 package org.codehaus.preon;
 
+import org.codehaus.preon.reflect.Instantiator;
+
 /**
- * The default implementation of the {@link Builder} interface, simply invoking {@link Class#newInstance()} on the class
- * passed in.
+ * The default implementation of the {@link Builder} interface, simply invoking the default constructor of the class
+ * passed in. The constructor is resolved only once per class; see {@link Instantiator}.
  *
  * @author Wilfred Springer
  */
@@ -47,7 +49,7 @@ public class DefaultBuilder implements Builder {
      */
 
     public <T> T create(Class<T> type) throws InstantiationException, IllegalAccessException {
-        return type.newInstance();
+        return Instantiator.forType(type).newInstance();
     }
 
 }
@@ -44,6 +44,7 @@ import java.lang.reflect.AnnotatedElement;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
+import java.util.function.Predicate;
 
 /**
  * The default {@link CodecFactory} implementation, constructing {@link Codecs} based on all {@link CodecFactory
@@ -160,6 +161,11 @@ public class DefaultCodecFactory implements CodecFactory {
             return delegate.decode(buffer, resolver, builder);
         }
 
+        public T decodeInto(T target, BitBuffer buffer, Resolver resolver, Builder builder)
+                throws DecodingException {
+            return delegate.decodeInto(target, buffer, resolver, builder);
+        }
+
         public void encode(T value, BitChannel channel, Resolver resolver) throws IOException {
             delegate.encode(value, channel, resolver);
         }
@@ -172,6 +178,27 @@ public class DefaultCodecFactory implements CodecFactory {
             return delegate.getSize();
         }
 
+        public long probeSize(BitBuffer buffer, Resolver resolver, Builder builder)
+                throws DecodingException {
+            return delegate.probeSize(buffer, resolver, builder);
+        }
+
+        public Codec<T> project(String... paths) {
+            return new DefaultCodec<T>(delegate.project(paths), created);
+        }
+
+        public Codec<T> filter(String condition) {
+            return new DefaultCodec<T>(delegate.filter(condition), created);
+        }
+
+        public Codec<T> filter(Predicate<? super T> predicate, String... fields) {
+            return new DefaultCodec<T>(delegate.filter(predicate, fields), created);
+        }
+
+        public <V> V view(Class<V> type) {
+            return delegate.view(type);
+        }
+
         public Class<?> getType() {
             return delegate.getType();
         }
@@ -183,11 +210,14 @@ public class DefaultCodecFactory implements CodecFactory {
                         final String bufferReference) {
                     return new Documenter<C>() {
                         public void document(C target) {
-                            created.remove(delegate);
                             target.document(delegate.getCodecDescriptor()
                                     .details(bufferReference));
                             for (Codec<?> codec : created) {
                                 assert codec != null;
+                                if (codec == delegate) {
+                                    // Already documented above.
+                                    continue;
+                                }
                                 CodecDescriptor descriptor = codec
                                         .getCodecDescriptor();
                                 assert descriptor != null;
@@ -0,0 +1,83 @@
+/**
+ * Copyright (C) 2009-2010 Wilfred Springer
+ *
+ * This file is part of Preon.
+ *
+ * Preon is free software; you can redistribute it and/or modify it under the
+ * terms of the GNU General Public License as published by the Free Software
+ * Foundation; either version 2, or (at your option) any later version.
+ *
+ * Preon is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR
+ * A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * Preon; see the file COPYING. If not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Linking this library statically or dynamically with other modules is making a
+ * combined work based on this library. Thus, the terms and conditions of the
+ * GNU General Public License cover the whole combination.
+ *
+ * As a special exception, the copyright holders of this library give you
+ * permission to link this library with independent modules to produce an
+ * executable, regardless of the license terms of these independent modules, and
+ * to copy and distribute the resulting executable under terms of your choice,
+ * provided that you also meet, for each linked independent module, the terms
+ * and conditions of the license of that module. An independent module is a
+ * module which is not derived from or based on this library. If you modify this
+ * library, you may extend this exception to your version of the library, but
+ * you are not obligated to do so. If you do not wish to do so, delete this
+ * exception statement from your version.
+ */
+package org.codehaus.preon;
+
+import org.codehaus.preon.buffer.BitBuffer;
+
+/**
+ * The interface implemented by all views created by {@link Codec#view(Class)}. A view does not hold any decoded data;
+ * it only points to the data of a record in a {@link BitBuffer}, and decodes the value of a field every time its
+ * getter is invoked. Pointing it to another record does not create any objects, so a single view may be used to visit
+ * all records of a table or stream.
+ * <p/>
+ * <p> Note that reading values through a view moves the position of the {@link BitBuffer}. Views are not thread-safe.
+ * Getters that fail to decode a value throw a {@link LazyDecodingException}. </p>
+ *
+ * @author Wilfred Springer
+ */
+public interface Flyweight {
+
+    /**
+     * Points this view to the record starting at the given position.
+     *
+     * @param buffer The {@link BitBuffer} holding the data.
+     * @param bitPos The position of the first bit of the record.
+     */
+    void wrap(BitBuffer buffer, long bitPos);
+
+    /**
+     * Points this view to the record immediately following the current record.
+     *
+     * @throws DecodingException If the size of the current record cannot be determined.
+     */
+    void next() throws DecodingException;
+
+    /**
+     * Returns the {@link BitBuffer} holding the data, or <code>null</code> if this view has not been pointed to a
+     * record yet.
+     */
+    BitBuffer getBuffer();
+
+    /**
+     * Returns the position of the first bit of the current record.
+     */
+    long getBitPos();
+
+    /**
+     * Returns the number of bits occupied by the current record.
+     *
+     * @throws DecodingException If the size of the current record cannot be determined.
+     */
+    long getBitSize() throws DecodingException;
+
+}
@@ -0,0 +1,245 @@
+/**
+ * Copyright (C) 2009-2010 Wilfred Springer
+ *
+ * This file is part of Preon.
+ *
+ * Preon is free software; you can redistribute it and/or modify it under the
+ * terms of the GNU General Public License as published by the Free Software
+ * Foundation; either version 2, or (at your option) any later version.
+ *
+ * Preon is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR
+ * A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * Preon; see the file COPYING. If not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Linking this library statically or dynamically with other modules is making a
+ * combined work based on this library. Thus, the terms and conditions of the
+ * GNU General Public License cover the whole combination.
+ *
+ * As a special exception, the copyright holders of this library give you
+ * permission to link this library with independent modules to produce an
+ * executable, regardless of the license terms of these independent modules, and
+ * to copy and distribute the resulting executable under terms of your choice,
+ * provided that you also meet, for each linked independent module, the terms
+ * and conditions of the license of that module. An independent module is a
+ * module which is not derived from or based on this library. If you modify this
+ * library, you may extend this exception to your version of the library, but
+ * you are not obligated to do so. If you do not wish to do so, delete this
+ * exception statement from your version.
+ */
+package org.codehaus.preon;
+
+import org.codehaus.preon.buffer.BitBuffer;
+import org.codehaus.preon.buffer.BitBufferUnderflowException;
+import org.codehaus.preon.buffer.DefaultBitBuffer;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ReadableByteChannel;
+
+/**
+ * A push-style decoder, accepting data in chunks of arbitrary size, and decoding messages as soon as they are complete.
+ * Typical usage from a selector loop:
+ * <p/>
+ * <pre>
+ * decoder.readFrom(channel);
+ * Message message;
+ * while ((message = decoder.poll()) != null) {
+ *     ...
+ * }
+ * </pre>
+ * <p/>
+ * <p> Incomplete messages are not decoded over and over again. Instead, the size of the message is determined once,
+ * using {@link Codec#probeSize(BitBuffer, Resolver, Builder)}, which only decodes the fields the size depends on (if
+ * any), and the message is decoded only once all of its data has arrived. Only if the size cannot be determined
+ * upfront (for instance, if the message ends with a null-terminated string), decoding is attempted every time new data
+ * arrives, and (since every attempt decodes all data of the message received so far) the cost of decoding a message
+ * of <em>n</em> bytes received in <em>k</em> chunks is proportional to <em>n</em> &times; <em>k</em>. For such
+ * messages, data should rather be fed in large chunks, such as the ones read by {@link
+ * #readFrom(ReadableByteChannel)}. Polling again without feeding new data does not attempt decoding again. </p>
+ * <p/>
+ * <p> The decoder only buffers data that has not been decoded yet. Data is never moved once received, so messages
+ * decoding parts of their data lazily remain valid. Since {@link #readFrom(ReadableByteChannel)} never reads beyond the
+ * end of the current message if its size is known, callers can apply backpressure simply by not reading from the
+ * channel before having processed the messages decoded so far. </p>
+ * <p/>
+ * <p> Instances of this class are not thread-safe. </p>
+ *
+ * @author Wilfred Springer
+ * @param <T> The type of messages.
+ */
+public class IncrementalDecoder<T> {
+
+    /** The number of bytes to read from a channel if the size of the message is not known. */
+    private static final int DEFAULT_READ_SIZE = 4096;
+
+    /** The value of {@link #size} if the size of the current message has not been determined yet. */
+    private static final long NOT_PROBED = -2;
+
+    /** The value of {@link #size} if the size of the current message cannot be determined upfront. */
+    private static final long UNKNOWN = -1;
+
+    private final Codec<T> codec;
+
+    private final Builder builder;
+
+    private final Resolver resolver;
+
+    /** The data received; only the bytes before {@link #limit} are valid. */
+    private byte[] data = new byte[0];
+
+    /** The number of valid bytes in {@link #data}. */
+    private int limit;
+
+    /** The position of the current message in {@link #data}, in bits. */
+    private long position;
+
+    /** The size of the current message in bits, {@link #NOT_PROBED} or {@link #UNKNOWN}. */
+    private long size = NOT_PROBED;
+
+    /** The total number of bytes received so far. */
+    private long received;
+
+    /**
+     * The value of {@link #received} when decoding the current message (of {@link #UNKNOWN} size) failed for lack of
+     * data, or <code>-1</code>.
+     */
+    private long attempted = -1;
+
+    public IncrementalDecoder(Codec<T> codec) {
+        this(codec, new DefaultBuilder(), null);
+    }
+
+    public IncrementalDecoder(Codec<T> codec, Builder builder, Resolver resolver) {
+        this.codec = codec;
+        this.builder = builder;
+        this.resolver = resolver;
+    }
+
+    /**
+     * Accepts the data remaining in the buffer passed in.
+     */
+    public void feed(ByteBuffer chunk) {
+        int length = chunk.remaining();
+        ensureCapacity(length);
+        chunk.get(data, limit, length);
+        limit += length;
+        received += length;
+    }
+
+    /**
+     * Accepts the bytes passed in.
+     */
+    public void feed(byte... chunk) {
+        feed(ByteBuffer.wrap(chunk));
+    }
+
+    /**
+     * Reads the data still missing for the current message from the channel passed in, or a reasonable amount of data
+     * if that is not known.
+     *
+     * @return The number of bytes read, or <code>-1</code> if the channel has reached end-of-stream.
+     * @throws IOException If the channel fails to provide the data.
+     */
+    public int readFrom(ReadableByteChannel channel) throws IOException {
+        int needed = getBytesNeeded();
+        int length = needed > 0 ? needed : DEFAULT_READ_SIZE;
+        ensureCapacity(length);
+        int read = channel.read(ByteBuffer.wrap(data, limit, length));
+        if (read > 0) {
+            limit += read;
+            received += read;
+        }
+        return read;
+    }
+
+    /**
+     * Returns the next message, if all of its data has been received.
+     *
+     * @return The next message, or <code>null</code> if more data is required.
+     * @throws DecodingException If the data received cannot be decoded.
+     */
+    public T poll() throws DecodingException {
+        long available = ((long) limit << 3) - position;
+        if (available <= 0) {
+            return null;
+        }
+        BitBuffer buffer = new DefaultBitBuffer(ByteBuffer.wrap(data, 0, limit).slice());
+        if (size == NOT_PROBED) {
+            buffer.setBitPos(position);
+            try {
+                long probed = codec.probeSize(buffer, resolver, builder);
+                size = probed > 0 ? probed : UNKNOWN;
+            } catch (BitBufferUnderflowException bbue) {
+                // Not enough data to tell
+                return null;
+            }
+        }
+        if (size != UNKNOWN && available < size) {
+            return null;
+        }
+        if (size == UNKNOWN && attempted == received) {
+            // Nothing changed since the last attempt
+            return null;
+        }
+        buffer.setBitPos(position);
+        T result;
+        try {
+            result = codec.decode(buffer, resolver, builder);
+        } catch (BitBufferUnderflowException bbue) {
+            if (size == UNKNOWN) {
+                attempted = received;
+                return null;
+            } else {
+                throw new DecodingException("Message exceeds its expected size of " + size + " bits.");
+            }
+        }
+        position = buffer.getBitPos();
+        size = NOT_PROBED;
+        attempted = -1;
+        return result;
+    }
+
+    /**
+     * Returns the number of bytes still missing for the current message, if known.
+     *
+     * @return The number of bytes still missing, or <code>0</code> if nothing is known to be missing.
+     */
+    public int getBytesNeeded() {
+        if (size < 0) {
+            return 0;
+        } else {
+            long missing = position + size - ((long) limit << 3);
+            return missing > 0 ? (int) ((missing + 7) >>> 3) : 0;
+        }
+    }
+
+    /**
+     * Returns the number of bytes received, but not decoded yet.
+     */
+    public int getBytesBuffered() {
+        return limit - (int) (position >>> 3);
+    }
+
+    /**
+     * Makes room for receiving the given number of bytes, moving data that has not been decoded yet into a fresh
+     * array if needed. The data already received is never moved in place, since it may be referenced by messages
+     * decoded lazily. The fresh array is at least twice as large as the data moved, so that receiving a large message
+     * in small chunks takes time proportional to its size.
+     */
+    private void ensureCapacity(int length) {
+        if (limit + length > data.length) {
+            int consumed = (int) (position >>> 3);
+            int remaining = limit - consumed;
+            byte[] fresh = new byte[Math.max(remaining + length, Math.max(2 * remaining, DEFAULT_READ_SIZE))];
+            System.arraycopy(data, consumed, fresh, 0, remaining);
+            data = fresh;
+            limit = remaining;
+            position -= (long) consumed << 3;
+        }
+    }
+
+}
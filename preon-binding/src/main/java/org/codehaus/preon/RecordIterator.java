@@ -0,0 +1,265 @@
+/**
+ * Copyright (C) 2009-2010 Wilfred Springer
+ *
+ * This file is part of Preon.
+ *
+ * Preon is free software; you can redistribute it and/or modify it under the
+ * terms of the GNU General Public License as published by the Free Software
+ * Foundation; either version 2, or (at your option) any later version.
+ *
+ * Preon is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR
+ * A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * Preon; see the file COPYING. If not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Linking this library statically or dynamically with other modules is making a
+ * combined work based on this library. Thus, the terms and conditions of the
+ * GNU General Public License cover the whole combination.
+ *
+ * As a special exception, the copyright holders of this library give you
+ * permission to link this library with independent modules to produce an
+ * executable, regardless of the license terms of these independent modules, and
+ * to copy and distribute the resulting executable under terms of your choice,
+ * provided that you also meet, for each linked independent module, the terms
+ * and conditions of the license of that module. An independent module is a
+ * module which is not derived from or based on this library. If you modify this
+ * library, you may extend this exception to your version of the library, but
+ * you are not obligated to do so. If you do not wish to do so, delete this
+ * exception statement from your version.
+ */
+package org.codehaus.preon;
+
+import org.codehaus.preon.buffer.BitBuffer;
+import org.codehaus.preon.buffer.BitBufferUnderflowException;
+import org.codehaus.preon.buffer.DefaultBitBuffer;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ReadableByteChannel;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * An {@link Iterator} decoding a sequence of records, one at a time, while iterating. Records are decoded either from
+ * a {@link BitBuffer}, until reaching its end, or from a {@link ReadableByteChannel}, until reaching the end of the
+ * channel.
+ * <p/>
+ * <p> When reading from a channel, records are decoded from a window holding the data following the last record
+ * decoded. If a record does not fit into the window (decoding it runs into a {@link BitBufferUnderflowException}, or
+ * past the end of the window), the remaining data is moved into a fresh window (twice as large, if needed, but never
+ * larger than the maximum window size), which is filled up with data read from the channel, and the record is decoded
+ * again. Previous windows are never modified, so records decoded earlier remain valid, even if they decode parts of
+ * their data lazily; and windows are released as soon as the records referring to them are. </p>
+ * <p/>
+ * <p> A record that fails to decode ends the iteration with a {@link RuntimeException} wrapping the {@link
+ * DecodingException}, as does a record that does not fit into a window of the maximum size. If the input ends half-way
+ * the record, the incomplete record is silently ignored. </p>
+ * <p/>
+ * <p> Records decoded as <code>null</code>, such as the records rejected by a {@link Codec#filter(String) filtering
+ * codec}, are left out. </p>
+ *
+ * @author Wilfred Springer
+ * @param <T> The type of records.
+ * @see Codecs#iterate(Codec, ReadableByteChannel)
+ * @see Codecs#stream(Codec, ReadableByteChannel)
+ */
+public class RecordIterator<T> implements Iterator<T>, Closeable {
+
+    /** The default size of the window, in bytes. */
+    public static final int DEFAULT_WINDOW_SIZE = 64 * 1024;
+
+    /** The default maximum size of the window, in bytes. */
+    public static final int DEFAULT_MAX_WINDOW_SIZE = 16 * 1024 * 1024;
+
+    private final Codec<T> codec;
+
+    private final Builder builder;
+
+    private final Resolver resolver;
+
+    /** The channel to read from, or <code>null</code> if decoding from a {@link BitBuffer} only. */
+    private final ReadableByteChannel channel;
+
+    /** The minimal size of the window, in bytes. */
+    private final int windowSize;
+
+    /** The maximal size of the window, in bytes. */
+    private final int maxWindowSize;
+
+    /** The data that has been read, but not fully decoded yet. */
+    private BitBuffer buffer;
+
+    /** The bytes backing the {@link #buffer}, if reading from a channel. */
+    private ByteBuffer window;
+
+    /** Whether the end of the input has been reached. */
+    private boolean exhausted;
+
+    /** Whether {@link #next} holds the record to be returned by {@link #next()}. */
+    private boolean ready;
+
+    private T next;
+
+    /**
+     * Constructs a new instance, decoding records from the {@link BitBuffer} passed in, starting at its current
+     * position.
+     */
+    public RecordIterator(Codec<T> codec, BitBuffer buffer, Builder builder, Resolver resolver) {
+        this.codec = codec;
+        this.buffer = buffer;
+        this.builder = builder;
+        this.resolver = resolver;
+        this.channel = null;
+        this.windowSize = 0;
+        this.maxWindowSize = 0;
+        this.exhausted = true;
+    }
+
+    /**
+     * Constructs a new instance, decoding records from the {@link ReadableByteChannel} passed in, using windows of at
+     * most {@link #DEFAULT_MAX_WINDOW_SIZE} bytes.
+     *
+     * @param windowSize The minimal number of bytes read ahead from the channel.
+     */
+    public RecordIterator(Codec<T> codec, ReadableByteChannel channel, int windowSize, Builder builder,
+                          Resolver resolver) {
+        this(codec, channel, windowSize, Math.max(windowSize, DEFAULT_MAX_WINDOW_SIZE), builder, resolver);
+    }
+
+    /**
+     * Constructs a new instance, decoding records from the {@link ReadableByteChannel} passed in.
+     *
+     * @param windowSize    The minimal number of bytes read ahead from the channel.
+     * @param maxWindowSize The maximal number of bytes read ahead from the channel, limiting the size of records.
+     */
+    public RecordIterator(Codec<T> codec, ReadableByteChannel channel, int windowSize, int maxWindowSize,
+                          Builder builder, Resolver resolver) {
+        assert windowSize <= maxWindowSize;
+        this.codec = codec;
+        this.channel = channel;
+        this.windowSize = windowSize;
+        this.maxWindowSize = maxWindowSize;
+        this.builder = builder;
+        this.resolver = resolver;
+        this.window = ByteBuffer.allocate(0);
+        this.buffer = new DefaultBitBuffer(window);
+    }
+
+    public boolean hasNext() {
+        if (!ready) {
+            try {
+                ready = fetch();
+            } catch (DecodingException de) {
+                // There is really no way to be prepared for this.
+                throw new RuntimeException(de);
+            } catch (IOException ioe) {
+                throw new RuntimeException(ioe);
+            }
+        }
+        return ready;
+    }
+
+    public T next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        T result = next;
+        next = null;
+        ready = false;
+        return result;
+    }
+
+    public void remove() {
+        throw new UnsupportedOperationException();
+    }
+
+    /**
+     * Closes the underlying channel, if any.
+     */
+    public void close() throws IOException {
+        if (channel != null) {
+            channel.close();
+        }
+    }
+
+    /**
+     * Decodes the next record into {@link #next}, reading more data if needed.
+     *
+     * @return <code>false</code> if there are no more records.
+     */
+    private boolean fetch() throws DecodingException, IOException {
+        while (true) {
+            long start = buffer.getBitPos();
+            long end = buffer.getBitBufBitSize();
+            if (start >= end && exhausted) {
+                return false;
+            }
+            if (start < end) {
+                try {
+                    T value = codec.decode(buffer, resolver, builder);
+                    long position = buffer.getBitPos();
+                    // Records ending exactly at the end of the window might continue in data not read yet
+                    if (position < end || (position == end && exhausted)) {
+                        if (value == null) {
+                            // Rejected by a filtering codec
+                            continue;
+                        }
+                        next = value;
+                        return true;
+                    }
+                } catch (BitBufferUnderflowException bbue) {
+                    if (exhausted) {
+                        // Incomplete record at the end of the input
+                        buffer.setBitPos(end);
+                        return false;
+                    }
+                }
+                buffer.setBitPos(start);
+            }
+            if (exhausted) {
+                // Position beyond the end of the input
+                return false;
+            }
+            refill();
+        }
+    }
+
+    /**
+     * Moves the data not decoded yet into a fresh window, and reads as much data from the channel as fits.
+     *
+     * @throws DecodingException If the data not decoded yet already fills a window of the maximum size.
+     */
+    private void refill() throws DecodingException, IOException {
+        long position = buffer.getBitPos();
+        int consumed = (int) (position >>> 3);
+        int remaining = window.capacity() - consumed;
+        if (remaining >= maxWindowSize) {
+            throw new DecodingException("Record exceeds the maximum window size of " + maxWindowSize + " bytes.");
+        }
+        ByteBuffer fresh = ByteBuffer.allocate((int) Math.min(maxWindowSize,
+                Math.max(windowSize, remaining * 2L)));
+        if (remaining > 0) {
+            ByteBuffer data = window.duplicate();
+            data.position(consumed);
+            fresh.put(data);
+        }
+        while (fresh.hasRemaining()) {
+            int read = channel.read(fresh);
+            if (read < 0) {
+                exhausted = true;
+                break;
+            } else if (read == 0) {
+                break;
+            }
+        }
+        fresh.flip();
+        window = fresh.slice();
+        buffer = new DefaultBitBuffer(window);
+        buffer.setBitPos(position & 7);
+    }
+
+}
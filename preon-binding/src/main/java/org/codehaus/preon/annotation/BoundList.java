@@ -95,6 +95,40 @@ public @interface BoundList {
      */
     String offset() default "";
 
+    /**
+     * Indicates that a List without a {@link #size() size} may be decoded in parallel. If set, the boundaries of the
+     * elements are determined first, using {@link org.codehaus.preon.Codec#probeSize(BitBuffer,
+     * org.codehaus.preon.Resolver, org.codehaus.preon.Builder)}, after which the elements are decoded concurrently.
+     * This only pays off if the size of an element can be determined a lot cheaper than decoding the element itself,
+     * as is the case for records starting with a length field.
+     *
+     * @return <code>true</code> if the elements may be decoded in parallel.
+     */
+    boolean parallel() default false;
+
+    /**
+     * Indicates that a List without a {@link #size() size} may be decoded lazily. If set, only the boundaries of the
+     * elements are determined while decoding, in the same way as for {@link #parallel() parallel} decoding, and
+     * elements are decoded when accessed. If the size of an element cannot be determined without decoding it, the
+     * List is decoded as usual. Since elements are only validated when accessed, the lazy List ends where the sizes of
+     * the elements no longer fit the buffer, and may hold elements that fail to decode, raising a {@link
+     * org.codehaus.preon.LazyDecodingException} when accessed, where decoding the List as usual would have ended the
+     * List. For {@link org.codehaus.preon.util.IntList IntLists} and {@link
+     * org.codehaus.preon.util.LongList LongLists}, it indicates that the list should read its elements straight from
+     * the encoded data, rather than copying them into an array.
+     *
+     * @return <code>true</code> if the elements may be decoded lazily.
+     */
+    boolean lazy() default false;
+
+    /**
+     * The number of decoded elements to keep around, for Lists with elements of a fixed size. These Lists are decoded
+     * lazily, and by default decode an element every time it is accessed.
+     *
+     * @return The number of decoded elements to keep around, or <code>0</code> if elements should not be kept.
+     */
+    int cacheSize() default 0;
+
     /** Indicates that the type prefix must be ignored. Note that this is fairly experimental. Use this with cause. */
     boolean ommitTypePrefix() default false;
 
@@ -78,6 +78,15 @@ public @interface BoundString {
      */
      
     String match() default "";
+
+    /**
+     * Whether Strings decoded for this field should be shared with all other fields decoded from the same bytes,
+     * rather than being newly created every time. Worth considering for fields that are likely to hold the same short
+     * Strings over and over again. The Strings are taken from {@link org.codehaus.preon.util.StringCache#getShared()}.
+     *
+     * @return <code>true</code> if decoded Strings should be shared.
+     */
+    boolean deduplicate() default false;
     
     /* I've left this in, but I don't use this code anywhere in the actual
      * factory. It might be possible to alter the factories to use
@@ -32,6 +32,7 @@
  */
 package org.codehaus.preon.binding;
 
+import org.codehaus.preon.el.BindingException;
 import org.codehaus.preon.el.Expression;
 import nl.flotsam.pecia.ParaContents;
 import nl.flotsam.pecia.SimpleContents;
@@ -43,6 +44,7 @@ import org.codehaus.preon.channel.BitChannel;
 import org.codehaus.preon.buffer.BitBuffer;
 
 import java.io.IOException;
+import java.util.Set;
 
 /**
  * The interface of objects that are able to load object state from a {@link BitBuffer} and store object state into a
@@ -79,6 +81,120 @@ public interface Binding {
     void load(Object object, BitBuffer buffer, Resolver resolver,
               Builder builder) throws DecodingException;
 
+    /**
+     * Loads a value from the {@link BitBuffer} into an object that has been
+     * decoded before, reusing the value currently held by the field if the
+     * {@link Codec} supports that. (See {@link Codec#decodeInto(Object,
+     * BitBuffer, Resolver, Builder)}.) The default implementation simply calls
+     * {@link #load(Object, BitBuffer, Resolver, Builder)}.
+     *
+     * @param object
+     *            The Object on which fields need to be populated.
+     * @param buffer
+     *            The buffer from which data will be taken.
+     * @param resolver
+     *            The object capable of returning values for references passed
+     *            in.
+     * @param builder
+     *            The builder that will be used when the Binding is
+     *            (indirectly) required to create a default instance of a type.
+     * @throws DecodingException
+     *             If we fail to decode the fields value from the
+     *             {@link BitBuffer}.
+     */
+    default void reload(Object object, BitBuffer buffer, Resolver resolver,
+                        Builder builder) throws DecodingException {
+        load(object, buffer, resolver, builder);
+    }
+
+    /**
+     * Resets the bound value on the object passed in to its default value. Invoked
+     * instead of {@link #reload(Object, BitBuffer, Resolver, Builder)} when an object is reused, but
+     * the data no longer holds a value for this binding. The default implementation does nothing.
+     *
+     * @param object
+     *            The Object on which the field needs to be reset.
+     */
+    default void clear(Object object) {
+    }
+
+    /**
+     * Moves the {@link BitBuffer} past the data of this binding, without
+     * populating the field, if the number of bits occupied can be determined
+     * without decoding the data. The default implementation evaluates
+     * {@link #getSize()}.
+     *
+     * @param object
+     *            The Object on which the field would have been populated.
+     * @param buffer
+     *            The buffer from which data would have been taken.
+     * @param resolver
+     *            The object capable of returning values for references passed
+     *            in.
+     * @param builder
+     *            The builder that will be used if some of the data needs to be
+     *            decoded in order to determine its size.
+     * @return <code>true</code> if the data has been skipped;
+     *         <code>false</code> if it can only be skipped by loading it, in
+     *         which case the position of the buffer is left untouched.
+     * @throws DecodingException
+     *             If we fail to decode the data required to determine the size.
+     */
+    default boolean skip(Object object, BitBuffer buffer, Resolver resolver,
+                         Builder builder) throws DecodingException {
+        Expression<Integer, Resolver> size = getSize();
+        if (size == null) {
+            return false;
+        }
+        int bits;
+        try {
+            bits = size.eval(resolver);
+        } catch (BindingException be) {
+            // The size refers to data that is not available in this context
+            return false;
+        }
+        buffer.setBitPos(buffer.getBitPos() + bits);
+        return true;
+    }
+
+    /**
+     * Decodes the value from the {@link BitBuffer}, without populating a
+     * field. Used by views reading values on demand (see
+     * {@link Codec#view(Class)}). The default implementation fails, since
+     * not every {@link Binding} can produce its value on its own.
+     *
+     * @param buffer
+     *            The buffer from which data will be taken.
+     * @param resolver
+     *            The object capable of returning values for references passed
+     *            in.
+     * @param builder
+     *            The builder that will be used when the Binding is
+     *            (indirectly) required to create a default instance of a type.
+     * @return The value decoded, or <code>null</code> if the data does not
+     *         hold a value for this binding.
+     * @throws DecodingException
+     *             If we fail to decode the value from the {@link BitBuffer}.
+     */
+    default Object decode(BitBuffer buffer, Resolver resolver, Builder builder)
+            throws DecodingException {
+        throw new DecodingException("Cannot decode " + getName() + " on its own");
+    }
+
+    /**
+     * Returns a {@link Binding} that only populates the given fields of the
+     * value it loads (see {@link Codec#project(String...)}). The default
+     * implementation returns this {@link Binding}, loading the value
+     * entirely.
+     *
+     * @param paths
+     *            The paths of the fields to populate, relative to the value.
+     * @return A {@link Binding} loading the same data.
+     */
+    default Binding project(Set<String> paths) {
+        return this;
+    }
+
     /**
      * Describes this {@link Binding} in the paragraph passed in.
      *
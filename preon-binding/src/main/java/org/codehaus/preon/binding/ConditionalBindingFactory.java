@@ -114,6 +114,33 @@ public class ConditionalBindingFactory implements BindingFactory {
             }
         }
 
+        public void reload(Object object, BitBuffer buffer, Resolver resolver, Builder builder)
+                throws DecodingException {
+            if (expr.eval(resolver)) {
+                binding.reload(object, buffer, resolver, builder);
+            } else {
+                binding.clear(object);
+            }
+        }
+
+        public void clear(Object object) {
+            binding.clear(object);
+        }
+
+        public boolean skip(Object object, BitBuffer buffer, Resolver resolver, Builder builder)
+                throws DecodingException {
+            return !expr.eval(resolver) || binding.skip(object, buffer, resolver, builder);
+        }
+
+        public Object decode(BitBuffer buffer, Resolver resolver, Builder builder)
+                throws DecodingException {
+            return expr.eval(resolver) ? binding.decode(buffer, resolver, builder) : null;
+        }
+
+        public Binding project(Set<String> paths) {
+            return new ConditionalBinding(expr, binding.project(paths));
+        }
+
         public <T, V extends ParaContents<T>> V describe(final V contents) {
             contents.text(" Only if ");
             expr.document(new Document() {
@@ -153,7 +180,9 @@ public class ConditionalBindingFactory implements BindingFactory {
         }
 
         public Expression<Integer, Resolver> getSize() {
-            return new ConditionalValue(expr, binding.getSize());
+            Expression<Integer, Resolver> size = binding.getSize();
+            // If the size of the value is unknown, so is the size of the optional value.
+            return size == null ? null : new ConditionalValue(expr, size);
         }
 
         public String getId() {
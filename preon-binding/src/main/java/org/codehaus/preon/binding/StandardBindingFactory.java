@@ -41,13 +41,15 @@ import org.codehaus.preon.*;
 import org.codehaus.preon.buffer.BitBuffer;
 import org.codehaus.preon.buffer.BitBufferException;
 import org.codehaus.preon.channel.BitChannel;
-import org.codehaus.preon.reflect.ReflectionUtils;
+import org.codehaus.preon.codec.ConstantNumericCodec;
+import org.codehaus.preon.reflect.FieldAccessor;
+import org.codehaus.preon.reflect.Instantiator;
 import org.codehaus.preon.rendering.CamelCaseRewriter;
 import org.codehaus.preon.rendering.IdentifierRewriter;
 
 import java.lang.reflect.*;
-import java.util.ArrayList;
-import java.util.List;
+import java.util.HashSet;
+import java.util.Set;
 import java.io.IOException;
 
 /**
@@ -75,8 +77,14 @@ public class StandardBindingFactory implements BindingFactory {
 
         private Field field;
 
+        /** The accessor used for reading and writing the field, resolved once. */
+        private final FieldAccessor accessor;
+
         private Codec codec;
 
+        /** The codec, if capable of decoding straight into the (primitive) field; <code>null</code> otherwise. */
+        private final ConstantNumericCodec numericCodec;
+
         private IdentifierRewriter rewriter;
 
         private Decorator<Builder> builderDecorator;
@@ -92,20 +100,26 @@ public class StandardBindingFactory implements BindingFactory {
             this.codec = codec;
             this.rewriter = rewriter;
             this.containerReference = containerReference;
-            field.setAccessible(true);
-            Class<?> declaring = field.getDeclaringClass();
-            builderDecorator = new ContextualBuilderDecorator(declaring);
+            this.accessor = FieldAccessor.forField(field);
+            if (codec instanceof ConstantNumericCodec
+                    && ((ConstantNumericCodec) codec).isLoadableInto(field.getType())) {
+                this.numericCodec = (ConstantNumericCodec) codec;
+            } else {
+                this.numericCodec = null;
+            }
+            builderDecorator = ContextualBuilderDecorator.forClass(field.getDeclaringClass());
         }
 
         public void load(Object object, BitBuffer buffer, Resolver resolver,
                          Builder builder) throws DecodingException {
             try {
-                ReflectionUtils.makeAssessible(field);
-                Object value = codec.decode(buffer, resolver, builderDecorator
-                        .decorate(builder, object));
-                field.set(object, value);
-            } catch (IllegalAccessException iae) {
-                throw new DecodingException(iae);
+                if (numericCodec != null) {
+                    numericCodec.load(object, accessor, buffer);
+                } else {
+                    Object value = codec.decode(buffer, resolver, builderDecorator
+                            .decorate(builder, object));
+                    accessor.set(object, value);
+                }
             } catch (DecodingException de) {
                 // System.err.println("Failed to decode value into "
                 // + field.getName() + " of "
@@ -119,6 +133,48 @@ public class StandardBindingFactory implements BindingFactory {
             }
         }
 
+        @SuppressWarnings("unchecked")
+        public void reload(Object object, BitBuffer buffer, Resolver resolver,
+                           Builder builder) throws DecodingException {
+            if (numericCodec != null) {
+                numericCodec.load(object, accessor, buffer);
+                return;
+            }
+            Object current = field.getType().isPrimitive() ? null : accessor.get(object);
+            Object value = codec.decodeInto(current, buffer, resolver, builderDecorator
+                    .decorate(builder, object));
+            accessor.set(object, value);
+        }
+
+        public void clear(Object object) {
+            accessor.clear(object);
+        }
+
+        public boolean skip(Object object, BitBuffer buffer, Resolver resolver,
+                            Builder builder) throws DecodingException {
+            long bits = codec.probeSize(buffer, resolver, builderDecorator
+                    .decorate(builder, object));
+            if (bits < 0) {
+                return Binding.super.skip(object, buffer, resolver, builder);
+            }
+            buffer.setBitPos(buffer.getBitPos() + bits);
+            return true;
+        }
+
+        public Object decode(BitBuffer buffer, Resolver resolver, Builder builder)
+                throws DecodingException {
+            return codec.decode(buffer, resolver, builder);
+        }
+
+        public Binding project(Set<String> paths) {
+            Codec<?> projected = codec.project(paths.toArray(new String[paths.size()]));
+            if (projected == codec) {
+                return this;
+            } else {
+                return new FieldBinding(field, projected, rewriter, containerReference);
+            }
+        }
+
         public <V extends SimpleContents<?>> V describe(V contents) {
             CodecDescriptor codecDescriptor = codec.getCodecDescriptor();
             contents.para().document(codecDescriptor.summary()).end();
@@ -132,7 +188,7 @@ public class StandardBindingFactory implements BindingFactory {
 
         public Object get(Object context) throws IllegalArgumentException,
                 IllegalAccessException {
-            return field.get(context);
+            return accessor.get(context);
         }
 
         public String getName() {
@@ -157,13 +213,7 @@ public class StandardBindingFactory implements BindingFactory {
         }
 
         public void save(Object value, BitChannel channel, Resolver resolver) throws IOException {
-            try {
-                ReflectionUtils.makeAssessible(field);
-                codec.encode(field.get(value), channel, resolver);
-            } catch (IllegalAccessException e) {
-                // TODO: Need a better way to handle this properly
-                throw new IllegalStateException(e);
-            }
+            codec.encode(accessor.get(value), channel, resolver);
         }
 
     }
@@ -186,34 +236,52 @@ public class StandardBindingFactory implements BindingFactory {
     private static class ContextualBuilderDecorator implements
             Decorator<Builder> {
 
-        private Class enclosing;
+        /**
+         * The decorators, shared by all bindings of fields declared by the same class.
+         */
+        private static final ClassValue<ContextualBuilderDecorator> DECORATORS = new ClassValue<ContextualBuilderDecorator>() {
+            protected ContextualBuilderDecorator computeValue(Class<?> enclosing) {
+                return new ContextualBuilderDecorator(enclosing);
+            }
+        };
 
-        private List<Class> members;
+        /**
+         * The non-static member classes of the enclosing class; these can only be constructed by passing in an
+         * instance of the enclosing class.
+         */
+        private final Set<Class<?>> members;
 
-        public ContextualBuilderDecorator(Class enclosing) {
-            this.enclosing = enclosing;
-            this.members = new ArrayList<Class>();
-            for (Class member : enclosing.getDeclaredClasses()) {
+        private ContextualBuilderDecorator(Class<?> enclosing) {
+            Set<Class<?>> members = new HashSet<Class<?>>();
+            for (Class<?> member : enclosing.getDeclaredClasses()) {
                 if (!Modifier.isStatic(member.getModifiers())) {
                     members.add(member);
                 }
             }
+            this.members = members;
+        }
+
+        public static ContextualBuilderDecorator forClass(Class<?> enclosing) {
+            return DECORATORS.get(enclosing);
         }
 
         public Builder decorate(Builder builder, Object context) {
-            return new ContextualBuilder(enclosing, members, builder, context);
+            if (members.isEmpty()) {
+                // Nothing to construct in the context of the object; no need to wrap the builder
+                return builder;
+            } else {
+                return new ContextualBuilder(members, builder, context);
+            }
         }
 
         private static class ContextualBuilder implements Builder {
 
-            private Class enclosing;
-            private List<Class> members;
-            private Builder delegate;
-            private Object context;
+            private final Set<Class<?>> members;
+            private final Builder delegate;
+            private final Object context;
 
-            public ContextualBuilder(Class enclosing, List<Class> members,
+            public ContextualBuilder(Set<Class<?>> members,
                                      Builder delegate, Object context) {
-                this.enclosing = enclosing;
                 this.members = members;
                 this.delegate = delegate;
                 this.context = context;
@@ -222,21 +290,7 @@ public class StandardBindingFactory implements BindingFactory {
             public <T> T create(Class<T> type) throws InstantiationException,
                     IllegalAccessException {
                 if (members.contains(type)) {
-                    try {
-                        Constructor<T> constructor = type
-                                .getDeclaredConstructor(enclosing);
-                        constructor.setAccessible(true);
-                        return constructor.newInstance(context);
-                    } catch (NoSuchMethodException nsme) {
-                        throw new InstantiationException(
-                                "Missing valid default constructor.");
-                    } catch (IllegalArgumentException e) {
-                        throw new InstantiationException(
-                                "Enclosing instance not accepted as argument.");
-                    } catch (InvocationTargetException e) {
-                        throw new InstantiationException(
-                                "Failed to call constructor.");
-                    }
+                    return Instantiator.forMemberType(type).<T>newInstance(context);
                 } else {
                     return delegate.create(type);
                 }
@@ -54,13 +54,13 @@ import java.lang.reflect.Array;
 class ArrayCodec implements Codec<Object> {
 
     /** The number of elements in the list. */
-    private Expression<Integer, Resolver> size;
+    protected Expression<Integer, Resolver> size;
 
     /** The {@link org.codehaus.preon.Codec} that will construct elements from the {@link java.util.List}. */
     private Codec<Object> codec;
 
     /** The type of element to be constructed. */
-    private Class<?> type;
+    protected Class<?> type;
 
     /**
      * Constructs a new instance.
@@ -94,6 +94,23 @@ class ArrayCodec implements Codec<Object> {
         return result;
     }
 
+    /**
+     * Reuses the target array if it has the expected length, decoding into the elements it already holds.
+     */
+    public Object decodeInto(Object target, BitBuffer buffer, Resolver resolver,
+                             Builder builder) throws DecodingException {
+        int length = size.eval(resolver).intValue();
+        if (target == null || target.getClass() != type || Array.getLength(target) != length) {
+            target = Array.newInstance(type.getComponentType(), length);
+        }
+        boolean primitive = type.getComponentType().isPrimitive();
+        for (int i = 0; i < length; i++) {
+            Object current = primitive ? null : Array.get(target, i);
+            Array.set(target, i, codec.decodeInto(current, buffer, resolver, builder));
+        }
+        return target;
+    }
+
     public void encode(Object object, BitChannel channel, Resolver resolver) throws IOException {
         int numberOfElements = size.eval(resolver);
         for (int i = 0; i < numberOfElements; i++) {
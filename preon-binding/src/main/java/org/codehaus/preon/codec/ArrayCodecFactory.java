@@ -41,16 +41,22 @@ import org.codehaus.preon.annotation.Bound;
 import org.codehaus.preon.annotation.BoundList;
 import org.codehaus.preon.annotation.BoundObject;
 import org.codehaus.preon.annotation.Choices;
+import org.codehaus.preon.buffer.ByteOrder;
 import org.codehaus.preon.util.AnnotationWrapper;
 
 import java.lang.annotation.Annotation;
 import java.lang.reflect.AnnotatedElement;
+import java.nio.ByteBuffer;
 import java.util.List;
 
 /**
  * A {@link CodecFactory} that will be triggered by {@link Bound} or {@link BoundList} annotations on arrays. Note that
  * {@link Codec}s created by this class will always read all data eagerly. (Unlike {@link List}s, you cannot implement
- * arrays yourself.)
+ * arrays yourself.) Arrays of primitives of a fixed size are decoded in bulk, without boxing individual elements.
+ * <p/>
+ * <p> Fields of type {@link ByteBuffer} are treated as arrays of bytes, with the size of the {@link BoundList}
+ * determining the number of bytes. The {@link ByteBuffer} decoded is a read-only view on the data, which is only
+ * copied if it is not byte-aligned. </p>
  *
  * @author Wilfred Springer (wis)
  */
@@ -87,6 +93,10 @@ public class ArrayCodecFactory implements CodecFactory {
         BoundList settings = null;
         if (metadata != null
                 && (settings = metadata.getAnnotation(BoundList.class)) != null
+                && ByteBuffer.class.equals(type)
+                && settings.size().length() != 0) {
+            return (Codec<T>) new ByteBufferCodec(getSizeExpression(settings, context));
+        } else if (settings != null
                 && type.isArray()
                 && settings.size() != null
                 && settings.size().length() != 0) {
@@ -96,6 +106,13 @@ public class ArrayCodecFactory implements CodecFactory {
             if (type.getComponentType().isPrimitive()) {
                 elementCodec = (Codec<Object>) factory.create(null, type
                         .getComponentType(), context);
+                Expression<Integer, Resolver> elementSize = elementCodec.getSize();
+                if (elementSize != null && !elementSize.isParameterized()
+                        && PrimitiveArrayCodec.supports(type, elementSize.eval(null))) {
+                    // Elements created without metadata are always little endian
+                    return (Codec<T>) new PrimitiveArrayCodec(expr, elementCodec, type,
+                            ByteOrder.LittleEndian);
+                }
             } else {
                 BoundObject objectSettings = getObjectSettings(settings);
                 elementCodec = (Codec<Object>) factory.create(
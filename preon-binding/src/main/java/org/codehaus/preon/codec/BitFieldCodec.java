@@ -34,10 +34,8 @@ package org.codehaus.preon.codec;
 
 import java.io.IOException;
 import java.lang.reflect.Field;
-import java.util.HashMap;
-import java.util.HashSet;
+import java.util.EnumSet;
 import java.util.Map;
-import java.util.Map.Entry;
 import java.util.Set;
 import java.util.SortedMap;
 import java.util.TreeMap;
@@ -60,13 +58,27 @@ import org.codehaus.preon.descriptor.Documenters;
 import org.codehaus.preon.el.Expression;
 
 /**
- * Decodes bit fields as sets of enums, taking bit values from {@link BoundEnumOption} annotations.
+ * Decodes bit fields as sets of enums, taking bit values from {@link BoundEnumOption} annotations. The sets of enums
+ * matching each byte of the bit field are computed upfront, so decoding merely combines a couple of {@link EnumSet
+ * EnumSets}.
  * @author Jerzy Smyczek
  */
 public class BitFieldCodec<E extends Enum<E>> implements Codec<Set<E>> {
 
-    /** Maps enums to bits. */
-    private Map<E, Long> enumBits = new HashMap<E, Long>();
+    /** The type of enum held by the encoded set. */
+    private Class<E> enumClass;
+
+    /** The enum constants, indexed by ordinal. */
+    private E[] constants;
+
+    /** The bits of each enum constant, indexed by ordinal. */
+    private long[] masks;
+
+    /**
+     * For every byte of the bit-field (least significant first), the sets of enums matching every possible value of
+     * that byte; <code>null</code> for bytes not matched by any of the enums.
+     */
+    private EnumSet<E>[][] tables;
 
     /** Size of resulting value in bits. */
     private Expression<Integer, Resolver> sizeExpr;
@@ -83,14 +95,46 @@ public class BitFieldCodec<E extends Enum<E>> implements Codec<Set<E>> {
      * @param sizeExpr number of bits in encoded numeric value
      * @param byteOrder endianness
      */
+    @SuppressWarnings("unchecked")
     public BitFieldCodec(Class<E> enumClass, Expression<Integer, Resolver> sizeExpr, ByteOrder byteOrder) {
+        this.enumClass = enumClass;
         this.sizeExpr = sizeExpr;
         this.byteOrder = byteOrder;
         this.enumName = enumClass.getSimpleName();
 
-        for (E enumValue : enumClass.getEnumConstants()) {
-            enumBits.put(enumValue, getBit(enumValue));
+        constants = enumClass.getEnumConstants();
+        masks = new long[constants.length];
+        for (E enumValue : constants) {
+            masks[enumValue.ordinal()] = getBit(enumValue);
+        }
+        @SuppressWarnings({"unchecked", "rawtypes"})
+        EnumSet<E>[][] tables = new EnumSet[8][];
+        this.tables = tables;
+        for (int b = 0; b < 8; b++) {
+            for (long mask : masks) {
+                if (((mask >>> (b * 8)) & 0xff) != 0) {
+                    tables[b] = createTable(b);
+                    break;
+                }
+            }
+        }
+    }
+
+    /**
+     * Creates the sets of enums matching every possible value of the given byte of the bit-field.
+     */
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private EnumSet<E>[] createTable(int b) {
+        EnumSet<E>[] table = new EnumSet[256];
+        for (int value = 0; value < 256; value++) {
+            table[value] = EnumSet.noneOf(enumClass);
+            for (int i = 0; i < masks.length; i++) {
+                if (((masks[i] >>> (b * 8)) & value) != 0) {
+                    table[value].add(constants[i]);
+                }
+            }
         }
+        return table;
     }
 
     /**
@@ -101,11 +145,10 @@ public class BitFieldCodec<E extends Enum<E>> implements Codec<Set<E>> {
     public Set<E> decode(BitBuffer buffer, Resolver resolver, Builder builder) throws DecodingException {
         int size = sizeExpr.eval(resolver);
         long bitField = buffer.readAsLong(size, byteOrder);
-        Set<E> enumSet = new HashSet<E>();
-
-        for (Entry<E, Long> entry : enumBits.entrySet()) {
-            if ((bitField & entry.getValue()) != 0) {
-                enumSet.add(entry.getKey());
+        EnumSet<E> enumSet = EnumSet.noneOf(enumClass);
+        for (int b = 0; bitField != 0; b++, bitField >>>= 8) {
+            if (tables[b] != null) {
+                enumSet.addAll(tables[b][(int) (bitField & 0xff)]);
             }
         }
         return enumSet;
@@ -118,7 +161,7 @@ public class BitFieldCodec<E extends Enum<E>> implements Codec<Set<E>> {
     public void encode(Set<E> enumSet, BitChannel channel, Resolver resolver) throws IOException {
         long bitField = 0;
         for (E enumValue : enumSet) {
-            bitField |= enumBits.get(enumValue);
+            bitField |= masks[enumValue.ordinal()];
         }
         int size = sizeExpr.eval(resolver);
         channel.write(size, bitField, byteOrder);
@@ -170,8 +213,8 @@ public class BitFieldCodec<E extends Enum<E>> implements Codec<Set<E>> {
                         para.text(" The numeric value is a combination of values corresponding to the following symbols:").end();
                         
                         SortedMap<Long, E> sortedBits = new TreeMap<Long, E>();
-                        for (Entry<E, Long> e : enumBits.entrySet()) {
-                            sortedBits.put(e.getValue(), e.getKey());
+                        for (E enumValue : constants) {
+                            sortedBits.put(masks[enumValue.ordinal()], enumValue);
                         }
                         for (Map.Entry<Long, E> entry : sortedBits.entrySet()) {
                             String val = String.format("0x%02X", entry.getKey());
@@ -43,6 +43,7 @@ import org.codehaus.preon.channel.BitChannel;
 
 import java.io.IOException;
 import java.lang.reflect.AnnotatedElement;
+import java.util.function.Predicate;
 
 /**
  * A {@link CodecDecorator} that will make sure that reading stops at a byte-aligned position.
@@ -73,11 +74,32 @@ public class ByteAligningDecorator implements CodecDecorator {
         public T decode(BitBuffer buffer, Resolver resolver, Builder builder)
                 throws DecodingException {
             T result = decorated.decode(buffer, resolver, builder);
+            align(buffer);
+            return result;
+        }
+
+        public T decodeInto(T target, BitBuffer buffer, Resolver resolver, Builder builder)
+                throws DecodingException {
+            T result = decorated.decodeInto(target, buffer, resolver, builder);
+            align(buffer);
+            return result;
+        }
+
+        public long probeSize(BitBuffer buffer, Resolver resolver, Builder builder)
+                throws DecodingException {
+            long size = decorated.probeSize(buffer, resolver, builder);
+            if (size < 0) {
+                return -1;
+            }
+            long pos = (buffer.getBitPos() + size) % 8;
+            return pos > 0 ? size + 8 - pos : size;
+        }
+
+        private static void align(BitBuffer buffer) {
             long pos = buffer.getBitPos() % 8;
             if (pos > 0) {
                 buffer.setBitPos(buffer.getBitPos() + 8 - pos);
             }
-            return result;
         }
 
         public void encode(T object, BitChannel channel, Resolver resolver) throws IOException {
@@ -96,6 +118,22 @@ public class ByteAligningDecorator implements CodecDecorator {
             return null;
         }
 
+        public Codec<T> project(String... paths) {
+            return new ByteAligningCodec<T>(decorated.project(paths));
+        }
+
+        public Codec<T> filter(String condition) {
+            return new ByteAligningCodec<T>(decorated.filter(condition));
+        }
+
+        public Codec<T> filter(Predicate<? super T> predicate, String... fields) {
+            return new ByteAligningCodec<T>(decorated.filter(predicate, fields));
+        }
+
+        public <V> V view(Class<V> type) {
+            return decorated.view(type);
+        }
+
         public Class<?> getType() {
             return decorated.getType();
         }
@@ -0,0 +1,159 @@
+/**
+ * Copyright (C) 2009-2010 Wilfred Springer
+ *
+ * This file is part of Preon.
+ *
+ * Preon is free software; you can redistribute it and/or modify it under the
+ * terms of the GNU General Public License as published by the Free Software
+ * Foundation; either version 2, or (at your option) any later version.
+ *
+ * Preon is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR
+ * A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * Preon; see the file COPYING. If not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Linking this library statically or dynamically with other modules is making a
+ * combined work based on this library. Thus, the terms and conditions of the
+ * GNU General Public License cover the whole combination.
+ *
+ * As a special exception, the copyright holders of this library give you
+ * permission to link this library with independent modules to produce an
+ * executable, regardless of the license terms of these independent modules, and
+ * to copy and distribute the resulting executable under terms of your choice,
+ * provided that you also meet, for each linked independent module, the terms
+ * and conditions of the license of that module. An independent module is a
+ * module which is not derived from or based on this library. If you modify this
+ * library, you may extend this exception to your version of the library, but
+ * you are not obligated to do so. If you do not wish to do so, delete this
+ * exception statement from your version.
+ */
+package org.codehaus.preon.codec;
+
+import nl.flotsam.pecia.Documenter;
+import nl.flotsam.pecia.ParaContents;
+import nl.flotsam.pecia.SimpleContents;
+import org.codehaus.preon.Builder;
+import org.codehaus.preon.Codec;
+import org.codehaus.preon.CodecDescriptor;
+import org.codehaus.preon.DecodingException;
+import org.codehaus.preon.Resolver;
+import org.codehaus.preon.buffer.BitBuffer;
+import org.codehaus.preon.channel.BitChannel;
+import org.codehaus.preon.descriptor.Documenters;
+import org.codehaus.preon.el.Expression;
+import org.codehaus.preon.el.Expressions;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+/**
+ * The {@link Codec} decoding a sequence of bytes into a (read-only) {@link ByteBuffer}. If the data is byte-aligned,
+ * the {@link ByteBuffer} is a view on the data underneath the {@link BitBuffer}, sharing its contents rather than
+ * copying them. If it is not, the bytes are copied.
+ *
+ * @author Wilfred Springer
+ */
+class ByteBufferCodec implements Codec<ByteBuffer> {
+
+    /** The number of bytes. */
+    private final Expression<Integer, Resolver> size;
+
+    /**
+     * Constructs a new instance.
+     *
+     * @param size An {@link Expression} representing the number of bytes.
+     */
+    public ByteBufferCodec(Expression<Integer, Resolver> size) {
+        this.size = size;
+    }
+
+    public ByteBuffer decode(BitBuffer buffer, Resolver resolver, Builder builder) throws DecodingException {
+        int length = size.eval(resolver);
+        if (buffer.getActualBitPos() % 8 == 0) {
+            return buffer.readAsByteBuffer(length).asReadOnlyBuffer();
+        } else {
+            byte[] bytes = new byte[length];
+            for (int i = 0; i < length; i++) {
+                bytes[i] = buffer.readAsByte(8);
+            }
+            return ByteBuffer.wrap(bytes).asReadOnlyBuffer();
+        }
+    }
+
+    /**
+     * Writes the bytes between the position and the limit of the {@link ByteBuffer}, without changing its position.
+     *
+     * @throws IllegalArgumentException If the number of bytes remaining does not match the size.
+     */
+    public void encode(ByteBuffer value, BitChannel channel, Resolver resolver) throws IOException {
+        int length = size.eval(resolver);
+        if (value.remaining() != length) {
+            throw new IllegalArgumentException("Expected " + length + " bytes, but got " + value.remaining());
+        }
+        if (value.hasArray()) {
+            channel.write(value.array(), value.arrayOffset() + value.position(), length);
+        } else {
+            byte[] bytes = new byte[length];
+            value.duplicate().get(bytes);
+            channel.write(bytes, 0, length);
+        }
+    }
+
+    public Expression<Integer, Resolver> getSize() {
+        return Expressions.multiply(Expressions.createInteger(8, Resolver.class), size);
+    }
+
+    public Class<?>[] getTypes() {
+        return new Class<?>[]{ByteBuffer.class};
+    }
+
+    public Class<?> getType() {
+        return ByteBuffer.class;
+    }
+
+    public CodecDescriptor getCodecDescriptor() {
+        return new CodecDescriptor() {
+
+            public <C extends SimpleContents<?>> Documenter<C> details(String bufferReference) {
+                return new Documenter<C>() {
+                    public void document(C target) {
+                        target.para()
+                                .text("The number of bytes is ")
+                                .document(Documenters.forExpression(size))
+                                .text(".").end();
+                    }
+                };
+            }
+
+            public String getTitle() {
+                return null;
+            }
+
+            public <C extends ParaContents<?>> Documenter<C> reference(final Adjective adjective,
+                                                                        final boolean startWithCapital) {
+                return new Documenter<C>() {
+                    public void document(C target) {
+                        target.text(adjective.asTextPreferA(startWithCapital)).text("sequence of bytes");
+                    }
+                };
+            }
+
+            public boolean requiresDedicatedSection() {
+                return false;
+            }
+
+            public <C extends ParaContents<?>> Documenter<C> summary() {
+                return new Documenter<C>() {
+                    public void document(C target) {
+                        target.document(reference(Adjective.A, true)).text(".");
+                    }
+                };
+            }
+
+        };
+    }
+
+}
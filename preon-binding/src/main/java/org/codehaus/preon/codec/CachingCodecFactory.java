@@ -42,6 +42,7 @@ import org.codehaus.preon.util.AnnotationUtils;
 import java.io.IOException;
 import java.lang.reflect.AnnotatedElement;
 import java.util.*;
+import java.util.function.Predicate;
 
 /**
  * An implementation of the {@link CodecFactory} interface that will prevent the same {@link Codec} from being
@@ -171,6 +172,11 @@ public class CachingCodecFactory implements CodecFactory {
             return codec.decode(buffer, resolver, builder);
         }
 
+        public T decodeInto(T target, BitBuffer buffer, Resolver resolver, Builder builder)
+                throws DecodingException {
+            return codec.decodeInto(target, buffer, resolver, builder);
+        }
+
         public void encode(T value, BitChannel channel, Resolver resolver) throws IOException {
             codec.encode(value, channel, resolver);
         }
@@ -191,6 +197,27 @@ public class CachingCodecFactory implements CodecFactory {
             return codec.getSize();
         }
 
+        public long probeSize(BitBuffer buffer, Resolver resolver, Builder builder)
+                throws DecodingException {
+            return codec.probeSize(buffer, resolver, builder);
+        }
+
+        public Codec<T> project(String... paths) {
+            return codec.project(paths);
+        }
+
+        public Codec<T> filter(String condition) {
+            return codec.filter(condition);
+        }
+
+        public Codec<T> filter(Predicate<? super T> predicate, String... fields) {
+            return codec.filter(predicate, fields);
+        }
+
+        public <V> V view(Class<V> type) {
+            return codec.view(type);
+        }
+
         public Class<?> getType() {
             return codec.getType();
         }
@@ -0,0 +1,116 @@
+/**
+ * Copyright (C) 2009-2010 Wilfred Springer
+ *
+ * This file is part of Preon.
+ *
+ * Preon is free software; you can redistribute it and/or modify it under the
+ * terms of the GNU General Public License as published by the Free Software
+ * Foundation; either version 2, or (at your option) any later version.
+ *
+ * Preon is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR
+ * A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * Preon; see the file COPYING. If not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Linking this library statically or dynamically with other modules is making a
+ * combined work based on this library. Thus, the terms and conditions of the
+ * GNU General Public License cover the whole combination.
+ *
+ * As a special exception, the copyright holders of this library give you
+ * permission to link this library with independent modules to produce an
+ * executable, regardless of the license terms of these independent modules, and
+ * to copy and distribute the resulting executable under terms of your choice,
+ * provided that you also meet, for each linked independent module, the terms
+ * and conditions of the license of that module. An independent module is a
+ * module which is not derived from or based on this library. If you modify this
+ * library, you may extend this exception to your version of the library, but
+ * you are not obligated to do so. If you do not wish to do so, delete this
+ * exception statement from your version.
+ */
+package org.codehaus.preon.codec;
+
+import org.codehaus.preon.Builder;
+import org.codehaus.preon.Resolver;
+import org.codehaus.preon.buffer.BitBuffer;
+import org.codehaus.preon.buffer.ByteOrder;
+import org.codehaus.preon.channel.BitChannel;
+import org.codehaus.preon.el.Expression;
+import org.codehaus.preon.reflect.FieldAccessor;
+
+import java.io.IOException;
+
+/**
+ * A {@link NumericCodec} for numbers of a constant size, without a value to match. Instead of evaluating the size
+ * expression for every value, it holds on to the size evaluated upfront. On top of that, it is capable of decoding
+ * numbers into primitive fields directly, without boxing them. (See {@link #load(Object, FieldAccessor,
+ * BitBuffer)}.)
+ *
+ * @author Wilfred Springer
+ */
+public class ConstantNumericCodec extends NumericCodec {
+
+    /** The number of bits occupied by a number. */
+    private final int size;
+
+    public ConstantNumericCodec(Expression<Integer, Resolver> sizeExpr, ByteOrder byteOrder, NumericType type) {
+        super(sizeExpr, byteOrder, type, null);
+        this.size = sizeExpr.eval(null);
+    }
+
+    public Object decode(BitBuffer buffer, Resolver resolver, Builder builder) {
+        return type.decode(buffer, size, byteOrder);
+    }
+
+    public void encode(Object value, BitChannel channel, Resolver resolver) throws IOException {
+        type.encode(channel, size, byteOrder, value);
+    }
+
+    public long probeSize(BitBuffer buffer, Resolver resolver, Builder builder) {
+        return size;
+    }
+
+    /**
+     * Returns whether numbers can be loaded into fields of the given type by {@link #load(Object, FieldAccessor,
+     * BitBuffer)}, which is the case if the type is the primitive counterpart of the type of number decoded.
+     */
+    public boolean isLoadableInto(Class<?> fieldType) {
+        return fieldType.isPrimitive() && NUMERIC_TYPES.get(fieldType) == type;
+    }
+
+    /**
+     * Decodes a number, and stores it into a primitive field, without boxing it.
+     *
+     * @param target   The object holding the field.
+     * @param accessor The accessor of the field, which must be of a type for which {@link #isLoadableInto(Class)}
+     *                 returns <code>true</code>.
+     * @param buffer   The {@link BitBuffer} containing the data from which the number will be decoded.
+     */
+    public void load(Object target, FieldAccessor accessor, BitBuffer buffer) {
+        switch (type) {
+            case Integer:
+                accessor.setInt(target, buffer.readAsInt(size, byteOrder));
+                break;
+            case Long:
+                accessor.setLong(target, buffer.readAsLong(size, byteOrder));
+                break;
+            case Short:
+                accessor.setShort(target, buffer.readAsShort(size, byteOrder));
+                break;
+            case Byte:
+                accessor.setByte(target, buffer.readAsByte(size, byteOrder));
+                break;
+            case Float:
+                accessor.setFloat(target, java.lang.Float.intBitsToFloat(buffer.readAsInt(size, byteOrder)));
+                break;
+            case Double:
+                accessor.setDouble(target, java.lang.Double.longBitsToDouble(buffer.readAsLong(size, byteOrder)));
+                break;
+            default:
+                accessor.set(target, decode(buffer, null, null));
+        }
+    }
+
+}
@@ -48,7 +48,6 @@ import nl.flotsam.pecia.Para;
 import nl.flotsam.pecia.ParaContents;
 
 import java.util.Map;
-import java.util.HashMap;
 import java.io.IOException;
 import java.lang.reflect.AnnotatedElement;
 
@@ -58,11 +57,27 @@ import java.lang.reflect.AnnotatedElement;
  */
 public class EnumCodec<T> implements Codec<T> {
 
+    /** The maximum number of entries of the table used to look up enum constants by value. */
+    private static final int MAX_TABLE_SIZE = 1024;
+
     private final Class<T> type;
 
     private final Map<Long, T> mapping;
 
-    private final Map<T, Long> inverseMapping;
+    /** The value returned for unmapped values; <code>null</code> if there is none. */
+    private final T defaultValue;
+
+    /**
+     * The enum constants, indexed by value minus {@link #lowest}; <code>null</code> if the values are spread out too
+     * much, in which case {@link #mapping} is used.
+     */
+    private final Object[] table;
+
+    /** The lowest value mapped. */
+    private final long lowest;
+
+    /** The values of the enum constants, indexed by ordinal; <code>null</code> for constants without a value. */
+    private final Long[] values;
 
     private final Expression<Integer, Resolver> size;
 
@@ -78,24 +93,50 @@ public class EnumCodec<T> implements Codec<T> {
         this.mapping = mapping;
         this.size = sizeExpr;
         this.byteOrder = endian;
-        inverseMapping = new HashMap<T, Long>();
+        this.defaultValue = mapping.get(null);
+        long lowest = Long.MAX_VALUE;
+        long highest = Long.MIN_VALUE;
+        values = new Long[type.getEnumConstants().length];
         for (Map.Entry<Long, T> entry : mapping.entrySet()) {
-            inverseMapping.put(entry.getValue(), entry.getKey());
+            if (entry.getKey() != null) {
+                lowest = Math.min(lowest, entry.getKey());
+                highest = Math.max(highest, entry.getKey());
+                values[((Enum<?>) entry.getValue()).ordinal()] = entry.getKey();
+            }
+        }
+        if (lowest <= highest && highest - lowest < MAX_TABLE_SIZE) {
+            this.lowest = lowest;
+            this.table = new Object[(int) (highest - lowest) + 1];
+            for (Map.Entry<Long, T> entry : mapping.entrySet()) {
+                if (entry.getKey() != null) {
+                    table[(int) (entry.getKey() - lowest)] = entry.getValue();
+                }
+            }
+        } else {
+            this.lowest = 0;
+            this.table = null;
         }
     }
 
+    @SuppressWarnings("unchecked")
     public T decode(BitBuffer buffer, Resolver resolver, Builder builder)
             throws DecodingException {
         long value = buffer.readAsLong(size.eval(resolver), byteOrder);
-        T result = mapping.get(value);
+        T result;
+        if (table != null) {
+            long index = value - lowest;
+            result = index >= 0 && index < table.length ? (T) table[(int) index] : null;
+        } else {
+            result = mapping.get(value);
+        }
         if (result == null) {
-            result = mapping.get(null);
+            result = defaultValue;
         }
         return result;
     }
 
     public void encode(T object, BitChannel channel, Resolver resolver) throws IOException {
-        Long value = inverseMapping.get(object);
+        Long value = values[((Enum<?>) object).ordinal()];
         if (value == null) {
             throw new NullPointerException(String.format(
                     "Cannot encode enum constant %s.%s without @%s annotation",
@@ -156,7 +197,6 @@ public class EnumCodec<T> implements Codec<T> {
                                         .end();
                             }
                         }
-                        T defaultValue = mapping.get(null);
                         if (defaultValue != null) {
                             target.para().text("The default value is "
                                     + defaultValue.toString() + ".").end();
@@ -0,0 +1,107 @@
+/**
+ * Copyright (C) 2009-2010 Wilfred Springer
+ *
+ * This file is part of Preon.
+ *
+ * Preon is free software; you can redistribute it and/or modify it under the
+ * terms of the GNU General Public License as published by the Free Software
+ * Foundation; either version 2, or (at your option) any later version.
+ *
+ * Preon is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR
+ * A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * Preon; see the file COPYING. If not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Linking this library statically or dynamically with other modules is making a
+ * combined work based on this library. Thus, the terms and conditions of the
+ * GNU General Public License cover the whole combination.
+ *
+ * As a special exception, the copyright holders of this library give you
+ * permission to link this library with independent modules to produce an
+ * executable, regardless of the license terms of these independent modules, and
+ * to copy and distribute the resulting executable under terms of your choice,
+ * provided that you also meet, for each linked independent module, the terms
+ * and conditions of the license of that module. An independent module is a
+ * module which is not derived from or based on this library. If you modify this
+ * library, you may extend this exception to your version of the library, but
+ * you are not obligated to do so. If you do not wish to do so, delete this
+ * exception statement from your version.
+ */
+package org.codehaus.preon.codec;
+
+import org.codehaus.preon.Builder;
+import org.codehaus.preon.Codec;
+import org.codehaus.preon.CodecDescriptor;
+import org.codehaus.preon.DecodingException;
+import org.codehaus.preon.Resolver;
+import org.codehaus.preon.buffer.BitBuffer;
+import org.codehaus.preon.channel.BitChannel;
+import org.codehaus.preon.el.Expression;
+
+import java.io.IOException;
+import java.util.function.Predicate;
+
+/**
+ * The {@link Codec} decoding values using another {@link Codec}, returning <code>null</code> for all values for which a
+ * predicate does not hold. Values are decoded entirely before testing the predicate; {@link ObjectCodec} provides a
+ * version that tests the predicate earlier.
+ *
+ * @author Wilfred Springer
+ * @param <T> The type of value decoded.
+ */
+public class FilteringCodec<T> implements Codec<T> {
+
+    private final Codec<T> codec;
+
+    private final Predicate<? super T> predicate;
+
+    public FilteringCodec(Codec<T> codec, Predicate<? super T> predicate) {
+        this.codec = codec;
+        this.predicate = predicate;
+    }
+
+    public T decode(BitBuffer buffer, Resolver resolver, Builder builder) throws DecodingException {
+        T value = codec.decode(buffer, resolver, builder);
+        return predicate.test(value) ? value : null;
+    }
+
+    public void encode(T value, BitChannel channel, Resolver resolver) throws IOException {
+        codec.encode(value, channel, resolver);
+    }
+
+    public Expression<Integer, Resolver> getSize() {
+        return codec.getSize();
+    }
+
+    public long probeSize(BitBuffer buffer, Resolver resolver, Builder builder) throws DecodingException {
+        return codec.probeSize(buffer, resolver, builder);
+    }
+
+    /**
+     * Returns a {@link Codec} testing the predicate on the values decoded by the projection of the {@link Codec}
+     * wrapped, so only on the fields selected.
+     */
+    public Codec<T> project(String... paths) {
+        return new FilteringCodec<T>(codec.project(paths), predicate);
+    }
+
+    public <V> V view(Class<V> type) {
+        return codec.view(type);
+    }
+
+    public CodecDescriptor getCodecDescriptor() {
+        return codec.getCodecDescriptor();
+    }
+
+    public Class<?>[] getTypes() {
+        return codec.getTypes();
+    }
+
+    public Class<?> getType() {
+        return codec.getType();
+    }
+
+}
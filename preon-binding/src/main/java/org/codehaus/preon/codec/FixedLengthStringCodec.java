@@ -48,6 +48,7 @@ import java.nio.BufferUnderflowException;
 import org.codehaus.preon.buffer.BitBuffer;
 import org.codehaus.preon.channel.BitChannel;
 import org.codehaus.preon.descriptor.Documenters;
+import org.codehaus.preon.util.StringCache;
 
 import java.io.IOException;
 
@@ -67,14 +68,24 @@ public class FixedLengthStringCodec implements Codec<String> {
 
     private final BoundString.ByteConverter byteConverter;
 
+    /** The cache to take decoded Strings from, or <code>null</code> if every String should be decoded. */
+    private final StringCache cache;
+
     public FixedLengthStringCodec(Charset encoding,
                                   Expression<Integer, Resolver> sizeExpr, String match,
                                   BoundString.ByteConverter byteConverter) {
+        this(encoding, sizeExpr, match, byteConverter, null);
+    }
+
+    public FixedLengthStringCodec(Charset encoding,
+                                  Expression<Integer, Resolver> sizeExpr, String match,
+                                  BoundString.ByteConverter byteConverter, StringCache cache) {
         this.encoding = encoding;
         this.sizeExpr = sizeExpr;
         this.match = match;
         this.byteConverter = byteConverter;
         this.encoder = encoding.newEncoder();
+        this.cache = cache;
     }
 
     public String decode(BitBuffer buffer, Resolver resolver,
@@ -83,16 +94,27 @@ public class FixedLengthStringCodec implements Codec<String> {
 		 * and feeds it into encoding.decode.
 		 * */
         int size = sizeExpr.eval(resolver);
-        ByteBuffer bytebuffer = ByteBuffer.allocate(size);
-		byte readbyte;
-		for (int i = 0; i < size; i++) {
-			readbyte = byteConverter.convert(buffer.readAsByte(8));
-            bytebuffer.put(readbyte);
-        }
-        bytebuffer.rewind();
         String result;
-        result = encoding.decode(bytebuffer).toString();
-        result = result.trim(); // remove padding characters
+        if (cache != null && buffer.getActualBitPos() % 8 == 0
+                && byteConverter.getClass() == BoundString.NullConverter.class) {
+            // Look up the String using the bytes backing the buffer, without copying them
+            ByteBuffer slice = buffer.readAsByteBuffer(size);
+            result = cache.get(slice, slice.position(), size, encoding, true);
+        } else {
+            ByteBuffer bytebuffer = ByteBuffer.allocate(size);
+            byte readbyte;
+            for (int i = 0; i < size; i++) {
+                readbyte = byteConverter.convert(buffer.readAsByte(8));
+                bytebuffer.put(readbyte);
+            }
+            bytebuffer.rewind();
+            if (cache != null) {
+                result = cache.get(bytebuffer, 0, size, encoding, true);
+            } else {
+                result = encoding.decode(bytebuffer).toString();
+                result = result.trim(); // remove padding characters
+            }
+        }
         if (match.length() > 0) {
             if (!match.equals(result)) {
                 throw new DecodingException(new IllegalStateException(
@@ -0,0 +1,355 @@
+/**
+ * Copyright (C) 2009-2010 Wilfred Springer
+ *
+ * This file is part of Preon.
+ *
+ * Preon is free software; you can redistribute it and/or modify it under the
+ * terms of the GNU General Public License as published by the Free Software
+ * Foundation; either version 2, or (at your option) any later version.
+ *
+ * Preon is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR
+ * A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * Preon; see the file COPYING. If not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Linking this library statically or dynamically with other modules is making a
+ * combined work based on this library. Thus, the terms and conditions of the
+ * GNU General Public License cover the whole combination.
+ *
+ * As a special exception, the copyright holders of this library give you
+ * permission to link this library with independent modules to produce an
+ * executable, regardless of the license terms of these independent modules, and
+ * to copy and distribute the resulting executable under terms of your choice,
+ * provided that you also meet, for each linked independent module, the terms
+ * and conditions of the license of that module. An independent module is a
+ * module which is not derived from or based on this library. If you modify this
+ * library, you may extend this exception to your version of the library, but
+ * you are not obligated to do so. If you do not wish to do so, delete this
+ * exception statement from your version.
+ */
+package org.codehaus.preon.codec;
+
+import net.sf.cglib.proxy.Callback;
+import net.sf.cglib.proxy.CallbackFilter;
+import net.sf.cglib.proxy.Dispatcher;
+import net.sf.cglib.proxy.Enhancer;
+import net.sf.cglib.proxy.Factory;
+import net.sf.cglib.proxy.FixedValue;
+import net.sf.cglib.proxy.NoOp;
+import org.codehaus.preon.Builder;
+import org.codehaus.preon.CodecConstructionException;
+import org.codehaus.preon.DecodingException;
+import org.codehaus.preon.DefaultBuilder;
+import org.codehaus.preon.Flyweight;
+import org.codehaus.preon.LazyDecodingException;
+import org.codehaus.preon.Resolver;
+import org.codehaus.preon.binding.Binding;
+import org.codehaus.preon.buffer.BitBuffer;
+import org.codehaus.preon.el.BindingException;
+import org.codehaus.preon.el.Expression;
+
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Creates the views returned by {@link ObjectCodec#view(Class)}. The class implementing the view is generated once,
+ * when the factory is constructed. Every getter of the view is backed by a {@link FixedValue} callback decoding the
+ * value of the corresponding {@link Binding}, and all methods of {@link Flyweight} are dispatched to a {@link Cursor}
+ * keeping track of the position of the current record.
+ * <p/>
+ * <p> The position of every binding is computed when first needed, by adding up the sizes of the bindings preceding
+ * it. Constant sizes are determined once; the data of all other bindings is {@link Binding#skip(Object, BitBuffer,
+ * Resolver, Builder) skipped} if possible, or decoded to find out where it ends otherwise. </p>
+ * <p/>
+ * <p> Getters fail with a {@link LazyDecodingException} if the data cannot be decoded. </p>
+ *
+ * @author Wilfred Springer
+ * @param <V> The type of view.
+ */
+class FlyweightFactory<V> {
+
+    /** The index of the callback invoking the implementation of the view type itself. */
+    private static final int SUPER = 0;
+
+    /** The index of the callback handling the methods of {@link Flyweight}. */
+    private static final int CURSOR = 1;
+
+    private static final Builder BUILDER = new DefaultBuilder();
+
+    private final Class<V> type;
+
+    private final Binding[] bindings;
+
+    private final Map<String, Integer> indexByName = new HashMap<String, Integer>();
+
+    /** The size of every binding, in bits, if constant; <code>-1</code> otherwise. */
+    private final int[] sizes;
+
+    /** The index of the binding read by every getter, in the order of the callbacks following {@link #CURSOR}. */
+    private final int[] getters;
+
+    private final Factory prototype;
+
+    /**
+     * Constructs a new instance.
+     *
+     * @param type     The type of view, an interface or abstract class with getters for (some of) the bindings.
+     * @param bindings The bindings of the records viewed.
+     * @throws CodecConstructionException If the view type declares abstract methods that do not match any binding.
+     */
+    public FlyweightFactory(Class<V> type, List<Binding> bindings) {
+        this.type = type;
+        this.bindings = bindings.toArray(new Binding[bindings.size()]);
+        this.sizes = new int[this.bindings.length];
+        for (int i = 0; i < this.bindings.length; i++) {
+            Binding binding = this.bindings[i];
+            indexByName.put(binding.getName(), i);
+            Expression<Integer, Resolver> size = binding.getSize();
+            sizes[i] = size != null && !size.isParameterized() ? size.eval(null) : -1;
+        }
+        final Map<String, Integer> callbacks = new HashMap<String, Integer>();
+        List<Integer> getters = new ArrayList<Integer>();
+        for (Method method : type.getMethods()) {
+            if (!Modifier.isAbstract(method.getModifiers()) || isFlyweightMethod(method)) {
+                continue;
+            }
+            if (method.getParameterTypes().length > 0) {
+                throw new CodecConstructionException("Cannot implement " + method.getName() + " of view "
+                        + type.getSimpleName() + "; only getters are supported.");
+            }
+            Integer index = indexByName.get(getFieldName(method.getName()));
+            if (index == null) {
+                throw new CodecConstructionException("No field corresponding to " + method.getName()
+                        + " of view " + type.getSimpleName());
+            }
+            if (!box(method.getReturnType()).isAssignableFrom(box(this.bindings[index].getType()))) {
+                throw new CodecConstructionException("Cannot return " + this.bindings[index].getType().getSimpleName()
+                        + " from " + method.getName() + " of view " + type.getSimpleName());
+            }
+            callbacks.put(method.getName(), CURSOR + 1 + getters.size());
+            getters.add(index);
+        }
+        this.getters = new int[getters.size()];
+        for (int i = 0; i < this.getters.length; i++) {
+            this.getters[i] = getters.get(i);
+        }
+        Enhancer enhancer = new Enhancer();
+        enhancer.setClassLoader(type.getClassLoader());
+        if (type.isInterface()) {
+            enhancer.setInterfaces(new Class<?>[]{type, Flyweight.class});
+        } else {
+            enhancer.setSuperclass(type);
+            enhancer.setInterfaces(new Class<?>[]{Flyweight.class});
+        }
+        enhancer.setCallbackFilter(new CallbackFilter() {
+            public int accept(Method method) {
+                if (isFlyweightMethod(method)) {
+                    return CURSOR;
+                }
+                Integer index = method.getParameterTypes().length == 0 ? callbacks.get(method.getName()) : null;
+                return index == null ? SUPER : index;
+            }
+        });
+        Callback[] prototypes = new Callback[CURSOR + 1 + this.getters.length];
+        prototypes[SUPER] = NoOp.INSTANCE;
+        for (int i = CURSOR; i < prototypes.length; i++) {
+            prototypes[i] = new FixedValue() {
+                public Object loadObject() {
+                    throw new IllegalStateException("Prototype of view " + FlyweightFactory.this.type.getName());
+                }
+            };
+        }
+        prototypes[CURSOR] = new Dispatcher() {
+            public Object loadObject() {
+                throw new IllegalStateException("Prototype of view " + FlyweightFactory.this.type.getName());
+            }
+        };
+        enhancer.setCallbacks(prototypes);
+        this.prototype = (Factory) enhancer.create();
+    }
+
+    /**
+     * Creates a new view, not pointing to any record yet.
+     */
+    public V create() {
+        Cursor cursor = new Cursor();
+        Callback[] callbacks = new Callback[CURSOR + 1 + getters.length];
+        callbacks[SUPER] = NoOp.INSTANCE;
+        callbacks[CURSOR] = cursor;
+        for (int i = 0; i < getters.length; i++) {
+            callbacks[CURSOR + 1 + i] = new Getter(cursor, getters[i]);
+        }
+        return type.cast(prototype.newInstance(callbacks));
+    }
+
+    private static boolean isFlyweightMethod(Method method) {
+        try {
+            Flyweight.class.getMethod(method.getName(), method.getParameterTypes());
+            return true;
+        } catch (NoSuchMethodException nsme) {
+            return false;
+        }
+    }
+
+    /**
+     * Returns the name of the field read by the getter with the given name: <code>getFoo</code> and <code>isFoo</code>
+     * read <code>foo</code>; all other getters read the field with the same name.
+     */
+    private static String getFieldName(String methodName) {
+        String name = methodName;
+        if (name.startsWith("get") && name.length() > 3) {
+            name = name.substring(3);
+        } else if (name.startsWith("is") && name.length() > 2) {
+            name = name.substring(2);
+        } else {
+            return name;
+        }
+        return Character.toLowerCase(name.charAt(0)) + name.substring(1);
+    }
+
+    private static Class<?> box(Class<?> type) {
+        if (!type.isPrimitive()) {
+            return type;
+        } else if (type == int.class) {
+            return Integer.class;
+        } else if (type == long.class) {
+            return Long.class;
+        } else if (type == short.class) {
+            return Short.class;
+        } else if (type == byte.class) {
+            return Byte.class;
+        } else if (type == boolean.class) {
+            return Boolean.class;
+        } else if (type == char.class) {
+            return Character.class;
+        } else if (type == float.class) {
+            return Float.class;
+        } else if (type == double.class) {
+            return Double.class;
+        } else {
+            return Void.class;
+        }
+    }
+
+    /**
+     * The state of a view: the record it points to, and the positions of the bindings of that record computed so far.
+     */
+    private class Cursor implements Flyweight, Dispatcher, Resolver {
+
+        private BitBuffer buffer;
+
+        /** The position of every binding, followed by the position of the end of the record. */
+        private final long[] offsets = new long[bindings.length + 1];
+
+        /** The number of positions in {@link #offsets} computed so far, besides the first one. */
+        private int known;
+
+        public void wrap(BitBuffer buffer, long bitPos) {
+            this.buffer = buffer;
+            offsets[0] = bitPos;
+            known = 0;
+        }
+
+        public void next() throws DecodingException {
+            wrap(buffer, getOffset(bindings.length));
+        }
+
+        public BitBuffer getBuffer() {
+            return buffer;
+        }
+
+        public long getBitPos() {
+            return offsets[0];
+        }
+
+        public long getBitSize() throws DecodingException {
+            return getOffset(bindings.length) - offsets[0];
+        }
+
+        /**
+         * Decodes the value of the binding with the given index.
+         */
+        public Object read(int index) throws DecodingException {
+            if (buffer == null) {
+                throw new IllegalStateException("View of " + type.getSimpleName() + " not pointing to any record");
+            }
+            buffer.setBitPos(getOffset(index));
+            return bindings[index].decode(buffer, this, BUILDER);
+        }
+
+        private long getOffset(int index) throws DecodingException {
+            while (known < index) {
+                int bits = sizes[known];
+                if (bits >= 0) {
+                    offsets[known + 1] = offsets[known] + bits;
+                } else {
+                    buffer.setBitPos(offsets[known]);
+                    if (!bindings[known].skip(null, buffer, this, BUILDER)) {
+                        bindings[known].decode(buffer, this, BUILDER);
+                    }
+                    offsets[known + 1] = buffer.getBitPos();
+                }
+                known++;
+            }
+            return offsets[index];
+        }
+
+        public Object get(String name) {
+            Integer index = indexByName.get(name);
+            if (index == null) {
+                throw new BindingException("Failed to resolve " + name + " on view of " + type.getSimpleName());
+            }
+            // Might be invoked half-way decoding another binding
+            long pos = buffer.getBitPos();
+            try {
+                return read(index);
+            } catch (DecodingException de) {
+                throw new BindingException("Failed to decode " + name, de);
+            } finally {
+                buffer.setBitPos(pos);
+            }
+        }
+
+        public Resolver getOriginalResolver() {
+            return this;
+        }
+
+        public Object loadObject() {
+            return this;
+        }
+
+    }
+
+    /**
+     * The callback implementing a getter of the view.
+     */
+    private class Getter implements FixedValue {
+
+        private final Cursor cursor;
+
+        private final int index;
+
+        public Getter(Cursor cursor, int index) {
+            this.cursor = cursor;
+            this.index = index;
+        }
+
+        public Object loadObject() {
+            try {
+                return cursor.read(index);
+            } catch (DecodingException de) {
+                throw new LazyDecodingException("Failed to decode " + bindings[index].getName() + " of view "
+                        + type.getSimpleName(), de);
+            }
+        }
+
+    }
+
+}
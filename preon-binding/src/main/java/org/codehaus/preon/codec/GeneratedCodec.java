@@ -0,0 +1,236 @@
+/**
+ * Copyright (C) 2009-2010 Wilfred Springer
+ *
+ * This file is part of Preon.
+ *
+ * Preon is free software; you can redistribute it and/or modify it under the
+ * terms of the GNU General Public License as published by the Free Software
+ * Foundation; either version 2, or (at your option) any later version.
+ *
+ * Preon is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR
+ * A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * Preon; see the file COPYING. If not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Linking this library statically or dynamically with other modules is making a
+ * combined work based on this library. Thus, the terms and conditions of the
+ * GNU General Public License cover the whole combination.
+ *
+ * As a special exception, the copyright holders of this library give you
+ * permission to link this library with independent modules to produce an
+ * executable, regardless of the license terms of these independent modules, and
+ * to copy and distribute the resulting executable under terms of your choice,
+ * provided that you also meet, for each linked independent module, the terms
+ * and conditions of the license of that module. An independent module is a
+ * module which is not derived from or based on this library. If you modify this
+ * library, you may extend this exception to your version of the library, but
+ * you are not obligated to do so. If you do not wish to do so, delete this
+ * exception statement from your version.
+ */
+package org.codehaus.preon.codec;
+
+import org.codehaus.preon.*;
+import org.codehaus.preon.buffer.BitBuffer;
+import org.codehaus.preon.channel.BitChannel;
+import org.codehaus.preon.el.Expression;
+
+import java.io.IOException;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.reflect.Field;
+import java.util.function.Predicate;
+
+/**
+ * The base class of {@link Codec Codecs} generated at build time by the Preon annotation processor. The generated
+ * subclass implements {@link #decode(BitBuffer, Resolver, Builder)} and {@link #probeSize(BitBuffer, Resolver,
+ * Builder)} in plain Java, with all expressions compiled to Java code, and {@link #getSize()} if the type has a fixed
+ * size. Everything else (encoding, the size of other types, projections, filters, views and the documentation) is
+ * delegated to the {@link ObjectCodec} that would have been used otherwise, which is only constructed if any of these
+ * operations is actually used.
+ * <p/>
+ * <p> Fields that are not accessible from the generated {@link Codec}, such as private fields, are accessed through
+ * {@link MethodHandle MethodHandles} obtained using {@link #getter(Class, String)} and {@link #setter(Class, String)}.
+ * </p>
+ * <p/>
+ * <p> The generated {@link Codec} of type <code>com.acme.Foo</code> is called <code>com.acme.Foo_PreonCodec</code>. For
+ * a nested type <code>com.acme.Foo.Bar</code>, it is called <code>com.acme.Foo_Bar_PreonCodec</code>. (See {@link
+ * #getGeneratedCodecName(Class)}.) </p>
+ *
+ * @author Wilfred Springer
+ * @param <T> The type of object decoded by this {@link Codec}.
+ */
+public abstract class GeneratedCodec<T> implements Codec<T> {
+
+    /** The suffix appended to the (flattened) name of a type to obtain the name of its generated {@link Codec}. */
+    public static final String SUFFIX = "_PreonCodec";
+
+    private final Class<T> type;
+
+    /** The {@link Codec} constructed by reflection, used for everything but decoding. */
+    private volatile Codec<T> reflective;
+
+    protected GeneratedCodec(Class<T> type) {
+        this.type = type;
+    }
+
+    /**
+     * Returns the fully qualified name of the {@link Codec} generated for the type passed in.
+     */
+    public static String getGeneratedCodecName(Class<?> type) {
+        String name = type.getName();
+        int index = name.lastIndexOf('.');
+        String packagePrefix = index < 0 ? "" : name.substring(0, index + 1);
+        return packagePrefix + name.substring(index + 1).replace('$', '_') + SUFFIX;
+    }
+
+    /**
+     * Returns the {@link Codec} generated for the type passed in, or <code>null</code> if there is none.
+     *
+     * @throws CodecConstructionException If a generated {@link Codec} exists, but cannot be instantiated.
+     */
+    @SuppressWarnings("unchecked")
+    public static <T> Codec<T> find(Class<T> type) {
+        if (type.isPrimitive() || type.isArray()) {
+            return null;
+        }
+        Class<?> codecType;
+        try {
+            codecType = Class.forName(getGeneratedCodecName(type), true, type.getClassLoader());
+        } catch (ClassNotFoundException cnfe) {
+            return null;
+        }
+        if (!GeneratedCodec.class.isAssignableFrom(codecType)) {
+            return null;
+        }
+        try {
+            return (Codec<T>) codecType.getConstructor().newInstance();
+        } catch (Exception e) {
+            throw new CodecConstructionException("Failed to instantiate " + codecType.getName() + ": " + e);
+        }
+    }
+
+    /**
+     * Creates the instance to decode into.
+     */
+    protected T create(Builder builder) throws DecodingException {
+        try {
+            return builder.create(type);
+        } catch (InstantiationException ie) {
+            throw new DecodingException(type, ie);
+        } catch (IllegalAccessException iae) {
+            throw new DecodingException(iae);
+        }
+    }
+
+    /**
+     * Returns a {@link MethodHandle} reading the field passed in, even if it is not accessible.
+     *
+     * @throws CodecConstructionException If the field does not exist, or cannot be made accessible.
+     */
+    protected static MethodHandle getter(Class<?> type, String name) {
+        try {
+            return MethodHandles.lookup().unreflectGetter(getField(type, name));
+        } catch (IllegalAccessException iae) {
+            throw new CodecConstructionException("Failed to access " + name + " of " + type.getName() + ": " + iae);
+        }
+    }
+
+    /**
+     * Returns a {@link MethodHandle} writing the field passed in, even if it is not accessible.
+     *
+     * @throws CodecConstructionException If the field does not exist, or cannot be made accessible.
+     */
+    protected static MethodHandle setter(Class<?> type, String name) {
+        try {
+            return MethodHandles.lookup().unreflectSetter(getField(type, name));
+        } catch (IllegalAccessException iae) {
+            throw new CodecConstructionException("Failed to access " + name + " of " + type.getName() + ": " + iae);
+        }
+    }
+
+    private static Field getField(Class<?> type, String name) {
+        try {
+            Field field = type.getDeclaredField(name);
+            field.setAccessible(true);
+            return field;
+        } catch (NoSuchFieldException nsfe) {
+            throw new CodecConstructionException("No field " + name + " in " + type.getName());
+        }
+    }
+
+    /**
+     * Rethrows the {@link Throwable} passed in, raised by invoking a {@link MethodHandle} returned by {@link
+     * #getter(Class, String)} or {@link #setter(Class, String)}. Since these do not throw checked exceptions, anything
+     * else is wrapped in an {@link IllegalStateException}.
+     */
+    protected static RuntimeException rethrow(Throwable throwable) {
+        if (throwable instanceof RuntimeException) {
+            throw (RuntimeException) throwable;
+        } else if (throwable instanceof Error) {
+            throw (Error) throwable;
+        } else {
+            throw new IllegalStateException(throwable);
+        }
+    }
+
+    /**
+     * Returns the {@link Codec} constructed by reflection, constructing it on first use.
+     */
+    protected Codec<T> getReflectiveCodec() {
+        Codec<T> result = reflective;
+        if (result == null) {
+            result = new DefaultCodecFactory().create(null, type, null);
+            reflective = result;
+        }
+        return result;
+    }
+
+    public void encode(T value, BitChannel channel, Resolver resolver) throws IOException {
+        getReflectiveCodec().encode(value, channel, resolver);
+    }
+
+    public Expression<Integer, Resolver> getSize() {
+        return getReflectiveCodec().getSize();
+    }
+
+    public long probeSize(BitBuffer buffer, Resolver resolver, Builder builder)
+            throws DecodingException {
+        return getReflectiveCodec().probeSize(buffer, resolver, builder);
+    }
+
+    public Codec<T> project(String... paths) {
+        return getReflectiveCodec().project(paths);
+    }
+
+    public Codec<T> filter(String condition) {
+        return getReflectiveCodec().filter(condition);
+    }
+
+    public Codec<T> filter(Predicate<? super T> predicate, String... fields) {
+        return getReflectiveCodec().filter(predicate, fields);
+    }
+
+    public <V> V view(Class<V> type) {
+        return getReflectiveCodec().view(type);
+    }
+
+    public CodecDescriptor getCodecDescriptor() {
+        return getReflectiveCodec().getCodecDescriptor();
+    }
+
+    public Class<?>[] getTypes() {
+        return new Class<?>[]{type};
+    }
+
+    public Class<?> getType() {
+        return type;
+    }
+
+    public String toString() {
+        return "Generated codec of " + type.getSimpleName();
+    }
+
+}
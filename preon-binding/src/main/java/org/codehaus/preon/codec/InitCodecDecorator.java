@@ -44,6 +44,7 @@ import java.lang.reflect.AnnotatedElement;
 import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
 import java.lang.reflect.Modifier;
+import java.util.function.Predicate;
 
 /**
  * A decorator that will inspect all methods on the object constructed by the {@link Codec} to be decorated, and create
@@ -105,17 +106,27 @@ public class InitCodecDecorator implements CodecDecorator {
 
         public T decode(BitBuffer buffer, Resolver resolver, Builder builder)
                 throws DecodingException {
-            T result = codec.decode(buffer, resolver, builder);
+            return init(codec.decode(buffer, resolver, builder));
+        }
+
+        public T decodeInto(T target, BitBuffer buffer, Resolver resolver, Builder builder)
+                throws DecodingException {
+            return init(codec.decodeInto(target, buffer, resolver, builder));
+        }
+
+        /**
+         * Invokes the init method on the object passed in, if any.
+         */
+        private T init(T result) throws DecodingException {
             if (result != null) {
                 try {
                     method.invoke(result);
                 } catch (IllegalArgumentException e) {
-                    throw new DecodingException("Failed to invoke init method.");
+                    throw new DecodingException("Failed to invoke init method.", e);
                 } catch (IllegalAccessException e) {
-                    throw new DecodingException("Failed to invoke init method.");
+                    throw new DecodingException("Failed to invoke init method.", e);
                 } catch (InvocationTargetException e) {
-                    e.printStackTrace();
-                    throw new DecodingException("Failed to invoke init method.");
+                    throw new DecodingException("Failed to invoke init method.", e.getCause());
                 }
             }
             return result;
@@ -143,6 +154,27 @@ public class InitCodecDecorator implements CodecDecorator {
             return codec.getSize();
         }
 
+        public long probeSize(BitBuffer buffer, Resolver resolver, Builder builder)
+                throws DecodingException {
+            return codec.probeSize(buffer, resolver, builder);
+        }
+
+        public Codec<T> project(String... paths) {
+            return new InitCodec<T>(codec.project(paths), method);
+        }
+
+        public Codec<T> filter(String condition) {
+            return new InitCodec<T>(codec.filter(condition), method);
+        }
+
+        public Codec<T> filter(Predicate<? super T> predicate, String... fields) {
+            return new InitCodec<T>(codec.filter(predicate, fields), method);
+        }
+
+        public <V> V view(Class<V> type) {
+            return codec.view(type);
+        }
+
         public Class<?> getType() {
             return codec.getType();
         }
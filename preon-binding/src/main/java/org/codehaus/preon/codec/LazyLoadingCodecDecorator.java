@@ -32,9 +32,13 @@
  */
 package org.codehaus.preon.codec;
 
+import net.sf.cglib.proxy.Callback;
+import net.sf.cglib.proxy.CallbackFilter;
 import net.sf.cglib.proxy.Enhancer;
+import net.sf.cglib.proxy.Factory;
 import net.sf.cglib.proxy.MethodInterceptor;
 import net.sf.cglib.proxy.MethodProxy;
+import net.sf.cglib.proxy.NoOp;
 import org.codehaus.preon.el.Expression;
 import org.codehaus.preon.*;
 import org.codehaus.preon.annotation.LazyLoading;
@@ -45,6 +49,7 @@ import org.codehaus.preon.descriptor.PassThroughCodecDescriptor2;
 import java.io.IOException;
 import java.lang.reflect.AnnotatedElement;
 import java.lang.reflect.Method;
+import java.util.function.Predicate;
 
 /**
  * An attempt to create a general purpose {@link CodecFactory} whose {@link Codec Codecs} will only load their data once
@@ -67,7 +72,13 @@ public class LazyLoadingCodecDecorator implements CodecDecorator {
 
     /**
      * A {@link Codec} that will only start loading the data when one of the
-     * methods of that object are invoked.
+     * methods of that object are invoked. The proxy class is generated only
+     * once, after which every proxy is created through cglib's {@link Factory}
+     * interface, which is not much more expensive than a plain constructor call.
+     * (Provided that the proxy class does not override {@link Object#finalize()};
+     * every instance of a class that does needs to be registered with the
+     * garbage collector, making it several orders of magnitude more expensive to
+     * create. Which is why <code>finalize()</code> is never intercepted.)
      *
      * @author Wilfred Springer (wis)
      *
@@ -75,6 +86,17 @@ public class LazyLoadingCodecDecorator implements CodecDecorator {
      */
     public static class LazyLoadingCodec<T> implements Codec<T> {
 
+        /**
+         * Passes {@link Object#finalize()} to the second callback, and all
+         * other methods to the first one.
+         */
+        private static final CallbackFilter FINALIZE_FILTER = new CallbackFilter() {
+            public int accept(Method method) {
+                return "finalize".equals(method.getName())
+                        && method.getParameterTypes().length == 0 ? 1 : 0;
+            }
+        };
+
         /**
          * The {@link Codec} to use.
          */
@@ -85,6 +107,18 @@ public class LazyLoadingCodecDecorator implements CodecDecorator {
          */
         private Class<T> type;
 
+        /**
+         * The number of bits occupied by the data, if it does not depend on
+         * the context; <code>-1</code> otherwise.
+         */
+        private final int constantSize;
+
+        /**
+         * An instance of the proxy class, used for creating other instances;
+         * <code>null</code> until the first value gets decoded.
+         */
+        private volatile Factory prototype;
+
         /**
          * Constructs a new instance.
          *
@@ -96,6 +130,8 @@ public class LazyLoadingCodecDecorator implements CodecDecorator {
         public LazyLoadingCodec(Codec<T> wrapped, Class<T> type) {
             this.wrapped = wrapped;
             this.type = type;
+            Expression<Integer, Resolver> size = wrapped.getSize();
+            this.constantSize = size == null || size.isParameterized() ? -1 : size.eval(null);
         }
 
         /*
@@ -108,13 +144,9 @@ public class LazyLoadingCodecDecorator implements CodecDecorator {
         @SuppressWarnings("unchecked")
         public T decode(final BitBuffer buffer, final Resolver resolver,
                         final Builder builder) throws DecodingException {
-            final int size = wrapped.getSize().eval(resolver);
+            final int size = constantSize >= 0 ? constantSize : wrapped.getSize().eval(resolver);
             final long pos = buffer.getBitPos();
-            ClassLoader loader = this.getClass().getClassLoader();
-            Enhancer enhancer = new Enhancer();
-            enhancer.setClassLoader(loader);
-            enhancer.setSuperclass(type);
-            enhancer.setCallback(new MethodInterceptor() {
+            MethodInterceptor interceptor = new MethodInterceptor() {
 
                 private Object actual;
 
@@ -126,9 +158,32 @@ public class LazyLoadingCodecDecorator implements CodecDecorator {
                     }
                     return proxy.invoke(actual, args);
                 }
-            });
+            };
             buffer.setBitPos(pos + size);
-            return (T) enhancer.create();
+            return (T) getPrototype().newInstance(new Callback[]{interceptor, NoOp.INSTANCE});
+        }
+
+        /**
+         * Returns an instance of the proxy class, generating the class if that
+         * did not happen before.
+         */
+        private Factory getPrototype() {
+            Factory result = prototype;
+            if (result == null) {
+                Enhancer enhancer = new Enhancer();
+                enhancer.setClassLoader(this.getClass().getClassLoader());
+                enhancer.setSuperclass(type);
+                enhancer.setCallbackFilter(FINALIZE_FILTER);
+                enhancer.setCallbacks(new Callback[]{new MethodInterceptor() {
+                    public Object intercept(Object target, Method method,
+                                            Object[] args, MethodProxy proxy) throws Throwable {
+                        throw new IllegalStateException("Prototype of lazily loaded " + type.getName());
+                    }
+                }, NoOp.INSTANCE});
+                result = (Factory) enhancer.create();
+                prototype = result;
+            }
+            return result;
         }
 
         public void encode(T value, BitChannel channel, Resolver resolver) throws IOException {
@@ -155,6 +210,29 @@ public class LazyLoadingCodecDecorator implements CodecDecorator {
             return wrapped.getSize();
         }
 
+        public Codec<T> project(String... paths) {
+            return new LazyLoadingCodec<T>(wrapped.project(paths), type);
+        }
+
+        /**
+         * Returns the filtering {@link Codec} of the wrapped {@link Codec}. Whether a value should be skipped can only
+         * be decided by decoding (some of) it, so values are no longer loaded lazily.
+         */
+        public Codec<T> filter(String condition) {
+            return wrapped.filter(condition);
+        }
+
+        /**
+         * See {@link #filter(String)}.
+         */
+        public Codec<T> filter(Predicate<? super T> predicate, String... fields) {
+            return wrapped.filter(predicate, fields);
+        }
+
+        public <V> V view(Class<V> type) {
+            return wrapped.view(type);
+        }
+
         /*
          * (non-Javadoc)
          * 
@@ -49,13 +49,19 @@ import org.codehaus.preon.el.*;
 import org.codehaus.preon.util.AnnotationWrapper;
 import org.codehaus.preon.util.CodecDescriptorHolder;
 import org.codehaus.preon.util.EvenlyDistributedLazyList;
+import org.codehaus.preon.util.IntList;
+import org.codehaus.preon.util.LongList;
 import org.codehaus.preon.util.ParaContentsDocument;
+import org.codehaus.preon.util.UnevenlyDistributedLazyList;
 
 import java.lang.annotation.Annotation;
 import java.lang.reflect.AnnotatedElement;
 import java.util.ArrayList;
-import java.util.LinkedList;
+import java.util.Arrays;
 import java.util.List;
+import java.util.ListIterator;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
 
 /**
  * A {@link CodecFactory} capable of supporting Lists. <p/> <p> There are a couple of cases that we need to clarify.
@@ -64,7 +70,8 @@ import java.util.List;
  * items)</li> <li>The size of the list (in bytes)</li> <li>The size of the individual items in the list</li> <li>If
  * this is a constant or not</li> </ul> <p/> <p> Things are further complicated by the fact that sometimes these
  * questions can be answered at Codec construction time and in other cases at decoding time. In both cases, we might not
- * be able to determine all of these answers or even any of them at all. </p>
+ * be able to determine all of these answers or even any of them at all. </p> <p/> <p> Fields declared as {@link
+ * IntList} or {@link LongList} are decoded into lists backed by primitives, rather than by boxed numbers. </p>
  *
  * @author Wilfred Springer
  */
@@ -95,6 +102,9 @@ public class ListCodecFactory implements CodecFactory {
         BoundList settings = null;
         if (metadata != null
                 && (settings = metadata.getAnnotation(BoundList.class)) != null
+                && (IntList.class.equals(type) || LongList.class.equals(type))) {
+            return (Codec<T>) createPrimitiveListCodec(type, settings, context);
+        } else if (settings != null
                 && java.util.List.class.equals(type)) {
             Codec<?> codec = createElementCodec(context, settings);
             if (settings.size().length() == 0) {
@@ -103,7 +113,7 @@ public class ListCodecFactory implements CodecFactory {
                 // an 'EOF' or a DecodingException. In case of a
                 // DecodingException, the pointer is expected to be moved back
                 // to the first position.
-                return (Codec<T>) new DynamicListCodec(codec);
+                return (Codec<T>) new DynamicListCodec(codec, settings.parallel(), settings.lazy());
             } else if (settings.offset().length() != 0) {
                 // So the size is known. If the offset attribute has been set,
                 // it means we can calculate the position of the individual
@@ -132,13 +142,14 @@ public class ListCodecFactory implements CodecFactory {
                 Expression<Integer, Resolver> elementSize = codec.getSize();
                 if (elementSize != null && (!elementSize.isParameterized() || elementSize.isConstantFor(context))) {
                     if (!elementSize.isParameterized()) {
-                        return new StaticListCodec(expr, codec, elementSize);
+                        return new StaticListCodec(expr, codec, elementSize, settings.cacheSize());
                     } else {
                         elementSize = elementSize.rescope(context);
-                        return new StaticListCodec(expr.rescope(context), codec, elementSize);
+                        return new StaticListCodec(expr.rescope(context), codec, elementSize,
+                                settings.cacheSize());
                     }
                 } else {
-                    return new DynamicListCodec(codec);
+                    return new DynamicListCodec(codec, false, false);
                 }
             }
         } else {
@@ -147,6 +158,29 @@ public class ListCodecFactory implements CodecFactory {
 
     }
 
+    /**
+     * Creates the {@link Codec} for an {@link IntList} or {@link LongList}. Unless set explicitly, the type of element
+     * is implied by the type of list.
+     */
+    @SuppressWarnings("unchecked")
+    private Codec<?> createPrimitiveListCodec(Class<?> type, BoundList settings, ResolverContext context) {
+        if (settings.size().length() == 0 || settings.offset().length() != 0 || settings.types().length > 0) {
+            throw new CodecConstructionException("Lists of primitives require a size, and no offset or types.");
+        }
+        Class<?> elementType = settings.type();
+        if (elementType == Void.class) {
+            elementType = IntList.class.equals(type) ? Integer.class : Long.class;
+        }
+        Codec<Object> codec = (Codec<Object>) delegate.create(null, elementType, context);
+        Expression<Integer, Resolver> elementSize = codec.getSize();
+        if (elementSize == null || elementSize.isParameterized()
+                || !PrimitiveListCodec.supports(type, codec.getType(), elementSize.eval(null))) {
+            throw new CodecConstructionException("Unsupported type of element for " + type.getSimpleName() + ": "
+                    + elementType.getSimpleName());
+        }
+        return new PrimitiveListCodec(type, getSizeExpression(settings, context), codec, settings.lazy());
+    }
+
     private <T> Codec<?> createElementCodec(ResolverContext context, BoundList settings) {
         if (settings.types().length > 0) {
             BoundObject objectSettings = getObjectSettings(settings);
@@ -206,7 +240,7 @@ public class ListCodecFactory implements CodecFactory {
     /**
      * The {@link Codec} for reading the {@link List} and its members, on demand. Instances of this class will
      * <em>not</em> create a standard {@link List} implementation and populate all of its data immediately. Instead it
-     * will create a {@link org.codehaus.preon.util.UnevenlyDistributedLazyList}, constructing its elements on the fly,
+     * will create a {@link org.codehaus.preon.util.EvenlyDistributedLazyList}, constructing its elements on the fly,
      * only when it is required.
      * <p/>
      * <p/>
@@ -230,25 +264,38 @@ public class ListCodecFactory implements CodecFactory {
          */
         private Expression<Integer, Resolver> elementSize;
 
+        /**
+         * The number of decoded elements kept by the {@link List}.
+         */
+        private int cacheSize;
+
         /**
          * Constructs a new instance.
          *
-         * @param maxSize An {@link Expression} representing the number of elements in the {@link List}.
-         * @param codec   The {@link Codec} constructing elements in the {@link List}.
+         * @param maxSize   An {@link Expression} representing the number of elements in the {@link List}.
+         * @param codec     The {@link Codec} constructing elements in the {@link List}.
+         * @param cacheSize The number of decoded elements kept by the {@link List}.
          */
         public StaticListCodec(Expression<Integer, Resolver> maxSize,
                                Codec<T> codec,
-                               Expression<Integer, Resolver> elementSize) {
+                               Expression<Integer, Resolver> elementSize,
+                               int cacheSize) {
             this.size = maxSize;
             this.codec = codec;
             this.elementSize = elementSize;
+            this.cacheSize = cacheSize;
         }
 
         @SuppressWarnings("unchecked")
         public List<T> decode(BitBuffer buffer, Resolver resolver,
                               Builder builder) throws DecodingException {
-            return new EvenlyDistributedLazyList(codec, buffer.getBitPos(),
-                    buffer, size.eval(resolver), builder, resolver, elementSize.eval(resolver));
+            long start = buffer.getBitPos();
+            int numberOfElements = size.eval(resolver);
+            int bitsPerElement = elementSize.eval(resolver);
+            // Skip the elements; they will be decoded on demand
+            buffer.setBitPos(start + (long) numberOfElements * bitsPerElement);
+            return new EvenlyDistributedLazyList(codec, start,
+                    buffer, numberOfElements, builder, resolver, bitsPerElement, cacheSize);
         }
 
         public void encode(List<T> value, BitChannel channel, Resolver resolver) {
@@ -332,20 +379,56 @@ public class ListCodecFactory implements CodecFactory {
         return Expressions.createInteger(context, listSettings.size());
     }
 
+    /**
+     * The {@link Codec} decoding as many elements as possible, until the end of the buffer or the first element that
+     * fails to decode.
+     * <p/>
+     * <p> If decoding in parallel, the offsets of the elements are determined first, using {@link
+     * Codec#probeSize(BitBuffer, Resolver, Builder)}. The elements are then decoded concurrently, each from its own
+     * duplicate of the buffer. The first element that fails to decode, or that turns out to occupy a different number
+     * of bits than probed, is decoded again sequentially, as are all elements following it. As a result, the List
+     * and the position of the buffer are exactly the same as when decoding sequentially. </p>
+     * <p/>
+     * <p> If decoding lazily, the offsets are determined in the same way, and an {@link UnevenlyDistributedLazyList}
+     * decodes the elements on demand. This requires the size of every element to be known without decoding it; if
+     * that is not the case, the List is decoded sequentially instead. Since elements are not decoded before they are
+     * accessed, the lazy List ends at the end of the buffer, the first element that does not fit in the buffer, or the
+     * first element of which probing the size fails, rather than at the first element that fails to decode. An element
+     * that fails to decode entirely (for instance because of a <code>match</code> on a field not needed to determine
+     * the size) is part of the lazy List, and raises a {@link org.codehaus.preon.LazyDecodingException} when
+     * accessed. </p>
+     */
     private static class DynamicListCodec<T> implements Codec<List<T>> {
 
         private Codec<T> codec;
 
-        public DynamicListCodec(Codec<T> codec) {
+        private boolean parallel;
+
+        private boolean lazy;
+
+        public DynamicListCodec(Codec<T> codec, boolean parallel, boolean lazy) {
             this.codec = codec;
+            this.parallel = parallel;
+            this.lazy = lazy;
         }
 
         public List<T> decode(BitBuffer buffer, Resolver resolver,
                               Builder builder) throws DecodingException {
-            List<T> result = new LinkedList<T>();
+            if (lazy) {
+                Boundaries boundaries = scan(codec, buffer, resolver, builder);
+                if (boundaries.exhaustive) {
+                    buffer.setBitPos(boundaries.offsets[boundaries.count]);
+                    return new UnevenlyDistributedLazyList<T>(codec, boundaries.offsets, boundaries.count, buffer,
+                            builder, resolver);
+                }
+            }
+            List<T> result = new ArrayList<T>();
+            if (parallel) {
+                decodeParallel(result, buffer, resolver, builder);
+            }
             long mark = buffer.getBitPos();
             try {
-                while (true) {
+                while (buffer.getBitPos() < buffer.getBitBufBitSize()) {
                     T value = codec.decode(buffer, resolver, builder);
                     result.add(value);
                     mark = buffer.getBitPos();
@@ -363,6 +446,67 @@ public class ListCodecFactory implements CodecFactory {
             return result;
         }
 
+        /**
+         * Decodes the elements for which the offsets can be determined upfront in parallel, adding them to the result
+         * in order. Leaves the buffer positioned right after the last element added.
+         */
+        @SuppressWarnings("unchecked")
+        private void decodeParallel(List<T> result, BitBuffer buffer, Resolver resolver, Builder builder) {
+            Boundaries boundaries = scan(codec, buffer, resolver, builder);
+            if (boundaries.count < 2) {
+                // Not worth the trouble
+                return;
+            }
+            long[] offsets = boundaries.offsets;
+            ParallelDecoding<T> decoding = new ParallelDecoding<T>(codec, offsets, boundaries.count, buffer,
+                    resolver, builder);
+            ForkJoinPool.commonPool().invoke(decoding.new ElementDecoder(0, boundaries.count));
+            for (int i = 0; i < boundaries.count; i++) {
+                long next = decoding.ends[i];
+                if (next < 0) {
+                    return;
+                }
+                result.add((T) decoding.elements[i]);
+                buffer.setBitPos(next);
+                if (next != offsets[i + 1]) {
+                    return;
+                }
+            }
+        }
+
+        /**
+         * Refills the target list, decoding into the elements it already holds, in order. Elements remaining after
+         * the last element decoded will be removed.
+         */
+        public List<T> decodeInto(List<T> target, BitBuffer buffer, Resolver resolver,
+                                  Builder builder) throws DecodingException {
+            if (target == null || target instanceof UnevenlyDistributedLazyList) {
+                return decode(buffer, resolver, builder);
+            }
+            ListIterator<T> iterator = target.listIterator();
+            int count = 0;
+            long mark = buffer.getBitPos();
+            try {
+                while (buffer.getBitPos() < buffer.getBitBufBitSize()) {
+                    if (iterator.hasNext()) {
+                        T current = iterator.next();
+                        iterator.set(codec.decodeInto(current, buffer, resolver, builder));
+                    } else {
+                        iterator.add(codec.decode(buffer, resolver, builder));
+                    }
+                    count++;
+                    mark = buffer.getBitPos();
+                }
+            } catch (BitBufferUnderflowException oore) {
+                // Trying to read beyond the end of the file.
+            } catch (DecodingException de) {
+                // Same as in decode(...): the list is considered completed.
+                buffer.setBitPos(mark);
+            }
+            target.subList(count, target.size()).clear();
+            return target;
+        }
+
         public void encode(List<T> value, BitChannel channel, Resolver resolver) {
             throw new UnsupportedOperationException();
         }
@@ -432,6 +576,145 @@ public class ListCodecFactory implements CodecFactory {
 
     }
 
+    /**
+     * Determines the offsets of the elements starting at the current position of the buffer, using {@link
+     * Codec#probeSize(BitBuffer, Resolver, Builder)}, until reaching the end of the buffer, an element that cannot be
+     * decoded, or an element of which the size cannot be determined without decoding it. The position of the buffer
+     * is left untouched.
+     */
+    private static <T> Boundaries scan(Codec<T> codec, BitBuffer buffer, Resolver resolver, Builder builder) {
+        long start = buffer.getBitPos();
+        long end = buffer.getBitBufBitSize();
+        Boundaries boundaries = new Boundaries(start);
+        try {
+            long position = start;
+            while (position < end) {
+                long size = codec.probeSize(buffer, resolver, builder);
+                if (size <= 0) {
+                    boundaries.exhaustive = false;
+                    break;
+                } else if (position + size > end) {
+                    break;
+                }
+                position += size;
+                boundaries.add(position);
+                buffer.setBitPos(position);
+            }
+        } catch (BitBufferUnderflowException bbue) {
+            // The last element is incomplete.
+        } catch (DecodingException de) {
+            // Not an element of this List.
+        }
+        buffer.setBitPos(start);
+        return boundaries;
+    }
+
+    /**
+     * The offsets of the elements of a List, as determined by {@link #scan(Codec, BitBuffer, Resolver, Builder)}.
+     */
+    private static class Boundaries {
+
+        /** The offset of every element, followed by the offset right after the last element. */
+        private long[] offsets = new long[16];
+
+        /** The number of elements. */
+        private int count;
+
+        /** Whether scanning stopped at the end of the List, rather than at an element of unknown size. */
+        private boolean exhaustive = true;
+
+        public Boundaries(long start) {
+            offsets[0] = start;
+        }
+
+        private void add(long end) {
+            if (count + 1 == offsets.length) {
+                offsets = Arrays.copyOf(offsets, offsets.length * 2);
+            }
+            offsets[++count] = end;
+        }
+
+    }
+
+    /**
+     * The state shared by the tasks decoding the elements of a List in parallel. Every task writes to its own slots
+     * of {@link #elements} and {@link #ends} only; completing the tasks makes these visible to the thread waiting for
+     * them.
+     */
+    private static class ParallelDecoding<T> {
+
+        private final Codec<T> codec;
+
+        private final long[] offsets;
+
+        private final BitBuffer buffer;
+
+        private final Resolver resolver;
+
+        private final Builder builder;
+
+        /** The elements decoded, by index. */
+        private final Object[] elements;
+
+        /** The position right after each element decoded, or <code>-1</code> if it failed to decode. */
+        private final long[] ends;
+
+        public ParallelDecoding(Codec<T> codec, long[] offsets, int count, BitBuffer buffer, Resolver resolver,
+                                Builder builder) {
+            this.codec = codec;
+            this.offsets = offsets;
+            this.buffer = buffer;
+            this.resolver = resolver;
+            this.builder = builder;
+            this.elements = new Object[count];
+            this.ends = new long[count];
+        }
+
+        /**
+         * Decodes the elements in a range of indexes, splitting the range until it covers at most {@link #THRESHOLD}
+         * elements, which are then decoded one after the other using a single cursor.
+         */
+        private class ElementDecoder extends RecursiveAction {
+
+            private static final long serialVersionUID = 1L;
+
+            /** The number of elements below which splitting costs more than it saves. */
+            private static final int THRESHOLD = 64;
+
+            private final int from;
+
+            private final int to;
+
+            public ElementDecoder(int from, int to) {
+                this.from = from;
+                this.to = to;
+            }
+
+            protected void compute() {
+                if (to - from > THRESHOLD) {
+                    int middle = (from + to) >>> 1;
+                    invokeAll(new ElementDecoder(from, middle), new ElementDecoder(middle, to));
+                } else {
+                    BitBuffer cursor = buffer.duplicate();
+                    for (int i = from; i < to; i++) {
+                        cursor.setBitPos(offsets[i]);
+                        try {
+                            elements[i] = codec.decode(cursor, resolver, builder);
+                            ends[i] = cursor.getBitPos();
+                        } catch (DecodingException de) {
+                            ends[i] = -1;
+                        } catch (RuntimeException re) {
+                            // Will be raised again when decoding sequentially.
+                            ends[i] = -1;
+                        }
+                    }
+                }
+            }
+
+        }
+
+    }
+
     /**
      * A {@link Codec} for Lists. The type of List that will be created is determined at runtime, right before the
      * actual List is decoded. The {@link #skipListCodec} Codec will be used when the size of the individual list item
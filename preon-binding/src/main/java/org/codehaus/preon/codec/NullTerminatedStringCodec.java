@@ -40,13 +40,16 @@ import org.codehaus.preon.el.Expression;
 import nl.flotsam.pecia.SimpleContents;
 import nl.flotsam.pecia.Documenter;
 import nl.flotsam.pecia.ParaContents;
+import org.codehaus.preon.util.StringCache;
 
 import java.io.ByteArrayOutputStream;
 import java.io.UnsupportedEncodingException;
 
 import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
 import java.nio.CharBuffer;
 import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
 import java.nio.charset.CharsetEncoder;
 import java.nio.charset.CharsetDecoder;
 import java.nio.BufferUnderflowException;
@@ -57,6 +60,10 @@ import java.io.IOException;
  * A {@link org.codehaus.preon.Codec} that reads null-terminated Strings. Basically, it will read bytes until it
  * encounters a '\0' character, in which case it considers itself to be done, and construct a String from the bytes
  * read.
+ * <p/>
+ * <p> For encodings in which a zero byte can only be part of the '\0' character (US-ASCII, ISO-8859-1 and UTF-8),
+ * and as long as the string starts at a byte boundary, the terminator is located by scanning the bytes backing the
+ * {@link BitBuffer} eight at a time, after which the entire string is decoded at once. </p>
  *
  * @author Wilfred Springer (wis)
  */
@@ -70,15 +77,43 @@ public class NullTerminatedStringCodec implements Codec<String> {
 
     private BoundString.ByteConverter byteConverter;
 
+    /** Whether a zero byte always denotes the terminator in the encoding, allowing the bytes to be scanned for it. */
+    private final boolean scannable;
+
+    /** Whether the {@link #byteConverter} leaves all bytes untouched. */
+    private final boolean unconverted;
+
+    /**
+     * The cache to take decoded Strings from, or <code>null</code> if every String should be decoded. Only consulted
+     * while {@link #scan(BitBuffer) scanning}.
+     */
+    private final StringCache cache;
+
     public NullTerminatedStringCodec(Charset encoding, String match,
                                      BoundString.ByteConverter byteConverter) {
+        this(encoding, match, byteConverter, null);
+    }
+
+    public NullTerminatedStringCodec(Charset encoding, String match,
+                                     BoundString.ByteConverter byteConverter, StringCache cache) {
         this.encoding = encoding;
+        this.cache = cache;
         this.match = match;
         this.byteConverter = byteConverter;
+        this.scannable = StandardCharsets.US_ASCII.equals(encoding)
+                || StandardCharsets.ISO_8859_1.equals(encoding)
+                || StandardCharsets.UTF_8.equals(encoding);
+        this.unconverted = byteConverter.getClass() == BoundString.NullConverter.class;
     }
 
     public String decode(BitBuffer buffer, Resolver resolver,
                          Builder builder) throws DecodingException {
+        if (scannable && buffer.getActualBitPos() % 8 == 0) {
+            String result = scan(buffer);
+            if (result != null) {
+                return result;
+            }
+        }
 		/* This has been gutted, and now uses Charsets to do decoding.
 		 * It opens the bitbuffer as a bytebuffer (taking care to note
 		 * and preserve positions), creates a CharBuffer with space for
@@ -124,6 +159,77 @@ public class NullTerminatedStringCodec implements Codec<String> {
 		return sw.toString();
     }
 
+    /**
+     * Locates the terminating zero byte in the bytes backing the {@link BitBuffer}, and decodes all bytes preceding it
+     * at once. Only applicable if the current position is at a byte boundary, and if the encoding is {@link
+     * #scannable}.
+     *
+     * @param buffer The {@link BitBuffer} to read from.
+     * @return The String decoded, or <code>null</code> if no terminator could be found, in which case the position of
+     *         the buffer will be left untouched.
+     */
+    private String scan(BitBuffer buffer) {
+        long start = buffer.getBitPos();
+        int remaining = (int) Math.min(Integer.MAX_VALUE, (buffer.getBitBufBitSize() - start) >>> 3);
+        ByteBuffer bytes = buffer.readAsByteBuffer(remaining);
+        int length = -1;
+        if (unconverted) {
+            length = indexOfZero(bytes.order(ByteOrder.LITTLE_ENDIAN));
+        } else {
+            for (int i = 0; i < remaining && length < 0; i++) {
+                if (byteConverter.convert(bytes.get(i)) == 0) {
+                    length = i;
+                }
+            }
+        }
+        if (length < 0) {
+            buffer.setBitPos(start);
+            return null;
+        }
+        buffer.setBitPos(start + ((length + 1L) << 3));
+        if (unconverted && cache != null) {
+            return cache.get(bytes, 0, length, encoding, false);
+        } else if (unconverted && bytes.hasArray()) {
+            return new String(bytes.array(), bytes.arrayOffset(), length, encoding);
+        } else {
+            byte[] data = new byte[length];
+            bytes.get(data);
+            if (!unconverted) {
+                for (int i = 0; i < length; i++) {
+                    data[i] = byteConverter.convert(data[i]);
+                }
+            }
+            if (cache != null) {
+                return cache.get(ByteBuffer.wrap(data), 0, length, encoding, false);
+            }
+            return new String(data, encoding);
+        }
+    }
+
+    /**
+     * Returns the index of the first zero byte in the (little endian) {@link ByteBuffer}, or <code>-1</code> if there
+     * is none. Tests eight bytes at a time, relying on the fact that <code>(word - 0x01..01) & ~word & 0x80..80</code>
+     * is non-zero if any of the bytes in word is zero, with the lowest bit set in the byte that is the first zero
+     * byte.
+     */
+    private static int indexOfZero(ByteBuffer bytes) {
+        int limit = bytes.limit();
+        int i = 0;
+        for (; i + 8 <= limit; i += 8) {
+            long word = bytes.getLong(i);
+            long found = (word - 0x0101010101010101L) & ~word & 0x8080808080808080L;
+            if (found != 0) {
+                return i + (Long.numberOfTrailingZeros(found) >>> 3);
+            }
+        }
+        for (; i < limit; i++) {
+            if (bytes.get(i) == 0) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
     public void encode(String value, BitChannel channel, Resolver resolver) throws IOException {
 		/* This is a crude first attempt
 		 * */
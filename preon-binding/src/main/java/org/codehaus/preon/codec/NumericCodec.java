@@ -101,7 +101,7 @@ public class NumericCodec implements Codec<Object> {
 
     public Object decode(BitBuffer buffer, Resolver resolver,
                          Builder builder) throws DecodingException {
-        int size = ((Number) (this.sizeExpr.eval(resolver))).intValue();
+        int size = this.sizeExpr.eval(resolver);
         Object result = type.decode(buffer, size, byteOrder);
         if (matchExpr != null) {
             if (!matchExpr.eval(resolver).equals(Converters.toInt(result))) {
@@ -343,6 +343,7 @@ public class NumericCodec implements Codec<Object> {
      * A {@link org.codehaus.preon.CodecFactory} generating {@link org.codehaus.preon.Codec Codecs} capable of decoding
      * numbers from the {@link org.codehaus.preon.buffer.BitBuffer}. Note that the {@link org.codehaus.preon.Codec Codecs}
      * created by this class are capable to decode Longs, Integers, Shorts, Bytes, longs, ints, shorts and bytes.
+     * Numbers of a constant size, without a value to match, are decoded by a {@link ConstantNumericCodec}.
      *
      * @author Wilfred Springer
      */
@@ -360,8 +361,8 @@ public class NumericCodec implements Codec<Object> {
                     int size = numericType.getDefaultSize();
                     Expression<Integer, Resolver> sizeExpr = Expressions
                             .createInteger(context, Integer.toString(size));
-                    return (Codec<T>) new NumericCodec(sizeExpr, endian,
-                            numericType, null);
+                    return (Codec<T>) new ConstantNumericCodec(sizeExpr, endian,
+                            numericType);
                 }
                 if (overrides != null
                         && overrides.isAnnotationPresent(BoundNumber.class)) {
@@ -383,6 +384,10 @@ public class NumericCodec implements Codec<Object> {
                         matchExpr = Expressions.createInteger(context,
                                 numericMetadata.match());
                     }
+                    if (matchExpr == null && !sizeExpr.isParameterized()) {
+                        return (Codec<T>) new ConstantNumericCodec(sizeExpr, endian,
+                                numericType);
+                    }
                     return (Codec<T>) new NumericCodec(sizeExpr, endian,
                             numericType, matchExpr);
                 }
@@ -37,16 +37,26 @@ import org.codehaus.preon.descriptor.Documenters;
 import org.codehaus.preon.channel.BitChannel;
 import org.codehaus.preon.binding.Binding;
 import org.codehaus.preon.buffer.BitBuffer;
+import org.codehaus.preon.el.BindingException;
 import org.codehaus.preon.el.ObjectResolverContext;
 import org.codehaus.preon.rendering.IdentifierRewriter;
 import org.codehaus.preon.el.Expression;
 import org.codehaus.preon.el.Expressions;
+import org.codehaus.preon.el.InvalidExpressionException;
 import nl.flotsam.pecia.SimpleContents;
 import nl.flotsam.pecia.Documenter;
 import nl.flotsam.pecia.Table3Cols;
 import nl.flotsam.pecia.ParaContents;
 
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Predicate;
 import java.io.IOException;
 
 /**
@@ -54,6 +64,18 @@ import java.io.IOException;
  * constructed using the {@link ObjectCodecFactory} companion class that's embedded in the definition of this class. If
  * you do so, then the bindings will be based on the presence of annotations on the fields of the class for which you
  * need a {@link Codec}.</p>
+ *
+ * <p>If none of the bindings has a size depending on the data decoded, the instances decoded by this {@link Codec}
+ * have a fixed layout, and {@link #getSize()} returns a constant. The size expression is built only once, so {@link
+ * Codec Codecs} evaluating it for every element or object decoded (lazy lists, lazy loading) do not pay for building
+ * it again.</p>
+ *
+ * <p>If the size does depend on the data, {@link #probeSize(BitBuffer, Resolver, Builder)} decodes only the bindings
+ * referred to by the size expression, which for length-prefixed records typically is just the header.</p>
+ *
+ * <p>{@link #project(String...)} returns an {@link ObjectCodec} decoding only some of the fields, and {@link
+ * #filter(String)} one decoding only some of the instances. {@link #view(Class)} does not decode instances at all,
+ * but returns a view decoding fields on demand.</p>
  */
 public class ObjectCodec<T> implements Codec<T> {
 
@@ -63,6 +85,35 @@ public class ObjectCodec<T> implements Codec<T> {
 
     private final ObjectResolverContext context;
 
+    /**
+     * The number of bits occupied by instances with a fixed layout, {@link #VARIABLE_SIZE} for all other instances,
+     * or {@link #UNKNOWN_SIZE} if not determined yet.
+     */
+    private volatile int fixedSize = UNKNOWN_SIZE;
+
+    /** The size expression, built once, on the first call to {@link #getSize()}. */
+    private volatile Expression<Integer, Resolver> size;
+
+    /**
+     * The bindings used for decoding, with <code>null</code> in place of the bindings that should only be decoded if
+     * needed; <code>null</code> if all bindings should be decoded.
+     */
+    private final Binding[] projection;
+
+    /** The index of every binding, by name; <code>null</code> if all bindings should be decoded. */
+    private final Map<String, Integer> indexByName;
+
+    /** The condition instances need to meet in order to be decoded entirely; <code>null</code> if none. */
+    private final Filter filter;
+
+    /** The factories creating the views returned by {@link #view(Class)}, by type of view. */
+    private final ConcurrentMap<Class<?>, FlyweightFactory<?>> flyweights =
+            new ConcurrentHashMap<Class<?>, FlyweightFactory<?>>();
+
+    private static final int UNKNOWN_SIZE = -2;
+
+    private static final int VARIABLE_SIZE = -1;
+
     public ObjectCodec(Class<T> type, IdentifierRewriter rewriter,
                        ObjectResolverContext context) {
         assert type != null;
@@ -71,6 +122,158 @@ public class ObjectCodec<T> implements Codec<T> {
         this.type = type;
         this.rewriter = rewriter;
         this.context = context;
+        this.projection = null;
+        this.indexByName = null;
+        this.filter = null;
+    }
+
+    private ObjectCodec(ObjectCodec<T> codec, Binding[] projection, Filter filter) {
+        this.type = codec.type;
+        this.rewriter = codec.rewriter;
+        this.context = codec.context;
+        this.projection = projection;
+        if (projection != null) {
+            this.indexByName = new HashMap<String, Integer>();
+            List<Binding> bindings = context.getBindings();
+            for (int i = 0; i < bindings.size(); i++) {
+                indexByName.put(bindings.get(i).getName(), i);
+            }
+        } else {
+            this.indexByName = null;
+        }
+        this.filter = filter;
+    }
+
+    /**
+     * Returns a {@link Codec} decoding only the instances meeting the condition passed in, and returning
+     * <code>null</code> for all other instances. The condition is evaluated as soon as the fields it refers to have
+     * been decoded; if it does not hold, the buffer is moved past the remaining data of the instance, without decoding
+     * any more of it, unless its size can only be determined by decoding it. The {@link Codec} returned decodes the
+     * instances meeting the condition just like this {@link Codec} (entirely, or only the fields selected by {@link
+     * #project(String...)}), and encodes all instances.
+     *
+     * @param condition The condition, as a boolean expression on the fields of the instance, such as <code>"protocol
+     *                  == 6"</code>.
+     * @return A {@link Codec} decoding only the instances meeting the condition.
+     * @throws CodecConstructionException If the condition is not a valid expression.
+     */
+    public ObjectCodec<T> filter(String condition) {
+        final Expression<Boolean, Resolver> expr;
+        try {
+            expr = Expressions.createBoolean(context, condition);
+        } catch (InvalidExpressionException iee) {
+            throw new CodecConstructionException(iee);
+        }
+        return new ObjectCodec<T>(this, projection, new Filter() {
+            public boolean accept(T instance, ProbingResolver resolver) {
+                return expr.eval(resolver);
+            }
+        });
+    }
+
+    /**
+     * Returns a {@link Codec} decoding only the instances for which the predicate holds, and returning
+     * <code>null</code> for all other instances. The predicate is tested as soon as the fields passed in have been
+     * decoded, which should include all fields it looks at. (See {@link #filter(String)}.)
+     *
+     * @param predicate The predicate, to be tested on partially decoded instances.
+     * @param fields    The names of the fields that need to be decoded before testing the predicate.
+     * @return A {@link Codec} decoding only the instances for which the predicate holds.
+     * @throws CodecConstructionException If any of the fields does not exist.
+     */
+    public ObjectCodec<T> filter(final Predicate<? super T> predicate, final String... fields) {
+        for (String field : fields) {
+            boolean found = false;
+            for (Binding binding : context.getBindings()) {
+                found |= field.equals(binding.getName());
+            }
+            if (!found) {
+                throw new CodecConstructionException("No field called " + field + " in " + type.getSimpleName());
+            }
+        }
+        return new ObjectCodec<T>(this, projection, new Filter() {
+            public boolean accept(T instance, ProbingResolver resolver) throws DecodingException {
+                for (String field : fields) {
+                    resolver.load(field);
+                }
+                return predicate.test(instance);
+            }
+        });
+    }
+
+    /**
+     * Returns a {@link Codec} decoding only the fields passed in, and skipping over the data of all other fields,
+     * leaving them at their default values. Fields of nested objects are selected by paths separated by dots, such as
+     * <code>"header.timestamp"</code>, provided that the {@link Codec} of the nested object supports projection;
+     * otherwise, the nested object is decoded entirely.
+     * <p/>
+     * <p> Fields that are not selected, but that other fields depend on (since they determine their size, or whether
+     * they are present at all), will be decoded once they are referred to. Fields of which the size can only be
+     * determined by decoding them are always decoded. The {@link Codec} returned encodes all fields, just like this
+     * {@link Codec}, and only decodes the instances meeting the condition of this {@link Codec}, if it has been
+     * {@link #filter(String) filtered}. </p>
+     *
+     * @param paths The paths of the fields to decode.
+     * @return A {@link Codec} decoding only the fields passed in.
+     * @throws CodecConstructionException If any of the paths does not refer to a field.
+     */
+    public ObjectCodec<T> project(String... paths) {
+        Map<String, Set<String>> nested = new HashMap<String, Set<String>>();
+        for (String path : paths) {
+            int dot = path.indexOf('.');
+            String name = dot < 0 ? path : path.substring(0, dot);
+            Set<String> children = nested.get(name);
+            if (children == null) {
+                children = new LinkedHashSet<String>();
+                nested.put(name, children);
+            }
+            if (dot >= 0) {
+                children.add(path.substring(dot + 1));
+            } else {
+                // The field itself is selected, so it should be decoded entirely
+                children.add("");
+            }
+        }
+        List<Binding> bindings = context.getBindings();
+        Binding[] result = new Binding[bindings.size()];
+        for (int i = 0; i < result.length; i++) {
+            Binding binding = bindings.get(i);
+            Set<String> children = nested.remove(binding.getName());
+            if (children != null) {
+                result[i] = children.contains("") ? binding : binding.project(children);
+            }
+        }
+        if (!nested.isEmpty()) {
+            throw new CodecConstructionException("No field(s) called " + nested.keySet() + " in "
+                    + type.getSimpleName());
+        }
+        return new ObjectCodec<T>(this, result, filter);
+    }
+
+    /**
+     * Returns a view on the data of an instance, rather than the instance itself. The view implements the interface (or
+     * extends the abstract class) passed in, as well as {@link Flyweight}. Its getters decode the corresponding fields
+     * every time they are invoked, straight from the {@link BitBuffer}: <code>getFoo()</code>, <code>isFoo()</code>
+     * and <code>foo()</code> all decode field <code>foo</code>. The view only holds a reference to the buffer and the
+     * position of the instance; it needs to be pointed to the data of an instance using {@link Flyweight#wrap(BitBuffer,
+     * long)} first, and can be pointed to any other instance afterwards, without creating any objects.
+     * <p/>
+     * <p> The position of a field is computed by adding up the sizes of the fields preceding it. If all of these have a
+     * fixed size, this is a constant; otherwise, the data determining the sizes is decoded. Views therefore work best
+     * for instances with fixed-size fields, or small headers determining the size of the remaining fields. </p>
+     *
+     * @param type The type of view, typically an interface declaring getters for (some of) the fields.
+     * @return A new view, not pointing to any data yet.
+     * @throws CodecConstructionException If the type declares methods not corresponding to any field.
+     */
+    public <V> V view(Class<V> type) {
+        @SuppressWarnings("unchecked")
+        FlyweightFactory<V> factory = (FlyweightFactory<V>) flyweights.get(type);
+        if (factory == null) {
+            factory = new FlyweightFactory<V>(type, context.getBindings());
+            flyweights.putIfAbsent(type, factory);
+        }
+        return factory.create();
     }
 
     public T decode(BitBuffer buffer, Resolver resolver, Builder builder)
@@ -79,6 +282,13 @@ public class ObjectCodec<T> implements Codec<T> {
         assert builder != null;
         try {
             final T result = builder.create(type);
+            if (filter != null) {
+                return decodeFiltered(result, buffer, resolver, builder);
+            }
+            if (projection != null) {
+                new ProbingResolver(result, buffer, resolver, builder).loadRemaining();
+                return result;
+            }
             resolver = context.getResolver(result, resolver);
             // TODO: I think I need a replacement resolver here.
             for (Binding binding : context.getBindings()) {
@@ -86,6 +296,9 @@ public class ObjectCodec<T> implements Codec<T> {
             }
             return result;
         }
+        catch (ProbingException pe) {
+            throw pe.getCause();
+        }
         catch (InstantiationException ie) {
             ie.printStackTrace();
             throw new DecodingException(type, ie);
@@ -95,6 +308,77 @@ public class ObjectCodec<T> implements Codec<T> {
         }
     }
 
+    /**
+     * Decodes into the target passed in if it is an instance of exactly the type handled by this {@link Codec},
+     * overwriting all of its bound fields (and reusing the values held by these fields wherever possible). Otherwise,
+     * a new instance will be decoded.
+     */
+    public T decodeInto(T target, BitBuffer buffer, Resolver resolver, Builder builder)
+            throws DecodingException {
+        if (target == null || target.getClass() != type || projection != null || filter != null) {
+            return decode(buffer, resolver, builder);
+        }
+        assert buffer != null;
+        assert builder != null;
+        resolver = context.getResolver(target, resolver);
+        for (Binding binding : context.getBindings()) {
+            binding.reload(target, buffer, resolver, builder);
+        }
+        return target;
+    }
+
+    /**
+     * Decodes the bindings required by the {@link #filter}, and then either decodes the remaining bindings, or skips
+     * their data.
+     *
+     * @return The instance, or <code>null</code> if it has been skipped.
+     */
+    private T decodeFiltered(T result, BitBuffer buffer, Resolver outer, Builder builder)
+            throws DecodingException {
+        long start = buffer.getBitPos();
+        ProbingResolver resolver = new ProbingResolver(result, buffer, outer, builder);
+        if (filter.accept(result, resolver)) {
+            resolver.loadRemaining();
+            return result;
+        }
+        Expression<Integer, Resolver> size = getSize();
+        int bits = -1;
+        if (size != null) {
+            try {
+                bits = size.eval(resolver);
+            } catch (BindingException be) {
+                // The size depends on something that cannot be resolved without fully decoding the instance.
+            }
+        }
+        if (bits >= 0) {
+            buffer.setBitPos(start + bits);
+        } else {
+            resolver.loadRemaining();
+        }
+        return null;
+    }
+
+    /**
+     * Returns the number of bits occupied by instances with a fixed layout, or {@link #VARIABLE_SIZE}.
+     */
+    private int getFixedSize() {
+        int result = fixedSize;
+        if (result == UNKNOWN_SIZE) {
+            int total = 0;
+            for (Binding binding : context.getBindings()) {
+                Expression<Integer, Resolver> size = binding.getSize();
+                if (size == null || size.isParameterized()) {
+                    total = VARIABLE_SIZE;
+                    break;
+                }
+                total += size.eval(null); // Not parameterized, so we can do this
+            }
+            result = total;
+            fixedSize = result;
+        }
+        return result;
+    }
+
     public void encode(T value, BitChannel channel, Resolver resolver) throws IOException {
         resolver = context.getResolver(value, resolver);
         for (Binding binding : context.getBindings()) {
@@ -119,6 +403,53 @@ public class ObjectCodec<T> implements Codec<T> {
        */
 
     public Expression<Integer, Resolver> getSize() {
+        Expression<Integer, Resolver> result = size;
+        if (result == null) {
+            int bits = getFixedSize();
+            if (bits != VARIABLE_SIZE) {
+                result = Expressions.createInteger(bits, Resolver.class);
+            } else {
+                result = createSize();
+            }
+            size = result;
+        }
+        return result;
+    }
+
+    /**
+     * Determines the size of the instance starting at the current position of the buffer, by evaluating the {@link
+     * #getSize() size expression} against the result of decoding the bindings it refers to, and nothing more.
+     */
+    public long probeSize(BitBuffer buffer, Resolver resolver, Builder builder)
+            throws DecodingException {
+        int bits = getFixedSize();
+        if (bits != VARIABLE_SIZE) {
+            return bits;
+        }
+        for (Binding binding : context.getBindings()) {
+            if (binding.getSize() == null) {
+                return -1;
+            }
+        }
+        long start = buffer.getBitPos();
+        try {
+            ProbingResolver probe = new ProbingResolver(builder.create(type), buffer, resolver, builder);
+            return getSize().eval(probe);
+        } catch (ProbingException pe) {
+            throw pe.getCause();
+        } catch (BindingException be) {
+            // The size depends on something that cannot be resolved without fully decoding the instance.
+            return -1;
+        } catch (InstantiationException ie) {
+            throw new DecodingException(type, ie);
+        } catch (IllegalAccessException iae) {
+            throw new DecodingException(iae);
+        } finally {
+            buffer.setBitPos(start);
+        }
+    }
+
+    private Expression<Integer, Resolver> createSize() {
         List<Binding> bindings = context.getBindings();
         if (bindings.size() > 0) {
             Expression<Integer, Resolver> result = null;
@@ -221,4 +552,162 @@ public class ObjectCodec<T> implements Codec<T> {
         };
     }
 
+    /**
+     * A {@link Resolver} decoding bindings on demand, in order, until the binding referred to has been loaded. If
+     * there is a {@link #projection}, bindings not selected are skipped while moving on, and only decoded once they are
+     * referred to.
+     */
+    private class ProbingResolver implements Resolver {
+
+        private final T instance;
+
+        private final Resolver resolver;
+
+        private final BitBuffer buffer;
+
+        private final Builder builder;
+
+        /** The number of bindings loaded (or skipped) so far. */
+        private int loaded;
+
+        /**
+         * The position of the data of every binding that has been skipped or partially decoded (and has not been
+         * decoded entirely since), or -1; <code>null</code> if there is no {@link #projection}.
+         */
+        private final long[] pending;
+
+        public ProbingResolver(T instance, BitBuffer buffer, Resolver outer, Builder builder) {
+            this.instance = instance;
+            this.resolver = context.getResolver(instance, outer);
+            this.buffer = buffer;
+            this.builder = builder;
+            if (projection != null) {
+                this.pending = new long[projection.length];
+                Arrays.fill(pending, -1L);
+            } else {
+                this.pending = null;
+            }
+        }
+
+        public Object get(String name) {
+            if (!"outer".equals(name)) {
+                loadUntil(name);
+            }
+            return resolver.get(name);
+        }
+
+        /**
+         * Loads all bindings up to the one with the given name, which is loaded entirely.
+         */
+        public void load(String name) throws DecodingException {
+            try {
+                loadUntil(name);
+            } catch (ProbingException pe) {
+                throw pe.getCause();
+            }
+        }
+
+        /**
+         * Loads all bindings not loaded yet.
+         */
+        public void loadRemaining() throws DecodingException {
+            while (loaded < context.getBindings().size()) {
+                next(false);
+            }
+        }
+
+        private void loadUntil(String name) {
+            int index = indexOf(name);
+            try {
+                if (index < 0) {
+                    return;
+                } else if (index < loaded) {
+                    if (pending != null && pending[index] >= 0) {
+                        long pos = buffer.getBitPos();
+                        buffer.setBitPos(pending[index]);
+                        pending[index] = -1L;
+                        context.getBindings().get(index).load(instance, buffer, this, builder);
+                        buffer.setBitPos(pos);
+                    }
+                } else {
+                    while (loaded < index) {
+                        next(false);
+                    }
+                    next(true);
+                }
+            } catch (DecodingException de) {
+                throw new ProbingException(de);
+            }
+        }
+
+        /**
+         * Loads the next binding; entirely if required, or as selected by the {@link #projection} otherwise.
+         */
+        private void next(boolean entirely) throws DecodingException {
+            int i = loaded++;
+            Binding binding = context.getBindings().get(i);
+            long pos = buffer.getBitPos();
+            if (projection == null || entirely || projection[i] == binding) {
+                binding.load(instance, buffer, this, builder);
+            } else if (projection[i] != null) {
+                // Only some of the fields of the value get decoded
+                projection[i].load(instance, buffer, this, builder);
+                pending[i] = pos;
+            } else if (binding.skip(instance, buffer, this, builder)) {
+                pending[i] = pos;
+            } else {
+                binding.load(instance, buffer, this, builder);
+            }
+        }
+
+        private int indexOf(String name) {
+            if (indexByName != null) {
+                Integer index = indexByName.get(name);
+                return index == null ? -1 : index;
+            }
+            List<Binding> bindings = context.getBindings();
+            for (int i = 0; i < bindings.size(); i++) {
+                if (name.equals(bindings.get(i).getName())) {
+                    return i;
+                }
+            }
+            return -1;
+        }
+
+        public Resolver getOriginalResolver() {
+            return this;
+        }
+
+    }
+
+    /**
+     * The condition instances need to meet in order to be decoded entirely.
+     */
+    private abstract class Filter {
+
+        /**
+         * Returns whether the instance should be decoded entirely, loading the bindings required to determine that
+         * through the resolver.
+         */
+        public abstract boolean accept(T instance, ProbingResolver resolver) throws DecodingException;
+
+    }
+
+    /**
+     * Carries a {@link DecodingException} raised while loading bindings through a {@link ProbingResolver}.
+     */
+    private static class ProbingException extends RuntimeException {
+
+        private static final long serialVersionUID = 1L;
+
+        public ProbingException(DecodingException cause) {
+            super(cause);
+        }
+
+        public DecodingException getCause() {
+            return (DecodingException) super.getCause();
+        }
+
+    }
+
 }
@@ -0,0 +1,319 @@
+/**
+ * Copyright (C) 2009-2010 Wilfred Springer
+ *
+ * This file is part of Preon.
+ *
+ * Preon is free software; you can redistribute it and/or modify it under the
+ * terms of the GNU General Public License as published by the Free Software
+ * Foundation; either version 2, or (at your option) any later version.
+ *
+ * Preon is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR
+ * A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * Preon; see the file COPYING. If not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Linking this library statically or dynamically with other modules is making a
+ * combined work based on this library. Thus, the terms and conditions of the
+ * GNU General Public License cover the whole combination.
+ *
+ * As a special exception, the copyright holders of this library give you
+ * permission to link this library with independent modules to produce an
+ * executable, regardless of the license terms of these independent modules, and
+ * to copy and distribute the resulting executable under terms of your choice,
+ * provided that you also meet, for each linked independent module, the terms
+ * and conditions of the license of that module. An independent module is a
+ * module which is not derived from or based on this library. If you modify this
+ * library, you may extend this exception to your version of the library, but
+ * you are not obligated to do so. If you do not wish to do so, delete this
+ * exception statement from your version.
+ */
+package org.codehaus.preon.codec;
+
+import org.codehaus.preon.Builder;
+import org.codehaus.preon.Codec;
+import org.codehaus.preon.DecodingException;
+import org.codehaus.preon.Resolver;
+import org.codehaus.preon.buffer.BitBuffer;
+import org.codehaus.preon.buffer.ByteOrder;
+import org.codehaus.preon.channel.BitChannel;
+import org.codehaus.preon.el.Expression;
+
+import java.io.IOException;
+import java.lang.reflect.Array;
+import java.nio.ByteBuffer;
+
+/**
+ * An {@link ArrayCodec} for arrays of primitives of a fixed size, decoding all elements in one go, without boxing
+ * them. If the data is byte-aligned, elements are copied in bulk from a {@link ByteBuffer} view on the data; otherwise,
+ * they are read one by one, straight from the {@link BitBuffer}. Encoding is symmetrical.
+ *
+ * @author Wilfred Springer
+ */
+class PrimitiveArrayCodec extends ArrayCodec {
+
+    private final PrimitiveType primitiveType;
+
+    private final ByteOrder byteOrder;
+
+    /**
+     * Constructs a new instance.
+     *
+     * @param expr      An {@link Expression} representing the number of elements in the array.
+     * @param codec     The {@link Codec} constructing individual elements, used for describing the array.
+     * @param type      The type of array.
+     * @param byteOrder The byte order of the elements.
+     */
+    public PrimitiveArrayCodec(Expression<Integer, Resolver> expr, Codec<Object> codec, Class<?> type,
+                               ByteOrder byteOrder) {
+        super(expr, codec, type);
+        this.primitiveType = PrimitiveType.of(type.getComponentType());
+        this.byteOrder = byteOrder;
+    }
+
+    /**
+     * Returns whether arrays of the given type can be decoded by this {@link Codec}, given the size of the elements.
+     */
+    static boolean supports(Class<?> type, int elementSize) {
+        PrimitiveType primitiveType = PrimitiveType.of(type.getComponentType());
+        return primitiveType != null && primitiveType.size == elementSize;
+    }
+
+    public Object decode(BitBuffer buffer, Resolver resolver, Builder builder) throws DecodingException {
+        int length = size.eval(resolver).intValue();
+        Object result = Array.newInstance(type.getComponentType(), length);
+        primitiveType.decode(buffer, byteOrder, result, length);
+        return result;
+    }
+
+    /**
+     * Reuses the target array if it has the expected length.
+     */
+    public Object decodeInto(Object target, BitBuffer buffer, Resolver resolver, Builder builder)
+            throws DecodingException {
+        int length = size.eval(resolver).intValue();
+        if (target == null || target.getClass() != type || Array.getLength(target) != length) {
+            target = Array.newInstance(type.getComponentType(), length);
+        }
+        primitiveType.decode(buffer, byteOrder, target, length);
+        return target;
+    }
+
+    public void encode(Object object, BitChannel channel, Resolver resolver) throws IOException {
+        primitiveType.encode(channel, byteOrder, object, size.eval(resolver));
+    }
+
+    public String toString() {
+        return "Codec of " + type.getComponentType() + " array";
+    }
+
+    /**
+     * The types of primitives supported, along with the way to read and write single elements, and (for all types
+     * occupying whole bytes) the way to transfer them in bulk.
+     */
+    private enum PrimitiveType {
+
+        BOOLEAN(1, null) {
+            void read(BitBuffer buffer, ByteOrder byteOrder, Object array, int index) {
+                ((boolean[]) array)[index] = buffer.readAsBoolean();
+            }
+
+            void write(BitChannel channel, ByteOrder byteOrder, Object array, int index) throws IOException {
+                channel.write(((boolean[]) array)[index]);
+            }
+        },
+
+        BYTE(8, new BulkTransfer() {
+            void get(ByteBuffer bytes, Object array, int length) {
+                bytes.get((byte[]) array, 0, length);
+            }
+
+            void put(ByteBuffer bytes, Object array, int length) {
+                bytes.put((byte[]) array, 0, length);
+            }
+        }) {
+            void read(BitBuffer buffer, ByteOrder byteOrder, Object array, int index) {
+                ((byte[]) array)[index] = buffer.readAsByte(8, byteOrder);
+            }
+
+            void write(BitChannel channel, ByteOrder byteOrder, Object array, int index) throws IOException {
+                channel.write(8, ((byte[]) array)[index]);
+            }
+        },
+
+        SHORT(16, new BulkTransfer() {
+            void get(ByteBuffer bytes, Object array, int length) {
+                bytes.asShortBuffer().get((short[]) array, 0, length);
+            }
+
+            void put(ByteBuffer bytes, Object array, int length) {
+                bytes.asShortBuffer().put((short[]) array, 0, length);
+            }
+        }) {
+            void read(BitBuffer buffer, ByteOrder byteOrder, Object array, int index) {
+                ((short[]) array)[index] = buffer.readAsShort(16, byteOrder);
+            }
+
+            void write(BitChannel channel, ByteOrder byteOrder, Object array, int index) throws IOException {
+                channel.write(16, ((short[]) array)[index], byteOrder);
+            }
+        },
+
+        INT(32, new BulkTransfer() {
+            void get(ByteBuffer bytes, Object array, int length) {
+                bytes.asIntBuffer().get((int[]) array, 0, length);
+            }
+
+            void put(ByteBuffer bytes, Object array, int length) {
+                bytes.asIntBuffer().put((int[]) array, 0, length);
+            }
+        }) {
+            void read(BitBuffer buffer, ByteOrder byteOrder, Object array, int index) {
+                ((int[]) array)[index] = buffer.readAsInt(32, byteOrder);
+            }
+
+            void write(BitChannel channel, ByteOrder byteOrder, Object array, int index) throws IOException {
+                channel.write(32, ((int[]) array)[index], byteOrder);
+            }
+        },
+
+        LONG(64, new BulkTransfer() {
+            void get(ByteBuffer bytes, Object array, int length) {
+                bytes.asLongBuffer().get((long[]) array, 0, length);
+            }
+
+            void put(ByteBuffer bytes, Object array, int length) {
+                bytes.asLongBuffer().put((long[]) array, 0, length);
+            }
+        }) {
+            void read(BitBuffer buffer, ByteOrder byteOrder, Object array, int index) {
+                ((long[]) array)[index] = buffer.readAsLong(64, byteOrder);
+            }
+
+            void write(BitChannel channel, ByteOrder byteOrder, Object array, int index) throws IOException {
+                channel.write(64, ((long[]) array)[index], byteOrder);
+            }
+        },
+
+        FLOAT(32, new BulkTransfer() {
+            void get(ByteBuffer bytes, Object array, int length) {
+                bytes.asFloatBuffer().get((float[]) array, 0, length);
+            }
+
+            void put(ByteBuffer bytes, Object array, int length) {
+                bytes.asFloatBuffer().put((float[]) array, 0, length);
+            }
+        }) {
+            void read(BitBuffer buffer, ByteOrder byteOrder, Object array, int index) {
+                ((float[]) array)[index] = Float.intBitsToFloat(buffer.readAsInt(32, byteOrder));
+            }
+
+            void write(BitChannel channel, ByteOrder byteOrder, Object array, int index) throws IOException {
+                channel.write(32, Float.floatToRawIntBits(((float[]) array)[index]), byteOrder);
+            }
+        },
+
+        DOUBLE(64, new BulkTransfer() {
+            void get(ByteBuffer bytes, Object array, int length) {
+                bytes.asDoubleBuffer().get((double[]) array, 0, length);
+            }
+
+            void put(ByteBuffer bytes, Object array, int length) {
+                bytes.asDoubleBuffer().put((double[]) array, 0, length);
+            }
+        }) {
+            void read(BitBuffer buffer, ByteOrder byteOrder, Object array, int index) {
+                ((double[]) array)[index] = Double.longBitsToDouble(buffer.readAsLong(64, byteOrder));
+            }
+
+            void write(BitChannel channel, ByteOrder byteOrder, Object array, int index) throws IOException {
+                channel.write(64, Double.doubleToRawLongBits(((double[]) array)[index]), byteOrder);
+            }
+        };
+
+        /** The number of bits occupied by a single element. */
+        final int size;
+
+        /** The way to transfer elements in bulk, or <code>null</code> if they can only be transferred one by one. */
+        private final BulkTransfer bulk;
+
+        PrimitiveType(int size, BulkTransfer bulk) {
+            this.size = size;
+            this.bulk = bulk;
+        }
+
+        static PrimitiveType of(Class<?> componentType) {
+            if (componentType == boolean.class) {
+                return BOOLEAN;
+            } else if (componentType == byte.class) {
+                return BYTE;
+            } else if (componentType == short.class) {
+                return SHORT;
+            } else if (componentType == int.class) {
+                return INT;
+            } else if (componentType == long.class) {
+                return LONG;
+            } else if (componentType == float.class) {
+                return FLOAT;
+            } else if (componentType == double.class) {
+                return DOUBLE;
+            } else {
+                return null;
+            }
+        }
+
+        /**
+         * Decodes <code>length</code> elements into the array passed in, in bulk if supported and the buffer is
+         * byte-aligned.
+         */
+        void decode(BitBuffer buffer, ByteOrder byteOrder, Object array, int length) {
+            if (bulk != null && buffer.getActualBitPos() % 8 == 0) {
+                ByteBuffer bytes = buffer.readAsByteBuffer(length * (size / 8));
+                bulk.get(bytes.order(toNioByteOrder(byteOrder)), array, length);
+            } else {
+                for (int i = 0; i < length; i++) {
+                    read(buffer, byteOrder, array, i);
+                }
+            }
+        }
+
+        /**
+         * Encodes <code>length</code> elements from the array passed in, in bulk if supported and the channel is
+         * byte-aligned.
+         */
+        void encode(BitChannel channel, ByteOrder byteOrder, Object array, int length) throws IOException {
+            if (bulk != null && channel.getRelativeBitPos() == 0) {
+                byte[] bytes = new byte[length * (size / 8)];
+                bulk.put(ByteBuffer.wrap(bytes).order(toNioByteOrder(byteOrder)), array, length);
+                channel.write(bytes, 0, bytes.length);
+            } else {
+                for (int i = 0; i < length; i++) {
+                    write(channel, byteOrder, array, i);
+                }
+            }
+        }
+
+        abstract void read(BitBuffer buffer, ByteOrder byteOrder, Object array, int index);
+
+        abstract void write(BitChannel channel, ByteOrder byteOrder, Object array, int index) throws IOException;
+
+        private static java.nio.ByteOrder toNioByteOrder(ByteOrder byteOrder) {
+            return byteOrder == ByteOrder.BigEndian ? java.nio.ByteOrder.BIG_ENDIAN : java.nio.ByteOrder.LITTLE_ENDIAN;
+        }
+
+    }
+
+    /**
+     * Transfers elements between an array and a {@link ByteBuffer}, all at once.
+     */
+    private static abstract class BulkTransfer {
+
+        abstract void get(ByteBuffer bytes, Object array, int length);
+
+        abstract void put(ByteBuffer bytes, Object array, int length);
+
+    }
+
+}
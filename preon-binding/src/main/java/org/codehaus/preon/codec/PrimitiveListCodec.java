@@ -0,0 +1,149 @@
+/**
+ * Copyright (C) 2009-2010 Wilfred Springer
+ *
+ * This file is part of Preon.
+ *
+ * Preon is free software; you can redistribute it and/or modify it under the
+ * terms of the GNU General Public License as published by the Free Software
+ * Foundation; either version 2, or (at your option) any later version.
+ *
+ * Preon is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR
+ * A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * Preon; see the file COPYING. If not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Linking this library statically or dynamically with other modules is making a
+ * combined work based on this library. Thus, the terms and conditions of the
+ * GNU General Public License cover the whole combination.
+ *
+ * As a special exception, the copyright holders of this library give you
+ * permission to link this library with independent modules to produce an
+ * executable, regardless of the license terms of these independent modules, and
+ * to copy and distribute the resulting executable under terms of your choice,
+ * provided that you also meet, for each linked independent module, the terms
+ * and conditions of the license of that module. An independent module is a
+ * module which is not derived from or based on this library. If you modify this
+ * library, you may extend this exception to your version of the library, but
+ * you are not obligated to do so. If you do not wish to do so, delete this
+ * exception statement from your version.
+ */
+package org.codehaus.preon.codec;
+
+import org.codehaus.preon.Builder;
+import org.codehaus.preon.Codec;
+import org.codehaus.preon.CodecDescriptor;
+import org.codehaus.preon.DecodingException;
+import org.codehaus.preon.Resolver;
+import org.codehaus.preon.buffer.BitBuffer;
+import org.codehaus.preon.buffer.ByteOrder;
+import org.codehaus.preon.channel.BitChannel;
+import org.codehaus.preon.el.Expression;
+import org.codehaus.preon.util.IntList;
+import org.codehaus.preon.util.LongList;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+/**
+ * The {@link Codec} decoding {@link IntList IntLists} and {@link LongList LongLists}. If decoding eagerly, elements
+ * are decoded in bulk into an array, by a {@link PrimitiveArrayCodec}. If decoding lazily, the list simply wraps a
+ * {@link ByteBuffer} view on the data, and decodes elements when accessed. That requires the data to be byte-aligned;
+ * if it is not, the list is decoded eagerly instead.
+ *
+ * @author Wilfred Springer
+ */
+class PrimitiveListCodec implements Codec<Object> {
+
+    /** The type of list: {@link IntList} or {@link LongList}. */
+    private final Class<?> type;
+
+    /** The {@link Codec} decoding the elements in bulk. */
+    private final PrimitiveArrayCodec arrayCodec;
+
+    /** The number of elements in the list. */
+    private final Expression<Integer, Resolver> size;
+
+    private final boolean lazy;
+
+    /**
+     * Constructs a new instance.
+     *
+     * @param type  The type of list: {@link IntList} or {@link LongList}.
+     * @param size  An {@link Expression} representing the number of elements in the list.
+     * @param codec The {@link Codec} constructing individual elements, used for describing the list.
+     * @param lazy  Whether elements should be decoded when accessed.
+     */
+    public PrimitiveListCodec(Class<?> type, Expression<Integer, Resolver> size, Codec<Object> codec, boolean lazy) {
+        this.type = type;
+        this.size = size;
+        this.lazy = lazy;
+        this.arrayCodec = new PrimitiveArrayCodec(size, codec, type == IntList.class ? int[].class : long[].class,
+                ByteOrder.LittleEndian);
+    }
+
+    /**
+     * Returns whether lists of the given type can be decoded by this {@link Codec}, given the type and size of the
+     * elements.
+     */
+    static boolean supports(Class<?> type, Class<?> elementType, int elementSize) {
+        if (type == IntList.class) {
+            return elementType == Integer.class && elementSize == 32;
+        } else if (type == LongList.class) {
+            return elementType == Long.class && elementSize == 64;
+        } else {
+            return false;
+        }
+    }
+
+    public Object decode(BitBuffer buffer, Resolver resolver, Builder builder) throws DecodingException {
+        if (lazy && buffer.getActualBitPos() % 8 == 0) {
+            int length = size.eval(resolver);
+            if (type == IntList.class) {
+                ByteBuffer values = buffer.readAsByteBuffer(length * 4);
+                return IntList.of(values.order(java.nio.ByteOrder.LITTLE_ENDIAN));
+            } else {
+                ByteBuffer values = buffer.readAsByteBuffer(length * 8);
+                return LongList.of(values.order(java.nio.ByteOrder.LITTLE_ENDIAN));
+            }
+        } else {
+            Object values = arrayCodec.decode(buffer, resolver, builder);
+            if (type == IntList.class) {
+                return IntList.of((int[]) values);
+            } else {
+                return LongList.of((long[]) values);
+            }
+        }
+    }
+
+    public void encode(Object value, BitChannel channel, Resolver resolver) throws IOException {
+        if (type == IntList.class) {
+            arrayCodec.encode(((IntList) value).toIntArray(), channel, resolver);
+        } else {
+            arrayCodec.encode(((LongList) value).toLongArray(), channel, resolver);
+        }
+    }
+
+    public Expression<Integer, Resolver> getSize() {
+        return arrayCodec.getSize();
+    }
+
+    public CodecDescriptor getCodecDescriptor() {
+        return arrayCodec.getCodecDescriptor();
+    }
+
+    public Class<?>[] getTypes() {
+        return arrayCodec.getTypes();
+    }
+
+    public Class<?> getType() {
+        return type;
+    }
+
+    public String toString() {
+        return "Codec of " + type.getSimpleName();
+    }
+
+}
@@ -36,7 +36,11 @@ import java.io.IOException;
 import java.lang.reflect.AnnotatedElement;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 import nl.flotsam.pecia.Documenter;
 import nl.flotsam.pecia.ParaContents;
@@ -65,7 +69,9 @@ import org.codehaus.preon.el.ReferenceContext;
 import org.codehaus.preon.el.ast.RelationalNode;
 
 /**
- * A Codec supporting the {@link Choices} annotation.
+ * A Codec supporting the {@link Choices} annotation. Conditions of the form <code>prefix == constant</code> are
+ * recognized upfront, and turned into a table mapping prefixes to alternatives; all other conditions are evaluated in
+ * order, while decoding.
  *
  * @author Wilfred Springer (wis)
  * @param <T> The type of object to be returned.
@@ -112,6 +118,39 @@ public class SelectFromCodec<T> implements Codec<T> {
      */
     private Codec<?> defaultCodec;
 
+    /**
+     * The maximum number of entries of the table used to look up alternatives by prefix.
+     */
+    private final static int MAX_TABLE_SIZE = 1024;
+
+    /**
+     * For every alternative with a condition of the form <code>prefix == constant</code>, the constant; for all other
+     * alternatives, <code>null</code>.
+     */
+    private Integer[] expectedPrefixes;
+
+    /**
+     * The indexes of the alternatives with any other condition, in order.
+     */
+    private int[] evaluated;
+
+    /**
+     * The index of the first alternative expecting a prefix, indexed by that prefix minus {@link #lowestPrefix}, or
+     * <code>-1</code> if there is none. <code>null</code> if the prefixes are spread out too much, in which case
+     * {@link #prefixIndex} is used.
+     */
+    private int[] prefixTable;
+
+    /**
+     * The lowest prefix expected.
+     */
+    private int lowestPrefix;
+
+    /**
+     * The index of the first alternative expecting a prefix, by prefix.
+     */
+    private Map<Integer, Integer> prefixIndex;
+
     /**
      * Constructs a new instance, accepting the type, choices, a {@link ResolverContext} to wrap for introducing the
      * <code>prefix</code> variable, the {@link CodecFactory} to delegate to, and the metadata.
@@ -142,30 +181,139 @@ public class SelectFromCodec<T> implements Codec<T> {
             codecs.add(factory.create(null, choices.alternatives()[i].type(),
                     passThroughContext));
         }
+        compilePrefixTable();
+    }
+
+    /**
+     * Recognizes conditions of the form <code>prefix == constant</code>, and builds the table mapping prefixes to the
+     * alternatives they select. Only alternatives with other conditions will be evaluated while decoding.
+     */
+    private void compilePrefixTable() {
+        expectedPrefixes = new Integer[conditions.size()];
+        prefixIndex = new HashMap<Integer, Integer>();
+        List<Integer> others = new ArrayList<Integer>();
+        for (int i = 0; i < conditions.size(); i++) {
+            expectedPrefixes[i] = getExpectedPrefix(conditions.get(i));
+            if (expectedPrefixes[i] == null) {
+                others.add(i);
+            } else if (!prefixIndex.containsKey(expectedPrefixes[i])) {
+                prefixIndex.put(expectedPrefixes[i], i);
+            }
+        }
+        evaluated = new int[others.size()];
+        for (int i = 0; i < evaluated.length; i++) {
+            evaluated[i] = others.get(i);
+        }
+        if (!prefixIndex.isEmpty()) {
+            int lowest = Collections.min(prefixIndex.keySet());
+            int highest = Collections.max(prefixIndex.keySet());
+            if ((long) highest - lowest < MAX_TABLE_SIZE) {
+                lowestPrefix = lowest;
+                prefixTable = new int[highest - lowest + 1];
+                Arrays.fill(prefixTable, -1);
+                for (Map.Entry<Integer, Integer> entry : prefixIndex.entrySet()) {
+                    prefixTable[entry.getKey() - lowest] = entry.getValue();
+                }
+            }
+        }
+    }
+
+    /**
+     * Returns the constant, if the condition passed in is of the form <code>prefix == constant</code>.
+     *
+     * @return The constant, or <code>null</code> if the condition is of a different form.
+     */
+    private static Integer getExpectedPrefix(Expression<Boolean, Resolver> condition) {
+        if (condition instanceof RelationalNode) {
+            Set<Reference<Resolver>> references = condition.getReferences();
+            if (references.size() == 1
+                    && references.iterator().next() instanceof PrefixResolverContext.PrefixReference) {
+                try {
+                    return ((RelationalNode<?, Resolver>) condition).getExpectedValue(null);
+                } catch (RuntimeException re) {
+                    // Not comparing the prefix to a constant
+                }
+            }
+        }
+        return null;
     }
 
     public T decode(BitBuffer buffer, Resolver resolver, Builder builder)
             throws DecodingException {
+        Codec<?> codec = select(buffer, resolver);
+        if (codec != null) {
+            return (T) codec.decode(buffer, resolver, builder);
+        } else {
+            return null;
+        }
+    }
+
+    /**
+     * Passes the target on to the {@link Codec} selected; that {@link Codec} will decide if it can be reused.
+     */
+    @SuppressWarnings("unchecked")
+    public T decodeInto(T target, BitBuffer buffer, Resolver resolver, Builder builder)
+            throws DecodingException {
+        Codec<T> codec = (Codec<T>) select(buffer, resolver);
+        if (codec != null) {
+            return codec.decodeInto(target, buffer, resolver, builder);
+        } else {
+            return null;
+        }
+    }
+
+    /**
+     * Selects the {@link Codec} to use, reading the prefix (if any) from the {@link BitBuffer}.
+     *
+     * @return The {@link Codec} selected, or <code>null</code> if none of the conditions are met and there is no
+     *         default.
+     */
+    private Codec<?> select(BitBuffer buffer, Resolver resolver) {
         if (prefixSize <= 0) {
             for (int i = 0; i < conditions.size(); i++) {
                 if (conditions.get(i).eval(resolver)) {
-                    return (T) codecs.get(i).decode(buffer, resolver, builder);
+                    return codecs.get(i);
                 }
             }
         } else {
             int prefix = buffer.readAsInt(this.prefixSize, byteOrder);
-            for (int i = 0; i < conditions.size(); i++) {
-                if (conditions.get(i)
-                        .eval(new PrefixResolver(resolver, prefix))) {
-                    return (T) codecs.get(i).decode(buffer, resolver, builder);
+            int candidate = lookup(prefix);
+            Resolver prefixResolver = null;
+            for (int i : evaluated) {
+                if (i > candidate) {
+                    break;
+                }
+                if (prefixResolver == null) {
+                    prefixResolver = new PrefixResolver(resolver, prefix);
                 }
+                if (conditions.get(i).eval(prefixResolver)) {
+                    return codecs.get(i);
+                }
+            }
+            if (candidate != Integer.MAX_VALUE) {
+                return codecs.get(candidate);
             }
         }
-        if (defaultCodec != null) {
-            return (T) defaultCodec.decode(buffer, resolver, builder);
+        return defaultCodec;
+    }
+
+    /**
+     * Returns the index of the first alternative expecting the given prefix, or {@link Integer#MAX_VALUE} if there is
+     * none.
+     */
+    private int lookup(int prefix) {
+        if (prefixTable != null) {
+            long index = (long) prefix - lowestPrefix;
+            if (index >= 0 && index < prefixTable.length && prefixTable[(int) index] >= 0) {
+                return prefixTable[(int) index];
+            }
         } else {
-            return null;
+            Integer index = prefixIndex.get(prefix);
+            if (index != null) {
+                return index;
+            }
         }
+        return Integer.MAX_VALUE;
     }
 
     public void encode(T value, BitChannel channel, Resolver resolver) 
@@ -174,7 +322,12 @@ public class SelectFromCodec<T> implements Codec<T> {
             int selected = Arrays.asList(types).indexOf(value.getClass());
             
             Expression<Boolean, Resolver> cond = conditions.get(selected);
-            if (cond instanceof RelationalNode) {
+            if (expectedPrefixes[selected] != null) {
+                channel.write(prefixSize, expectedPrefixes[selected], byteOrder);
+                Codec<T> codec = (Codec<T>) codecs.get(selected);
+                codec.encode(value, channel, resolver);
+                return;
+            } else if (cond instanceof RelationalNode) {
                 int prefix = ((RelationalNode) cond).getExpectedValue(resolver);
                 
                 channel.write(prefixSize, prefix, byteOrder);
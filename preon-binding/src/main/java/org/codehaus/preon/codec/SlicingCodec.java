@@ -47,6 +47,7 @@ import org.codehaus.preon.channel.BoundedBitChannel;
 import org.codehaus.preon.descriptor.Documenters;
 
 import java.io.IOException;
+import java.util.function.Predicate;
 
 /**
  * {@link Codec} decoration, preventing the underlying {@link Codec} from being able to read beyond a certain section of
@@ -78,6 +79,17 @@ class SlicingCodec<T> implements Codec<T> {
         return wrapped.decode(slice, resolver, builder);
     }
 
+    public T decodeInto(T target, BitBuffer buffer, Resolver resolver, Builder builder)
+            throws DecodingException {
+        BitBuffer slice = buffer
+                .slice(sizeExpr.eval(resolver));
+        return wrapped.decodeInto(target, slice, resolver, builder);
+    }
+
+    public long probeSize(BitBuffer buffer, Resolver resolver, Builder builder) {
+        return sizeExpr.eval(resolver);
+    }
+
     public void encode(T value, BitChannel channel, Resolver resolver) throws IOException {
         wrapped.encode(value, new BoundedBitChannel(channel, sizeExpr.eval(resolver)), resolver);
     }
@@ -90,6 +102,22 @@ class SlicingCodec<T> implements Codec<T> {
         return sizeExpr;
     }
 
+    public Codec<T> project(String... paths) {
+        return new SlicingCodec<T>(wrapped.project(paths), sizeExpr);
+    }
+
+    public Codec<T> filter(String condition) {
+        return new SlicingCodec<T>(wrapped.filter(condition), sizeExpr);
+    }
+
+    public Codec<T> filter(Predicate<? super T> predicate, String... fields) {
+        return new SlicingCodec<T>(wrapped.filter(predicate, fields), sizeExpr);
+    }
+
+    public <V> V view(Class<V> type) {
+        return wrapped.view(type);
+    }
+
     public Class<?> getType() {
         return wrapped.getType();
     }
@@ -37,6 +37,7 @@ import org.codehaus.preon.el.Expressions;
 import org.codehaus.preon.*;
 import org.codehaus.preon.annotation.BoundString;
 import org.codehaus.preon.buffer.BitBuffer;
+import org.codehaus.preon.util.StringCache;
 import java.nio.charset.Charset;
 
 import java.lang.reflect.AnnotatedElement;
@@ -59,6 +60,7 @@ public class StringCodecFactory implements CodecFactory {
             try {
 				Charset charset; // Encodings are now given as strings, and turned into Charsets
                 charset = Charset.availableCharsets().get(settings.encoding());
+                StringCache cache = settings.deduplicate() ? StringCache.getShared() : null;
                 // This throws a NullPointerException if the Charset can't be found
                 if (settings.size().length() > 0) {
                     Expression<Integer, Resolver> expr;
@@ -67,12 +69,14 @@ public class StringCodecFactory implements CodecFactory {
 							charset, //Note that this is a Charset, not an Encoding
 							expr,
 							settings.match(),
-							settings.converter().newInstance());
+							settings.converter().newInstance(),
+							cache);
                 } else {
                     return (Codec<T>) new NullTerminatedStringCodec(
 							charset, //Note that this is a Charset, not an Encoding
 							settings.match(),
-							settings.converter().newInstance());
+							settings.converter().newInstance(),
+							cache);
                 }
             } catch (InstantiationException e) {
                 throw new CodecConstructionException(e.getMessage());
@@ -80,8 +80,33 @@ public class SwitchingCodec implements Codec<Object> {
         return codec.decode(buffer, resolver, builder);
     }
 
+    /**
+     * Passes the target on to the {@link Codec} selected; that {@link Codec} will decide if it can be reused.
+     */
+    @SuppressWarnings("unchecked")
+    public Object decodeInto(Object target, BitBuffer buffer, Resolver resolver, Builder builder)
+            throws DecodingException {
+        Codec<Object> codec = (Codec<Object>) selector.select(buffer, resolver);
+        return codec.decodeInto(target, buffer, resolver, builder);
+    }
+
+    /**
+     * Encodes the value using the {@link Codec} selected for its type. If the {@link CodecSelector} can tell the choice
+     * from the type alone (see {@link CodecSelector#select(Class)}), that choice is used; the selectors doing so keep
+     * their choices indexed by type, so values of alternating types are encoded without any more effort than values of
+     * a single type.
+     */
+    @SuppressWarnings("unchecked")
     public void encode(Object value, BitChannel channel, Resolver resolver) throws IOException {
-        Codec codec = selector.select(value.getClass(), channel, resolver);
+        Class<?> type = value.getClass();
+        CodecSelector.Selection selection = selector.select(type);
+        Codec<Object> codec;
+        if (selection != null) {
+            selection.write(channel, resolver);
+            codec = (Codec<Object>) selection.getCodec();
+        } else {
+            codec = (Codec<Object>) selector.select(type, channel, resolver);
+        }
         codec.encode(value, channel, resolver);
     }
 
@@ -96,7 +121,7 @@ public class SwitchingCodec implements Codec<Object> {
         for (Codec<?> codec : selector.getChoices()) {
             types.addAll(Arrays.asList(codec.getTypes()));
         }
-        return new ArrayList<Class<?>>(types).toArray(new Class[0]);
+        return new ArrayList<Class<?>>(types).toArray(new Class<?>[0]);
     }
 
     /*
@@ -110,9 +110,16 @@ public class TypePrefixSelectorFactory implements CodecSelectorFactory {
     /**
      * A {@link CodecSelector} that determines its choice on a couple of leading bits. The correspondence between {@link
      * Codec} and leading bits is based on the {@link TypePrefix} annotation.
+     * <p/>
+     * <p> If all prefixes are constants, which is almost always the case, the {@link Codec} is looked up in a table
+     * indexed by prefix while decoding. Otherwise, the prefix expressions are evaluated one by one. While encoding,
+     * the {@link Codec} chosen for a type is computed once, and cached per type. </p>
      */
     private static class TypePrefixSelector implements CodecSelector {
 
+        /** The maximum number of entries of the table used to look up {@link Codec Codecs} by prefix. */
+        private static final int MAX_TABLE_SIZE = 1024;
+
         private List<Codec<?>> codecs;
 
         private Set<Codec<?>> uniqueCodecs;
@@ -123,6 +130,36 @@ public class TypePrefixSelectorFactory implements CodecSelectorFactory {
 
         private int size;
 
+        /** The prefixes, if all of them are constant; <code>null</code> otherwise. */
+        private long[] prefixes;
+
+        /**
+         * The {@link Codec Codecs} indexed by prefix minus {@link #lowestPrefix}; <code>null</code> if the prefixes
+         * are not constant, or spread out too much, in which case {@link #codecsByPrefix} is used.
+         */
+        private Codec<?>[] table;
+
+        /** The lowest prefix. */
+        private long lowestPrefix;
+
+        /** The {@link Codec Codecs} by prefix, if all prefixes are constant; <code>null</code> otherwise. */
+        private Map<Long, Codec<?>> codecsByPrefix;
+
+        /** The choices for encoding, one for every {@link Codec}. */
+        private final Selection[] selections;
+
+        /** The index of the {@link Codec} chosen for encoding instances of a type, or <code>-1</code> if none. */
+        private final ClassValue<Integer> indexByType = new ClassValue<Integer>() {
+            protected Integer computeValue(Class<?> type) {
+                for (int i = 0; i < codecs.size(); i++) {
+                    if (type.isAssignableFrom(codecs.get(i).getType())) {
+                        return i;
+                    }
+                }
+                return -1;
+            }
+        };
+
         public TypePrefixSelector(
                 List<Expression<Integer, Resolver>> expressions,
                 List<Codec<?>> codecs, int size, ByteOrder byteOrder) {
@@ -132,6 +169,34 @@ public class TypePrefixSelectorFactory implements CodecSelectorFactory {
             this.size = size;
             this.byteOrder = byteOrder;
             this.uniqueCodecs.addAll(codecs);
+            this.selections = new Selection[codecs.size()];
+            for (int i = 0; i < selections.length; i++) {
+                selections[i] = new PrefixSelection(i);
+            }
+            for (Expression<Integer, Resolver> expression : expressions) {
+                if (expression.isParameterized()) {
+                    return;
+                }
+            }
+            prefixes = new long[expressions.size()];
+            codecsByPrefix = new HashMap<Long, Codec<?>>();
+            long lowest = Long.MAX_VALUE;
+            long highest = Long.MIN_VALUE;
+            for (int i = 0; i < prefixes.length; i++) {
+                prefixes[i] = expressions.get(i).eval(null);
+                if (!codecsByPrefix.containsKey(prefixes[i])) {
+                    codecsByPrefix.put(prefixes[i], codecs.get(i));
+                }
+                lowest = Math.min(lowest, prefixes[i]);
+                highest = Math.max(highest, prefixes[i]);
+            }
+            if (lowest <= highest && highest - lowest < MAX_TABLE_SIZE) {
+                lowestPrefix = lowest;
+                table = new Codec<?>[(int) (highest - lowest) + 1];
+                for (Map.Entry<Long, Codec<?>> entry : codecsByPrefix.entrySet()) {
+                    table[(int) (entry.getKey() - lowest)] = entry.getValue();
+                }
+            }
         }
 
         public Collection<Codec<?>> getChoices() {
@@ -141,25 +206,67 @@ public class TypePrefixSelectorFactory implements CodecSelectorFactory {
         public Codec<?> select(BitBuffer buffer, Resolver resolver)
                 throws DecodingException {
             long index = buffer.readAsLong(size, byteOrder);
-            for (int i = 0; i < codecs.size(); i++) {
-                if (index == expressions.get(i).eval(resolver)) {
-                    return codecs.get(i);
+            Codec<?> result = null;
+            if (table != null) {
+                long offset = index - lowestPrefix;
+                if (offset >= 0 && offset < table.length) {
+                    result = table[(int) offset];
                 }
+            } else if (codecsByPrefix != null) {
+                result = codecsByPrefix.get(index);
+            } else {
+                for (int i = 0; i < codecs.size(); i++) {
+                    if (index == expressions.get(i).eval(resolver)) {
+                        result = codecs.get(i);
+                        break;
+                    }
+                }
+            }
+            if (result == null) {
+                throw new DecodingException("No matching Codec found for value "
+                        + index);
             }
-            throw new DecodingException("No matching Codec found for value "
-                    + index);
+            return result;
         }
 
         public <T> Codec<?> select(Class<T> type, BitChannel channel, Resolver resolver) throws IOException {
-            for (int i = 0; i < codecs.size(); i++) {
-                Codec<?> codec = codecs.get(i);
-                if (type.isAssignableFrom(codec.getType())) {
-                    // So we found the Codec. Now to make sure that same Codec is picked up again while decoding:
-                    channel.write(size, expressions.get(i).eval(resolver), ByteOrder.BigEndian);
-                    return codec;
+            Selection selection = select(type);
+            if (selection == null) {
+                return null;
+            }
+            selection.write(channel, resolver);
+            return selection.getCodec();
+        }
+
+        public Selection select(Class<?> type) {
+            int i = indexByType.get(type);
+            return i < 0 ? null : selections[i];
+        }
+
+        /**
+         * The choice for the {@link Codec} at a certain index.
+         */
+        private class PrefixSelection implements Selection {
+
+            private final int index;
+
+            public PrefixSelection(int index) {
+                this.index = index;
+            }
+
+            public Codec<?> getCodec() {
+                return codecs.get(index);
+            }
+
+            public void write(BitChannel channel, Resolver resolver) throws IOException {
+                // Make sure that same Codec is picked up again while decoding
+                if (prefixes != null) {
+                    channel.write(size, (int) prefixes[index], ByteOrder.BigEndian);
+                } else {
+                    channel.write(size, expressions.get(index).eval(resolver), ByteOrder.BigEndian);
                 }
             }
-            return null;
+
         }
 
         public void document(final ParaContents<?> para) {
@@ -42,6 +42,8 @@ import org.codehaus.preon.el.InvalidExpressionException;
 import org.codehaus.preon.el.Reference;
 import org.codehaus.preon.el.ReferenceContext;
 import org.codehaus.preon.Resolver;
+import org.codehaus.preon.reflect.FieldAccessor;
+import org.codehaus.preon.reflect.RuntimeIllegalAccessException;
 import org.codehaus.preon.rendering.CamelCaseRewriter;
 import org.codehaus.preon.rendering.IdentifierRewriter;
 
@@ -57,6 +59,9 @@ public class PropertyReference implements Reference<Resolver> {
     /** The field representing the property. */
     private Field field;
 
+    /** The accessor used for reading the field, resolved once. */
+    private FieldAccessor accessor;
+
     /** The {@link Reference} to the object this {@link PropertyReference} is based upon. */
     private Reference<Resolver> reference;
 
@@ -80,9 +85,11 @@ public class PropertyReference implements Reference<Resolver> {
         this.context = context;
         try {
             field = type.getDeclaredField(name);
-            field.setAccessible(true);
+            accessor = FieldAccessor.forField(field);
         } catch (SecurityException e) {
             throw new BindingException("Binding to " + name + " forbidden.");
+        } catch (RuntimeIllegalAccessException e) {
+            throw new BindingException("Binding to " + name + " forbidden.");
         } catch (NoSuchFieldException e) {
             throw new BindingException("No field named " + name + ".");
         }
@@ -94,21 +101,19 @@ public class PropertyReference implements Reference<Resolver> {
         this.includeType = includeType;
     }
 
-    private PropertyReference(Reference<Resolver> reference, Field field, ReferenceContext<Resolver> context) {
+    private PropertyReference(Reference<Resolver> reference, FieldAccessor accessor, ReferenceContext<Resolver> context) {
         this.reference = reference;
-        this.field = field;
+        this.field = accessor.getField();
+        this.accessor = accessor;
         this.context = context;
     }
 
     public Object resolve(Resolver context) {
         try {
-            return field.get(reference.resolve(context));
-        } catch (IllegalArgumentException e) {
+            return accessor.get(reference.resolve(context));
+        } catch (ClassCastException e) {
             throw new BindingException("Cannot resolve " + field.getName()
                     + " on context.", e);
-        } catch (IllegalAccessException e) {
-            throw new BindingException("Access denied for field  "
-                    + field.getName(), e);
         }
     }
 
@@ -185,7 +190,7 @@ public class PropertyReference implements Reference<Resolver> {
     }
 
     public Reference<Resolver> rescope(ReferenceContext<Resolver> context) {
-        return new PropertyReference(reference.rescope(context), field, context);
+        return new PropertyReference(reference.rescope(context), accessor, context);
     }
 
 }
\ No newline at end of file
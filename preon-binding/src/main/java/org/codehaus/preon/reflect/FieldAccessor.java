@@ -0,0 +1,239 @@
+/**
+ * Copyright (C) 2009-2010 Wilfred Springer
+ *
+ * This file is part of Preon.
+ *
+ * Preon is free software; you can redistribute it and/or modify it under the
+ * terms of the GNU General Public License as published by the Free Software
+ * Foundation; either version 2, or (at your option) any later version.
+ *
+ * Preon is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR
+ * A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * Preon; see the file COPYING. If not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Linking this library statically or dynamically with other modules is making a
+ * combined work based on this library. Thus, the terms and conditions of the
+ * GNU General Public License cover the whole combination.
+ *
+ * As a special exception, the copyright holders of this library give you
+ * permission to link this library with independent modules to produce an
+ * executable, regardless of the license terms of these independent modules, and
+ * to copy and distribute the resulting executable under terms of your choice,
+ * provided that you also meet, for each linked independent module, the terms
+ * and conditions of the license of that module. An independent module is a
+ * module which is not derived from or based on this library. If you modify this
+ * library, you may extend this exception to your version of the library, but
+ * you are not obligated to do so. If you do not wish to do so, delete this
+ * exception statement from your version.
+ */
+package org.codehaus.preon.reflect;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Array;
+import java.lang.reflect.Field;
+import java.lang.reflect.UndeclaredThrowableException;
+
+/**
+ * Provides read and write access to a single field, based on {@link MethodHandle MethodHandles} that are resolved
+ * only once, when the accessor is constructed. Compared to {@link Field#get(Object)} and {@link Field#set(Object,
+ * Object)}, this avoids the access checks and argument boxing performed by reflection on every call, and gives the
+ * JIT compiler a chance to inline the actual field access.
+ *
+ * <p> For primitive fields, the primitive setters ({@link #setInt(Object, int)}, {@link #setLong(Object, long)},
+ * etc.) will write the value without boxing it first. </p>
+ *
+ * @author Wilfred Springer
+ */
+public final class FieldAccessor {
+
+    private static final MethodType GETTER_TYPE = MethodType.methodType(Object.class, Object.class);
+
+    private static final MethodType SETTER_TYPE = MethodType.methodType(void.class, Object.class, Object.class);
+
+    /** The field accessed. */
+    private final Field field;
+
+    /** The getter, of type <code>(Object)Object</code>. */
+    private final MethodHandle getter;
+
+    /** The setter, of type <code>(Object,Object)void</code>. */
+    private final MethodHandle setter;
+
+    /**
+     * The setter taking an unboxed value, of type <code>(Object,P)void</code>, with <code>P</code> being the
+     * primitive type of the field. <code>null</code> for fields of a non-primitive type.
+     */
+    private final MethodHandle primitiveSetter;
+
+    /** The default value of the field: <code>null</code>, or the (boxed) zero value of a primitive type. */
+    private final Object defaultValue;
+
+    private FieldAccessor(Field field, MethodHandle getter, MethodHandle setter) {
+        this.field = field;
+        this.getter = getter.asType(GETTER_TYPE);
+        this.setter = setter.asType(SETTER_TYPE);
+        if (field.getType().isPrimitive()) {
+            this.primitiveSetter = setter.asType(MethodType.methodType(void.class, Object.class, field.getType()));
+            this.defaultValue = Array.get(Array.newInstance(field.getType(), 1), 0);
+        } else {
+            this.primitiveSetter = null;
+            this.defaultValue = null;
+        }
+    }
+
+    /**
+     * Creates a {@link FieldAccessor} for the field passed in. The field will be made accessible if it is not already.
+     *
+     * @param field The field for which an accessor needs to be created.
+     * @return A new {@link FieldAccessor}.
+     * @throws RuntimeIllegalAccessException If the field cannot be made accessible.
+     */
+    public static FieldAccessor forField(Field field) throws RuntimeIllegalAccessException {
+        ReflectionUtils.makeAssessible(field);
+        MethodHandles.Lookup lookup = MethodHandles.lookup();
+        try {
+            return new FieldAccessor(field, lookup.unreflectGetter(field), lookup.unreflectSetter(field));
+        } catch (IllegalAccessException iae) {
+            throw new RuntimeIllegalAccessException(iae);
+        }
+    }
+
+    /**
+     * Returns the field accessed by this accessor.
+     */
+    public Field getField() {
+        return field;
+    }
+
+    /**
+     * Returns the value of the field on the object passed in. Primitive values will be boxed.
+     *
+     * @param target The object holding the field.
+     * @return The current value of the field.
+     * @throws ClassCastException If the object passed in is not an instance of the class declaring the field.
+     */
+    public Object get(Object target) {
+        try {
+            return (Object) getter.invokeExact(target);
+        } catch (Throwable throwable) {
+            throw unchecked(throwable);
+        }
+    }
+
+    /**
+     * Sets the field on the object passed in. If the field has a primitive type, the value will be unboxed (and
+     * widened if required), following the same rules as {@link Field#set(Object, Object)}.
+     *
+     * @param target The object holding the field.
+     * @param value The new value of the field.
+     * @throws ClassCastException If either the target or the value is not of the expected type.
+     */
+    public void set(Object target, Object value) {
+        try {
+            setter.invokeExact(target, value);
+        } catch (Throwable throwable) {
+            throw unchecked(throwable);
+        }
+    }
+
+    /**
+     * Resets the field on the object passed in to the default value of its type: <code>null</code>,
+     * <code>false</code> or zero.
+     *
+     * @param target The object holding the field.
+     */
+    public void clear(Object target) {
+        set(target, defaultValue);
+    }
+
+    public void setBoolean(Object target, boolean value) {
+        try {
+            primitiveSetter(boolean.class).invokeExact(target, value);
+        } catch (Throwable throwable) {
+            throw unchecked(throwable);
+        }
+    }
+
+    public void setByte(Object target, byte value) {
+        try {
+            primitiveSetter(byte.class).invokeExact(target, value);
+        } catch (Throwable throwable) {
+            throw unchecked(throwable);
+        }
+    }
+
+    public void setShort(Object target, short value) {
+        try {
+            primitiveSetter(short.class).invokeExact(target, value);
+        } catch (Throwable throwable) {
+            throw unchecked(throwable);
+        }
+    }
+
+    public void setInt(Object target, int value) {
+        try {
+            primitiveSetter(int.class).invokeExact(target, value);
+        } catch (Throwable throwable) {
+            throw unchecked(throwable);
+        }
+    }
+
+    public void setLong(Object target, long value) {
+        try {
+            primitiveSetter(long.class).invokeExact(target, value);
+        } catch (Throwable throwable) {
+            throw unchecked(throwable);
+        }
+    }
+
+    public void setFloat(Object target, float value) {
+        try {
+            primitiveSetter(float.class).invokeExact(target, value);
+        } catch (Throwable throwable) {
+            throw unchecked(throwable);
+        }
+    }
+
+    public void setDouble(Object target, double value) {
+        try {
+            primitiveSetter(double.class).invokeExact(target, value);
+        } catch (Throwable throwable) {
+            throw unchecked(throwable);
+        }
+    }
+
+    /**
+     * Returns the primitive setter, after verifying that the field is indeed of the primitive type passed in.
+     */
+    private MethodHandle primitiveSetter(Class<?> type) {
+        if (field.getType() != type) {
+            throw new IllegalArgumentException("Field " + field.getName() + " is not of type " + type.getName());
+        }
+        return primitiveSetter;
+    }
+
+    /**
+     * Rethrows unchecked exceptions and errors raised by a {@link MethodHandle} as they are. (Plain field access is
+     * not expected to throw checked exceptions.)
+     */
+    private static RuntimeException unchecked(Throwable throwable) {
+        if (throwable instanceof RuntimeException) {
+            return (RuntimeException) throwable;
+        } else if (throwable instanceof Error) {
+            throw (Error) throwable;
+        } else {
+            return new UndeclaredThrowableException(throwable);
+        }
+    }
+
+    public String toString() {
+        return "Accessor of " + field;
+    }
+
+}
@@ -0,0 +1,169 @@
+/**
+ * Copyright (C) 2009-2010 Wilfred Springer
+ *
+ * This file is part of Preon.
+ *
+ * Preon is free software; you can redistribute it and/or modify it under the
+ * terms of the GNU General Public License as published by the Free Software
+ * Foundation; either version 2, or (at your option) any later version.
+ *
+ * Preon is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR
+ * A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * Preon; see the file COPYING. If not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Linking this library statically or dynamically with other modules is making a
+ * combined work based on this library. Thus, the terms and conditions of the
+ * GNU General Public License cover the whole combination.
+ *
+ * As a special exception, the copyright holders of this library give you
+ * permission to link this library with independent modules to produce an
+ * executable, regardless of the license terms of these independent modules, and
+ * to copy and distribute the resulting executable under terms of your choice,
+ * provided that you also meet, for each linked independent module, the terms
+ * and conditions of the license of that module. An independent module is a
+ * module which is not derived from or based on this library. If you modify this
+ * library, you may extend this exception to your version of the library, but
+ * you are not obligated to do so. If you do not wish to do so, delete this
+ * exception statement from your version.
+ */
+package org.codehaus.preon.reflect;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Modifier;
+
+/**
+ * Creates instances of a single type, using a constructor that is resolved into a {@link MethodHandle} only once per
+ * type. Instances of this class are cached per type, so obtaining an {@link Instantiator} through {@link
+ * #forType(Class)} or {@link #forMemberType(Class)} is cheap, and creating new instances does not require any
+ * reflective lookups.
+ *
+ * <p> Failures to resolve a suitable constructor are cached as well, and reported as an {@link
+ * InstantiationException} every time an instance is requested, in the same way {@link Class#newInstance()} would
+ * report them. </p>
+ *
+ * @author Wilfred Springer
+ */
+public final class Instantiator {
+
+    /** Instantiators using the default constructor. */
+    private static final ClassValue<Instantiator> DEFAULT = new ClassValue<Instantiator>() {
+        protected Instantiator computeValue(Class<?> type) {
+            return resolve(type, new Class<?>[0]);
+        }
+    };
+
+    /** Instantiators of non-static member classes, using the constructor accepting the enclosing instance. */
+    private static final ClassValue<Instantiator> MEMBER = new ClassValue<Instantiator>() {
+        protected Instantiator computeValue(Class<?> type) {
+            return resolve(type, new Class<?>[]{type.getDeclaringClass()});
+        }
+    };
+
+    /** The constructor, of type <code>()Object</code> or <code>(Object)Object</code>. */
+    private final MethodHandle constructor;
+
+    /** The reason why no constructor could be resolved; <code>null</code> if it could. */
+    private final String failure;
+
+    private Instantiator(MethodHandle constructor, String failure) {
+        this.constructor = constructor;
+        this.failure = failure;
+    }
+
+    /**
+     * Returns the {@link Instantiator} creating instances of the given type using its default constructor.
+     */
+    public static Instantiator forType(Class<?> type) {
+        return DEFAULT.get(type);
+    }
+
+    /**
+     * Returns the {@link Instantiator} creating instances of the given non-static member class, passing in the
+     * enclosing instance.
+     */
+    public static Instantiator forMemberType(Class<?> type) {
+        return MEMBER.get(type);
+    }
+
+    /**
+     * Creates a new instance, using the default constructor.
+     *
+     * @throws InstantiationException If the type has no accessible default constructor, or if the constructor fails.
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T newInstance() throws InstantiationException {
+        check();
+        try {
+            return (T) (Object) constructor.invokeExact();
+        } catch (Throwable throwable) {
+            throw failed(throwable);
+        }
+    }
+
+    /**
+     * Creates a new instance of a member class, passing in the enclosing instance.
+     *
+     * @param enclosing The instance of the enclosing class.
+     * @throws InstantiationException If the type has no suitable constructor, if the enclosing instance is not
+     *                                accepted, or if the constructor fails.
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T newInstance(Object enclosing) throws InstantiationException {
+        check();
+        try {
+            return (T) (Object) constructor.invokeExact(enclosing);
+        } catch (ClassCastException cce) {
+            throw new InstantiationException("Enclosing instance not accepted as argument.");
+        } catch (Throwable throwable) {
+            throw failed(throwable);
+        }
+    }
+
+    private void check() throws InstantiationException {
+        if (failure != null) {
+            throw new InstantiationException(failure);
+        }
+    }
+
+    private static InstantiationException failed(Throwable throwable) {
+        if (throwable instanceof Error) {
+            throw (Error) throwable;
+        }
+        InstantiationException ie = new InstantiationException("Failed to call constructor.");
+        ie.initCause(throwable);
+        return ie;
+    }
+
+    private static Instantiator resolve(Class<?> type, Class<?>[] parameterTypes) {
+        if (type.isInterface() || Modifier.isAbstract(type.getModifiers())) {
+            return new Instantiator(null, "Cannot instantiate abstract type " + type.getName());
+        }
+        try {
+            Constructor<?> constructor = type.getDeclaredConstructor(parameterTypes);
+            try {
+                constructor.setAccessible(true);
+            } catch (RuntimeException re) {
+                // Not allowed to bypass access checks; rely on regular access rules.
+            }
+            MethodHandle handle = MethodHandles.lookup().unreflectConstructor(constructor);
+            MethodType erased = parameterTypes.length == 0
+                    ? MethodType.methodType(Object.class)
+                    : MethodType.methodType(Object.class, Object.class);
+            return new Instantiator(handle.asType(erased), null);
+        } catch (NoSuchMethodException nsme) {
+            return new Instantiator(null, "Missing valid default constructor.");
+        } catch (IllegalAccessException iae) {
+            return new Instantiator(null, "Constructor of " + type.getName() + " not accessible.");
+        } catch (SecurityException se) {
+            return new Instantiator(null, "Constructor of " + type.getName() + " not accessible.");
+        }
+    }
+
+}
@@ -37,26 +37,33 @@ import java.util.Iterator;
 import java.util.List;
 import java.util.ListIterator;
 import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.Consumer;
 
 import org.codehaus.preon.Builder;
 import org.codehaus.preon.Codec;
-import org.codehaus.preon.CodecException;
 import org.codehaus.preon.DecodingException;
+import org.codehaus.preon.LazyDecodingException;
 import org.codehaus.preon.Resolver;
 import org.codehaus.preon.buffer.BitBuffer;
 
 /**
- * A {@link List} that will lazily load objects from a {@link BitBuffer}. Note that it does <em>not</em> cache the
- * elements in any way. Since the objects will be instantiated on the fly, different threads will return instances with
- * a different object identity.
+ * A {@link List} that will lazily load objects from a {@link BitBuffer}. Every access reads from its own duplicate of
+ * the {@link BitBuffer}, so the position of the buffer passed in is never touched, and the list can safely be accessed
+ * by several threads at the same time. Its {@link #spliterator() Spliterator} splits by index range, so {@link
+ * #parallelStream()} will decode elements on all cores.
+ * <p/>
+ * <p> Unless constructed with a cache size, the list does <em>not</em> cache the elements in any way. Since the
+ * objects will be instantiated on the fly, different threads will return instances with a different object identity.
+ * If it does have a cache, then element <code>i</code> is kept in slot <code>i % cacheSize</code>, until replaced by
+ * another element mapping to the same slot. </p>
  *
  * @author Wilfred Springer
  * @param <E> The type of elements in the {@link List}.
  */
 public class EvenlyDistributedLazyList<E> implements List<E> {
 
-    private CodecExceptionPolicy<E> policy;
-
     /** The {@link Codec} used for reading elements of the list. */
     private Codec<E> codec;
 
@@ -84,6 +91,9 @@ public class EvenlyDistributedLazyList<E> implements List<E> {
      */
     private Builder builder;
 
+    /** The elements decoded recently, or <code>null</code> if elements are not cached. */
+    private AtomicReferenceArray<CachedElement<E>> cache;
+
     /**
      * Constructs a new instance. Currently the preferred way of constructing a {@link EvenlyDistributedLazyList}.
      *
@@ -96,21 +106,25 @@ public class EvenlyDistributedLazyList<E> implements List<E> {
      */
     public EvenlyDistributedLazyList(Codec<E> codec, long offset, BitBuffer buffer, int numberOfElements,
                                      Builder builder, Resolver resolver, int elementSize) {
+        this(codec, offset, buffer, numberOfElements, builder, resolver, elementSize, 0);
+    }
+
+    /**
+     * Constructs a new instance, keeping up to <code>cacheSize</code> decoded elements around.
+     *
+     * @param cacheSize The maximum number of elements cached, or <code>0</code> if elements should not be cached.
+     * @see #EvenlyDistributedLazyList(Codec, long, BitBuffer, int, Builder, Resolver, int)
+     */
+    public EvenlyDistributedLazyList(Codec<E> codec, long offset, BitBuffer buffer, int numberOfElements,
+                                     Builder builder, Resolver resolver, int elementSize, int cacheSize) {
         this.codec = codec;
+        this.cache = cacheSize > 0 ? new AtomicReferenceArray<CachedElement<E>>(cacheSize) : null;
         this.offset = offset;
         this.buffer = buffer;
         this.builder = builder;
         this.maxSize = numberOfElements;
         this.resolver = resolver;
         this.elementSize = elementSize;
-        this.policy = new CodecExceptionPolicy<E>() {
-
-            public E handle(CodecException ce) {
-                // There is really no way to be prepared for this.
-                throw new RuntimeException(ce);
-            }
-
-        };
     }
 
     /*
@@ -189,17 +203,38 @@ public class EvenlyDistributedLazyList<E> implements List<E> {
      * @see java.util.List#get(int)
      */
 
-    @SuppressWarnings("unchecked")
     public E get(int index) {
         if (index < 0 || index >= maxSize) {
             throw new IndexOutOfBoundsException();
         }
-        buffer.setBitPos(offset + index * elementSize);
+        return get(index, null);
+    }
+
+    /**
+     * Returns the element at the given index, decoding it from the cursor passed in if it is not cached. (If the
+     * cursor is <code>null</code>, a new one will be created if needed.)
+     */
+    private E get(int index, BitBuffer cursor) {
+        if (cache != null) {
+            CachedElement<E> cached = cache.get(index % cache.length());
+            if (cached != null && cached.index == index) {
+                return cached.element;
+            }
+        }
+        if (cursor == null) {
+            cursor = buffer.duplicate();
+        }
+        cursor.setBitPos(offset + (long) index * elementSize);
+        E element;
         try {
-            return codec.decode(buffer, resolver, builder);
+            element = codec.decode(cursor, resolver, builder);
         } catch (DecodingException de) {
-            return policy.handle(de);
+            throw new LazyDecodingException("Failed to decode element " + index + " of lazily loaded list", de);
         }
+        if (cache != null) {
+            cache.set(index % cache.length(), new CachedElement<E>(index, element));
+        }
+        return element;
     }
 
     /*
@@ -330,8 +365,16 @@ public class EvenlyDistributedLazyList<E> implements List<E> {
      */
 
     public List<E> subList(int fromIndex, int toIndex) {
-        return new EvenlyDistributedLazyList<E>(codec, offset + elementSize * fromIndex, buffer,
-                toIndex - fromIndex, builder, resolver, elementSize);
+        return new EvenlyDistributedLazyList<E>(codec, offset + (long) elementSize * fromIndex, buffer,
+                toIndex - fromIndex, builder, resolver, elementSize, cache == null ? 0 : cache.length());
+    }
+
+    /**
+     * Returns a {@link Spliterator} splitting by index range. Every {@link Spliterator} obtained decodes from its own
+     * duplicate of the {@link BitBuffer}.
+     */
+    public Spliterator<E> spliterator() {
+        return new LazyListSpliterator(0, maxSize);
     }
 
     /*
@@ -472,16 +515,77 @@ public class EvenlyDistributedLazyList<E> implements List<E> {
 
     }
 
-    /**
-     * The problem with lazy loading data is that the exception occurs not while calling the decode operation on the
-     * {@link Codec}, but later on, while obtaining the data. This interface allows this class to have a strategy for
-     * dealing with that.
-     * <p/>
-     * TODO Get an alternative here.
-     */
-    public interface CodecExceptionPolicy<E> {
+    /** A {@link Spliterator} over a range of indexes of the list. */
+    private class LazyListSpliterator implements Spliterator<E> {
+
+        /** The index of the next element. */
+        private int index;
+
+        /** The index following the last element. */
+        private final int end;
 
-        E handle(CodecException ce);
+        /** The cursor used for decoding, created on first use. */
+        private BitBuffer cursor;
+
+        public LazyListSpliterator(int index, int end) {
+            this.index = index;
+            this.end = end;
+        }
+
+        public boolean tryAdvance(Consumer<? super E> action) {
+            if (index < end) {
+                action.accept(get(index++, getCursor()));
+                return true;
+            } else {
+                return false;
+            }
+        }
+
+        public void forEachRemaining(Consumer<? super E> action) {
+            BitBuffer cursor = getCursor();
+            while (index < end) {
+                action.accept(get(index++, cursor));
+            }
+        }
+
+        public Spliterator<E> trySplit() {
+            int middle = (index + end) >>> 1;
+            if (middle <= index) {
+                return null;
+            }
+            Spliterator<E> prefix = new LazyListSpliterator(index, middle);
+            index = middle;
+            return prefix;
+        }
+
+        public long estimateSize() {
+            return end - index;
+        }
+
+        public int characteristics() {
+            return ORDERED | SIZED | SUBSIZED | IMMUTABLE;
+        }
+
+        private BitBuffer getCursor() {
+            if (cursor == null) {
+                cursor = buffer.duplicate();
+            }
+            return cursor;
+        }
+
+    }
+
+    /** An element kept in the cache, along with its index. */
+    private static class CachedElement<E> {
+
+        private final int index;
+
+        private final E element;
+
+        public CachedElement(int index, E element) {
+            this.index = index;
+            this.element = element;
+        }
 
     }
 
@@ -0,0 +1,135 @@
+/**
+ * Copyright (C) 2009-2010 Wilfred Springer
+ *
+ * This file is part of Preon.
+ *
+ * Preon is free software; you can redistribute it and/or modify it under the
+ * terms of the GNU General Public License as published by the Free Software
+ * Foundation; either version 2, or (at your option) any later version.
+ *
+ * Preon is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR
+ * A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * Preon; see the file COPYING. If not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Linking this library statically or dynamically with other modules is making a
+ * combined work based on this library. Thus, the terms and conditions of the
+ * GNU General Public License cover the whole combination.
+ *
+ * As a special exception, the copyright holders of this library give you
+ * permission to link this library with independent modules to produce an
+ * executable, regardless of the license terms of these independent modules, and
+ * to copy and distribute the resulting executable under terms of your choice,
+ * provided that you also meet, for each linked independent module, the terms
+ * and conditions of the license of that module. An independent module is a
+ * module which is not derived from or based on this library. If you modify this
+ * library, you may extend this exception to your version of the library, but
+ * you are not obligated to do so. If you do not wish to do so, delete this
+ * exception statement from your version.
+ */
+package org.codehaus.preon.util;
+
+import java.nio.ByteBuffer;
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.RandomAccess;
+
+/**
+ * A {@link List} of Integers, backed by primitive ints rather than by Integer objects. Use {@link #getInt(int)} to get
+ * to the elements without boxing them. The list is either backed by an array, or by a {@link ByteBuffer} holding the
+ * encoded elements, in which case elements are read when accessed. Either way, the list is immutable, and can safely
+ * be accessed by several threads at the same time.
+ *
+ * @author Wilfred Springer
+ */
+public abstract class IntList extends AbstractList<Integer> implements RandomAccess {
+
+    /**
+     * Returns the element at the given position, without boxing it.
+     *
+     * @param index The index of the element.
+     * @return The element at the given position.
+     */
+    public abstract int getInt(int index);
+
+    public Integer get(int index) {
+        return getInt(index);
+    }
+
+    /**
+     * Returns a copy of the elements of the list, as an array.
+     */
+    public int[] toIntArray() {
+        int[] result = new int[size()];
+        for (int i = 0; i < result.length; i++) {
+            result[i] = getInt(i);
+        }
+        return result;
+    }
+
+    /**
+     * Returns a list backed by the array passed in. (The array is not copied.)
+     */
+    public static IntList of(int[] values) {
+        return new ArrayIntList(values);
+    }
+
+    /**
+     * Returns a list backed by the 32-bit values remaining in the {@link ByteBuffer} passed in, in the byte order of
+     * that {@link ByteBuffer}.
+     */
+    public static IntList of(ByteBuffer values) {
+        return new ByteBufferIntList(values.slice().order(values.order()));
+    }
+
+    private static class ArrayIntList extends IntList {
+
+        private final int[] values;
+
+        public ArrayIntList(int[] values) {
+            this.values = values;
+        }
+
+        public int getInt(int index) {
+            return values[index];
+        }
+
+        public int size() {
+            return values.length;
+        }
+
+        public int[] toIntArray() {
+            return Arrays.copyOf(values, values.length);
+        }
+
+    }
+
+    private static class ByteBufferIntList extends IntList {
+
+        private final ByteBuffer values;
+
+        private final int size;
+
+        public ByteBufferIntList(ByteBuffer values) {
+            this.values = values;
+            this.size = values.remaining() / 4;
+        }
+
+        public int getInt(int index) {
+            if (index < 0 || index >= size) {
+                throw new IndexOutOfBoundsException();
+            }
+            return values.getInt(index * 4);
+        }
+
+        public int size() {
+            return size;
+        }
+
+    }
+
+}
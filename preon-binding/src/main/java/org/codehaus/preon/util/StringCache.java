@@ -0,0 +1,211 @@
+/**
+ * Copyright (C) 2009-2010 Wilfred Springer
+ *
+ * This file is part of Preon.
+ *
+ * Preon is free software; you can redistribute it and/or modify it under the
+ * terms of the GNU General Public License as published by the Free Software
+ * Foundation; either version 2, or (at your option) any later version.
+ *
+ * Preon is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR
+ * A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * Preon; see the file COPYING. If not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Linking this library statically or dynamically with other modules is making a
+ * combined work based on this library. Thus, the terms and conditions of the
+ * GNU General Public License cover the whole combination.
+ *
+ * As a special exception, the copyright holders of this library give you
+ * permission to link this library with independent modules to produce an
+ * executable, regardless of the license terms of these independent modules, and
+ * to copy and distribute the resulting executable under terms of your choice,
+ * provided that you also meet, for each linked independent module, the terms
+ * and conditions of the license of that module. An independent module is a
+ * module which is not derived from or based on this library. If you modify this
+ * library, you may extend this exception to your version of the library, but
+ * you are not obligated to do so. If you do not wish to do so, delete this
+ * exception statement from your version.
+ */
+package org.codehaus.preon.util;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A bounded cache of decoded Strings, keyed by the bytes they were decoded from, allowing codecs to return the same
+ * String instance for every occurrence of the same sequence of bytes. Intended for formats in which the same short
+ * Strings (keys, names, identifiers) occur over and over again.
+ * <p/>
+ * <p> The cache is direct-mapped: every sequence of bytes maps to exactly one slot, and a new String simply replaces
+ * whatever occupied its slot before. Looking up a String does not allocate, and does not require any locking; it is
+ * safe to share a single cache between many threads. Sequences of bytes longer than the maximum length passed in on
+ * construction are never cached. </p>
+ *
+ * @author Wilfred Springer
+ */
+public class StringCache {
+
+    /** The cache used for all fields bound with {@link org.codehaus.preon.annotation.BoundString#deduplicate()}. */
+    private static final StringCache SHARED = new StringCache(4096, 64);
+
+    /** The slots. */
+    private final AtomicReferenceArray<Entry> entries;
+
+    /** The mask selecting the slot from a hash code. */
+    private final int mask;
+
+    /** The maximum number of bytes of a String to be cached. */
+    private final int maxLength;
+
+    private final LongAdder hits = new LongAdder();
+
+    private final LongAdder misses = new LongAdder();
+
+    /**
+     * Constructs a new instance.
+     *
+     * @param capacity  The maximum number of Strings cached; will be rounded up to the next power of two.
+     * @param maxLength The maximum number of bytes of the Strings to be cached.
+     */
+    public StringCache(int capacity, int maxLength) {
+        if (capacity <= 0 || capacity > 1 << 30) {
+            throw new IllegalArgumentException("Invalid capacity: " + capacity);
+        }
+        int slots = Integer.highestOneBit(capacity);
+        if (slots < capacity) {
+            slots <<= 1;
+        }
+        this.entries = new AtomicReferenceArray<Entry>(slots);
+        this.mask = slots - 1;
+        this.maxLength = maxLength;
+    }
+
+    /**
+     * Returns the cache shared by all fields bound with {@link org.codehaus.preon.annotation.BoundString#deduplicate()}.
+     */
+    public static StringCache getShared() {
+        return SHARED;
+    }
+
+    /**
+     * Returns the String represented by the given bytes, from the cache if possible. The position of the {@link
+     * ByteBuffer} is left untouched.
+     *
+     * @param bytes   The buffer holding the bytes.
+     * @param offset  The (absolute) index of the first byte.
+     * @param length  The number of bytes.
+     * @param charset The encoding of the bytes.
+     * @param trim    Whether leading and trailing whitespace needs to be removed from the String decoded.
+     * @return The String decoded from the bytes.
+     */
+    public String get(ByteBuffer bytes, int offset, int length, Charset charset, boolean trim) {
+        if (length > maxLength) {
+            return decode(copy(bytes, offset, length), charset, trim);
+        }
+        int hash = charset.hashCode() + (trim ? 1 : 0);
+        for (int i = 0; i < length; i++) {
+            hash = 31 * hash + bytes.get(offset + i);
+        }
+        int slot = (hash ^ (hash >>> 16)) & mask;
+        Entry entry = entries.get(slot);
+        if (entry != null && entry.matches(hash, bytes, offset, length, charset, trim)) {
+            hits.increment();
+            return entry.value;
+        }
+        misses.increment();
+        byte[] key = copy(bytes, offset, length);
+        String value = decode(key, charset, trim);
+        entries.set(slot, new Entry(hash, key, charset, trim, value));
+        return value;
+    }
+
+    /**
+     * Returns the number of times a String could be taken from the cache.
+     */
+    public long getHits() {
+        return hits.sum();
+    }
+
+    /**
+     * Returns the number of times a String had to be decoded, and was (re)placed in the cache. Strings exceeding the
+     * maximum length are not counted.
+     */
+    public long getMisses() {
+        return misses.sum();
+    }
+
+    /**
+     * Returns the maximum number of Strings cached.
+     */
+    public int getCapacity() {
+        return entries.length();
+    }
+
+    /**
+     * Removes all Strings from the cache, and resets the statistics.
+     */
+    public void clear() {
+        for (int i = 0; i < entries.length(); i++) {
+            entries.set(i, null);
+        }
+        hits.reset();
+        misses.reset();
+    }
+
+    private static byte[] copy(ByteBuffer bytes, int offset, int length) {
+        byte[] result = new byte[length];
+        for (int i = 0; i < length; i++) {
+            result[i] = bytes.get(offset + i);
+        }
+        return result;
+    }
+
+    private static String decode(byte[] bytes, Charset charset, boolean trim) {
+        String result = new String(bytes, charset);
+        return trim ? result.trim() : result;
+    }
+
+    /**
+     * A String, along with the bytes it was decoded from.
+     */
+    private static class Entry {
+
+        private final int hash;
+
+        private final byte[] key;
+
+        private final Charset charset;
+
+        private final boolean trim;
+
+        private final String value;
+
+        public Entry(int hash, byte[] key, Charset charset, boolean trim, String value) {
+            this.hash = hash;
+            this.key = key;
+            this.charset = charset;
+            this.trim = trim;
+            this.value = value;
+        }
+
+        public boolean matches(int hash, ByteBuffer bytes, int offset, int length, Charset charset, boolean trim) {
+            if (this.hash != hash || key.length != length || this.trim != trim || !this.charset.equals(charset)) {
+                return false;
+            }
+            for (int i = 0; i < length; i++) {
+                if (key[i] != bytes.get(offset + i)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+    }
+
+}
@@ -32,156 +32,83 @@
  */
 package org.codehaus.preon.util;
 
-import java.util.Collection;
-import java.util.Iterator;
+import java.util.AbstractList;
 import java.util.List;
-import java.util.ListIterator;
+import java.util.RandomAccess;
 
 import org.codehaus.preon.Builder;
 import org.codehaus.preon.Codec;
+import org.codehaus.preon.DecodingException;
+import org.codehaus.preon.LazyDecodingException;
 import org.codehaus.preon.Resolver;
 import org.codehaus.preon.buffer.BitBuffer;
 
 /**
  * A {@link List} implementation that will lazy load its elements. Big difference with {@link EvenlyDistributedLazyList}
- * is that this implementation does not assume all elements to have the same size.
+ * is that this implementation does not assume all elements to have the same size. Instead, it relies on the offsets of
+ * all elements to be known in advance.
+ * <p/>
+ * <p> Like {@link EvenlyDistributedLazyList}, every access reads from its own duplicate of the {@link BitBuffer}, and
+ * elements are not cached. </p>
  *
  * @author Wilfred Springer
  */
-public class UnevenlyDistributedLazyList<E> implements List<E> {
+public class UnevenlyDistributedLazyList<E> extends AbstractList<E> implements RandomAccess {
 
     /** The {@link Codec} decoding elements of the list. */
     private Codec<E> codec;
 
+    /** The offsets of the elements, relative to the start of the {@link BitBuffer}. */
+    private long[] offsets;
+
+    /** The number of elements. */
+    private int size;
+
     /** The {@link BitBuffer} to read from. */
     private BitBuffer buffer;
 
-    /**
-     *
-     */
+    /** A reference to the {@link Resolver} resolving variables referenced in {@link org.codehaus.preon.el.Expression}s. */
     private Resolver resolver;
 
+    /** The object capable of creating new instances of classes. */
     private Builder builder;
 
-    public boolean add(E element) {
-        // TODO Auto-generated method stub
-        return false;
-    }
-
-    public void add(int position, E element) {
-        // TODO Auto-generated method stub
-
-    }
-
-    public boolean addAll(Collection<? extends E> elements) {
-        // TODO Auto-generated method stub
-        return false;
-    }
-
-    public boolean addAll(int position, Collection<? extends E> elements) {
-        // TODO Auto-generated method stub
-        return false;
-    }
-
-    public void clear() {
-        // TODO Auto-generated method stub
-
-    }
-
-    public boolean contains(Object object) {
-        // TODO Auto-generated method stub
-        return false;
-    }
-
-    public boolean containsAll(Collection<?> elements) {
-        // TODO Auto-generated method stub
-        return false;
-    }
-
-    public E get(int position) {
-        // TODO Auto-generated method stub
-        return null;
-    }
-
-    public int indexOf(Object object) {
-        // TODO Auto-generated method stub
-        return 0;
-    }
-
-    public boolean isEmpty() {
-        // TODO Auto-generated method stub
-        return false;
-    }
-
-    public Iterator<E> iterator() {
-        // TODO Auto-generated method stub
-        return null;
-    }
-
-    public int lastIndexOf(Object object) {
-        // TODO Auto-generated method stub
-        return 0;
-    }
-
-    public ListIterator<E> listIterator() {
-        // TODO Auto-generated method stub
-        return null;
-    }
-
-    public ListIterator<E> listIterator(int position) {
-        // TODO Auto-generated method stub
-        return null;
-    }
-
-    public boolean remove(Object object) {
-        // TODO Auto-generated method stub
-        return false;
-    }
-
-    public E remove(int position) {
-        // TODO Auto-generated method stub
-        return null;
-    }
-
-    public boolean removeAll(Collection<?> elements) {
-        // TODO Auto-generated method stub
-        return false;
-    }
-
-    public boolean retainAll(Collection<?> elements) {
-        // TODO Auto-generated method stub
-        return false;
-    }
-
-    public E set(int position, E element) {
-        // TODO Auto-generated method stub
-        return null;
+    /**
+     * Constructs a new instance.
+     *
+     * @param codec    The {@link Codec} responsible for decoding elements in the list.
+     * @param offsets  The offsets of the elements, relative to the start of the {@link BitBuffer}. Only the first
+     *                 <code>size</code> offsets are used.
+     * @param size     The number of elements in the list.
+     * @param buffer   The {@link BitBuffer} from which data will be decoded.
+     * @param builder  The object capable of constructing new instances of a class, including non-static inner classes.
+     * @param resolver The context for evaluating expressions.
+     */
+    public UnevenlyDistributedLazyList(Codec<E> codec, long[] offsets, int size, BitBuffer buffer, Builder builder,
+                                       Resolver resolver) {
+        this.codec = codec;
+        this.offsets = offsets;
+        this.size = size;
+        this.buffer = buffer;
+        this.builder = builder;
+        this.resolver = resolver;
+    }
+
+    public E get(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException();
+        }
+        BitBuffer cursor = buffer.duplicate();
+        cursor.setBitPos(offsets[index]);
+        try {
+            return codec.decode(cursor, resolver, builder);
+        } catch (DecodingException de) {
+            throw new LazyDecodingException("Failed to decode element " + index + " of lazily loaded list", de);
+        }
     }
 
     public int size() {
-        // TODO Auto-generated method stub
-        return 0;
-    }
-
-    public List<E> subList(int start, int end) {
-        // TODO Auto-generated method stub
-        return null;
-    }
-
-    public Object[] toArray() {
-        // TODO Auto-generated method stub
-        return null;
-    }
-
-    public <T> T[] toArray(T[] elements) {
-        // TODO Auto-generated method stub
-        return null;
-    }
-
-    private interface Holder<T> {
-
-        T get() throws InterruptedException;
-
+        return size;
     }
 
 }
@@ -0,0 +1,150 @@
+/**
+ * Copyright (C) 2009-2010 Wilfred Springer
+ *
+ * This file is part of Preon.
+ *
+ * Preon is free software; you can redistribute it and/or modify it under the
+ * terms of the GNU General Public License as published by the Free Software
+ * Foundation; either version 2, or (at your option) any later version.
+ *
+ * Preon is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR
+ * A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * Preon; see the file COPYING. If not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Linking this library statically or dynamically with other modules is making a
+ * combined work based on this library. Thus, the terms and conditions of the
+ * GNU General Public License cover the whole combination.
+ *
+ * As a special exception, the copyright holders of this library give you
+ * permission to link this library with independent modules to produce an
+ * executable, regardless of the license terms of these independent modules, and
+ * to copy and distribute the resulting executable under terms of your choice,
+ * provided that you also meet, for each linked independent module, the terms
+ * and conditions of the license of that module. An independent module is a
+ * module which is not derived from or based on this library. If you modify this
+ * library, you may extend this exception to your version of the library, but
+ * you are not obligated to do so. If you do not wish to do so, delete this
+ * exception statement from your version.
+ */
+package org.codehaus.preon;
+
+import org.codehaus.preon.annotation.BoundNumber;
+import org.codehaus.preon.annotation.BoundObject;
+import org.codehaus.preon.annotation.If;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.sameInstance;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.junit.Assert.fail;
+
+public class CodecRegistryTest {
+
+    private CodecRegistry registry;
+
+    @Before
+    public void createRegistry() {
+        registry = new CodecRegistry(new DefaultCodecFactory());
+    }
+
+    @Test
+    public void shouldConstructCodecOnlyOnce() {
+        Codec<Message> first = registry.get(Message.class);
+        Codec<Message> second = registry.get(Message.class);
+        assertThat(second, is(sameInstance(first)));
+        CodecRegistry.Statistics statistics = registry.getStatistics();
+        assertThat(statistics.getSize(), is(1));
+        assertThat(statistics.getMisses(), is(1L));
+        assertThat(statistics.getHits(), is(1L));
+    }
+
+    @Test
+    public void shouldConstructCodecOnlyOnceUnderConcurrency() throws Exception {
+        final int threads = 8;
+        final CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<Codec<Message>>> results = new ArrayList<Future<Codec<Message>>>();
+            for (int i = 0; i < threads; i++) {
+                results.add(executor.submit(new Callable<Codec<Message>>() {
+                    public Codec<Message> call() throws Exception {
+                        start.await();
+                        return registry.get(Message.class);
+                    }
+                }));
+            }
+            start.countDown();
+            Codec<Message> codec = results.get(0).get();
+            for (Future<Codec<Message>> result : results) {
+                assertThat(result.get(), is(sameInstance(codec)));
+            }
+        } finally {
+            executor.shutdown();
+        }
+        assertThat(registry.getStatistics().getMisses(), is(1L));
+        assertThat(registry.getStatistics().getHits(), is((long) threads - 1));
+    }
+
+    @Test
+    public void shouldResolveRecursiveTypes() throws DecodingException {
+        registry.warmUp(Node.class);
+        Node node = Codecs.decode(registry.get(Node.class), (byte) 1, (byte) 1, (byte) 0, (byte) 2);
+        assertThat(node.value, is(1));
+        assertThat(node.next.value, is(2));
+    }
+
+    @Test
+    public void shouldNotRegisterFailures() {
+        for (int i = 0; i < 2; i++) {
+            try {
+                registry.get(Unbound.class);
+                fail("Expected CodecConstructionException");
+            } catch (CodecConstructionException cce) {
+                // Expected
+            }
+        }
+        assertThat(registry.getStatistics().getSize(), is(0));
+        assertThat(registry.getStatistics().getMisses(), is(2L));
+    }
+
+    public static class Message {
+
+        @BoundNumber(size = "8")
+        public int value;
+
+    }
+
+    public static class Node {
+
+        @BoundNumber(size = "8")
+        public int hasNext;
+
+        @BoundNumber(size = "8")
+        public int value;
+
+        @If("hasNext == 1")
+        @BoundObject
+        public Node next;
+
+    }
+
+    public static class Unbound {
+
+        public int value;
+
+    }
+
+}
@@ -0,0 +1,204 @@
+/**
+ * Copyright (C) 2009-2010 Wilfred Springer
+ *
+ * This file is part of Preon.
+ *
+ * Preon is free software; you can redistribute it and/or modify it under the
+ * terms of the GNU General Public License as published by the Free Software
+ * Foundation; either version 2, or (at your option) any later version.
+ *
+ * Preon is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR
+ * A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * Preon; see the file COPYING. If not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Linking this library statically or dynamically with other modules is making a
+ * combined work based on this library. Thus, the terms and conditions of the
+ * GNU General Public License cover the whole combination.
+ *
+ * As a special exception, the copyright holders of this library give you
+ * permission to link this library with independent modules to produce an
+ * executable, regardless of the license terms of these independent modules, and
+ * to copy and distribute the resulting executable under terms of your choice,
+ * provided that you also meet, for each linked independent module, the terms
+ * and conditions of the license of that module. An independent module is a
+ * module which is not derived from or based on this library. If you modify this
+ * library, you may extend this exception to your version of the library, but
+ * you are not obligated to do so. If you do not wish to do so, delete this
+ * exception statement from your version.
+ */
+package org.codehaus.preon;
+
+import org.codehaus.preon.annotation.BoundNumber;
+import org.codehaus.preon.annotation.BoundString;
+import org.codehaus.preon.buffer.BitBuffer;
+import org.codehaus.preon.channel.BitChannel;
+import org.codehaus.preon.el.Expression;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.util.Arrays;
+import java.nio.channels.Channels;
+import java.nio.channels.ReadableByteChannel;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+public class IncrementalDecoderTest {
+
+    private final Codec<Record> codec = Codecs.create(Record.class);
+
+    @Test
+    public void shouldWaitForCompleteMessage() throws DecodingException {
+        IncrementalDecoder<Record> decoder = new IncrementalDecoder<Record>(codec);
+        assertThat(decoder.poll(), is(nullValue()));
+        decoder.feed((byte) 3, (byte) 'a');
+        assertThat(decoder.poll(), is(nullValue()));
+        assertThat(decoder.getBytesNeeded(), is(2));
+        decoder.feed((byte) 'b');
+        assertThat(decoder.poll(), is(nullValue()));
+        assertThat(decoder.getBytesNeeded(), is(1));
+        decoder.feed((byte) 'c', (byte) 1);
+        assertThat(decoder.poll().value, is("abc"));
+        assertThat(decoder.poll(), is(nullValue()));
+        assertThat(decoder.getBytesBuffered(), is(1));
+        decoder.feed((byte) 'd', (byte) 0);
+        assertThat(decoder.poll().value, is("d"));
+        assertThat(decoder.poll().value, is(""));
+        assertThat(decoder.poll(), is(nullValue()));
+        assertThat(decoder.getBytesBuffered(), is(0));
+    }
+
+    @Test
+    public void shouldDecodeMessagesFedByteByByte() throws DecodingException {
+        IncrementalDecoder<Record> decoder = new IncrementalDecoder<Record>(codec);
+        int count = 0;
+        for (int i = 0; i < 1000; i++) {
+            int length = i % 7;
+            decoder.feed((byte) length);
+            for (int j = 0; j < length; j++) {
+                decoder.feed((byte) ('a' + j));
+                Record record;
+                while ((record = decoder.poll()) != null) {
+                    assertThat(record.value, is("abcdefg".substring(0, count % 7)));
+                    count++;
+                }
+            }
+        }
+        while (decoder.poll() != null) {
+            count++;
+        }
+        assertThat(count, is(1000));
+    }
+
+    @Test
+    public void shouldReadNoMoreThanNeeded() throws Exception {
+        ReadableByteChannel channel = Channels.newChannel(new ByteArrayInputStream(new byte[]{'a', 'b', 1, 'c'}));
+        IncrementalDecoder<Record> decoder = new IncrementalDecoder<Record>(codec);
+        decoder.feed((byte) 2);
+        assertThat(decoder.poll(), is(nullValue()));
+        assertThat(decoder.readFrom(channel), is(2));
+        assertThat(decoder.poll().value, is("ab"));
+        assertThat(decoder.readFrom(channel), is(2));
+        assertThat(decoder.poll().value, is("c"));
+        assertThat(decoder.readFrom(channel), is(-1));
+    }
+
+    @Test
+    public void shouldRetryMessagesOfUnknownSizeOnNewDataOnly() throws DecodingException {
+        CountingCodec<Text> counting = new CountingCodec<Text>(Codecs.create(Text.class));
+        IncrementalDecoder<Text> decoder = new IncrementalDecoder<Text>(counting);
+        decoder.feed((byte) 'a');
+        assertThat(decoder.poll(), is(nullValue()));
+        assertThat(decoder.poll(), is(nullValue()));
+        assertThat(counting.decoded, is(1));
+        decoder.feed((byte) 'b');
+        assertThat(decoder.poll(), is(nullValue()));
+        assertThat(decoder.getBytesNeeded(), is(0));
+        assertThat(counting.decoded, is(2));
+        decoder.feed((byte) 0, (byte) 'c');
+        assertThat(decoder.poll().value, is("ab"));
+        assertThat(decoder.poll(), is(nullValue()));
+        assertThat(decoder.poll(), is(nullValue()));
+        assertThat(counting.decoded, is(4));
+        decoder.feed((byte) 0);
+        assertThat(decoder.poll().value, is("c"));
+    }
+
+    @Test
+    public void shouldDecodeLargeMessagesFedInSmallChunks() throws DecodingException {
+        IncrementalDecoder<Text> decoder = new IncrementalDecoder<Text>(Codecs.create(Text.class));
+        byte[] chunk = new byte[100];
+        Arrays.fill(chunk, (byte) 'x');
+        for (int i = 0; i < 2000; i++) {
+            decoder.feed(chunk);
+        }
+        decoder.feed((byte) 0);
+        assertThat(decoder.poll().value.length(), is(200000));
+        assertThat(decoder.getBytesBuffered(), is(0));
+    }
+
+    public static class Text {
+
+        @BoundString
+        public String value;
+
+    }
+
+    private static class CountingCodec<T> implements Codec<T> {
+
+        private final Codec<T> codec;
+
+        private int decoded;
+
+        public CountingCodec(Codec<T> codec) {
+            this.codec = codec;
+        }
+
+        public T decode(BitBuffer buffer, Resolver resolver, Builder builder) throws DecodingException {
+            decoded++;
+            return codec.decode(buffer, resolver, builder);
+        }
+
+        public void encode(T value, BitChannel channel, Resolver resolver) throws IOException {
+            codec.encode(value, channel, resolver);
+        }
+
+        public Expression<Integer, Resolver> getSize() {
+            return codec.getSize();
+        }
+
+        public long probeSize(BitBuffer buffer, Resolver resolver, Builder builder) throws DecodingException {
+            return codec.probeSize(buffer, resolver, builder);
+        }
+
+        public CodecDescriptor getCodecDescriptor() {
+            return codec.getCodecDescriptor();
+        }
+
+        public Class<?>[] getTypes() {
+            return codec.getTypes();
+        }
+
+        public Class<?> getType() {
+            return codec.getType();
+        }
+
+    }
+
+    public static class Record {
+
+        @BoundNumber(size = "8")
+        public int length;
+
+        @BoundString(size = "length")
+        public String value;
+
+    }
+
+}
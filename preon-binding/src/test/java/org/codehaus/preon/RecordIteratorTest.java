@@ -0,0 +1,211 @@
+/**
+ * Copyright (C) 2009-2010 Wilfred Springer
+ *
+ * This file is part of Preon.
+ *
+ * Preon is free software; you can redistribute it and/or modify it under the
+ * terms of the GNU General Public License as published by the Free Software
+ * Foundation; either version 2, or (at your option) any later version.
+ *
+ * Preon is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR
+ * A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * Preon; see the file COPYING. If not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Linking this library statically or dynamically with other modules is making a
+ * combined work based on this library. Thus, the terms and conditions of the
+ * GNU General Public License cover the whole combination.
+ *
+ * As a special exception, the copyright holders of this library give you
+ * permission to link this library with independent modules to produce an
+ * executable, regardless of the license terms of these independent modules, and
+ * to copy and distribute the resulting executable under terms of your choice,
+ * provided that you also meet, for each linked independent module, the terms
+ * and conditions of the license of that module. An independent module is a
+ * module which is not derived from or based on this library. If you modify this
+ * library, you may extend this exception to your version of the library, but
+ * you are not obligated to do so. If you do not wish to do so, delete this
+ * exception statement from your version.
+ */
+package org.codehaus.preon;
+
+import org.codehaus.preon.annotation.BoundNumber;
+import org.codehaus.preon.annotation.BoundString;
+import org.codehaus.preon.buffer.DefaultBitBuffer;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.ReadableByteChannel;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.junit.Assert.fail;
+
+public class RecordIteratorTest {
+
+    private final Codec<Record> codec = Codecs.create(Record.class);
+
+    @Test
+    public void shouldIterateOverBuffer() {
+        RecordIterator<Record> iterator = Codecs.iterate(codec,
+                new DefaultBitBuffer(ByteBuffer.wrap(new byte[]{1, 'a', 2, 'b', 'c', 0})));
+        List<String> values = new ArrayList<String>();
+        while (iterator.hasNext()) {
+            values.add(iterator.next().value);
+        }
+        assertThat(values.size(), is(3));
+        assertThat(values.get(0), is("a"));
+        assertThat(values.get(1), is("bc"));
+        assertThat(values.get(2), is(""));
+    }
+
+    @Test
+    public void shouldReadRecordsSpanningWindows() {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        for (int i = 0; i < 1000; i++) {
+            int length = i % 7;
+            out.write(length);
+            for (int j = 0; j < length; j++) {
+                out.write('a' + j);
+            }
+        }
+        ReadableByteChannel channel = Channels.newChannel(new ByteArrayInputStream(out.toByteArray()));
+        RecordIterator<Record> iterator = new RecordIterator<Record>(codec, channel, 4, new DefaultBuilder(), null);
+        int count = 0;
+        while (iterator.hasNext()) {
+            assertThat(iterator.next().value, is("abcdefg".substring(0, count % 7)));
+            count++;
+        }
+        assertThat(count, is(1000));
+    }
+
+    @Test
+    public void shouldIgnoreIncompleteRecord() {
+        ReadableByteChannel channel = Channels.newChannel(new ByteArrayInputStream(new byte[]{1, 'a', 3, 'b'}));
+        Stream<Record> stream = Codecs.stream(codec, channel);
+        assertThat(stream.count(), is(1L));
+    }
+
+    @Test
+    public void shouldStopEarly() {
+        ReadableByteChannel channel = Channels.newChannel(new ByteArrayInputStream(new byte[]{1, 'a', 1, 'b', 1}));
+        Stream<Record> stream = Codecs.stream(codec, channel);
+        try {
+            List<String> values = stream.limit(2).map(new java.util.function.Function<Record, String>() {
+                public String apply(Record record) {
+                    return record.value;
+                }
+            }).collect(Collectors.<String>toList());
+            assertThat(values.size(), is(2));
+            assertThat(values.get(1), is("b"));
+        } finally {
+            stream.close();
+        }
+        assertThat(channel.isOpen(), is(false));
+    }
+
+    @Test
+    public void shouldFailOnInvalidRecord() {
+        RecordIterator<Tag> iterator = Codecs.iterate(Codecs.create(Tag.class),
+                new DefaultBitBuffer(ByteBuffer.wrap(new byte[]{1, 2})));
+        iterator.next();
+        try {
+            iterator.next();
+            fail();
+        } catch (RuntimeException re) {
+            assertThat(re.getCause() instanceof DecodingException, is(true));
+        }
+    }
+
+    @Test
+    public void shouldFailOnInvalidRecordWithoutReadingAhead() {
+        byte[] data = new byte[1024 * 1024];
+        Arrays.fill(data, (byte) 1);
+        data[200] = 2;
+        CountingChannel channel = new CountingChannel(Channels.newChannel(new ByteArrayInputStream(data)));
+        RecordIterator<Tag> iterator = new RecordIterator<Tag>(Codecs.create(Tag.class), channel, 64, 1024,
+                new DefaultBuilder(), null);
+        for (int i = 0; i < 200; i++) {
+            iterator.next();
+        }
+        try {
+            iterator.next();
+            fail();
+        } catch (RuntimeException re) {
+            assertThat(re.getCause() instanceof DecodingException, is(true));
+        }
+        assertThat(channel.read <= 1024, is(true));
+    }
+
+    @Test
+    public void shouldFailOnRecordsExceedingMaximumWindowSize() {
+        byte[] data = new byte[101];
+        data[0] = 100;
+        RecordIterator<Record> iterator = new RecordIterator<Record>(codec,
+                Channels.newChannel(new ByteArrayInputStream(data)), 8, 32, new DefaultBuilder(), null);
+        try {
+            iterator.next();
+            fail();
+        } catch (RuntimeException re) {
+            assertThat(re.getCause() instanceof DecodingException, is(true));
+        }
+    }
+
+    private static class CountingChannel implements ReadableByteChannel {
+
+        private final ReadableByteChannel channel;
+
+        private long read;
+
+        public CountingChannel(ReadableByteChannel channel) {
+            this.channel = channel;
+        }
+
+        public int read(ByteBuffer dst) throws IOException {
+            int result = channel.read(dst);
+            if (result > 0) {
+                read += result;
+            }
+            return result;
+        }
+
+        public boolean isOpen() {
+            return channel.isOpen();
+        }
+
+        public void close() throws IOException {
+            channel.close();
+        }
+
+    }
+
+    public static class Tag {
+
+        @BoundNumber(size = "8", match = "1")
+        public int value;
+
+    }
+
+    public static class Record {
+
+        @BoundNumber(size = "8")
+        public int length;
+
+        @BoundString(size = "length")
+        public String value;
+
+    }
+
+}
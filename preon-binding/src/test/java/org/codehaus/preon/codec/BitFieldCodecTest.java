@@ -38,6 +38,7 @@ import static org.junit.Assert.assertEquals;
 import java.io.IOException;
 import java.nio.ByteBuffer;
 import java.util.Arrays;
+import java.util.EnumSet;
 import java.util.HashSet;
 import java.util.Set;
 
@@ -66,11 +67,22 @@ public class BitFieldCodecTest {
         @BoundEnumOption(0x40) SUN
     }
     
+    public static enum Flag {
+        @BoundEnumOption(0x0001) LOW,
+        @BoundEnumOption(0x0180) SPANNING,
+        @BoundEnumOption(0x8000) HIGH
+    }
+
     public static class Bean {
         @BoundBitField(size = "16", byteOrder = BigEndian, type = Day.class)
         Set<Day> days = new HashSet<Day>();
     }
 
+    public static class FlagBean {
+        @BoundBitField(size = "16", byteOrder = BigEndian, type = Flag.class)
+        Set<Flag> flags;
+    }
+
     @Test
     public void testEncode() throws IOException {
         Bean bean = new Bean();
@@ -94,4 +106,12 @@ public class BitFieldCodecTest {
         Set<Day> expected = new HashSet<Day>(Arrays.asList(Day.MON, Day.WED, Day.FRI));
         assertEquals(expected, bean.days);
     }
+
+    @Test
+    public void testDecodeAcrossBytes() throws DecodingException {
+        Codec<FlagBean> codec = Codecs.create(FlagBean.class);
+        assertEquals(EnumSet.of(Flag.SPANNING, Flag.HIGH), Codecs.decode(codec, (byte) 0x81, (byte) 0x00).flags);
+        assertEquals(EnumSet.of(Flag.LOW, Flag.SPANNING), Codecs.decode(codec, (byte) 0x00, (byte) 0x81).flags);
+        assertEquals(EnumSet.noneOf(Flag.class), Codecs.decode(codec, (byte) 0x7e, (byte) 0x7e).flags);
+    }
 }
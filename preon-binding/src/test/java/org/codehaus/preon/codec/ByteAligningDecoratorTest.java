@@ -90,6 +90,16 @@ public class ByteAligningDecoratorTest extends junit.framework.TestCase {
         verify(codec, metadata, buffer, resolver, context);
     }
 
+    public void testProbing() throws DecodingException {
+        ByteAligningDecorator decorator = new ByteAligningDecorator();
+        expect(codec.probeSize(buffer, resolver, builder)).andReturn(12L);
+        expect(buffer.getBitPos()).andReturn(3L).anyTimes();
+        replay(codec, metadata, buffer, resolver, context);
+        Codec decorated = decorator.decorate(codec, metadata, Test1.class, context);
+        assertEquals(13L, decorated.probeSize(buffer, resolver, builder));
+        verify(codec, metadata, buffer, resolver, context);
+    }
+
 
     @ByteAlign
     private class Test1 {
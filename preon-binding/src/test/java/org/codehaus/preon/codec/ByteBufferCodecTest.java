@@ -0,0 +1,117 @@
+/**
+ * Copyright (C) 2009-2010 Wilfred Springer
+ *
+ * This file is part of Preon.
+ *
+ * Preon is free software; you can redistribute it and/or modify it under the
+ * terms of the GNU General Public License as published by the Free Software
+ * Foundation; either version 2, or (at your option) any later version.
+ *
+ * Preon is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR
+ * A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * Preon; see the file COPYING. If not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Linking this library statically or dynamically with other modules is making a
+ * combined work based on this library. Thus, the terms and conditions of the
+ * GNU General Public License cover the whole combination.
+ *
+ * As a special exception, the copyright holders of this library give you
+ * permission to link this library with independent modules to produce an
+ * executable, regardless of the license terms of these independent modules, and
+ * to copy and distribute the resulting executable under terms of your choice,
+ * provided that you also meet, for each linked independent module, the terms
+ * and conditions of the license of that module. An independent module is a
+ * module which is not derived from or based on this library. If you modify this
+ * library, you may extend this exception to your version of the library, but
+ * you are not obligated to do so. If you do not wish to do so, delete this
+ * exception statement from your version.
+ */
+package org.codehaus.preon.codec;
+
+import org.codehaus.preon.Codec;
+import org.codehaus.preon.Codecs;
+import org.codehaus.preon.DecodingException;
+import org.codehaus.preon.annotation.BoundList;
+import org.codehaus.preon.annotation.BoundNumber;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+public class ByteBufferCodecTest {
+
+    @Test
+    public void shouldShareAlignedData() throws DecodingException {
+        byte[] data = {3, 10, 20, 30, 9};
+        Packet packet = Codecs.decode(Codecs.create(Packet.class), data);
+        assertThat(packet.payload.remaining(), is(3));
+        assertThat(packet.payload.isReadOnly(), is(true));
+        assertThat(packet.payload.get(2), is((byte) 30));
+        assertThat(packet.trailer, is(9));
+        data[3] = 31;
+        assertThat(packet.payload.get(2), is((byte) 31));
+    }
+
+    @Test
+    public void shouldCopyUnalignedData() throws DecodingException {
+        byte[] data = {0x21, (byte) 0xf0, 0x5a};
+        Unaligned unaligned = Codecs.decode(Codecs.create(Unaligned.class), data);
+        assertThat(unaligned.payload.remaining(), is(2));
+        assertThat(unaligned.payload.get(0), is((byte) 0x1f));
+        assertThat(unaligned.payload.get(1), is((byte) 0x05));
+        data[1] = 0;
+        assertThat(unaligned.payload.get(0), is((byte) 0x1f));
+    }
+
+    @Test
+    public void shouldEncodeSymmetrically() throws DecodingException, IOException {
+        byte[] data = {3, 10, 20, 30, 9};
+        Codec<Packet> codec = Codecs.create(Packet.class);
+        assertThat(Codecs.encode(Codecs.decode(codec, data), codec), is(data));
+        Packet packet = new Packet();
+        packet.size = 2;
+        packet.payload = ByteBuffer.allocateDirect(2).put((byte) 1).put((byte) 2);
+        packet.payload.flip();
+        assertThat(Codecs.encode(packet, codec), is(new byte[]{2, 1, 2, 0}));
+        assertThat(packet.payload.remaining(), is(2));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldRejectBuffersOfWrongSize() throws IOException {
+        Packet packet = new Packet();
+        packet.size = 3;
+        packet.payload = ByteBuffer.wrap(new byte[]{1, 2});
+        Codecs.encode(packet, Codecs.create(Packet.class));
+    }
+
+    public static class Packet {
+
+        @BoundNumber(size = "8")
+        public int size;
+
+        @BoundList(size = "size")
+        public ByteBuffer payload;
+
+        @BoundNumber(size = "8")
+        public int trailer;
+
+    }
+
+    public static class Unaligned {
+
+        @BoundNumber(size = "4")
+        public int size;
+
+        @BoundList(size = "2")
+        public ByteBuffer payload;
+
+    }
+
+}
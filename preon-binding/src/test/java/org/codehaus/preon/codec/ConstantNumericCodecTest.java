@@ -0,0 +1,93 @@
+/**
+ * Copyright (C) 2009-2010 Wilfred Springer
+ *
+ * This file is part of Preon.
+ *
+ * Preon is free software; you can redistribute it and/or modify it under the
+ * terms of the GNU General Public License as published by the Free Software
+ * Foundation; either version 2, or (at your option) any later version.
+ *
+ * Preon is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR
+ * A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * Preon; see the file COPYING. If not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Linking this library statically or dynamically with other modules is making a
+ * combined work based on this library. Thus, the terms and conditions of the
+ * GNU General Public License cover the whole combination.
+ *
+ * As a special exception, the copyright holders of this library give you
+ * permission to link this library with independent modules to produce an
+ * executable, regardless of the license terms of these independent modules, and
+ * to copy and distribute the resulting executable under terms of your choice,
+ * provided that you also meet, for each linked independent module, the terms
+ * and conditions of the license of that module. An independent module is a
+ * module which is not derived from or based on this library. If you modify this
+ * library, you may extend this exception to your version of the library, but
+ * you are not obligated to do so. If you do not wish to do so, delete this
+ * exception statement from your version.
+ */
+package org.codehaus.preon.codec;
+
+import org.codehaus.preon.Codecs;
+import org.codehaus.preon.DecodingException;
+import org.codehaus.preon.Resolver;
+import org.codehaus.preon.annotation.BoundNumber;
+import org.codehaus.preon.buffer.ByteOrder;
+import org.codehaus.preon.buffer.DefaultBitBuffer;
+import org.codehaus.preon.el.Expressions;
+import org.codehaus.preon.reflect.FieldAccessor;
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+
+import static org.hamcrest.CoreMatchers.instanceOf;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.not;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+public class ConstantNumericCodecTest {
+
+    @Test
+    public void shouldCreateConstantCodecsOnlyWhereSizeIsConstant() throws NoSuchFieldException {
+        NumericCodec.Factory factory = new NumericCodec.Factory();
+        assertThat(factory.create(Numbers.class.getField("constant"), int.class, null),
+                is(instanceOf(ConstantNumericCodec.class)));
+        assertThat(factory.create(Numbers.class.getField("matching"), int.class, null),
+                is(not(instanceOf(ConstantNumericCodec.class))));
+    }
+
+    @Test
+    public void shouldLoadPrimitivesWithoutBoxing() throws NoSuchFieldException {
+        ConstantNumericCodec codec = new ConstantNumericCodec(Expressions.createInteger(12, Resolver.class),
+                ByteOrder.BigEndian, NumericCodec.NumericType.Integer);
+        assertThat(codec.isLoadableInto(int.class), is(true));
+        assertThat(codec.isLoadableInto(Integer.class), is(false));
+        assertThat(codec.isLoadableInto(long.class), is(false));
+        Numbers numbers = new Numbers();
+        codec.load(numbers, FieldAccessor.forField(Numbers.class.getField("constant")),
+                new DefaultBitBuffer(ByteBuffer.wrap(new byte[]{0x12, 0x34})));
+        assertThat(numbers.constant, is(0x123));
+    }
+
+    @Test
+    public void shouldDecodeThroughBinding() throws DecodingException {
+        Numbers numbers = Codecs.decode(Codecs.create(Numbers.class), (byte) 1, (byte) 2, (byte) 3, (byte) 4, (byte) 7);
+        assertThat(numbers.constant, is(0x04030201));
+        assertThat(numbers.matching, is(7));
+    }
+
+    public static class Numbers {
+
+        @BoundNumber(size = "32")
+        public int constant;
+
+        @BoundNumber(size = "8", match = "7")
+        public int matching;
+
+    }
+
+}
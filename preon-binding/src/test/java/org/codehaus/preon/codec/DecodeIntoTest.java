@@ -0,0 +1,150 @@
+/**
+ * Copyright (C) 2009-2010 Wilfred Springer
+ *
+ * This file is part of Preon.
+ *
+ * Preon is free software; you can redistribute it and/or modify it under the
+ * terms of the GNU General Public License as published by the Free Software
+ * Foundation; either version 2, or (at your option) any later version.
+ *
+ * Preon is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR
+ * A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * Preon; see the file COPYING. If not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Linking this library statically or dynamically with other modules is making a
+ * combined work based on this library. Thus, the terms and conditions of the
+ * GNU General Public License cover the whole combination.
+ *
+ * As a special exception, the copyright holders of this library give you
+ * permission to link this library with independent modules to produce an
+ * executable, regardless of the license terms of these independent modules, and
+ * to copy and distribute the resulting executable under terms of your choice,
+ * provided that you also meet, for each linked independent module, the terms
+ * and conditions of the license of that module. An independent module is a
+ * module which is not derived from or based on this library. If you modify this
+ * library, you may extend this exception to your version of the library, but
+ * you are not obligated to do so. If you do not wish to do so, delete this
+ * exception statement from your version.
+ */
+package org.codehaus.preon.codec;
+
+import org.codehaus.preon.Codec;
+import org.codehaus.preon.Codecs;
+import org.codehaus.preon.DecodingException;
+import org.codehaus.preon.annotation.Bound;
+import org.codehaus.preon.annotation.BoundList;
+import org.codehaus.preon.annotation.BoundNumber;
+import org.codehaus.preon.annotation.If;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.hamcrest.CoreMatchers.*;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+public class DecodeIntoTest {
+
+    @Test
+    public void shouldReuseTargetAndNestedObjects() throws DecodingException {
+        Codec<Record> codec = Codecs.create(Record.class);
+        Record record = Codecs.decode(codec, (byte) 1, (byte) 2, (byte) 3, (byte) 4, (byte) 5);
+        Point point = record.point;
+        Point[] points = record.points;
+        Point first = record.points[0];
+        Record result = Codecs.decodeInto(codec, record, (byte) 6, (byte) 7, (byte) 8, (byte) 9, (byte) 10);
+        assertThat(result, is(sameInstance(record)));
+        assertThat(result.point, is(sameInstance(point)));
+        assertThat(result.points, is(sameInstance(points)));
+        assertThat(result.points[0], is(sameInstance(first)));
+        assertThat(result.id, is(6));
+        assertThat(result.point.x, is(7));
+        assertThat(result.point.y, is(8));
+        assertThat(result.points[0].x, is(9));
+        assertThat(result.points[0].y, is(10));
+    }
+
+    @Test
+    public void shouldDecodeNewObjectWithoutTarget() throws DecodingException {
+        Codec<Record> codec = Codecs.create(Record.class);
+        Record result = Codecs.decodeInto(codec, null, (byte) 1, (byte) 2, (byte) 3, (byte) 4, (byte) 5);
+        assertThat(result, is(not(nullValue())));
+        assertThat(result.id, is(1));
+        assertThat(result.points[0].y, is(5));
+    }
+
+    @Test
+    public void shouldClearFieldsNoLongerPresent() throws DecodingException {
+        Codec<ConditionalRecord> codec = Codecs.create(ConditionalRecord.class);
+        ConditionalRecord record = Codecs.decode(codec, (byte) 1, (byte) 5);
+        assertThat(record.value, is(5));
+        Codecs.decodeInto(codec, record, (byte) 0, (byte) 5);
+        assertThat(record.flag, is(0));
+        assertThat(record.value, is(0));
+    }
+
+    @Test
+    public void shouldRefillDynamicList() throws DecodingException {
+        Codec<ListRecord> codec = Codecs.create(ListRecord.class);
+        ListRecord record = new ListRecord();
+        record.points = new ArrayList<Point>();
+        Point point = new Point();
+        record.points.add(point);
+        for (int i = 0; i < 3; i++) {
+            record.points.add(new Point());
+        }
+        List<Point> points = record.points;
+        ListRecord result = Codecs.decodeInto(codec, record, (byte) 1, (byte) 2, (byte) 3, (byte) 4);
+        assertThat(result.points, is(sameInstance(points)));
+        assertThat(result.points.size(), is(2));
+        assertThat(result.points.get(0), is(sameInstance(point)));
+        assertThat(result.points.get(1).x, is(3));
+        assertThat(result.points.get(1).y, is(4));
+    }
+
+    public static class Record {
+
+        @BoundNumber(size = "8")
+        public int id;
+
+        @Bound
+        public Point point;
+
+        @BoundList(size = "1", type = Point.class)
+        public Point[] points;
+
+    }
+
+    public static class Point {
+
+        @BoundNumber(size = "8")
+        public int x;
+
+        @BoundNumber(size = "8")
+        public int y;
+
+    }
+
+    public static class ConditionalRecord {
+
+        @BoundNumber(size = "8")
+        public int flag;
+
+        @If("flag == 1")
+        @BoundNumber(size = "8")
+        public int value;
+
+    }
+
+    public static class ListRecord {
+
+        @BoundList(type = Point.class)
+        public List<Point> points;
+
+    }
+
+}
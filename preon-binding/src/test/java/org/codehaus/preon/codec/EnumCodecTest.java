@@ -37,16 +37,22 @@ import org.codehaus.preon.Resolver;
 
 import static org.codehaus.preon.buffer.ByteOrder.BigEndian;
 
+import org.codehaus.preon.DecodingException;
+import org.codehaus.preon.buffer.DefaultBitBuffer;
 import org.codehaus.preon.channel.BitChannel;
 import org.junit.Test;
 import org.junit.runner.RunWith;
 import org.mockito.Mock;
 
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.hamcrest.MatcherAssert.assertThat;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.mockito.Mockito.verifyNoMoreInteractions;
 
 import java.io.IOException;
+import java.nio.ByteBuffer;
 import java.util.HashMap;
 import java.util.Map;
 
@@ -81,9 +87,38 @@ public class EnumCodecTest {
         verifyNoMoreInteractions(resolver);
     }
 
+    @Test
+    public void shouldDecodeFromTable() throws DecodingException {
+        when(size.eval(org.mockito.Matchers.any(Resolver.class))).thenReturn(16);
+        EnumCodec<Direction> codec = new EnumCodec<Direction>(Direction.class, map, size, BigEndian);
+        assertThat(decode(codec, 1), is(Direction.Forward));
+        assertThat(decode(codec, 2), is(Direction.Backward));
+        assertThat(decode(codec, 0), is(nullValue()));
+        assertThat(decode(codec, 3), is(nullValue()));
+    }
+
+    @Test
+    public void shouldDecodeSparseValues() throws DecodingException {
+        when(size.eval(org.mockito.Matchers.any(Resolver.class))).thenReturn(16);
+        Map<Long, Direction> sparse = new HashMap<Long, Direction>();
+        sparse.put(1L, Direction.Forward);
+        sparse.put(0xff00L, Direction.Backward);
+        sparse.put(null, Direction.Unknown);
+        EnumCodec<Direction> codec = new EnumCodec<Direction>(Direction.class, sparse, size, BigEndian);
+        assertThat(decode(codec, 1), is(Direction.Forward));
+        assertThat(decode(codec, 0xff00), is(Direction.Backward));
+        assertThat(decode(codec, 2), is(Direction.Unknown));
+    }
+
+    private Direction decode(EnumCodec<Direction> codec, int value) throws DecodingException {
+        byte[] data = {(byte) (value >> 8), (byte) value};
+        return codec.decode(new DefaultBitBuffer(ByteBuffer.wrap(data)), resolver, null);
+    }
+
     public enum Direction {
         Forward,
-        Backward
+        Backward,
+        Unknown
     }
 
 }
@@ -33,6 +33,7 @@
 package org.codehaus.preon.codec;
 
 import java.lang.reflect.AnnotatedElement;
+import java.lang.reflect.Method;
 
 import org.codehaus.preon.el.Expression;
 import org.codehaus.preon.Codec;
@@ -83,7 +84,8 @@ public class LazyLoadingCodecDecoratorTest extends TestCase {
         // Stuff expected when Codec is getting constructed
         expect(metadata.isAnnotationPresent(LazyLoading.class))
                 .andReturn(true);
-        expect(wrapped.getSize()).andReturn(sizeExpr);
+        expect(wrapped.getSize()).andReturn(sizeExpr).anyTimes();
+        expect(sizeExpr.isParameterized()).andReturn(true);
         expect(sizeExpr.eval(resolver)).andReturn(32);
 
         // Stuff expected when Test instance is constructed using Codec
@@ -106,6 +108,48 @@ public class LazyLoadingCodecDecoratorTest extends TestCase {
         verify(wrapped, buffer, metadata, annotation, resolver, sizeExpr);
     }
 
+    @SuppressWarnings("unchecked")
+    public void testConstantSize() throws DecodingException {
+        expect(metadata.isAnnotationPresent(LazyLoading.class))
+                .andReturn(true);
+        expect(wrapped.getSize()).andReturn(sizeExpr).anyTimes();
+        expect(sizeExpr.isParameterized()).andReturn(false);
+        expect(sizeExpr.eval(null)).andReturn(32);
+
+        // Two values, one following the other
+        expect(buffer.getBitPos()).andReturn(0L);
+        buffer.setBitPos(32L);
+        expect(buffer.getBitPos()).andReturn(32L);
+        buffer.setBitPos(64L);
+
+        // Only the second one is accessed
+        buffer.setBitPos(32L);
+        expect(wrapped.decode(buffer, resolver, null)).andReturn(new Test());
+
+        replay(wrapped, buffer, metadata, annotation, resolver, sizeExpr);
+        Codec<Test> codec = factory.decorate(wrapped, metadata, Test.class, null);
+        Test first = codec.decode(buffer, resolver, null);
+        Test second = codec.decode(buffer, resolver, null);
+        assertNotSame(first, second);
+        assertSame(first.getClass(), second.getClass());
+        // Instances of classes overriding finalize() are expensive to create
+        for (Method method : first.getClass().getDeclaredMethods()) {
+            assertFalse("finalize".equals(method.getName()));
+        }
+        assertEquals("bar", second.getFoo());
+        verify(wrapped, buffer, metadata, annotation, resolver, sizeExpr);
+    }
+
+    @SuppressWarnings("unchecked")
+    public void testUnknownSize() {
+        expect(metadata.isAnnotationPresent(LazyLoading.class))
+                .andReturn(true);
+        expect(wrapped.getSize()).andReturn(null).anyTimes();
+        replay(wrapped, buffer, metadata, annotation, resolver, sizeExpr);
+        assertNotNull(factory.decorate(wrapped, metadata, Test.class, null));
+        verify(wrapped, buffer, metadata, annotation, resolver, sizeExpr);
+    }
+
     public static class Test {
 
         public String getFoo() {
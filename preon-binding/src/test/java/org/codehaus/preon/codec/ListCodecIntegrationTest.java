@@ -35,11 +35,13 @@ package org.codehaus.preon.codec;
 import org.codehaus.preon.Codec;
 import org.codehaus.preon.Codecs;
 import org.codehaus.preon.DecodingException;
+import org.codehaus.preon.LazyDecodingException;
 import org.codehaus.preon.annotation.Bound;
 import org.codehaus.preon.annotation.BoundList;
 import org.codehaus.preon.annotation.BoundNumber;
 import org.codehaus.preon.annotation.BoundString;
 import org.codehaus.preon.util.EvenlyDistributedLazyList;
+import org.codehaus.preon.util.UnevenlyDistributedLazyList;
 import org.hamcrest.CoreMatchers;
 import org.junit.Test;
 
@@ -47,6 +49,7 @@ import java.util.List;
 
 import static org.hamcrest.CoreMatchers.*;
 import static org.hamcrest.MatcherAssert.assertThat;
+import static org.junit.Assert.fail;
 
 public class ListCodecIntegrationTest {
 
@@ -96,6 +99,66 @@ public class ListCodecIntegrationTest {
     }
 
 
+    @Test
+    public void shouldDecodeInParallel() throws DecodingException {
+        int count = 300;
+        byte[] buffer = new byte[count * 4 + 2];
+        for (int i = 0; i < count; i++) {
+            buffer[i * 4] = 1;
+            buffer[i * 4 + 1] = 2;
+            buffer[i * 4 + 2] = (byte) ('a' + i % 26);
+            buffer[i * 4 + 3] = (byte) ('A' + i % 26);
+        }
+        // Incomplete record at the end
+        buffer[count * 4] = 1;
+        buffer[count * 4 + 1] = 2;
+        Test7 parallel = Codecs.decode(Codecs.create(Test7.class), buffer);
+        Test8 sequential = Codecs.decode(Codecs.create(Test8.class), buffer);
+        assertThat(parallel.records.size(), is(count));
+        for (int i = 0; i < count; i++) {
+            assertThat(parallel.records.get(i).value, is(sequential.records.get(i).value));
+        }
+    }
+
+    @Test
+    public void shouldStopAtFirstFailureWhenDecodingInParallel() throws DecodingException {
+        byte[] buffer = new byte[]{1, 1, 'a', 1, 2, 'b', 'c', 0, 1, 'x', 1, 1, 'd'};
+        Test7 parallel = Codecs.decode(Codecs.create(Test7.class), buffer);
+        assertThat(parallel.records.size(), is(2));
+        assertThat(parallel.records.get(0).value, is("a"));
+        assertThat(parallel.records.get(1).value, is("bc"));
+        assertThat(Codecs.decode(Codecs.create(Test8.class), buffer).records.size(), is(2));
+    }
+
+    @Test
+    public void shouldDecodeLazily() throws DecodingException {
+        byte[] buffer = new byte[]{1, 1, 'a', 1, 2, 'b', 'c', 1, 0, 0, 1, 'x'};
+        Test9 lazy = Codecs.decode(Codecs.create(Test9.class), buffer);
+        assertThat(lazy.records, instanceOf(UnevenlyDistributedLazyList.class));
+        assertThat(lazy.records.size(), is(3));
+        assertThat(lazy.records.get(2).value, is(""));
+        assertThat(lazy.records.get(1).value, is("bc"));
+        assertThat(lazy.records.get(0).value, is("a"));
+    }
+
+    @Test
+    public void shouldReportInvalidElementsOfLazyListsWhenAccessed() throws DecodingException {
+        byte[] buffer = new byte[]{1, 'a', 0, 2, 'b', 'c', 0, 1, 'd', 1, 1, 'e', 0};
+        Test10 eager = Codecs.decode(Codecs.create(Test10.class), buffer);
+        Test11 lazy = Codecs.decode(Codecs.create(Test11.class), buffer);
+        assertThat(eager.records.size(), is(2));
+        assertThat(lazy.records, instanceOf(UnevenlyDistributedLazyList.class));
+        assertThat(lazy.records.size(), is(4));
+        assertThat(lazy.records.get(1).value, is("bc"));
+        assertThat(lazy.records.get(3).value, is("e"));
+        try {
+            lazy.records.get(2);
+            fail();
+        } catch (LazyDecodingException lde) {
+            assertThat(lde.getMessage(), is("Failed to decode element 2 of lazily loaded list"));
+        }
+    }
+
     public static class Test1 {
 
         @BoundNumber(size = "8")
@@ -157,4 +220,65 @@ public class ListCodecIntegrationTest {
     }
 
 
+    public static class Test7 {
+
+        @BoundList(type = Record.class, parallel = true)
+        public List<Record> records;
+
+    }
+
+    public static class Test8 {
+
+        @BoundList(type = Record.class)
+        public List<Record> records;
+
+    }
+
+    public static class Test9 {
+
+        @BoundList(type = Record.class, lazy = true)
+        public List<Record> records;
+
+    }
+
+    public static class Test10 {
+
+        @BoundList(type = TerminatedRecord.class)
+        public List<TerminatedRecord> records;
+
+    }
+
+    public static class Test11 {
+
+        @BoundList(type = TerminatedRecord.class, lazy = true)
+        public List<TerminatedRecord> records;
+
+    }
+
+    public static class TerminatedRecord {
+
+        @BoundNumber(size = "8")
+        public int length;
+
+        @BoundString(size = "length")
+        public String value;
+
+        @BoundNumber(size = "8", match = "0")
+        public int terminator;
+
+    }
+
+    public static class Record {
+
+        @BoundNumber(size = "8", match = "1")
+        public int tag;
+
+        @BoundNumber(size = "8")
+        public int length;
+
+        @BoundString(size = "length")
+        public String value;
+
+    }
+
 }
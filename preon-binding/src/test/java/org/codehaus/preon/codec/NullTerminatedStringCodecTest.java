@@ -0,0 +1,130 @@
+/**
+ * Copyright (C) 2009-2010 Wilfred Springer
+ *
+ * This file is part of Preon.
+ *
+ * Preon is free software; you can redistribute it and/or modify it under the
+ * terms of the GNU General Public License as published by the Free Software
+ * Foundation; either version 2, or (at your option) any later version.
+ *
+ * Preon is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR
+ * A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * Preon; see the file COPYING. If not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Linking this library statically or dynamically with other modules is making a
+ * combined work based on this library. Thus, the terms and conditions of the
+ * GNU General Public License cover the whole combination.
+ *
+ * As a special exception, the copyright holders of this library give you
+ * permission to link this library with independent modules to produce an
+ * executable, regardless of the license terms of these independent modules, and
+ * to copy and distribute the resulting executable under terms of your choice,
+ * provided that you also meet, for each linked independent module, the terms
+ * and conditions of the license of that module. An independent module is a
+ * module which is not derived from or based on this library. If you modify this
+ * library, you may extend this exception to your version of the library, but
+ * you are not obligated to do so. If you do not wish to do so, delete this
+ * exception statement from your version.
+ */
+package org.codehaus.preon.codec;
+
+import org.codehaus.preon.Builder;
+import org.codehaus.preon.DecodingException;
+import org.codehaus.preon.Resolver;
+import org.codehaus.preon.annotation.BoundString;
+import org.codehaus.preon.buffer.BitBuffer;
+import org.codehaus.preon.buffer.DefaultBitBuffer;
+import org.codehaus.preon.util.StringCache;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.sameInstance;
+import static org.junit.Assert.assertThat;
+
+/**
+ * @author Wilfred Springer
+ */
+@RunWith(org.mockito.runners.MockitoJUnitRunner.class)
+public class NullTerminatedStringCodecTest {
+
+    @Mock
+    private Resolver resolver;
+
+    @Mock
+    private Builder builder;
+
+    @Test
+    public void shouldScanForTerminator() throws DecodingException {
+        NullTerminatedStringCodec codec = new NullTerminatedStringCodec(Charset.forName("UTF-8"), "",
+                new BoundString.NullConverter());
+        BitBuffer buffer = new DefaultBitBuffer(ByteBuffer.wrap(bytes("x\0a longer key, caf\u00e9\0\0z", "UTF-8")));
+        buffer.setBitPos(16);
+        assertThat(codec.decode(buffer, resolver, builder), is("a longer key, caf\u00e9"));
+        assertThat(buffer.getBitPos(), is(8L * 22));
+        assertThat(codec.decode(buffer, resolver, builder), is(""));
+        assertThat(buffer.readAsByte(8), is((byte) 'z'));
+    }
+
+    @Test
+    public void shouldConvertBytesWhileScanning() throws DecodingException {
+        NullTerminatedStringCodec codec = new NullTerminatedStringCodec(Charset.forName("US-ASCII"), "",
+                new Incrementing());
+        BitBuffer buffer = new DefaultBitBuffer(ByteBuffer.wrap(new byte[]{'a', 'b', 'c', (byte) 0xff, 'x'}));
+        assertThat(codec.decode(buffer, resolver, builder), is("bcd"));
+        assertThat(buffer.getBitPos(), is(32L));
+    }
+
+    @Test
+    public void shouldDecodeUnalignedAndMultiByteTerminators() throws DecodingException {
+        NullTerminatedStringCodec codec = new NullTerminatedStringCodec(Charset.forName("UTF-16BE"), "",
+                new BoundString.NullConverter());
+        BitBuffer buffer = new DefaultBitBuffer(ByteBuffer.wrap(bytes("\u0100b\0", "UTF-16BE")));
+        assertThat(codec.decode(buffer, resolver, builder), is("\u0100b"));
+        codec = new NullTerminatedStringCodec(Charset.forName("US-ASCII"), "", new BoundString.NullConverter());
+        buffer = new DefaultBitBuffer(ByteBuffer.wrap(new byte[]{0x06, 0x16, 0x20, 0x00}));
+        buffer.setBitPos(4);
+        assertThat(codec.decode(buffer, resolver, builder), is("ab"));
+    }
+
+    @Test
+    public void shouldShareDeduplicatedStrings() throws DecodingException {
+        StringCache cache = new StringCache(16, 16);
+        NullTerminatedStringCodec codec = new NullTerminatedStringCodec(Charset.forName("US-ASCII"), "",
+                new BoundString.NullConverter(), cache);
+        BitBuffer buffer = new DefaultBitBuffer(ByteBuffer.wrap(bytes("name\0name\0", "US-ASCII")));
+        String first = codec.decode(buffer, resolver, builder);
+        assertThat(first, is("name"));
+        assertThat(codec.decode(buffer, resolver, builder), is(sameInstance(first)));
+        assertThat(cache.getHits(), is(1L));
+    }
+
+    private static byte[] bytes(String value, String encoding) {
+        return value.getBytes(Charset.forName(encoding));
+    }
+
+    public static class Incrementing implements BoundString.ByteConverter {
+
+        public byte convert(byte in) {
+            return (byte) (in + 1);
+        }
+
+        public byte revert(byte in) {
+            return (byte) (in - 1);
+        }
+
+        public String getDescription() {
+            return "Incremented by one";
+        }
+
+    }
+
+}
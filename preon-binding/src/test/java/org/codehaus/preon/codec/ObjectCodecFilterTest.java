@@ -0,0 +1,184 @@
+/**
+ * Copyright (C) 2009-2010 Wilfred Springer
+ *
+ * This file is part of Preon.
+ *
+ * Preon is free software; you can redistribute it and/or modify it under the
+ * terms of the GNU General Public License as published by the Free Software
+ * Foundation; either version 2, or (at your option) any later version.
+ *
+ * Preon is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR
+ * A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * Preon; see the file COPYING. If not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Linking this library statically or dynamically with other modules is making a
+ * combined work based on this library. Thus, the terms and conditions of the
+ * GNU General Public License cover the whole combination.
+ *
+ * As a special exception, the copyright holders of this library give you
+ * permission to link this library with independent modules to produce an
+ * executable, regardless of the license terms of these independent modules, and
+ * to copy and distribute the resulting executable under terms of your choice,
+ * provided that you also meet, for each linked independent module, the terms
+ * and conditions of the license of that module. An independent module is a
+ * module which is not derived from or based on this library. If you modify this
+ * library, you may extend this exception to your version of the library, but
+ * you are not obligated to do so. If you do not wish to do so, delete this
+ * exception statement from your version.
+ */
+package org.codehaus.preon.codec;
+
+import org.codehaus.preon.Codec;
+import org.codehaus.preon.CodecConstructionException;
+import org.codehaus.preon.Codecs;
+import org.codehaus.preon.DecodingException;
+import org.codehaus.preon.annotation.BoundList;
+import org.codehaus.preon.annotation.BoundNumber;
+import org.codehaus.preon.annotation.Init;
+import org.codehaus.preon.buffer.DefaultBitBuffer;
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.function.Predicate;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+public class ObjectCodecFilterTest {
+
+    private static final byte[] DATA = {1, 2, 10, 11, 2, 3, 20, 21, 22, 1, 1, 30, 3, 0};
+
+    @Test
+    public void shouldSkipRecordsNotMeetingCondition() {
+        List<Packet> packets = decodeAll(Codecs.create(Packet.class).filter("kind == 1"));
+        assertThat(packets.size(), is(2));
+        assertThat(packets.get(0).payload[1], is((byte) 11));
+        assertThat(packets.get(1).payload[0], is((byte) 30));
+    }
+
+    @Test
+    public void shouldTestPredicateOnPartiallyDecodedRecords() {
+        final List<byte[]> payloads = new ArrayList<byte[]>();
+        Codec<Packet> codec = Codecs.create(Packet.class).filter(new Predicate<Packet>() {
+            public boolean test(Packet packet) {
+                payloads.add(packet.payload);
+                return packet.kind != 1;
+            }
+        }, "kind");
+        List<Packet> packets = decodeAll(codec);
+        assertThat(packets.size(), is(2));
+        assertThat(packets.get(0).payload[2], is((byte) 22));
+        assertThat(packets.get(1).kind, is(3));
+        assertThat(packets.get(1).payload.length, is(0));
+        assertThat(payloads.size(), is(4));
+        for (byte[] payload : payloads) {
+            assertThat(payload, is(nullValue()));
+        }
+    }
+
+    @Test
+    public void shouldTestPredicateOnEntirelyDecodedRecords() {
+        List<Packet> packets = decodeAll(Codecs.filter(Codecs.create(Packet.class), new Predicate<Packet>() {
+            public boolean test(Packet packet) {
+                return packet.kind == 1;
+            }
+        }));
+        assertThat(packets.size(), is(2));
+        assertThat(packets.get(0).payload[1], is((byte) 11));
+        assertThat(packets.get(1).payload[0], is((byte) 30));
+    }
+
+    @Test
+    public void shouldReturnNullForRejectedRecord() throws DecodingException {
+        Codec<Packet> codec = Codecs.create(Packet.class).filter("kind > 1");
+        assertThat(Codecs.decode(codec, DATA), is(nullValue()));
+    }
+
+    @Test
+    public void shouldProjectFilteredRecords() {
+        assertProjectedAndFiltered(decodeAll(Codecs.create(Packet.class).filter("kind == 1").project("kind")));
+    }
+
+    @Test
+    public void shouldFilterProjectedRecords() {
+        assertProjectedAndFiltered(decodeAll(Codecs.create(Packet.class).project("kind").filter("kind == 1")));
+    }
+
+    @Test
+    public void shouldDecodeFieldsRequiredByFilterOnly() {
+        List<Packet> packets = decodeAll(Codecs.create(Packet.class).project("payload").filter("kind == 1"));
+        assertThat(packets.size(), is(2));
+        assertThat(packets.get(0).kind, is(1));
+        assertThat(packets.get(0).payload[1], is((byte) 11));
+        assertThat(packets.get(1).payload[0], is((byte) 30));
+    }
+
+    @Test
+    public void shouldFilterDecoratedCodecs() {
+        Codec<Initialized> codec = Codecs.create(Initialized.class).filter("kind == 2");
+        Iterator<Initialized> iterator = Codecs.iterate(codec, new DefaultBitBuffer(ByteBuffer.wrap(DATA)));
+        Initialized packet = iterator.next();
+        assertThat(packet.length, is(3));
+        assertThat(packet.initialized, is(true));
+        assertThat(iterator.hasNext(), is(false));
+    }
+
+    @Test(expected = CodecConstructionException.class)
+    public void shouldRejectUnknownFields() {
+        Codecs.create(Packet.class).filter(new Predicate<Packet>() {
+            public boolean test(Packet packet) {
+                return true;
+            }
+        }, "type");
+    }
+
+    private static void assertProjectedAndFiltered(List<Packet> packets) {
+        assertThat(packets.size(), is(2));
+        for (Packet packet : packets) {
+            assertThat(packet.kind, is(1));
+            assertThat(packet.payload, is(nullValue()));
+        }
+    }
+
+    private static List<Packet> decodeAll(Codec<Packet> codec) {
+        List<Packet> result = new ArrayList<Packet>();
+        Iterator<Packet> iterator = Codecs.iterate(codec, new DefaultBitBuffer(ByteBuffer.wrap(DATA)));
+        while (iterator.hasNext()) {
+            result.add(iterator.next());
+        }
+        return result;
+    }
+
+    public static class Initialized extends Packet {
+
+        public boolean initialized;
+
+        @Init
+        public void init() {
+            initialized = true;
+        }
+
+    }
+
+    public static class Packet {
+
+        @BoundNumber(size = "8")
+        public int kind;
+
+        @BoundNumber(size = "8")
+        public int length;
+
+        @BoundList(size = "length")
+        public byte[] payload;
+
+    }
+
+}
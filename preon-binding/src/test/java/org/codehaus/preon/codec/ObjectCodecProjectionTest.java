@@ -0,0 +1,159 @@
+/**
+ * Copyright (C) 2009-2010 Wilfred Springer
+ *
+ * This file is part of Preon.
+ *
+ * Preon is free software; you can redistribute it and/or modify it under the
+ * terms of the GNU General Public License as published by the Free Software
+ * Foundation; either version 2, or (at your option) any later version.
+ *
+ * Preon is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR
+ * A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * Preon; see the file COPYING. If not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Linking this library statically or dynamically with other modules is making a
+ * combined work based on this library. Thus, the terms and conditions of the
+ * GNU General Public License cover the whole combination.
+ *
+ * As a special exception, the copyright holders of this library give you
+ * permission to link this library with independent modules to produce an
+ * executable, regardless of the license terms of these independent modules, and
+ * to copy and distribute the resulting executable under terms of your choice,
+ * provided that you also meet, for each linked independent module, the terms
+ * and conditions of the license of that module. An independent module is a
+ * module which is not derived from or based on this library. If you modify this
+ * library, you may extend this exception to your version of the library, but
+ * you are not obligated to do so. If you do not wish to do so, delete this
+ * exception statement from your version.
+ */
+package org.codehaus.preon.codec;
+
+import org.codehaus.preon.Codec;
+import org.codehaus.preon.CodecConstructionException;
+import org.codehaus.preon.Codecs;
+import org.codehaus.preon.DecodingException;
+import org.codehaus.preon.annotation.Bound;
+import org.codehaus.preon.annotation.BoundList;
+import org.codehaus.preon.annotation.BoundNumber;
+import org.codehaus.preon.annotation.Init;
+import org.junit.Test;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.notNullValue;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+public class ObjectCodecProjectionTest {
+
+    private static final byte[] DATA = {2, 7, 1, 1, 2, 9, 4, 5, 6, 7};
+
+    @Test
+    public void shouldDecodeDependenciesOnDemand() throws DecodingException {
+        Codec<Record> codec = Codecs.create(Record.class).project("trailer");
+        Record record = Codecs.decode(codec, DATA);
+        assertThat(record.trailer, is(9));
+        assertThat(record.payload, is(nullValue()));
+        assertThat(record.items, is(nullValue()));
+        // Needed to skip the payload
+        assertThat(record.header, is(notNullValue()));
+        assertThat(record.header.length, is(2));
+    }
+
+    @Test
+    public void shouldDecodeNestedFields() throws DecodingException {
+        Codec<Record> codec = Codecs.create(Record.class)
+                .project("header.timestamp", "items");
+        Record record = Codecs.decode(codec, DATA);
+        assertThat(record.header.timestamp, is(0x0107));
+        assertThat(record.payload, is(nullValue()));
+        assertThat(record.trailer, is(0));
+        assertThat(record.items.count, is(4));
+        assertThat(record.items.values.length, is(3));
+        assertThat(record.items.values[2], is((byte) 7));
+    }
+
+    @Test
+    public void shouldProjectDecoratedAndSharedCodecs() throws DecodingException {
+        Codec<Envelope> codec = Codecs.create(Envelope.class).project("first.a", "second.b");
+        Envelope envelope = Codecs.decode(codec, new byte[]{1, 2, 3, 4});
+        assertThat(envelope.first.a, is(1));
+        assertThat(envelope.first.b, is(0));
+        assertThat(envelope.first.initialized, is(true));
+        assertThat(envelope.second.a, is(0));
+        assertThat(envelope.second.b, is(4));
+        assertThat(envelope.second.initialized, is(true));
+    }
+
+    @Test(expected = CodecConstructionException.class)
+    public void shouldRejectUnknownFields() {
+        Codecs.create(Record.class).project("header.timestamp", "footer");
+    }
+
+    public static class Record {
+
+        @Bound
+        public Header header;
+
+        @BoundList(size = "header.length")
+        public byte[] payload;
+
+        @BoundNumber(size = "8")
+        public int trailer;
+
+        @Bound
+        public Items items;
+
+    }
+
+    public static class Envelope {
+
+        @Bound
+        public Stamped first;
+
+        @Bound
+        public Stamped second;
+
+    }
+
+    public static class Stamped {
+
+        @BoundNumber(size = "8")
+        public int a;
+
+        @BoundNumber(size = "8")
+        public int b;
+
+        public boolean initialized;
+
+        @Init
+        public void init() {
+            initialized = true;
+        }
+
+    }
+
+    public static class Header {
+
+        @BoundNumber(size = "8")
+        public int length;
+
+        @BoundNumber(size = "16")
+        public int timestamp;
+
+    }
+
+    public static class Items {
+
+        @BoundNumber(size = "8")
+        public int count;
+
+        @BoundList(size = "count - 1")
+        public byte[] values;
+
+    }
+
+}
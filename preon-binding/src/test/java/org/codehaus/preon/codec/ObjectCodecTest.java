@@ -35,6 +35,8 @@ package org.codehaus.preon.codec;
 import org.codehaus.preon.Resolver;
 import org.codehaus.preon.binding.Binding;
 import org.codehaus.preon.channel.BitChannel;
+import org.codehaus.preon.el.Expression;
+import org.codehaus.preon.el.Expressions;
 import org.codehaus.preon.el.ObjectResolverContext;
 import org.codehaus.preon.rendering.IdentifierRewriter;
 import org.junit.Before;
@@ -42,7 +44,11 @@ import org.junit.runner.RunWith;
 import org.mockito.Mock;
 import org.mockito.Mockito;
 
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
 import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.when;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.verifyNoMoreInteractions;
@@ -90,6 +96,22 @@ public class ObjectCodecTest {
         verifyNoMoreInteractions(binding1, binding2);
     }
 
+    @org.junit.Test
+    public void shouldCalculateFixedSizeOnce() {
+        ObjectCodec<Test> codec = new ObjectCodec<Test>(Test.class, rewriter, context);
+        Expression<Integer, Resolver> eight = Expressions.createInteger(8, Resolver.class);
+        Expression<Integer, Resolver> sixteen = Expressions.createInteger(16, Resolver.class);
+        when(context.getBindings()).thenReturn(listOfBindings);
+        when(binding1.getSize()).thenReturn(eight);
+        when(binding2.getSize()).thenReturn(sixteen);
+        Expression<Integer, Resolver> size = codec.getSize();
+        assertFalse(size.isParameterized());
+        assertEquals(24, size.eval(null).intValue());
+        assertSame(size, codec.getSize());
+        verify(binding1, times(1)).getSize();
+        verify(binding2, times(1)).getSize();
+    }
+
     private static class Test {
 
 
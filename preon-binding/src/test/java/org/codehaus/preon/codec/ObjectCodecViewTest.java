@@ -0,0 +1,275 @@
+/**
+ * Copyright (C) 2009-2010 Wilfred Springer
+ *
+ * This file is part of Preon.
+ *
+ * Preon is free software; you can redistribute it and/or modify it under the
+ * terms of the GNU General Public License as published by the Free Software
+ * Foundation; either version 2, or (at your option) any later version.
+ *
+ * Preon is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR
+ * A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * Preon; see the file COPYING. If not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Linking this library statically or dynamically with other modules is making a
+ * combined work based on this library. Thus, the terms and conditions of the
+ * GNU General Public License cover the whole combination.
+ *
+ * As a special exception, the copyright holders of this library give you
+ * permission to link this library with independent modules to produce an
+ * executable, regardless of the license terms of these independent modules, and
+ * to copy and distribute the resulting executable under terms of your choice,
+ * provided that you also meet, for each linked independent module, the terms
+ * and conditions of the license of that module. An independent module is a
+ * module which is not derived from or based on this library. If you modify this
+ * library, you may extend this exception to your version of the library, but
+ * you are not obligated to do so. If you do not wish to do so, delete this
+ * exception statement from your version.
+ */
+package org.codehaus.preon.codec;
+
+import org.codehaus.preon.Codec;
+import org.codehaus.preon.CodecConstructionException;
+import org.codehaus.preon.Codecs;
+import org.codehaus.preon.DecodingException;
+import org.codehaus.preon.Flyweight;
+import org.codehaus.preon.LazyDecodingException;
+import org.codehaus.preon.annotation.BoundList;
+import org.codehaus.preon.annotation.ByteAlign;
+import org.codehaus.preon.annotation.BoundNumber;
+import org.codehaus.preon.annotation.BoundString;
+import org.codehaus.preon.annotation.If;
+import org.codehaus.preon.annotation.Init;
+import org.codehaus.preon.buffer.ByteOrder;
+import org.codehaus.preon.buffer.BitBuffer;
+import org.codehaus.preon.buffer.DefaultBitBuffer;
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.notNullValue;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.hamcrest.CoreMatchers.sameInstance;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.junit.Assert.fail;
+
+public class ObjectCodecViewTest {
+
+    @Test
+    public void shouldReadFixedLayoutOnDemand() throws DecodingException {
+        BitBuffer buffer = new DefaultBitBuffer(ByteBuffer.wrap(new byte[]{1, 2, 3, 0, 4, 5, 6, 0}));
+        ColorView view = Codecs.create(Color.class).view(ColorView.class);
+        Flyweight flyweight = (Flyweight) view;
+        flyweight.wrap(buffer, 0);
+        assertThat(view.getRed(), is(3));
+        assertThat(view.green(), is(2));
+        assertThat(flyweight.getBitSize(), is(32L));
+        flyweight.next();
+        assertThat(flyweight.getBitPos(), is(32L));
+        assertThat(view.getBlue(), is(4));
+        assertThat(view.getRed(), is(6));
+        flyweight.wrap(buffer, 0);
+        assertThat(view.getBlue(), is(1));
+    }
+
+    @Test
+    public void shouldComputeOffsetsFromData() throws DecodingException {
+        BitBuffer buffer = new DefaultBitBuffer(ByteBuffer.wrap(new byte[]{2, 10, 11, 7, 'a', 'b', 0, 9, 0, 12, 'c', 0, 1}));
+        PacketView view = Codecs.create(Packet.class).view(PacketView.class);
+        view.wrap(buffer, 0);
+        assertThat(view.getKind(), is(7));
+        assertThat(view.getName(), is("ab"));
+        assertThat(view.getTrailer(), is((byte) 9));
+        view.next();
+        assertThat(view.getKind(), is(12));
+        assertThat(view.getPayload().length, is(0));
+        assertThat(view.getTrailer(), is((byte) 1));
+        assertThat(view.getBitSize(), is(40L));
+    }
+
+    @Test
+    public void shouldImplementAnnotatedAbstractClass() throws DecodingException {
+        BitBuffer buffer = new DefaultBitBuffer(ByteBuffer.wrap(new byte[]{0x12, 0x34, 0x56}));
+        Sample sample = Codecs.create(Sample.class).view(Sample.class);
+        ((Flyweight) sample).wrap(buffer, 4);
+        assertThat(sample.getValue(), is(0x234));
+        assertThat(sample.getDoubled(), is(0x468));
+    }
+
+    @Test
+    public void shouldSkipOptionalFieldsWithoutSize() {
+        BitBuffer buffer = new DefaultBitBuffer(ByteBuffer.wrap(new byte[]{1, 'a', 'b', 0, 5, 0, 6}));
+        OptionalView view = Codecs.create(Optional.class).view(OptionalView.class);
+        view.wrap(buffer, 0);
+        assertThat(view.getName(), is("ab"));
+        assertThat(view.getTrailer(), is(5));
+        view.wrap(buffer, 40);
+        assertThat(view.getName(), is(nullValue()));
+        assertThat(view.getTrailer(), is(6));
+    }
+
+    @Test
+    public void shouldReportInvalidDataUnchecked() {
+        BitBuffer buffer = new DefaultBitBuffer(ByteBuffer.wrap(new byte[]{2, 5}));
+        TaggedView view = Codecs.create(Tagged.class).view(TaggedView.class);
+        ((Flyweight) view).wrap(buffer, 0);
+        assertThat(view.getValue(), is(5));
+        try {
+            view.getTag();
+            fail("Expected LazyDecodingException");
+        } catch (LazyDecodingException lde) {
+            assertThat(lde.getCause(), is(notNullValue()));
+        }
+    }
+
+    @Test
+    public void shouldCreateViewsOfDecoratedCodecs() {
+        BitBuffer buffer = new DefaultBitBuffer(ByteBuffer.wrap(new byte[]{1, 2, 3, 0}));
+        ColorView aligned = Codecs.create(AlignedColor.class).view(ColorView.class);
+        ((Flyweight) aligned).wrap(buffer, 0);
+        assertThat(aligned.getRed(), is(3));
+        ColorView initialized = Codecs.create(InitializedColor.class).view(ColorView.class);
+        ((Flyweight) initialized).wrap(buffer, 0);
+        assertThat(initialized.green(), is(2));
+    }
+
+    @Test
+    public void shouldReuseGeneratedClass() {
+        Codec<Color> codec = Codecs.create(Color.class);
+        assertThat(codec.view(ColorView.class).getClass(),
+                is(sameInstance((Object) codec.view(ColorView.class).getClass())));
+    }
+
+    @Test(expected = CodecConstructionException.class)
+    public void shouldRejectUnknownGetters() {
+        Codecs.create(Color.class).view(PacketView.class);
+    }
+
+    public static class Optional {
+
+        @BoundNumber(size = "8")
+        public int flag;
+
+        @If("flag == 1")
+        @BoundString
+        public String name;
+
+        @BoundNumber(size = "8")
+        public int trailer;
+
+    }
+
+    public interface OptionalView extends Flyweight {
+
+        String getName();
+
+        int getTrailer();
+
+    }
+
+    public static class Tagged {
+
+        @BoundNumber(size = "8", match = "1")
+        public int tag;
+
+        @BoundNumber(size = "8")
+        public int value;
+
+    }
+
+    public interface TaggedView {
+
+        int getTag();
+
+        int getValue();
+
+    }
+
+    public static abstract class Sample {
+
+        @BoundNumber(size = "12", byteOrder = ByteOrder.BigEndian)
+        int value;
+
+        public abstract int getValue();
+
+        public int getDoubled() {
+            return getValue() * 2;
+        }
+
+    }
+
+    public static class Color {
+
+        @BoundNumber(size = "8")
+        public int blue;
+
+        @BoundNumber(size = "8")
+        public int green;
+
+        @BoundNumber(size = "8")
+        public int red;
+
+        @BoundNumber(size = "8")
+        public int reserved;
+
+    }
+
+    @ByteAlign
+    public static class AlignedColor extends Color {
+    }
+
+    public static class InitializedColor extends Color {
+
+        @Init
+        public void init() {
+        }
+
+    }
+
+    public interface ColorView {
+
+        int getBlue();
+
+        int green();
+
+        int getRed();
+
+    }
+
+    public static class Packet {
+
+        @BoundNumber(size = "8")
+        public int length;
+
+        @BoundList(size = "length")
+        public byte[] payload;
+
+        @BoundNumber(size = "8")
+        public int kind;
+
+        @BoundString
+        public String name;
+
+        @BoundNumber(size = "8")
+        public byte trailer;
+
+    }
+
+    public interface PacketView extends Flyweight {
+
+        byte[] getPayload();
+
+        int getKind();
+
+        String getName();
+
+        byte getTrailer();
+
+    }
+
+}
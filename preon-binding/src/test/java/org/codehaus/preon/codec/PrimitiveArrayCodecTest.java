@@ -0,0 +1,147 @@
+/**
+ * Copyright (C) 2009-2010 Wilfred Springer
+ *
+ * This file is part of Preon.
+ *
+ * Preon is free software; you can redistribute it and/or modify it under the
+ * terms of the GNU General Public License as published by the Free Software
+ * Foundation; either version 2, or (at your option) any later version.
+ *
+ * Preon is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR
+ * A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * Preon; see the file COPYING. If not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Linking this library statically or dynamically with other modules is making a
+ * combined work based on this library. Thus, the terms and conditions of the
+ * GNU General Public License cover the whole combination.
+ *
+ * As a special exception, the copyright holders of this library give you
+ * permission to link this library with independent modules to produce an
+ * executable, regardless of the license terms of these independent modules, and
+ * to copy and distribute the resulting executable under terms of your choice,
+ * provided that you also meet, for each linked independent module, the terms
+ * and conditions of the license of that module. An independent module is a
+ * module which is not derived from or based on this library. If you modify this
+ * library, you may extend this exception to your version of the library, but
+ * you are not obligated to do so. If you do not wish to do so, delete this
+ * exception statement from your version.
+ */
+package org.codehaus.preon.codec;
+
+import org.codehaus.preon.Codec;
+import org.codehaus.preon.Codecs;
+import org.codehaus.preon.DecodingException;
+import org.codehaus.preon.annotation.Bound;
+import org.codehaus.preon.annotation.BoundList;
+import org.codehaus.preon.annotation.BoundNumber;
+import org.codehaus.preon.buffer.BitBuffer;
+import org.codehaus.preon.buffer.ByteOrder;
+import org.codehaus.preon.buffer.DefaultBitBuffer;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+public class PrimitiveArrayCodecTest {
+
+    @Test
+    public void shouldDecodeAlignedArrays() throws DecodingException {
+        Codec<Arrays> codec = Codecs.create(Arrays.class);
+        Arrays arrays = Codecs.decode(codec, new byte[]{
+                2,
+                1, 2,
+                1, 0, 2, 0,
+                1, 0, 0, 0, 2, 0, 0, 0,
+                1, 0, 0, 0, 0, 0, 0, 0, 2, 0, 0, 0, 0, 0, 0, 0,
+                0, 0, (byte) 0x80, 0x3f, 0, 0, 0, 0x40,
+                0, 0, 0, 0, 0, 0, (byte) 0xf0, 0x3f, 0, 0, 0, 0, 0, 0, 0, 0x40});
+        assertThat(arrays.bytes[1], is((byte) 2));
+        assertThat(arrays.shorts[1], is((short) 2));
+        assertThat(arrays.ints[1], is(2));
+        assertThat(arrays.longs[1], is(2L));
+        assertThat(arrays.floats[0], is(1.0f));
+        assertThat(arrays.floats[1], is(2.0f));
+        assertThat(arrays.doubles[0], is(1.0d));
+        assertThat(arrays.doubles[1], is(2.0d));
+    }
+
+    @Test
+    public void shouldEncodeSymmetrically() throws DecodingException, IOException {
+        Codec<Arrays> codec = Codecs.create(Arrays.class);
+        Arrays arrays = new Arrays();
+        arrays.length = 2;
+        arrays.bytes = new byte[]{-1, 3};
+        arrays.shorts = new short[]{-300, 7};
+        arrays.ints = new int[]{Integer.MIN_VALUE, 70000};
+        arrays.longs = new long[]{-1L, Long.MAX_VALUE};
+        arrays.floats = new float[]{0.5f, -3.25f};
+        arrays.doubles = new double[]{Math.PI, Math.E};
+        Arrays copy = Codecs.decode(codec, Codecs.encode(arrays, codec));
+        assertThat(copy.bytes, is(arrays.bytes));
+        assertThat(copy.shorts, is(arrays.shorts));
+        assertThat(copy.ints, is(arrays.ints));
+        assertThat(copy.longs, is(arrays.longs));
+        assertThat(copy.floats, is(arrays.floats));
+        assertThat(copy.doubles, is(arrays.doubles));
+    }
+
+    @Test
+    public void shouldDecodeUnalignedArrays() throws DecodingException {
+        byte[] data = {(byte) 0xa5, 0x12, 0x34, 0x56, 0x78, (byte) 0x9a, (byte) 0xbc, (byte) 0xde, (byte) 0xf0};
+        Unaligned unaligned = Codecs.decode(Codecs.create(Unaligned.class), data);
+        BitBuffer buffer = new DefaultBitBuffer(ByteBuffer.wrap(data));
+        buffer.readAsByte(3);
+        for (int i = 0; i < 4; i++) {
+            assertThat(unaligned.shorts[i], is(buffer.readAsShort(16, ByteOrder.LittleEndian)));
+        }
+        for (int i = 0; i < 5; i++) {
+            assertThat(unaligned.flags[i], is(buffer.readAsBoolean()));
+        }
+    }
+
+    public static class Arrays {
+
+        @BoundNumber(size = "8")
+        public int length;
+
+        @BoundList(size = "length")
+        public byte[] bytes;
+
+        @BoundList(size = "length")
+        public short[] shorts;
+
+        @BoundList(size = "length")
+        public int[] ints;
+
+        @BoundList(size = "length")
+        public long[] longs;
+
+        @BoundList(size = "length")
+        public float[] floats;
+
+        @BoundList(size = "length")
+        public double[] doubles;
+
+    }
+
+    public static class Unaligned {
+
+        @BoundNumber(size = "3")
+        public int prefix;
+
+        @BoundList(size = "4")
+        public short[] shorts;
+
+        @BoundList(size = "5")
+        public boolean[] flags;
+
+    }
+
+}
@@ -0,0 +1,118 @@
+/**
+ * Copyright (C) 2009-2010 Wilfred Springer
+ *
+ * This file is part of Preon.
+ *
+ * Preon is free software; you can redistribute it and/or modify it under the
+ * terms of the GNU General Public License as published by the Free Software
+ * Foundation; either version 2, or (at your option) any later version.
+ *
+ * Preon is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR
+ * A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * Preon; see the file COPYING. If not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Linking this library statically or dynamically with other modules is making a
+ * combined work based on this library. Thus, the terms and conditions of the
+ * GNU General Public License cover the whole combination.
+ *
+ * As a special exception, the copyright holders of this library give you
+ * permission to link this library with independent modules to produce an
+ * executable, regardless of the license terms of these independent modules, and
+ * to copy and distribute the resulting executable under terms of your choice,
+ * provided that you also meet, for each linked independent module, the terms
+ * and conditions of the license of that module. An independent module is a
+ * module which is not derived from or based on this library. If you modify this
+ * library, you may extend this exception to your version of the library, but
+ * you are not obligated to do so. If you do not wish to do so, delete this
+ * exception statement from your version.
+ */
+package org.codehaus.preon.codec;
+
+import org.codehaus.preon.Codec;
+import org.codehaus.preon.Codecs;
+import org.codehaus.preon.DecodingException;
+import org.codehaus.preon.annotation.BoundList;
+import org.codehaus.preon.annotation.BoundNumber;
+import org.codehaus.preon.util.IntList;
+import org.codehaus.preon.util.LongList;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+public class PrimitiveListCodecTest {
+
+    private static final byte[] DATA = {
+            3,
+            1, 0, 0, 0, 2, 0, 0, 0, (byte) 0xff, (byte) 0xff, (byte) 0xff, (byte) 0xff,
+            1, 0, 0, 0, 0, 0, 0, 0, 2, 0, 0, 0, 0, 0, 0, 0, 3, 0, 0, 0, 0, 0, 0, 0x70,
+            9};
+
+    @Test
+    public void shouldDecodeEagerly() throws DecodingException {
+        Eager eager = Codecs.decode(Codecs.create(Eager.class), DATA);
+        assertThat(eager.ints.size(), is(3));
+        assertThat(eager.ints.getInt(2), is(-1));
+        assertThat(eager.longs.getLong(2), is(0x7000000000000003L));
+        assertThat(eager.trailer, is(9));
+        List<Integer> ints = eager.ints;
+        assertThat(ints, is(Arrays.asList(1, 2, -1)));
+    }
+
+    @Test
+    public void shouldDecodeLazily() throws DecodingException {
+        Lazy lazy = Codecs.decode(Codecs.create(Lazy.class), DATA);
+        assertThat(lazy.ints.size(), is(3));
+        assertThat(lazy.ints.getInt(2), is(-1));
+        assertThat(lazy.longs.getLong(2), is(0x7000000000000003L));
+        assertThat(lazy.longs, is(Arrays.asList(1L, 2L, 0x7000000000000003L)));
+        assertThat(lazy.trailer, is(9));
+    }
+
+    @Test
+    public void shouldEncodeSymmetrically() throws DecodingException, IOException {
+        Codec<Lazy> codec = Codecs.create(Lazy.class);
+        assertThat(Codecs.encode(Codecs.decode(codec, DATA), codec), is(DATA));
+    }
+
+    public static class Eager {
+
+        @BoundNumber(size = "8")
+        public int size;
+
+        @BoundList(size = "size")
+        public IntList ints;
+
+        @BoundList(size = "size")
+        public LongList longs;
+
+        @BoundNumber(size = "8")
+        public int trailer;
+
+    }
+
+    public static class Lazy {
+
+        @BoundNumber(size = "8")
+        public int size;
+
+        @BoundList(size = "size", lazy = true)
+        public IntList ints;
+
+        @BoundList(size = "size", lazy = true)
+        public LongList longs;
+
+        @BoundNumber(size = "8")
+        public int trailer;
+
+    }
+
+}
@@ -223,4 +223,38 @@ public class SelectFromCodecTest extends TestCase {
         data = Codecs.encode(msg, msgCodec);
         assertArrayEquals(new byte[] { 0, 0x18, 0, 0, 0, 101 }, data);
     }
+
+    public void testSelectInOrderOfConditions() throws DecodingException {
+        Codec<Selection> codec = Codecs.create(Selection.class);
+        assertEquals(A.class, Codecs.decode(codec, (byte) 1, (byte) 0).value.getClass());
+        assertEquals(B.class, Codecs.decode(codec, (byte) 7, (byte) 0).value.getClass());
+        assertEquals(B.class, Codecs.decode(codec, (byte) 9, (byte) 0).value.getClass());
+        assertEquals(C.class, Codecs.decode(codec, (byte) 2, (byte) 0).value.getClass());
+        assertEquals(D.class, Codecs.decode(codec, (byte) 3, (byte) 0).value.getClass());
+    }
+
+    public static class Selection {
+
+        @BoundObject(selectFrom = @Choices(prefixSize = 8, defaultType = D.class, alternatives = {
+                @Choice(condition = "prefix == 1", type = A.class),
+                @Choice(condition = "prefix > 5", type = B.class),
+                @Choice(condition = "prefix == 7", type = C.class),
+                @Choice(condition = "prefix == 2", type = C.class)}))
+        public Object value;
+
+    }
+
+    public static class A {
+        @BoundNumber(size = "8") public int value;
+    }
+
+    public static class B extends A {
+    }
+
+    public static class C extends A {
+    }
+
+    public static class D extends A {
+    }
+
 }
@@ -93,6 +93,15 @@ public class SlicingCodecTest {
         verifyNoMoreInteractions(wrapped, sizeExpr, builder, buffer, slice, resolver);
     }
 
+    @Test
+    public void testProbing() throws DecodingException {
+        SlicingCodec<String> codec = new SlicingCodec(wrapped, sizeExpr);
+        when(sizeExpr.eval(resolver)).thenReturn(13);
+        assertThat(codec.probeSize(buffer, resolver, builder), is(13L));
+        verify(sizeExpr).eval(resolver);
+        verifyNoMoreInteractions(wrapped, sizeExpr, builder, buffer, resolver);
+    }
+
     @Test
     public void testEncoding() throws IOException {
         SlicingCodec<String> codec = new SlicingCodec(wrapped, sizeExpr);
@@ -83,6 +83,7 @@ public class StringCodecFactoryTest extends TestCase {
         expect(settings.encoding()).andReturn(Encoding.ASCII);
         expect(settings.size()).andReturn("2").anyTimes();
         expect(settings.converter()).andStubReturn(NullConverter.class);
+        expect(settings.deduplicate()).andStubReturn(false);
         expect(settings.match()).andReturn("");
         expect(buffer.readAsByte(8)).andReturn((byte) 'b');
 		expect(buffer.readAsByte(8)).andReturn((byte) 'm');
@@ -103,6 +104,7 @@ public class StringCodecFactoryTest extends TestCase {
         expect(settings.encoding()).andReturn(Encoding.ASCII);
         expect(settings.size()).andReturn("2").anyTimes();
         expect(settings.converter()).andStubReturn(NullConverter.class);
+        expect(settings.deduplicate()).andStubReturn(false);
         expect(settings.match()).andReturn("fo");
         expect(buffer.readAsByte(8)).andReturn((byte) 'b');
 		expect(buffer.readAsByte(8)).andReturn((byte) 'm');
@@ -124,6 +126,9 @@ public class StringCodecFactoryTest extends TestCase {
         expect(settings.encoding()).andReturn(Encoding.ASCII);
         expect(settings.size()).andReturn("").anyTimes();
         expect(settings.converter()).andStubReturn(NullConverter.class);
+        expect(settings.deduplicate()).andStubReturn(false);
+        // Not at a byte boundary, so no scanning for the terminator
+        expect(buffer.getActualBitPos()).andReturn(3L);
 		expect(buffer.readAsByte(8)).andReturn((byte) 'b');
 		expect(buffer.readAsByte(8)).andReturn((byte) 'm');
 		expect(buffer.readAsByte(8)).andReturn((byte) 0);
@@ -34,6 +34,7 @@ package org.codehaus.preon.codec;
 
 import static org.easymock.EasyMock.*;
 
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.List;
 
@@ -47,6 +48,7 @@ import org.codehaus.preon.Resolver;
 import org.codehaus.preon.ResolverContext;
 import org.codehaus.preon.annotation.TypePrefix;
 import org.codehaus.preon.buffer.BitBuffer;
+import org.codehaus.preon.channel.BitChannel;
 
 
 import junit.framework.TestCase;
@@ -106,6 +108,75 @@ public class TypePrefixSelectorFactoryTest extends TestCase {
         verify(context, codec1, codec2, resolver, bitBuffer, reference);
     }
 
+    public void testSparsePrefixes() throws DecodingException {
+        expect(codec1.getTypes()).andReturn(new Class<?>[]{Test5.class});
+        expect(codec2.getTypes()).andReturn(new Class<?>[]{Test6.class});
+        expect(bitBuffer.readAsLong(16, ByteOrder.LittleEndian)).andReturn(5000L);
+        expect(bitBuffer.readAsLong(16, ByteOrder.LittleEndian)).andReturn(3L);
+        replay(context, codec1, codec2, resolver, bitBuffer);
+        CodecSelectorFactory factory = new TypePrefixSelectorFactory();
+        List<Codec<?>> codecs = new ArrayList<Codec<?>>();
+        codecs.add(codec1);
+        codecs.add(codec2);
+        CodecSelector selector = factory.create(context, codecs);
+        assertSame(codec2, selector.select(bitBuffer, resolver));
+        try {
+            selector.select(bitBuffer, resolver);
+            fail();
+        } catch (DecodingException de) {
+            // What we expected
+        }
+        verify(context, codec1, codec2, resolver, bitBuffer);
+    }
+
+    public void testSelectForEncoding() throws IOException {
+        BitChannel channel = createMock(BitChannel.class);
+        expect(codec1.getTypes()).andReturn(new Class<?>[]{Test1.class});
+        expect(codec2.getTypes()).andReturn(new Class<?>[]{Test2.class});
+        expect(codec1.getType()).andReturn((Class) Test1.class).anyTimes();
+        expect(codec2.getType()).andReturn((Class) Test2.class).anyTimes();
+        channel.write(8, 2, ByteOrder.BigEndian);
+        expectLastCall().times(2);
+        replay(context, codec1, codec2, resolver, channel);
+        CodecSelectorFactory factory = new TypePrefixSelectorFactory();
+        List<Codec<?>> codecs = new ArrayList<Codec<?>>();
+        codecs.add(codec1);
+        codecs.add(codec2);
+        CodecSelector selector = factory.create(context, codecs);
+        assertSame(codec2, selector.select(Test2.class, channel, resolver));
+        assertSame(codec2, selector.select(Test2.class, channel, resolver));
+        assertNull(selector.select(String.class, channel, resolver));
+        verify(context, codec1, codec2, resolver, channel);
+    }
+
+    @SuppressWarnings("unchecked")
+    public void testSwitchingCodecCachesSelection() throws IOException {
+        BitChannel channel = createMock(BitChannel.class);
+        Codec<Object> codec = createMock(Codec.class);
+        expect(codec.getTypes()).andReturn(new Class<?>[]{Test1.class});
+        expect(codec2.getTypes()).andReturn(new Class<?>[]{Test2.class});
+        expect(codec.getType()).andReturn((Class) Test1.class).anyTimes();
+        expect(codec2.getType()).andReturn((Class) Test2.class).anyTimes();
+        Test1 first = new Test1();
+        Test1 second = new Test1();
+        channel.write(8, 1, ByteOrder.BigEndian);
+        codec.encode(first, channel, resolver);
+        channel.write(8, 1, ByteOrder.BigEndian);
+        codec.encode(second, channel, resolver);
+        replay(context, codec, codec2, resolver, channel);
+        List<Codec<?>> codecs = new ArrayList<Codec<?>>();
+        codecs.add(codec);
+        codecs.add(codec2);
+        CodecSelector selector = new TypePrefixSelectorFactory().create(context, codecs);
+        assertSame(selector.select(Test1.class), selector.select(Test1.class));
+        assertSame(codec, selector.select(Test1.class).getCodec());
+        assertNull(selector.select(String.class));
+        SwitchingCodec switching = new SwitchingCodec(selector);
+        switching.encode(first, channel, resolver);
+        switching.encode(second, channel, resolver);
+        verify(context, codec, codec2, resolver, channel);
+    }
+
     @TypePrefix(value = "1", size = 8)
     private static class Test1 {
 
@@ -126,4 +197,14 @@ public class TypePrefixSelectorFactoryTest extends TestCase {
 
     }
 
+    @TypePrefix(value = "1", size = 16)
+    private static class Test5 {
+
+    }
+
+    @TypePrefix(value = "5000", size = 16)
+    private static class Test6 {
+
+    }
+
 }
@@ -0,0 +1,88 @@
+/**
+ * Copyright (C) 2009-2010 Wilfred Springer
+ *
+ * This file is part of Preon.
+ *
+ * Preon is free software; you can redistribute it and/or modify it under the
+ * terms of the GNU General Public License as published by the Free Software
+ * Foundation; either version 2, or (at your option) any later version.
+ *
+ * Preon is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR
+ * A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * Preon; see the file COPYING. If not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Linking this library statically or dynamically with other modules is making a
+ * combined work based on this library. Thus, the terms and conditions of the
+ * GNU General Public License cover the whole combination.
+ *
+ * As a special exception, the copyright holders of this library give you
+ * permission to link this library with independent modules to produce an
+ * executable, regardless of the license terms of these independent modules, and
+ * to copy and distribute the resulting executable under terms of your choice,
+ * provided that you also meet, for each linked independent module, the terms
+ * and conditions of the license of that module. An independent module is a
+ * module which is not derived from or based on this library. If you modify this
+ * library, you may extend this exception to your version of the library, but
+ * you are not obligated to do so. If you do not wish to do so, delete this
+ * exception statement from your version.
+ */
+package org.codehaus.preon.reflect;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+
+public class FieldAccessorTest {
+
+    @Test
+    public void shouldReadAndWritePrivateFields() throws NoSuchFieldException {
+        FieldAccessor accessor = FieldAccessor.forField(Spam.class.getDeclaredField("name"));
+        Spam spam = new Spam();
+        accessor.set(spam, "eggs");
+        assertEquals("eggs", accessor.get(spam));
+    }
+
+    @Test
+    public void shouldUnboxAndWidenLikeReflection() throws NoSuchFieldException {
+        FieldAccessor accessor = FieldAccessor.forField(Spam.class.getDeclaredField("total"));
+        Spam spam = new Spam();
+        accessor.set(spam, Integer.valueOf(3));
+        assertEquals(3L, spam.total);
+        assertEquals(Long.valueOf(3L), accessor.get(spam));
+    }
+
+    @Test
+    public void shouldSetPrimitivesWithoutBoxing() throws NoSuchFieldException {
+        FieldAccessor accessor = FieldAccessor.forField(Spam.class.getDeclaredField("count"));
+        Spam spam = new Spam();
+        accessor.setInt(spam, 42);
+        assertEquals(42, spam.count);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldRejectPrimitiveSetterOfWrongType() throws NoSuchFieldException {
+        FieldAccessor accessor = FieldAccessor.forField(Spam.class.getDeclaredField("count"));
+        accessor.setLong(new Spam(), 42L);
+    }
+
+    @Test(expected = ClassCastException.class)
+    public void shouldRejectTargetsOfWrongType() throws NoSuchFieldException {
+        FieldAccessor accessor = FieldAccessor.forField(Spam.class.getDeclaredField("count"));
+        accessor.get("spam");
+    }
+
+    private static class Spam {
+
+        private String name;
+
+        private int count;
+
+        private long total;
+
+    }
+
+}
@@ -32,15 +32,21 @@
  */
 package org.codehaus.preon.util;
 
+import java.nio.ByteBuffer;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Spliterator;
+import java.util.stream.Collectors;
 
 import org.codehaus.preon.el.Expression;
 import org.codehaus.preon.Builder;
 import org.codehaus.preon.Codec;
+import org.codehaus.preon.CodecDescriptor;
 import org.codehaus.preon.DecodingException;
 import org.codehaus.preon.Resolver;
 import org.codehaus.preon.buffer.BitBuffer;
+import org.codehaus.preon.buffer.DefaultBitBuffer;
+import org.codehaus.preon.channel.BitChannel;
 
 import junit.framework.TestCase;
 
@@ -53,6 +59,8 @@ public class LazyListTest extends TestCase {
 
     private BitBuffer buffer;
 
+    private BitBuffer cursor;
+
     private Codec codec;
 
     private Builder builder;
@@ -64,6 +72,7 @@ public class LazyListTest extends TestCase {
     @SuppressWarnings("unchecked")
     public void setUp() {
         buffer = createMock(BitBuffer.class);
+        cursor = createMock(BitBuffer.class);
         codec = createMock(Codec.class);
         builder = createMock(Builder.class);
         resolver = createMock(Resolver.class);
@@ -72,17 +81,18 @@ public class LazyListTest extends TestCase {
 
     public void testTakingElement() throws DecodingException {
         Object value = new Object();
-        buffer.setBitPos(20);
-        expect(codec.decode(buffer, resolver, builder)).andReturn(value);
-        replay(buffer, codec, resolver, builder, sizeExpr);
+        expect(buffer.duplicate()).andReturn(cursor);
+        cursor.setBitPos(20);
+        expect(codec.decode(cursor, resolver, builder)).andReturn(value);
+        replay(buffer, cursor, codec, resolver, builder, sizeExpr);
         EvenlyDistributedLazyList<Object> list = new EvenlyDistributedLazyList<Object>(
                 codec, 0, buffer, 10, builder, resolver, 20);
         list.get(1);
-        verify(buffer, codec, resolver, builder, sizeExpr);
+        verify(buffer, cursor, codec, resolver, builder, sizeExpr);
     }
 
     public void testIndexToLow() {
-        replay(buffer, codec, resolver, builder, sizeExpr);
+        replay(buffer, cursor, codec, resolver, builder, sizeExpr);
         try {
             EvenlyDistributedLazyList<Object> list = new EvenlyDistributedLazyList<Object>(
                     codec, 0, buffer, 10, builder, resolver, 20);
@@ -91,11 +101,11 @@ public class LazyListTest extends TestCase {
         } catch (IndexOutOfBoundsException iobe) {
             // That's ok.
         }
-        verify(buffer, codec, resolver, builder, sizeExpr);
+        verify(buffer, cursor, codec, resolver, builder, sizeExpr);
     }
 
     public void testIndexToHigh() {
-        replay(buffer, codec, resolver, builder, sizeExpr);
+        replay(buffer, cursor, codec, resolver, builder, sizeExpr);
         try {
             EvenlyDistributedLazyList<Object> list = new EvenlyDistributedLazyList<Object>(
                     codec, 0, buffer, 10, builder, resolver, 20);
@@ -104,37 +114,112 @@ public class LazyListTest extends TestCase {
         } catch (IndexOutOfBoundsException iobe) {
             // That's ok.
         }
-        verify(buffer, codec, resolver, builder, sizeExpr);
+        verify(buffer, cursor, codec, resolver, builder, sizeExpr);
     }
 
     public void testSubList() throws DecodingException {
         Object value = new Object();
-        buffer.setBitPos(20);
-        expect(codec.decode(buffer, resolver, builder)).andReturn(value);
-        replay(buffer, codec, resolver, builder, sizeExpr);
+        expect(buffer.duplicate()).andReturn(cursor);
+        cursor.setBitPos(20);
+        expect(codec.decode(cursor, resolver, builder)).andReturn(value);
+        replay(buffer, cursor, codec, resolver, builder, sizeExpr);
         EvenlyDistributedLazyList<Object> list = new EvenlyDistributedLazyList<Object>(
                 codec, 0, buffer, 10, builder, resolver, 20);
         List<Object> sublist = list.subList(1, 3);
         sublist.get(0);
-        verify(buffer, codec, resolver, builder, sizeExpr);
+        verify(buffer, cursor, codec, resolver, builder, sizeExpr);
     }
 
     public void testIterator() throws DecodingException {
         Object value = new Object();
-        buffer.setBitPos(0);
-        expect(codec.decode(buffer, resolver, builder)).andReturn(value);
-        buffer.setBitPos(20);
-        expect(codec.decode(buffer, resolver, builder)).andReturn(value);
-        buffer.setBitPos(40);
-        expect(codec.decode(buffer, resolver, builder)).andReturn(value);
-        replay(buffer, codec, resolver, builder, sizeExpr);
+        expect(buffer.duplicate()).andReturn(cursor).times(3);
+        cursor.setBitPos(0);
+        expect(codec.decode(cursor, resolver, builder)).andReturn(value);
+        cursor.setBitPos(20);
+        expect(codec.decode(cursor, resolver, builder)).andReturn(value);
+        cursor.setBitPos(40);
+        expect(codec.decode(cursor, resolver, builder)).andReturn(value);
+        replay(buffer, cursor, codec, resolver, builder, sizeExpr);
         EvenlyDistributedLazyList<Object> list = new EvenlyDistributedLazyList<Object>(
                 codec, 0, buffer, 3, builder, resolver, 20);
         Iterator<Object> iterator = list.iterator();
         while (iterator.hasNext()) {
             iterator.next();
         }
-        verify(buffer, codec, resolver, builder, sizeExpr);
+        verify(buffer, cursor, codec, resolver, builder, sizeExpr);
+    }
+
+    public void testCachingElements() throws DecodingException {
+        expect(buffer.duplicate()).andReturn(cursor).times(3);
+        cursor.setBitPos(20);
+        expect(codec.decode(cursor, resolver, builder)).andReturn(new Object());
+        cursor.setBitPos(60);
+        expect(codec.decode(cursor, resolver, builder)).andReturn(new Object());
+        cursor.setBitPos(20);
+        expect(codec.decode(cursor, resolver, builder)).andReturn(new Object());
+        replay(buffer, cursor, codec, resolver, builder, sizeExpr);
+        EvenlyDistributedLazyList<Object> list = new EvenlyDistributedLazyList<Object>(
+                codec, 0, buffer, 10, builder, resolver, 20, 2);
+        Object first = list.get(1);
+        assertSame(first, list.get(1));
+        list.get(3); // Replaces element 1 in the cache
+        assertNotSame(first, list.get(1));
+        verify(buffer, cursor, codec, resolver, builder, sizeExpr);
+    }
+
+    public void testSpliterator() {
+        replay(buffer, cursor, codec, resolver, builder, sizeExpr);
+        EvenlyDistributedLazyList<Object> list = new EvenlyDistributedLazyList<Object>(
+                codec, 0, buffer, 10, builder, resolver, 20);
+        Spliterator<Object> spliterator = list.spliterator();
+        assertTrue(spliterator.hasCharacteristics(Spliterator.SIZED | Spliterator.SUBSIZED));
+        Spliterator<Object> prefix = spliterator.trySplit();
+        assertEquals(5, prefix.estimateSize());
+        assertEquals(5, spliterator.estimateSize());
+        verify(buffer, cursor, codec, resolver, builder, sizeExpr);
+    }
+
+    public void testParallelStream() {
+        byte[] data = new byte[1000];
+        for (int i = 0; i < data.length; i++) {
+            data[i] = (byte) i;
+        }
+        BitBuffer buffer = new DefaultBitBuffer(ByteBuffer.wrap(data));
+        EvenlyDistributedLazyList<Integer> list = new EvenlyDistributedLazyList<Integer>(
+                new ByteCodec(), 0, buffer, data.length, null, null, 8);
+        List<Integer> values = list.parallelStream().collect(Collectors.<Integer>toList());
+        for (int i = 0; i < data.length; i++) {
+            assertEquals(i & 0xff, values.get(i).intValue());
+        }
+        assertEquals(0, buffer.getBitPos());
+    }
+
+    private static class ByteCodec implements Codec<Integer> {
+
+        public Integer decode(BitBuffer buffer, Resolver resolver, Builder builder) {
+            return buffer.readAsInt(8);
+        }
+
+        public void encode(Integer value, BitChannel channel, Resolver resolver) {
+            throw new UnsupportedOperationException();
+        }
+
+        public Expression<Integer, Resolver> getSize() {
+            return null;
+        }
+
+        public CodecDescriptor getCodecDescriptor() {
+            return null;
+        }
+
+        public Class<?>[] getTypes() {
+            return new Class[]{Integer.class};
+        }
+
+        public Class<?> getType() {
+            return Integer.class;
+        }
+
     }
 
 }
@@ -0,0 +1,86 @@
+/**
+ * Copyright (C) 2009-2010 Wilfred Springer
+ *
+ * This file is part of Preon.
+ *
+ * Preon is free software; you can redistribute it and/or modify it under the
+ * terms of the GNU General Public License as published by the Free Software
+ * Foundation; either version 2, or (at your option) any later version.
+ *
+ * Preon is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR
+ * A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * Preon; see the file COPYING. If not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Linking this library statically or dynamically with other modules is making a
+ * combined work based on this library. Thus, the terms and conditions of the
+ * GNU General Public License cover the whole combination.
+ *
+ * As a special exception, the copyright holders of this library give you
+ * permission to link this library with independent modules to produce an
+ * executable, regardless of the license terms of these independent modules, and
+ * to copy and distribute the resulting executable under terms of your choice,
+ * provided that you also meet, for each linked independent module, the terms
+ * and conditions of the license of that module. An independent module is a
+ * module which is not derived from or based on this library. If you modify this
+ * library, you may extend this exception to your version of the library, but
+ * you are not obligated to do so. If you do not wish to do so, delete this
+ * exception statement from your version.
+ */
+package org.codehaus.preon.util;
+
+import junit.framework.TestCase;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+
+public class StringCacheTest extends TestCase {
+
+    private static final Charset ASCII = Charset.forName("US-ASCII");
+
+    private static final Charset LATIN1 = Charset.forName("ISO-8859-1");
+
+    public void testSharing() {
+        StringCache cache = new StringCache(16, 8);
+        ByteBuffer first = ByteBuffer.wrap("xkeyx".getBytes(ASCII));
+        ByteBuffer second = ByteBuffer.wrap("key".getBytes(ASCII));
+        String value = cache.get(first, 1, 3, ASCII, false);
+        assertEquals("key", value);
+        assertSame(value, cache.get(second, 0, 3, ASCII, false));
+        assertEquals(1, cache.getHits());
+        assertEquals(1, cache.getMisses());
+        assertEquals(0, second.position());
+    }
+
+    public void testDistinctKeys() {
+        StringCache cache = new StringCache(1, 8);
+        ByteBuffer bytes = ByteBuffer.wrap("ab ".getBytes(ASCII));
+        assertEquals("ab ", cache.get(bytes, 0, 3, ASCII, false));
+        assertEquals("ab", cache.get(bytes, 0, 3, ASCII, true));
+        assertEquals("ab ", cache.get(bytes, 0, 3, LATIN1, false));
+        assertEquals("a", cache.get(bytes, 0, 1, ASCII, false));
+        assertEquals(0, cache.getHits());
+        assertEquals(4, cache.getMisses());
+        assertEquals(1, cache.getCapacity());
+    }
+
+    public void testBounds() {
+        StringCache cache = new StringCache(5, 2);
+        assertEquals(8, cache.getCapacity());
+        ByteBuffer bytes = ByteBuffer.wrap("long".getBytes(ASCII));
+        String value = cache.get(bytes, 0, 4, ASCII, false);
+        assertEquals("long", value);
+        assertNotSame(value, cache.get(bytes, 0, 4, ASCII, false));
+        assertEquals(0, cache.getHits() + cache.getMisses());
+        cache.get(bytes, 0, 2, ASCII, false);
+        cache.get(bytes, 0, 2, ASCII, false);
+        cache.clear();
+        assertEquals(0, cache.getHits());
+        assertEquals("lo", cache.get(bytes, 0, 2, ASCII, false));
+        assertEquals(1, cache.getMisses());
+    }
+
+}
@@ -32,6 +32,9 @@
  */
 package org.codehaus.preon.el.ctx;
 
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
 import java.lang.reflect.Field;
 
 import org.codehaus.preon.el.BindingException;
@@ -46,6 +49,12 @@ public class PropertyReference<T> implements Reference<T> {
 
     private Field field;
 
+    /**
+     * The getter for the field, of type <code>(Object)Object</code>, resolved once instead of going through
+     * {@link Field#get(Object)} for every evaluation.
+     */
+    private MethodHandle getter;
+
     private Reference<T> reference;
 
     private ReferenceContext<T> context;
@@ -62,16 +71,21 @@ public class PropertyReference<T> implements Reference<T> {
         try {
             field = type.getDeclaredField(name);
             field.setAccessible(true);
+            getter = MethodHandles.lookup().unreflectGetter(field)
+                    .asType(MethodType.methodType(Object.class, Object.class));
         } catch (SecurityException e) {
             throw new BindingException("Binding to " + name + " forbidden.");
+        } catch (IllegalAccessException e) {
+            throw new BindingException("Binding to " + name + " forbidden.");
         } catch (NoSuchFieldException e) {
             throw new BindingException("No field named " + name + ".");
         }
     }
 
-    private PropertyReference(Reference<T> reference, Field field, ReferenceContext<T> context) {
+    private PropertyReference(Reference<T> reference, Field field, MethodHandle getter, ReferenceContext<T> context) {
         this.reference = reference;
         this.field = field;
+        this.getter = getter;
         this.context = context;
     }
 
@@ -83,13 +97,17 @@ public class PropertyReference<T> implements Reference<T> {
 
     public Object resolve(T context) {
         try {
-            return field.get(reference.resolve(context));
-        } catch (IllegalArgumentException e) {
+            return (Object) getter.invokeExact(reference.resolve(context));
+        } catch (ClassCastException e) {
+            throw new BindingException("Cannot resolve " + field.getName()
+                    + " on context.", e);
+        } catch (RuntimeException e) {
+            throw e;
+        } catch (Error e) {
+            throw e;
+        } catch (Throwable e) {
             throw new BindingException("Cannot resolve " + field.getName()
                     + " on context.", e);
-        } catch (IllegalAccessException e) {
-            throw new BindingException("Access denied for field  "
-                    + field.getName(), e);
         }
     }
 
@@ -167,7 +185,7 @@ public class PropertyReference<T> implements Reference<T> {
     }
 
     public Reference<T> rescope(ReferenceContext<T> other) {
-        return new PropertyReference<T>(reference.rescope(other), field, this.context);
+        return new PropertyReference<T>(reference.rescope(other), field, getter, this.context);
     }
 
 }
\ No newline at end of file
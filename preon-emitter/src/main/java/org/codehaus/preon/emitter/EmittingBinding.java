@@ -64,6 +64,16 @@ public class EmittingBinding implements Binding {
         emitter.markEndLoad();
     }
 
+    public void reload(Object object, BitBuffer buffer, Resolver resolver, Builder builder) throws DecodingException {
+        emitter.markStartLoad(binding.getName(), object);
+        binding.reload(object, buffer, resolver, builder);
+        emitter.markEndLoad();
+    }
+
+    public void clear(Object object) {
+        binding.clear(object);
+    }
+
     public <V extends SimpleContents<?>> V describe(V contents) {
         return binding.describe(contents);
     }
@@ -38,6 +38,8 @@ import org.codehaus.preon.channel.BitChannel;
 import org.codehaus.preon.descriptor.PassThroughCodecDescriptor2;
 import org.codehaus.preon.el.Expression;
 
+import java.util.function.Predicate;
+
 /**
  * The {@link org.codehaus.preon.Codec} constructed by the {@link org.codehaus.preon.emitter.EmittingCodecDecorator}.
  *
@@ -90,6 +92,32 @@ public class EmittingCodec<T> implements Codec<T> {
         return result;
     }
 
+    public T decodeInto(T target, BitBuffer buffer, Resolver resolver, Builder builder)
+            throws DecodingException {
+        T result = null;
+        long pos = buffer.getActualBitPos();
+        emitter.markStart(codec, pos, buffer);
+        try {
+            result = codec.decodeInto(target, buffer, resolver, builder);
+        } catch (DecodingException de) {
+            emitter.markFailure();
+            throw de;
+        } finally {
+            emitter.markEnd(codec, buffer.getActualBitPos(), buffer
+                    .getActualBitPos()
+                    - pos, result);
+        }
+        return result;
+    }
+
+    /**
+     * Passes the call on to the {@link Codec} wrapped, without emitting anything, since nothing gets decoded.
+     */
+    public long probeSize(BitBuffer buffer, Resolver resolver, Builder builder)
+            throws DecodingException {
+        return codec.probeSize(buffer, resolver, builder);
+    }
+
     public void encode(T object, BitChannel channel, Resolver resolver) {
         throw new UnsupportedOperationException();
     }
@@ -114,6 +142,22 @@ public class EmittingCodec<T> implements Codec<T> {
         return codec.getSize();
     }
 
+    public Codec<T> project(String... paths) {
+        return new EmittingCodec<T>(codec.project(paths), emitter);
+    }
+
+    public Codec<T> filter(String condition) {
+        return new EmittingCodec<T>(codec.filter(condition), emitter);
+    }
+
+    public Codec<T> filter(Predicate<? super T> predicate, String... fields) {
+        return new EmittingCodec<T>(codec.filter(predicate, fields), emitter);
+    }
+
+    public <V> V view(Class<V> type) {
+        return codec.view(type);
+    }
+
     /*
      * (non-Javadoc)
      *
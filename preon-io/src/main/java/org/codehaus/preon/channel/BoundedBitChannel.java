@@ -109,9 +109,9 @@ public class BoundedBitChannel implements BitChannel {
     }
 
     public void write(byte[] src, int offset, int length) throws IOException {
-        if (written + length <= maxBits) {
+        if (written + length * 8L <= maxBits) {
             channel.write(src, offset, length);
-            written += length;
+            written += length * 8L;
         } else {
             throw new IOException(OVERRUN_MESSAGE);
         }
@@ -184,8 +184,12 @@ public class OutputStreamBitChannel implements BitChannel, Closeable {
     }
 
     public void write(@Nonnull byte[] src, int offset, int length) throws IOException {
-        for (int i = 0; i < length; i++) {
-            write(8, src[offset + i]);
+        if (bitPos == 0) {
+            out.write(src, offset, length);
+        } else {
+            for (int i = 0; i < length; i++) {
+                write(8, src[offset + i]);
+            }
         }
     }
 
@@ -0,0 +1,664 @@
+/**
+ * Copyright (C) 2009-2010 Wilfred Springer
+ *
+ * This file is part of Preon.
+ *
+ * Preon is free software; you can redistribute it and/or modify it under the
+ * terms of the GNU General Public License as published by the Free Software
+ * Foundation; either version 2, or (at your option) any later version.
+ *
+ * Preon is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR
+ * A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * Preon; see the file COPYING. If not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Linking this library statically or dynamically with other modules is making a
+ * combined work based on this library. Thus, the terms and conditions of the
+ * GNU General Public License cover the whole combination.
+ *
+ * As a special exception, the copyright holders of this library give you
+ * permission to link this library with independent modules to produce an
+ * executable, regardless of the license terms of these independent modules, and
+ * to copy and distribute the resulting executable under terms of your choice,
+ * provided that you also meet, for each linked independent module, the terms
+ * and conditions of the license of that module. An independent module is a
+ * module which is not derived from or based on this library. If you modify this
+ * library, you may extend this exception to your version of the library, but
+ * you are not obligated to do so. If you do not wish to do so, delete this
+ * exception statement from your version.
+ */
+package org.codehaus.preon.processor;
+
+import org.codehaus.preon.codec.GeneratedCodec;
+
+import javax.lang.model.element.AnnotationMirror;
+import javax.lang.model.element.AnnotationValue;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.NestingKind;
+import javax.lang.model.element.PackageElement;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.element.VariableElement;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.util.ElementFilter;
+import javax.lang.model.util.Elements;
+import javax.lang.model.util.Types;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Generates the source code of a {@link GeneratedCodec} for a single type, following the same rules as the {@link
+ * org.codehaus.preon.codec.ObjectCodecFactory} and the {@link org.codehaus.preon.CodecFactory CodecFactories} and
+ * {@link org.codehaus.preon.CodecDecorator CodecDecorators} it relies on at runtime. Supported are:
+ * <ul>
+ * <li>{@link org.codehaus.preon.annotation.BoundNumber} and {@link org.codehaus.preon.annotation.Bound} on numeric
+ * fields, including <code>match</code>;</li>
+ * <li>{@link org.codehaus.preon.annotation.Bound} on boolean fields;</li>
+ * <li>{@link org.codehaus.preon.annotation.Bound} and {@link org.codehaus.preon.annotation.BoundObject} on fields
+ * holding types for which a codec is generated as well, including {@link org.codehaus.preon.annotation.Choices};</li>
+ * <li>{@link org.codehaus.preon.annotation.If} and {@link org.codehaus.preon.annotation.Slice} on any of these fields,
+ * and {@link org.codehaus.preon.annotation.Init} on the type.</li>
+ * </ul>
+ * Fields may be private; the generated code accesses fields it cannot reach directly through {@link
+ * java.lang.invoke.MethodHandle MethodHandles}. (See {@link ExpressionCompiler}.) Anything else results in an {@link
+ * UnsupportedFeatureException}.
+ *
+ * @author Wilfred Springer
+ */
+class CodecGenerator {
+
+    private static final String ANNOTATIONS = "org.codehaus.preon.annotation.";
+
+    private static final String BOUND = ANNOTATIONS + "Bound";
+
+    private static final String BOUND_NUMBER = ANNOTATIONS + "BoundNumber";
+
+    private static final String BOUND_OBJECT = ANNOTATIONS + "BoundObject";
+
+    private static final String IF = ANNOTATIONS + "If";
+
+    private static final String SLICE = ANNOTATIONS + "Slice";
+
+    private static final String INIT = ANNOTATIONS + "Init";
+
+    private static final String BYTE_ALIGN = ANNOTATIONS + "ByteAlign";
+
+    /** Annotations on fields that do not affect decoding. */
+    private static final String PURPOSE = ANNOTATIONS + "Purpose";
+
+    private static final String BIT_BUFFER = "org.codehaus.preon.buffer.BitBuffer";
+
+    private static final String BYTE_ORDER = "org.codehaus.preon.buffer.ByteOrder";
+
+    private static final String DECODING_EXCEPTION = "org.codehaus.preon.DecodingException";
+
+    private static final String SIZE_EXPRESSION =
+            "org.codehaus.preon.el.Expression<Integer, org.codehaus.preon.Resolver>";
+
+    private final Elements elements;
+
+    private final Types types;
+
+    /** The qualified names of the codecs that will be generated in this round. */
+    private final Set<String> generated;
+
+    public CodecGenerator(Elements elements, Types types, Set<String> generated) {
+        this.elements = elements;
+        this.types = types;
+        this.generated = generated;
+    }
+
+    /**
+     * Returns the qualified name of the codec generated for the type passed in. (See {@link
+     * GeneratedCodec#getGeneratedCodecName(Class)}.)
+     */
+    public String getGeneratedName(TypeElement type) {
+        String packageName = elements.getPackageOf(type).getQualifiedName().toString();
+        String name = getFlatName(type) + GeneratedCodec.SUFFIX;
+        return packageName.length() == 0 ? name : packageName + "." + name;
+    }
+
+    private static String getFlatName(TypeElement type) {
+        Element enclosing = type.getEnclosingElement();
+        if (enclosing instanceof TypeElement) {
+            return getFlatName((TypeElement) enclosing) + "_" + type.getSimpleName();
+        } else {
+            return type.getSimpleName().toString();
+        }
+    }
+
+    /**
+     * Generates the source code of the codec for the type passed in.
+     *
+     * @throws UnsupportedFeatureException If the type relies on features not supported by generated code.
+     */
+    public String generate(TypeElement type) throws UnsupportedFeatureException {
+        checkType(type);
+        PackageElement pkg = elements.getPackageOf(type);
+        ExpressionCompiler compiler = new ExpressionCompiler(elements, types, pkg);
+        StringBuilder body = new StringBuilder();
+        List<VariableElement> fields = new ArrayList<VariableElement>();
+        collectBoundFields(type, fields);
+        if (fields.isEmpty()) {
+            throw new UnsupportedFeatureException("No bound fields");
+        }
+        for (VariableElement field : fields) {
+            body.append(conditional(field, decodeField(field, compiler, false), compiler));
+            compiler.add(field);
+        }
+        ExecutableElement init = getInitMethod(type);
+        if (init != null) {
+            body.append("try {\n")
+                    .append("    result.").append(init.getSimpleName()).append("();\n")
+                    .append("} catch (Exception e) {\n")
+                    .append("    throw new " + DECODING_EXCEPTION + "(\"Failed to invoke init method.\", e);\n")
+                    .append("}\n");
+        }
+        long size = getConstantSize(fields);
+        StringBuilder probe = null;
+        if (size < 0) {
+            probe = new StringBuilder();
+            for (VariableElement field : fields) {
+                probe.append(conditional(field, decodeField(field, compiler, !compiler.isReferenced(field)),
+                        compiler));
+            }
+        }
+        return assemble(type, pkg, compiler.getAccessors(), body.toString(), size,
+                probe == null ? null : probe.toString());
+    }
+
+    /**
+     * Wraps the statement passed in in a condition, if the field is annotated with {@link
+     * org.codehaus.preon.annotation.If}.
+     */
+    private String conditional(VariableElement field, String statement, ExpressionCompiler compiler)
+            throws UnsupportedFeatureException {
+        AnnotationMirror condition = getAnnotation(field, IF);
+        if (condition != null) {
+            String value = (String) getValue(condition, "value");
+            return "if (" + compiler.compileBoolean(value, false) + ") {\n" + indent(statement) + "}\n";
+        } else {
+            return statement;
+        }
+    }
+
+    /**
+     * Assembles the source code of the codec. If the size is known up front, the codec returns it from
+     * <code>getSize()</code> and <code>probeSize(...)</code>. Otherwise, <code>probeSize(...)</code> executes the
+     * probe passed in, and the size is left to the codec constructed by reflection.
+     */
+    private String assemble(TypeElement type, PackageElement pkg, String accessors, String body, long size,
+                            String probe) {
+        String typeName = type.getQualifiedName().toString();
+        String qualifiedName = getGeneratedName(type);
+        String name = qualifiedName.substring(qualifiedName.lastIndexOf('.') + 1);
+        StringBuilder source = new StringBuilder();
+        if (!pkg.isUnnamed()) {
+            source.append("package ").append(pkg.getQualifiedName()).append(";\n\n");
+        }
+        source.append("/**\n")
+                .append(" * The codec of {@link ").append(typeName).append("}, generated by the Preon annotation processor.\n")
+                .append(" */\n")
+                .append("public final class ").append(name)
+                .append(" extends org.codehaus.preon.codec.GeneratedCodec<").append(typeName).append("> {\n\n")
+                .append("    public static final ").append(name).append(" INSTANCE = new ").append(name).append("();\n\n");
+        if (size >= 0) {
+            source.append("    private static final " + SIZE_EXPRESSION + " SIZE =\n")
+                    .append("            org.codehaus.preon.el.Expressions.createInteger(").append(size)
+                    .append(", org.codehaus.preon.Resolver.class);\n\n");
+        }
+        source.append("    public ").append(name).append("() {\n")
+                .append("        super(").append(typeName).append(".class);\n")
+                .append("    }\n\n");
+        if (accessors.length() > 0) {
+            source.append(indent(accessors)).append("\n");
+        }
+        source.append("    public ").append(typeName).append(" decode(" + BIT_BUFFER + " buffer,\n")
+                .append("            org.codehaus.preon.Resolver resolver, org.codehaus.preon.Builder builder)\n")
+                .append("            throws " + DECODING_EXCEPTION + " {\n")
+                .append("        ").append(typeName).append(" result = create(builder);\n")
+                .append(indent(indent(body)))
+                .append("        return result;\n")
+                .append("    }\n\n");
+        if (size >= 0) {
+            source.append("    public " + SIZE_EXPRESSION + " getSize() {\n")
+                    .append("        return SIZE;\n")
+                    .append("    }\n\n")
+                    .append("    public long probeSize(" + BIT_BUFFER + " buffer,\n")
+                    .append("            org.codehaus.preon.Resolver resolver, org.codehaus.preon.Builder builder) {\n")
+                    .append("        return ").append(size).append(";\n")
+                    .append("    }\n\n");
+        } else {
+            source.append("    public long probeSize(" + BIT_BUFFER + " buffer,\n")
+                    .append("            org.codehaus.preon.Resolver resolver, org.codehaus.preon.Builder builder)\n")
+                    .append("            throws " + DECODING_EXCEPTION + " {\n")
+                    .append("        long start = buffer.getBitPos();\n")
+                    .append("        try {\n")
+                    .append("            ").append(typeName).append(" result = create(builder);\n")
+                    .append(indent(indent(indent(probe))))
+                    .append("            return buffer.getBitPos() - start;\n")
+                    .append("        } finally {\n")
+                    .append("            buffer.setBitPos(start);\n")
+                    .append("        }\n")
+                    .append("    }\n\n");
+        }
+        return source.append("}\n").toString();
+    }
+
+    private void checkType(TypeElement type) throws UnsupportedFeatureException {
+        if (type.getKind() != ElementKind.CLASS || type.getModifiers().contains(Modifier.ABSTRACT)) {
+            throw new UnsupportedFeatureException("Not a concrete class");
+        }
+        if (!type.getTypeParameters().isEmpty()) {
+            throw new UnsupportedFeatureException("Generic types are not supported");
+        }
+        for (Element element = type; element instanceof TypeElement; element = element.getEnclosingElement()) {
+            TypeElement current = (TypeElement) element;
+            if (current.getModifiers().contains(Modifier.PRIVATE)) {
+                throw new UnsupportedFeatureException(current.getSimpleName() + " is private");
+            }
+            if (current.getNestingKind() == NestingKind.LOCAL || current.getNestingKind() == NestingKind.ANONYMOUS) {
+                throw new UnsupportedFeatureException("Local and anonymous classes are not supported");
+            }
+            if (current.getNestingKind() == NestingKind.MEMBER && !current.getModifiers().contains(Modifier.STATIC)) {
+                throw new UnsupportedFeatureException("Inner classes are not supported");
+            }
+        }
+        if (getAnnotation(type, SLICE) != null || getAnnotation(type, BYTE_ALIGN) != null) {
+            throw new UnsupportedFeatureException("@Slice and @ByteAlign on types are not supported");
+        }
+    }
+
+    /**
+     * Collects the fields bound by the {@link org.codehaus.preon.codec.ObjectCodecFactory}, in the same order:
+     * superclasses first.
+     */
+    private void collectBoundFields(TypeElement type, List<VariableElement> fields) {
+        TypeMirror superclass = type.getSuperclass();
+        if (superclass.getKind() == TypeKind.DECLARED) {
+            collectBoundFields((TypeElement) types.asElement(superclass), fields);
+        }
+        for (VariableElement field : ElementFilter.fieldsIn(type.getEnclosedElements())) {
+            if (!field.getModifiers().contains(Modifier.STATIC) && isBound(field)) {
+                fields.add(field);
+            }
+        }
+    }
+
+    private boolean isBound(VariableElement field) {
+        for (AnnotationMirror mirror : field.getAnnotationMirrors()) {
+            String name = getName(mirror);
+            if (name.startsWith(ANNOTATIONS + "Bound")) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Returns the statement decoding the field passed in. If <code>skip</code> is set, the statement moves past
+     * slices and objects without decoding them, for the benefit of <code>probeSize(...)</code>.
+     */
+    private String decodeField(VariableElement field, ExpressionCompiler compiler, boolean skip)
+            throws UnsupportedFeatureException {
+        for (AnnotationMirror mirror : field.getAnnotationMirrors()) {
+            String name = getName(mirror);
+            if (name.startsWith(ANNOTATIONS) && !name.equals(BOUND) && !name.equals(BOUND_NUMBER)
+                    && !name.equals(BOUND_OBJECT) && !name.equals(IF) && !name.equals(SLICE)
+                    && !name.equals(PURPOSE)) {
+                throw new UnsupportedFeatureException("@" + mirror.getAnnotationType().asElement().getSimpleName()
+                        + " on " + field.getSimpleName() + " is not supported");
+            }
+        }
+        AnnotationMirror slice = getAnnotation(field, SLICE);
+        if (slice != null) {
+            String size = compiler.compileInteger((String) getValue(slice, "size"), false);
+            if (skip) {
+                return "buffer.setBitPos(buffer.getBitPos() + " + size + ");\n";
+            }
+            return "{\n"
+                    + "    " + BIT_BUFFER + " slice = buffer.slice(" + size + ");\n"
+                    + indent(decodeValue(field, "slice", compiler, false))
+                    + "}\n";
+        } else {
+            return decodeValue(field, "buffer", compiler, skip);
+        }
+    }
+
+    private String decodeValue(VariableElement field, String buffer, ExpressionCompiler compiler, boolean skip)
+            throws UnsupportedFeatureException {
+        TypeMirror type = field.asType();
+        AnnotationMirror number = getAnnotation(field, BOUND_NUMBER);
+        AnnotationMirror object = getAnnotation(field, BOUND_OBJECT);
+        if (getAnnotation(field, BOUND) != null) {
+            if (isType(type, TypeKind.BOOLEAN, "java.lang.Boolean")) {
+                return compiler.assign(field, buffer + ".readAsBoolean()");
+            }
+            NumericType numericType = NumericType.of(type);
+            if (numericType != null) {
+                return decodeNumber(field, buffer, numericType, Integer.toString(numericType.defaultSize),
+                        "LittleEndian", null, compiler);
+            }
+            return decodeObject(field, buffer, type, compiler, skip);
+        } else if (number != null) {
+            NumericType numericType = getNumericType(field, number);
+            String size = (String) getValue(number, "size");
+            size = size.length() == 0 ? Integer.toString(numericType.defaultSize) : compiler.compileInteger(size, false);
+            String match = ((String) getValue(number, "match")).trim();
+            match = match.length() == 0 ? null : compiler.compileInteger(match, false);
+            String byteOrder = ((VariableElement) getValue(number, "byteOrder")).getSimpleName().toString();
+            return decodeNumber(field, buffer, numericType, size, byteOrder, match, compiler);
+        } else if (object != null) {
+            TypeMirror override = (TypeMirror) getValue(object, "type");
+            List<?> alternatives = (List<?>) getValue(object, "types");
+            AnnotationMirror choices = (AnnotationMirror) getValue(object, "selectFrom");
+            if (!alternatives.isEmpty()) {
+                throw new UnsupportedFeatureException("@BoundObject with types on " + field.getSimpleName()
+                        + " is not supported");
+            }
+            if (!"java.lang.Void".equals(override.toString())) {
+                return decodeObject(field, buffer, override, compiler, skip);
+            }
+            if (!((List<?>) getValue(choices, "alternatives")).isEmpty()
+                    || !"java.lang.Void".equals(getValue(choices, "defaultType").toString())) {
+                return decodeChoices(field, buffer, choices, compiler);
+            }
+            return decodeObject(field, buffer, type, compiler, skip);
+        } else {
+            throw new UnsupportedFeatureException("Binding of " + field.getSimpleName() + " is not supported");
+        }
+    }
+
+    private String decodeNumber(VariableElement field, String buffer, NumericType numericType, String size,
+                                String byteOrder, String match, ExpressionCompiler compiler)
+            throws UnsupportedFeatureException {
+        if (!types.isAssignable(types.getPrimitiveType(numericType.kind), field.asType())) {
+            throw new UnsupportedFeatureException("Cannot assign " + numericType.kind + " to "
+                    + field.getSimpleName());
+        }
+        String read = numericType.read(buffer, size, BYTE_ORDER + "." + byteOrder);
+        if (match == null) {
+            return compiler.assign(field, read);
+        }
+        if (numericType == NumericType.FLOAT || numericType == NumericType.DOUBLE) {
+            throw new UnsupportedFeatureException("match is not supported for floating point values");
+        }
+        String value = numericType == NumericType.LONG ? "((int) value)" : "value";
+        return "{\n"
+                + "    " + numericType.kind.name().toLowerCase() + " value = " + read + ";\n"
+                + "    if (" + value + " != " + match + ") {\n"
+                + "        throw new " + DECODING_EXCEPTION + "(\"Expected different value than \" + value);\n"
+                + "    }\n"
+                + indent(compiler.assign(field, "value"))
+                + "}\n";
+    }
+
+    private NumericType getNumericType(VariableElement field, AnnotationMirror number)
+            throws UnsupportedFeatureException {
+        NumericType numericType = NumericType.of(field.asType());
+        TypeMirror override = (TypeMirror) getValue(number, "type");
+        if (!"java.lang.Number".equals(override.toString())) {
+            numericType = NumericType.of(override);
+        }
+        if (numericType == null) {
+            throw new UnsupportedFeatureException("@BoundNumber on " + field.getSimpleName()
+                    + " is not supported for type " + field.asType());
+        }
+        return numericType;
+    }
+
+    private String decodeObject(VariableElement field, String buffer, TypeMirror type, ExpressionCompiler compiler,
+                                boolean skip) throws UnsupportedFeatureException {
+        if (skip) {
+            return "{\n"
+                    + "    long size = " + getCodecReference(type, field.asType()) + ".probeSize(" + buffer
+                    + ", resolver, builder);\n"
+                    + "    if (size < 0) {\n"
+                    + "        return -1;\n"
+                    + "    }\n"
+                    + "    " + buffer + ".setBitPos(" + buffer + ".getBitPos() + size);\n"
+                    + "}\n";
+        }
+        return decodeObject(field, buffer, type, compiler);
+    }
+
+    private String decodeObject(VariableElement field, String buffer, TypeMirror type, ExpressionCompiler compiler)
+            throws UnsupportedFeatureException {
+        return compiler.assign(field, getCodecReference(type, field.asType()) + ".decode(" + buffer
+                + ", resolver, builder)");
+    }
+
+    private String decodeChoices(VariableElement field, String buffer, AnnotationMirror choices,
+                                 ExpressionCompiler compiler) throws UnsupportedFeatureException {
+        if (field.asType().getKind().isPrimitive()) {
+            throw new UnsupportedFeatureException("@Choices on primitive fields are not supported");
+        }
+        int prefixSize = (Integer) getValue(choices, "prefixSize");
+        if (prefixSize > 32) {
+            throw new UnsupportedFeatureException("Prefix exceeds 32 bits");
+        }
+        StringBuilder result = new StringBuilder("{\n");
+        if (prefixSize > 0) {
+            String byteOrder = ((VariableElement) getValue(choices, "byteOrder")).getSimpleName().toString();
+            result.append("    int ").append(ExpressionCompiler.PREFIX).append(" = ").append(buffer)
+                    .append(".readAsInt(").append(prefixSize).append(", ")
+                    .append(BYTE_ORDER).append(".").append(byteOrder).append(");\n");
+        }
+        String indent = "    ";
+        for (Object alternative : (List<?>) getValue(choices, "alternatives")) {
+            AnnotationMirror choice = (AnnotationMirror) ((AnnotationValue) alternative).getValue();
+            String condition = compiler.compileBoolean((String) getValue(choice, "condition"), prefixSize > 0);
+            TypeMirror type = (TypeMirror) getValue(choice, "type");
+            result.append(indent).append("if (").append(condition).append(") {\n")
+                    .append("        ").append(decodeObject(field, buffer, type, compiler))
+                    .append("    } else ");
+            indent = "";
+        }
+        TypeMirror defaultType = (TypeMirror) getValue(choices, "defaultType");
+        String otherwise;
+        if ("java.lang.Void".equals(defaultType.toString())) {
+            otherwise = compiler.assign(field, "null");
+        } else {
+            otherwise = decodeObject(field, buffer, defaultType, compiler);
+        }
+        if (indent.length() == 0) {
+            result.append("{\n").append("        ").append(otherwise).append("    }\n");
+        } else {
+            result.append(indent).append(otherwise);
+        }
+        return result.append("}\n").toString();
+    }
+
+    /**
+     * Returns the number of bits occupied by the fields passed in, if known at compile time, or <code>-1</code>
+     * otherwise.
+     */
+    private long getConstantSize(List<VariableElement> fields) throws UnsupportedFeatureException {
+        long result = 0;
+        for (VariableElement field : fields) {
+            long size = getConstantSize(field);
+            if (size < 0) {
+                return -1;
+            }
+            result += size;
+        }
+        return result <= Integer.MAX_VALUE ? result : -1;
+    }
+
+    private long getConstantSize(VariableElement field) throws UnsupportedFeatureException {
+        if (getAnnotation(field, IF) != null) {
+            return -1;
+        }
+        AnnotationMirror slice = getAnnotation(field, SLICE);
+        if (slice != null) {
+            return getLiteral((String) getValue(slice, "size"));
+        }
+        TypeMirror type = field.asType();
+        AnnotationMirror number = getAnnotation(field, BOUND_NUMBER);
+        AnnotationMirror object = getAnnotation(field, BOUND_OBJECT);
+        if (number != null) {
+            String size = (String) getValue(number, "size");
+            return size.length() == 0 ? getNumericType(field, number).defaultSize : getLiteral(size);
+        } else if (object != null) {
+            TypeMirror override = (TypeMirror) getValue(object, "type");
+            if (!"java.lang.Void".equals(override.toString())) {
+                return getConstantSize(override);
+            }
+            AnnotationMirror choices = (AnnotationMirror) getValue(object, "selectFrom");
+            if (!((List<?>) getValue(choices, "alternatives")).isEmpty()
+                    || !"java.lang.Void".equals(getValue(choices, "defaultType").toString())) {
+                return -1;
+            }
+            return getConstantSize(type);
+        } else if (isType(type, TypeKind.BOOLEAN, "java.lang.Boolean")) {
+            return 1;
+        } else if (NumericType.of(type) != null) {
+            return NumericType.of(type).defaultSize;
+        } else {
+            return getConstantSize(type);
+        }
+    }
+
+    private long getConstantSize(TypeMirror type) throws UnsupportedFeatureException {
+        List<VariableElement> fields = new ArrayList<VariableElement>();
+        collectBoundFields((TypeElement) types.asElement(type), fields);
+        return getConstantSize(fields);
+    }
+
+    /**
+     * Returns the value of the expression passed in if it is a plain decimal number, or <code>-1</code> otherwise.
+     */
+    private static long getLiteral(String expr) {
+        String value = expr.trim();
+        return value.matches("[0-9]{1,9}") ? Long.parseLong(value) : -1;
+    }
+
+    /**
+     * Returns a reference to the generated codec of the type passed in.
+     */
+    private String getCodecReference(TypeMirror type, TypeMirror fieldType) throws UnsupportedFeatureException {
+        if (type.getKind() != TypeKind.DECLARED || !types.isAssignable(type, fieldType)) {
+            throw new UnsupportedFeatureException("Unsupported type " + type);
+        }
+        String name = getGeneratedName((TypeElement) types.asElement(type));
+        if (!generated.contains(name) && elements.getTypeElement(name) == null) {
+            throw new UnsupportedFeatureException("No codec generated for " + type);
+        }
+        return name + ".INSTANCE";
+    }
+
+    /**
+     * Returns the method annotated with {@link org.codehaus.preon.annotation.Init}, using the same criteria as the
+     * {@link org.codehaus.preon.codec.InitCodecDecorator}.
+     */
+    private ExecutableElement getInitMethod(TypeElement type) throws UnsupportedFeatureException {
+        ExecutableElement result = null;
+        for (ExecutableElement method : ElementFilter.methodsIn(elements.getAllMembers(type))) {
+            if (method.getModifiers().contains(Modifier.PUBLIC) && !method.getModifiers().contains(Modifier.STATIC)
+                    && method.getParameters().isEmpty() && getAnnotation(method, INIT) != null) {
+                if (result != null) {
+                    throw new UnsupportedFeatureException("More than one @Init method");
+                }
+                result = method;
+            }
+        }
+        return result;
+    }
+
+    private static boolean isType(TypeMirror type, TypeKind primitive, String boxed) {
+        return type.getKind() == primitive || type.toString().equals(boxed);
+    }
+
+    private static String getName(AnnotationMirror mirror) {
+        return ((TypeElement) mirror.getAnnotationType().asElement()).getQualifiedName().toString();
+    }
+
+    private static AnnotationMirror getAnnotation(Element element, String name) {
+        for (AnnotationMirror mirror : element.getAnnotationMirrors()) {
+            if (getName(mirror).equals(name)) {
+                return mirror;
+            }
+        }
+        return null;
+    }
+
+    private Object getValue(AnnotationMirror mirror, String name) throws UnsupportedFeatureException {
+        for (Map.Entry<? extends ExecutableElement, ? extends AnnotationValue> entry
+                : elements.getElementValuesWithDefaults(mirror).entrySet()) {
+            if (entry.getKey().getSimpleName().contentEquals(name)) {
+                return entry.getValue().getValue();
+            }
+        }
+        throw new UnsupportedFeatureException("No " + name + " in " + mirror);
+    }
+
+    private static String indent(String code) {
+        StringBuilder result = new StringBuilder();
+        for (String line : code.split("\n")) {
+            if (line.length() > 0) {
+                result.append("    ").append(line);
+            }
+            result.append("\n");
+        }
+        return result.toString();
+    }
+
+    /**
+     * The numeric types supported, mirroring {@link org.codehaus.preon.codec.NumericCodec.NumericType}.
+     */
+    private enum NumericType {
+
+        INTEGER(TypeKind.INT, "java.lang.Integer", 32, "readAsInt"),
+        LONG(TypeKind.LONG, "java.lang.Long", 64, "readAsLong"),
+        SHORT(TypeKind.SHORT, "java.lang.Short", 16, "readAsShort"),
+        BYTE(TypeKind.BYTE, "java.lang.Byte", 8, "readAsByte"),
+        FLOAT(TypeKind.FLOAT, "java.lang.Float", 32, "readAsInt") {
+            String read(String buffer, String size, String byteOrder) {
+                return "Float.intBitsToFloat(" + super.read(buffer, size, byteOrder) + ")";
+            }
+        },
+        DOUBLE(TypeKind.DOUBLE, "java.lang.Double", 64, "readAsLong") {
+            String read(String buffer, String size, String byteOrder) {
+                return "Double.longBitsToDouble(" + super.read(buffer, size, byteOrder) + ")";
+            }
+        };
+
+        final TypeKind kind;
+
+        final String boxed;
+
+        final int defaultSize;
+
+        final String method;
+
+        NumericType(TypeKind kind, String boxed, int defaultSize, String method) {
+            this.kind = kind;
+            this.boxed = boxed;
+            this.defaultSize = defaultSize;
+            this.method = method;
+        }
+
+        String read(String buffer, String size, String byteOrder) {
+            return buffer + "." + method + "(" + size + ", " + byteOrder + ")";
+        }
+
+        static NumericType of(TypeMirror type) {
+            for (NumericType candidate : values()) {
+                if (isType(type, candidate.kind, candidate.boxed)) {
+                    return candidate;
+                }
+            }
+            return null;
+        }
+
+    }
+
+}
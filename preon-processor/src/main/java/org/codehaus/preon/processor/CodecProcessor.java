@@ -0,0 +1,130 @@
+/**
+ * Copyright (C) 2009-2010 Wilfred Springer
+ *
+ * This file is part of Preon.
+ *
+ * Preon is free software; you can redistribute it and/or modify it under the
+ * terms of the GNU General Public License as published by the Free Software
+ * Foundation; either version 2, or (at your option) any later version.
+ *
+ * Preon is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR
+ * A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * Preon; see the file COPYING. If not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Linking this library statically or dynamically with other modules is making a
+ * combined work based on this library. Thus, the terms and conditions of the
+ * GNU General Public License cover the whole combination.
+ *
+ * As a special exception, the copyright holders of this library give you
+ * permission to link this library with independent modules to produce an
+ * executable, regardless of the license terms of these independent modules, and
+ * to copy and distribute the resulting executable under terms of your choice,
+ * provided that you also meet, for each linked independent module, the terms
+ * and conditions of the license of that module. An independent module is a
+ * module which is not derived from or based on this library. If you modify this
+ * library, you may extend this exception to your version of the library, but
+ * you are not obligated to do so. If you do not wish to do so, delete this
+ * exception statement from your version.
+ */
+package org.codehaus.preon.processor;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.RoundEnvironment;
+import javax.annotation.processing.SupportedAnnotationTypes;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.TypeElement;
+import javax.tools.Diagnostic;
+import javax.tools.JavaFileObject;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * An annotation processor generating a {@link org.codehaus.preon.codec.GeneratedCodec} for every type with bound
+ * fields, avoiding the cost of building {@link org.codehaus.preon.Codec Codecs} through reflection at runtime. The
+ * {@link org.codehaus.preon.CodecRegistry} picks up these codecs automatically.
+ * <p/>
+ * Types relying on features not supported by the {@link CodecGenerator} are skipped, with a note explaining why. Since
+ * a codec can only be generated if the codecs of the types it refers to are generated as well, this is repeated until
+ * no more types are skipped. Skipped types are decoded through reflection, as before.
+ *
+ * @author Wilfred Springer
+ */
+@SupportedAnnotationTypes("org.codehaus.preon.annotation.*")
+public class CodecProcessor extends AbstractProcessor {
+
+    @Override
+    public SourceVersion getSupportedSourceVersion() {
+        return SourceVersion.latestSupported();
+    }
+
+    @Override
+    public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+        Set<TypeElement> candidates = new LinkedHashSet<TypeElement>();
+        for (TypeElement annotation : annotations) {
+            if (annotation.getSimpleName().toString().startsWith("Bound")) {
+                for (Element element : roundEnv.getElementsAnnotatedWith(annotation)) {
+                    if (element.getKind() == ElementKind.FIELD) {
+                        candidates.add((TypeElement) element.getEnclosingElement());
+                    }
+                }
+            }
+        }
+        Set<String> generated = new HashSet<String>();
+        CodecGenerator generator = new CodecGenerator(processingEnv.getElementUtils(),
+                processingEnv.getTypeUtils(), generated);
+        for (TypeElement candidate : candidates) {
+            generated.add(generator.getGeneratedName(candidate));
+        }
+        Map<TypeElement, String> sources = new LinkedHashMap<TypeElement, String>();
+        boolean skipped = true;
+        while (skipped) {
+            skipped = false;
+            sources.clear();
+            for (TypeElement candidate : candidates) {
+                String name = generator.getGeneratedName(candidate);
+                if (generated.contains(name)) {
+                    try {
+                        sources.put(candidate, generator.generate(candidate));
+                    } catch (UnsupportedFeatureException ufe) {
+                        processingEnv.getMessager().printMessage(Diagnostic.Kind.NOTE,
+                                "No codec generated for " + candidate.getQualifiedName() + ": " + ufe.getMessage(),
+                                candidate);
+                        generated.remove(name);
+                        skipped = true;
+                    }
+                }
+            }
+        }
+        for (Map.Entry<TypeElement, String> entry : sources.entrySet()) {
+            write(entry.getKey(), generator.getGeneratedName(entry.getKey()), entry.getValue());
+        }
+        return false;
+    }
+
+    private void write(TypeElement type, String name, String source) {
+        try {
+            JavaFileObject file = processingEnv.getFiler().createSourceFile(name, type);
+            Writer writer = file.openWriter();
+            try {
+                writer.write(source);
+            } finally {
+                writer.close();
+            }
+        } catch (IOException ioe) {
+            processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR,
+                    "Failed to write " + name + ": " + ioe.getMessage(), type);
+        }
+    }
+
+}
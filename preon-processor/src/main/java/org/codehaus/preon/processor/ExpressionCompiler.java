@@ -0,0 +1,426 @@
+/**
+ * Copyright (C) 2009-2010 Wilfred Springer
+ *
+ * This file is part of Preon.
+ *
+ * Preon is free software; you can redistribute it and/or modify it under the
+ * terms of the GNU General Public License as published by the Free Software
+ * Foundation; either version 2, or (at your option) any later version.
+ *
+ * Preon is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR
+ * A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * Preon; see the file COPYING. If not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Linking this library statically or dynamically with other modules is making a
+ * combined work based on this library. Thus, the terms and conditions of the
+ * GNU General Public License cover the whole combination.
+ *
+ * As a special exception, the copyright holders of this library give you
+ * permission to link this library with independent modules to produce an
+ * executable, regardless of the license terms of these independent modules, and
+ * to copy and distribute the resulting executable under terms of your choice,
+ * provided that you also meet, for each linked independent module, the terms
+ * and conditions of the license of that module. An independent module is a
+ * module which is not derived from or based on this library. If you modify this
+ * library, you may extend this exception to your version of the library, but
+ * you are not obligated to do so. If you do not wish to do so, delete this
+ * exception statement from your version.
+ */
+package org.codehaus.preon.processor;
+
+import org.antlr.runtime.ANTLRStringStream;
+import org.antlr.runtime.CommonTokenStream;
+import org.antlr.runtime.RecognitionException;
+import org.antlr.runtime.TokenStream;
+import org.antlr.runtime.tree.Tree;
+import org.codehaus.preon.el.LimboLexer;
+import org.codehaus.preon.el.LimboParser;
+import org.codehaus.preon.el.ast.IntegerNode;
+
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.PackageElement;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.element.VariableElement;
+import javax.lang.model.type.ArrayType;
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.util.ElementFilter;
+import javax.lang.model.util.Elements;
+import javax.lang.model.util.Types;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Compiles Preon expressions (as used in {@link org.codehaus.preon.annotation.BoundNumber#size()}, {@link
+ * org.codehaus.preon.annotation.If#value()}, etc.) into Java expressions. The expression is parsed with the same
+ * grammar used at runtime, and the resulting tree is translated following the same rules as the tree walker that
+ * builds the interpreted expression. References are resolved against the fields bound so far on the object being
+ * decoded, which is expected to be held by a local variable called <code>result</code>.
+ * <p/>
+ * <p> Fields that are not accessible from the generated code, such as private fields, are read and written through
+ * {@link java.lang.invoke.MethodHandle MethodHandles}, held by static fields of the generated code. (See {@link
+ * #getAccessors()}.) This requires the type declaring the field, and the type of the field itself, to be accessible.
+ * </p>
+ * <p/>
+ * <p> Everything that is not supported (references to <code>outer</code>, indexes, strings, fields of inaccessible
+ * types) results in an {@link UnsupportedFeatureException}. </p>
+ *
+ * @author Wilfred Springer
+ */
+class ExpressionCompiler {
+
+    /** The name of the local variable holding the object being decoded. */
+    static final String RESULT = "result";
+
+    /** The name of the local variable holding the prefix, when selecting from {@link org.codehaus.preon.annotation.Choices}. */
+    static final String PREFIX = "prefix";
+
+    private final Elements elements;
+
+    private final Types types;
+
+    /** The package in which the code will be generated. */
+    private final PackageElement pkg;
+
+    /** The fields that can be referenced, indexed by name. */
+    private final Map<String, VariableElement> fields = new LinkedHashMap<String, VariableElement>();
+
+    /** The fields referenced by any of the expressions compiled. */
+    private final Set<VariableElement> referenced = new HashSet<VariableElement>();
+
+    /** The inaccessible fields, in the order in which they were first read or written. */
+    private final List<VariableElement> inaccessible = new ArrayList<VariableElement>();
+
+    /** The inaccessible fields read. */
+    private final List<VariableElement> read = new ArrayList<VariableElement>();
+
+    /** The inaccessible fields written. */
+    private final List<VariableElement> written = new ArrayList<VariableElement>();
+
+    public ExpressionCompiler(Elements elements, Types types, PackageElement pkg) {
+        this.elements = elements;
+        this.types = types;
+        this.pkg = pkg;
+    }
+
+    /**
+     * Makes the field passed in available to expressions compiled afterwards.
+     */
+    public void add(VariableElement field) {
+        fields.put(field.getSimpleName().toString(), field);
+    }
+
+    /**
+     * Returns whether the field passed in has been referenced by any of the expressions compiled so far.
+     */
+    public boolean isReferenced(VariableElement field) {
+        return referenced.contains(field);
+    }
+
+    /**
+     * Returns a statement assigning a value to a field of the object being decoded.
+     *
+     * @param field The field.
+     * @param value Java source code evaluating to the value.
+     * @return The Java statement.
+     */
+    public String assign(VariableElement field, String value) throws UnsupportedFeatureException {
+        if (isAccessible(field)) {
+            return RESULT + "." + field.getSimpleName() + " = " + value + ";\n";
+        } else {
+            return "set" + getIndex(field, written) + "(" + RESULT + ", " + value + ");\n";
+        }
+    }
+
+    /**
+     * Returns the declarations of the static fields and methods accessing the inaccessible fields read or written by
+     * code compiled so far, to be added to the generated class.
+     */
+    public String getAccessors() {
+        StringBuilder result = new StringBuilder();
+        for (int i = 0; i < inaccessible.size(); i++) {
+            VariableElement field = inaccessible.get(i);
+            String owner = ((TypeElement) field.getEnclosingElement()).getQualifiedName().toString();
+            String type = types.erasure(field.asType()).toString();
+            String name = "\"" + field.getSimpleName() + "\"";
+            if (read.contains(field)) {
+                result.append("private static final java.lang.invoke.MethodHandle GETTER_").append(i)
+                        .append(" = getter(").append(owner).append(".class, ").append(name).append(");\n\n")
+                        .append("private static ").append(type).append(" get").append(i).append("(")
+                        .append(owner).append(" target) {\n")
+                        .append("    try {\n")
+                        .append("        return (").append(type).append(") GETTER_").append(i)
+                        .append(".invokeExact(target);\n")
+                        .append("    } catch (Throwable throwable) {\n")
+                        .append("        throw rethrow(throwable);\n")
+                        .append("    }\n")
+                        .append("}\n\n");
+            }
+            if (written.contains(field)) {
+                result.append("private static final java.lang.invoke.MethodHandle SETTER_").append(i)
+                        .append(" = setter(").append(owner).append(".class, ").append(name).append(");\n\n")
+                        .append("private static void set").append(i).append("(").append(owner)
+                        .append(" target, ").append(type).append(" value) {\n")
+                        .append("    try {\n")
+                        .append("        SETTER_").append(i).append(".invokeExact(target, value);\n")
+                        .append("    } catch (Throwable throwable) {\n")
+                        .append("        throw rethrow(throwable);\n")
+                        .append("    }\n")
+                        .append("}\n\n");
+            }
+        }
+        return result.toString();
+    }
+
+    /**
+     * Returns the index of the accessors of an inaccessible field, registering it as read or written.
+     */
+    private int getIndex(VariableElement field, List<VariableElement> access) throws UnsupportedFeatureException {
+        if (!isAccessible(field.getEnclosingElement().asType()) || !isAccessible(field.asType())) {
+            throw new UnsupportedFeatureException("Field " + field.getSimpleName() + " is not accessible from "
+                    + pkg.getQualifiedName());
+        }
+        if (!inaccessible.contains(field)) {
+            inaccessible.add(field);
+        }
+        if (!access.contains(field)) {
+            access.add(field);
+        }
+        return inaccessible.indexOf(field);
+    }
+
+    /**
+     * Compiles an expression evaluating to an integer value.
+     *
+     * @param expr          The expression.
+     * @param prefixDefined Whether or not the <code>prefix</code> variable is defined.
+     * @return Java source code evaluating to an <code>int</code>.
+     */
+    public String compileInteger(String expr, boolean prefixDefined) throws UnsupportedFeatureException {
+        return integer(parse(expr), prefixDefined);
+    }
+
+    /**
+     * Compiles an expression evaluating to a boolean value.
+     *
+     * @param expr          The expression.
+     * @param prefixDefined Whether or not the <code>prefix</code> variable is defined.
+     * @return Java source code evaluating to a <code>boolean</code>.
+     */
+    public String compileBoolean(String expr, boolean prefixDefined) throws UnsupportedFeatureException {
+        Tree tree = parse(expr);
+        if (tree.getType() == LimboParser.REFERENCE) {
+            Value value = reference(tree, prefixDefined);
+            if (value.kind != Kind.BOOLEAN) {
+                throw new UnsupportedFeatureException("Expected a boolean value in \"" + expr + "\"");
+            }
+            return value.code;
+        } else {
+            return condition(tree, prefixDefined);
+        }
+    }
+
+    private Tree parse(String expr) throws UnsupportedFeatureException {
+        TokenStream tokens = new CommonTokenStream(new LimboLexer(new ANTLRStringStream(expr)));
+        LimboParser parser = new LimboParser(tokens) {
+            public void emitErrorMessage(String msg) {
+                // Reported through getNumberOfSyntaxErrors() instead.
+            }
+        };
+        try {
+            Tree tree = (Tree) parser.condExpression().getTree();
+            if (tree == null || parser.getNumberOfSyntaxErrors() > 0 || tree.isNil()) {
+                throw new UnsupportedFeatureException("Failed to parse \"" + expr + "\"");
+            }
+            return tree;
+        } catch (RecognitionException re) {
+            throw new UnsupportedFeatureException("Failed to parse \"" + expr + "\"");
+        }
+    }
+
+    private String condition(Tree tree, boolean prefixDefined) throws UnsupportedFeatureException {
+        String operator = tree.getText();
+        if ("&&".equals(operator) || "||".equals(operator)) {
+            return "(" + condition(tree.getChild(0), prefixDefined) + " " + operator + " "
+                    + condition(tree.getChild(1), prefixDefined) + ")";
+        } else if ("<=".equals(operator) || ">=".equals(operator) || "<".equals(operator)
+                || ">".equals(operator) || "==".equals(operator)) {
+            return "(" + integer(tree.getChild(0), prefixDefined) + " " + operator + " "
+                    + integer(tree.getChild(1), prefixDefined) + ")";
+        } else {
+            throw new UnsupportedFeatureException("Expected a condition instead of " + tree.toStringTree());
+        }
+    }
+
+    private String integer(Tree tree, boolean prefixDefined) throws UnsupportedFeatureException {
+        switch (tree.getType()) {
+            case LimboParser.INT:
+                return literal(Integer.parseInt(tree.getText()));
+            case LimboParser.BININT:
+                return literal(IntegerNode.fromBin(tree.getText()).eval(null));
+            case LimboParser.HEXINT:
+                return literal(IntegerNode.fromHex(tree.getText()).eval(null));
+            case LimboParser.REFERENCE:
+                Value value = reference(tree, prefixDefined);
+                if (value.kind != Kind.INTEGER) {
+                    throw new UnsupportedFeatureException("Expected an integer value instead of " + tree.toStringTree());
+                }
+                return value.code;
+            default:
+                String operator = tree.getText();
+                if ("+".equals(operator) || "-".equals(operator) || "*".equals(operator)
+                        || "/".equals(operator)) {
+                    return "(" + integer(tree.getChild(0), prefixDefined) + " " + operator + " "
+                            + integer(tree.getChild(1), prefixDefined) + ")";
+                } else if ("^".equals(operator)) {
+                    return "((int) Math.pow(" + integer(tree.getChild(0), prefixDefined) + ", "
+                            + integer(tree.getChild(1), prefixDefined) + "))";
+                } else {
+                    throw new UnsupportedFeatureException("Expected an integer value instead of " + tree.toStringTree());
+                }
+        }
+    }
+
+    private static String literal(int value) {
+        return value < 0 ? "(" + value + ")" : Integer.toString(value);
+    }
+
+    private Value reference(Tree tree, boolean prefixDefined) throws UnsupportedFeatureException {
+        String name = tree.getChild(0).getText();
+        Value value;
+        if ("true".equals(name) || "false".equals(name)) {
+            value = new Value(name, Kind.BOOLEAN, null);
+        } else if (PREFIX.equals(name) && prefixDefined) {
+            value = new Value(PREFIX, Kind.INTEGER, null);
+        } else if (fields.containsKey(name)) {
+            referenced.add(fields.get(name));
+            value = field(RESULT, fields.get(name));
+        } else {
+            throw new UnsupportedFeatureException("Cannot resolve \"" + name + "\" in generated code");
+        }
+        for (int i = 1; i < tree.getChildCount(); i++) {
+            Tree selector = tree.getChild(i);
+            if (selector.getType() != LimboParser.PROP || value.kind != Kind.OBJECT) {
+                throw new UnsupportedFeatureException("Unsupported selector " + selector.toStringTree());
+            }
+            value = field(value.code, findField(value.type, selector.getChild(0).getText()));
+        }
+        return value;
+    }
+
+    private VariableElement findField(TypeMirror type, String name) throws UnsupportedFeatureException {
+        TypeElement element = (TypeElement) types.asElement(type);
+        while (element != null) {
+            for (VariableElement field : ElementFilter.fieldsIn(element.getEnclosedElements())) {
+                if (field.getSimpleName().contentEquals(name) && !field.getModifiers().contains(Modifier.STATIC)) {
+                    return field;
+                }
+            }
+            TypeMirror superclass = element.getSuperclass();
+            element = superclass.getKind() == TypeKind.DECLARED ? (TypeElement) types.asElement(superclass) : null;
+        }
+        throw new UnsupportedFeatureException("Cannot resolve \"" + name + "\" on " + type);
+    }
+
+    private Value field(String target, VariableElement field) throws UnsupportedFeatureException {
+        String code;
+        if (isAccessible(field)) {
+            code = target + "." + field.getSimpleName();
+        } else {
+            code = "get" + getIndex(field, read) + "(" + target + ")";
+        }
+        TypeMirror type = field.asType();
+        switch (type.getKind()) {
+            case BOOLEAN:
+                return new Value(code, Kind.BOOLEAN, type);
+            case BYTE:
+            case SHORT:
+            case INT:
+                return new Value(code, Kind.INTEGER, type);
+            case LONG:
+                return new Value("((int) " + code + ")", Kind.INTEGER, type);
+            case DECLARED:
+                String name = ((TypeElement) ((DeclaredType) type).asElement()).getQualifiedName().toString();
+                if ("java.lang.Boolean".equals(name)) {
+                    return new Value(code + ".booleanValue()", Kind.BOOLEAN, type);
+                } else if ("java.lang.Byte".equals(name) || "java.lang.Short".equals(name)
+                        || "java.lang.Integer".equals(name) || "java.lang.Long".equals(name)) {
+                    return new Value(code + ".intValue()", Kind.INTEGER, type);
+                } else if (((DeclaredType) type).asElement().getKind() == ElementKind.CLASS) {
+                    return new Value(code, Kind.OBJECT, type);
+                }
+                // Fall through
+            default:
+                throw new UnsupportedFeatureException("Unsupported type of field " + field.getSimpleName());
+        }
+    }
+
+    /**
+     * Returns true if the field can be accessed by code generated in {@link #pkg}.
+     */
+    boolean isAccessible(VariableElement field) {
+        if (field.getModifiers().contains(Modifier.PRIVATE)) {
+            return false;
+        } else if (field.getModifiers().contains(Modifier.PUBLIC)) {
+            return true;
+        } else {
+            return pkg.equals(elements.getPackageOf(field));
+        }
+    }
+
+    /**
+     * Returns true if the type passed in can be referenced by code generated in {@link #pkg}.
+     */
+    private boolean isAccessible(TypeMirror type) {
+        if (type.getKind() == TypeKind.ARRAY) {
+            return isAccessible(((ArrayType) type).getComponentType());
+        } else if (type.getKind() != TypeKind.DECLARED) {
+            return type.getKind().isPrimitive();
+        }
+        for (Element element = types.asElement(type); element instanceof TypeElement;
+             element = element.getEnclosingElement()) {
+            if (element.getModifiers().contains(Modifier.PRIVATE)) {
+                return false;
+            } else if (!element.getModifiers().contains(Modifier.PUBLIC)
+                    && !pkg.equals(elements.getPackageOf(element))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private enum Kind {
+        INTEGER, BOOLEAN, OBJECT
+    }
+
+    /**
+     * A compiled reference: the Java code, its kind and the type of the field referenced (if any).
+     */
+    private static class Value {
+
+        final String code;
+
+        final Kind kind;
+
+        final TypeMirror type;
+
+        Value(String code, Kind kind, TypeMirror type) {
+            this.code = code;
+            this.kind = kind;
+            this.type = type;
+        }
+
+    }
+
+}
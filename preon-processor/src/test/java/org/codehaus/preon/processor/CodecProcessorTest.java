@@ -0,0 +1,278 @@
+/**
+ * Copyright (C) 2009-2010 Wilfred Springer
+ *
+ * This file is part of Preon.
+ *
+ * Preon is free software; you can redistribute it and/or modify it under the
+ * terms of the GNU General Public License as published by the Free Software
+ * Foundation; either version 2, or (at your option) any later version.
+ *
+ * Preon is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR
+ * A PARTICULAR PURPOSE. See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * Preon; see the file COPYING. If not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Linking this library statically or dynamically with other modules is making a
+ * combined work based on this library. Thus, the terms and conditions of the
+ * GNU General Public License cover the whole combination.
+ *
+ * As a special exception, the copyright holders of this library give you
+ * permission to link this library with independent modules to produce an
+ * executable, regardless of the license terms of these independent modules, and
+ * to copy and distribute the resulting executable under terms of your choice,
+ * provided that you also meet, for each linked independent module, the terms
+ * and conditions of the license of that module. An independent module is a
+ * module which is not derived from or based on this library. If you modify this
+ * library, you may extend this exception to your version of the library, but
+ * you are not obligated to do so. If you do not wish to do so, delete this
+ * exception statement from your version.
+ */
+package org.codehaus.preon.processor;
+
+import org.codehaus.preon.Codec;
+import org.codehaus.preon.CodecRegistry;
+import org.codehaus.preon.Codecs;
+import org.codehaus.preon.DecodingException;
+import org.codehaus.preon.DefaultBuilder;
+import org.codehaus.preon.DefaultCodecFactory;
+import org.codehaus.preon.buffer.BitBuffer;
+import org.codehaus.preon.buffer.DefaultBitBuffer;
+import org.codehaus.preon.codec.GeneratedCodec;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import javax.tools.JavaCompiler;
+import javax.tools.JavaFileObject;
+import javax.tools.SimpleJavaFileObject;
+import javax.tools.StandardJavaFileManager;
+import javax.tools.ToolProvider;
+import java.io.File;
+import java.io.IOException;
+import java.lang.reflect.Field;
+import java.net.URI;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+import static org.hamcrest.CoreMatchers.instanceOf;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.not;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class CodecProcessorTest {
+
+    private static final String PACKET = "package sample;\n"
+            + "import org.codehaus.preon.annotation.*;\n"
+            + "import org.codehaus.preon.buffer.ByteOrder;\n"
+            + "public class Packet {\n"
+            + "    @BoundNumber(size = \"4\", match = \"5\") public int version;\n"
+            + "    @Bound public boolean flag;\n"
+            + "    @BoundNumber(size = \"3\") public Integer kind;\n"
+            + "    @BoundNumber(size = \"8\", byteOrder = ByteOrder.BigEndian) public int length;\n"
+            + "    @If(\"flag\") @Bound public Header header;\n"
+            + "    @Slice(size = \"length * 8\")\n"
+            + "    @BoundObject(selectFrom = @Choices(prefixSize = 8, alternatives = {\n"
+            + "        @Choices.Choice(condition = \"prefix == 1\", type = Text.class),\n"
+            + "        @Choices.Choice(condition = \"prefix == 2 && kind > 2\", type = Header.class)}))\n"
+            + "    public Object payload;\n"
+            + "    public int total;\n"
+            + "    @Init public void init() { total = version + length; }\n"
+            + "    public String toString() {\n"
+            + "        return version + \" \" + flag + \" \" + kind + \" \" + length + \" \" + header + \" \" + payload\n"
+            + "            + \" \" + total;\n"
+            + "    }\n"
+            + "    public static class Header {\n"
+            + "        @BoundNumber(size = \"16\", byteOrder = ByteOrder.BigEndian) public short id;\n"
+            + "        @Bound long stamp;\n"
+            + "        public String toString() { return \"Header \" + id + \" \" + stamp; }\n"
+            + "    }\n"
+            + "    public static class Text {\n"
+            + "        @BoundNumber(size = \"8\") public int first;\n"
+            + "        public String toString() { return \"Text \" + first; }\n"
+            + "    }\n"
+            + "}\n";
+
+    private static final String NAMED = "package sample;\n"
+            + "import org.codehaus.preon.annotation.*;\n"
+            + "public class Named {\n"
+            + "    @BoundNumber(size = \"8\") public int length;\n"
+            + "    @BoundString(size = \"length\") public String name;\n"
+            + "}\n";
+
+    private static final String HIDDEN = "package sample;\n"
+            + "import org.codehaus.preon.annotation.*;\n"
+            + "public class Hidden {\n"
+            + "    @BoundNumber(size = \"8\") private int length;\n"
+            + "    @BoundNumber(size = \"length * 8\") private Long value;\n"
+            + "    @Bound private Inner inner;\n"
+            + "    @If(\"inner.kind == 1\") @Bound private boolean flag;\n"
+            + "    public String toString() { return length + \" \" + value + \" \" + inner + \" \" + flag; }\n"
+            + "    public static class Inner {\n"
+            + "        @BoundNumber(size = \"8\") private int kind;\n"
+            + "        public String toString() { return \"Inner \" + kind; }\n"
+            + "    }\n"
+            + "}\n";
+
+    private static final String FAILING = "package sample;\n"
+            + "import org.codehaus.preon.annotation.*;\n"
+            + "public class Failing {\n"
+            + "    @BoundNumber(size = \"8\") public int value;\n"
+            + "    @Init public void init() { throw new IllegalStateException(\"Invalid \" + value); }\n"
+            + "}\n";
+
+    private static ClassLoader loader;
+
+    @BeforeClass
+    public static void compile() throws IOException {
+        File directory = File.createTempFile("preon", "classes");
+        directory.delete();
+        directory.mkdirs();
+        JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+        StandardJavaFileManager fileManager = compiler.getStandardFileManager(null, null, null);
+        try {
+            JavaCompiler.CompilationTask task = compiler.getTask(null, fileManager, null,
+                    Arrays.asList("-d", directory.getPath(), "-s", directory.getPath(),
+                            "-classpath", System.getProperty("java.class.path")),
+                    null, Arrays.asList(new Source("sample/Packet", PACKET), new Source("sample/Named", NAMED),
+                            new Source("sample/Hidden", HIDDEN), new Source("sample/Failing", FAILING)));
+            task.setProcessors(Arrays.asList(new CodecProcessor()));
+            assertTrue(task.call());
+        } finally {
+            fileManager.close();
+        }
+        loader = new URLClassLoader(new URL[]{directory.toURI().toURL()}, CodecProcessorTest.class.getClassLoader());
+    }
+
+    @Test
+    public void shouldGenerateCodecs() throws Exception {
+        assertThat(new CodecRegistry(new DefaultCodecFactory()).get(loader.loadClass("sample.Packet")),
+                is(instanceOf(GeneratedCodec.class)));
+        assertThat(GeneratedCodec.find(loader.loadClass("sample.Packet$Header")), is(not(nullValue())));
+    }
+
+    @Test
+    public void shouldNotGenerateCodecsForUnsupportedFeatures() throws Exception {
+        assertThat(GeneratedCodec.find(loader.loadClass("sample.Named")), is(nullValue()));
+    }
+
+    @Test
+    public void shouldDecodeLikeReflectiveCodec() throws Exception {
+        verify(0xe5, 0x03, 0x01, 0x07, 0xaa);
+        verify(0xe5, 0x0b, 0x02, 0x12, 0x34, 1, 2, 3, 4, 5, 6, 7, 8);
+        verify(0x35, 0x01, 0x12, 0x34, 1, 2, 3, 4, 5, 6, 7, 8, 0x03);
+        verify(0x25, 0x0b, 0x02, 0x12, 0x34, 1, 2, 3, 4, 5, 6, 7, 8);
+    }
+
+    @Test
+    public void shouldRejectMismatch() throws Exception {
+        try {
+            Codecs.decode(GeneratedCodec.find(loader.loadClass("sample.Packet")), (byte) 0x4f, (byte) 0x00);
+            fail();
+        } catch (DecodingException de) {
+            // Expected
+        }
+    }
+
+    @Test
+    public void shouldDecodePrivateFields() throws Exception {
+        Codec<?> generated = GeneratedCodec.find(loader.loadClass("sample.Hidden"));
+        assertThat(generated, is(not(nullValue())));
+        assertThat(Codecs.decode(generated, (byte) 0x01, (byte) 0x2a, (byte) 0x01, (byte) 0xff).toString(),
+                is("1 42 Inner 1 true"));
+        verify("sample.Hidden", 0x01, 0x2a, 0x01, 0xff);
+        verify("sample.Hidden", 0x02, 0x2a, 0x2b, 0x02);
+    }
+
+    @Test
+    public void shouldProjectAndFilterReflectively() throws Exception {
+        Codec<?> generated = GeneratedCodec.find(loader.loadClass("sample.Packet"));
+        byte[] buffer = new byte[]{(byte) 0xe5, 0x03, 0x01, 0x07, (byte) 0xaa};
+        Object projected = Codecs.decode(generated.project("length"), buffer);
+        assertThat(projected.toString(), is("0 false null 3 null null 3"));
+        assertThat(Codecs.decode(generated.filter("length == 2"), buffer), is(nullValue()));
+        assertThat(Codecs.decode(generated.filter("length == 3"), buffer).toString(),
+                is(Codecs.decode(generated, buffer).toString()));
+    }
+
+    @Test
+    public void shouldReportFailingInitMethods() throws Exception {
+        try {
+            Codecs.decode(GeneratedCodec.find(loader.loadClass("sample.Failing")), (byte) 0x07);
+            fail();
+        } catch (DecodingException de) {
+            assertThat(de.getCause(), is(instanceOf(IllegalStateException.class)));
+            assertThat(de.getCause().getMessage(), is("Invalid 7"));
+        }
+    }
+
+    @Test
+    public void shouldReturnConstantSizeWithoutReflection() throws Exception {
+        Codec<?> generated = (Codec<?>) loader.loadClass("sample.Packet_Header_PreonCodec").newInstance();
+        assertThat(generated.getSize().eval(null), is(80));
+        assertThat(generated.probeSize(null, null, null), is(80L));
+        Field reflective = GeneratedCodec.class.getDeclaredField("reflective");
+        reflective.setAccessible(true);
+        assertThat(reflective.get(generated), is(nullValue()));
+    }
+
+    @Test
+    public void shouldProbeSizeOfVariableLayouts() throws Exception {
+        verifyProbe("sample.Packet", 0xe5, 0x03, 0x01, 0x07, 0xaa);
+        verifyProbe("sample.Packet", 0xe5, 0x0b, 0x02, 0x12, 0x34, 1, 2, 3, 4, 5, 6, 7, 8, 0xff);
+        verifyProbe("sample.Packet", 0x35, 0x01, 0x12, 0x34, 1, 2, 3, 4, 5, 6, 7, 8, 0x03);
+        verifyProbe("sample.Hidden", 0x01, 0x2a, 0x01, 0xff);
+        verifyProbe("sample.Hidden", 0x02, 0x2a, 0x2b, 0x02);
+    }
+
+    private void verifyProbe(String name, int... values) throws Exception {
+        byte[] bytes = new byte[values.length];
+        for (int i = 0; i < values.length; i++) {
+            bytes[i] = (byte) values[i];
+        }
+        Codec<?> generated = GeneratedCodec.find(loader.loadClass(name));
+        BitBuffer buffer = new DefaultBitBuffer(ByteBuffer.wrap(bytes));
+        long size = generated.probeSize(buffer, null, new DefaultBuilder());
+        assertThat(buffer.getBitPos(), is(0L));
+        generated.decode(buffer, null, new DefaultBuilder());
+        assertThat(size, is(buffer.getBitPos()));
+    }
+
+    private void verify(int... values) throws Exception {
+        verify("sample.Packet", values);
+    }
+
+    private void verify(String name, int... values) throws Exception {
+        byte[] buffer = new byte[values.length];
+        for (int i = 0; i < values.length; i++) {
+            buffer[i] = (byte) values[i];
+        }
+        Class<?> type = loader.loadClass(name);
+        Codec<?> generated = GeneratedCodec.find(type);
+        Codec<?> reflective = new DefaultCodecFactory().create(null, type, null);
+        assertThat(Codecs.decode(generated, buffer).toString(), is(Codecs.decode(reflective, buffer).toString()));
+    }
+
+    private static class Source extends SimpleJavaFileObject {
+
+        private final String code;
+
+        public Source(String name, String code) {
+            super(URI.create("string:///" + name + Kind.SOURCE.extension), Kind.SOURCE);
+            this.code = code;
+        }
+
+        @Override
+        public CharSequence getCharContent(boolean ignoreEncodingErrors) {
+            return code;
+        }
+
+    }
+
+}